@@ -0,0 +1,128 @@
+package com.iineineno03k.orm.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iineineno03k.orm.DatabaseConfig;
+import com.iineineno03k.orm.EntityManager;
+import com.iineineno03k.orm.jdbc.PoolConfig;
+import com.iineineno03k.orm.sql.DatabaseType;
+
+/**
+ * EntityManagerのsave/findById/findAllのベンチマーク
+ * 
+ * storageがJDBCの場合はH2のインメモリデータベースを各ダイアレクトの互換モードで起動して計測する。
+ * MEMORYの場合はデータベースタイプによる違いはない。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EntityManagerBenchmark {
+    // findAllで読み込む行数と、saveで更新する主キーの範囲
+    private static final int ROW_COUNT = 100;
+    private static final AtomicInteger DATABASE_COUNTER = new AtomicInteger();
+
+    /**
+     * 計測対象のストレージ
+     */
+    public enum Storage {
+        MEMORY,
+        JDBC
+    }
+
+    @Param
+    private Storage storage;
+
+    @Param
+    private DatabaseType databaseType;
+
+    @Param
+    private EntityWidth width;
+
+    private EntityManager entityManager;
+    private Class<?> entityClass;
+    private Object[] entities;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entityManager = new EntityManager(createConfig());
+        entityClass = width.getEntityClass();
+        if (storage == Storage.JDBC) {
+            entityManager.createTable(entityClass);
+        }
+
+        entities = new Object[ROW_COUNT];
+        for (int i = 0; i < ROW_COUNT; i++) {
+            entities[i] = width.newEntity(i + 1);
+            entityManager.save(entities[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+    }
+
+    @Benchmark
+    public void save() {
+        // 既存の主キーを順に保存するため、行数は増えない
+        entityManager.save(entities[next()]);
+    }
+
+    @Benchmark
+    public Object findById() {
+        return entityManager.findById(entityClass, (long) next() + 1);
+    }
+
+    @Benchmark
+    public List<?> findAll() {
+        return entityManager.findAll(entityClass);
+    }
+
+    private int next() {
+        int index = cursor;
+        cursor = index + 1 == ROW_COUNT ? 0 : index + 1;
+        return index;
+    }
+
+    private DatabaseConfig createConfig() {
+        if (storage == Storage.MEMORY) {
+            return new DatabaseConfig("jdbc:none", "sa", "", databaseType);
+        }
+        String url = "jdbc:h2:mem:benchmark_" + DATABASE_COUNTER.incrementAndGet()
+                + ";MODE=" + h2Mode(databaseType) + ";DB_CLOSE_DELAY=-1";
+        return new DatabaseConfig(url, "sa", "", databaseType, new PoolConfig(1, 1, 5000, 0));
+    }
+
+    private static String h2Mode(DatabaseType databaseType) {
+        switch (databaseType) {
+            case MYSQL:
+                return "MySQL";
+            case POSTGRESQL:
+                return "PostgreSQL";
+            case ORACLE:
+                return "Oracle";
+            default:
+                throw new IllegalArgumentException("Unsupported database type: " + databaseType);
+        }
+    }
+}
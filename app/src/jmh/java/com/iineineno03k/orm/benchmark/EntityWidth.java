@@ -0,0 +1,38 @@
+package com.iineineno03k.orm.benchmark;
+
+import java.util.function.LongFunction;
+
+import com.iineineno03k.orm.benchmark.entity.Width20Entity;
+import com.iineineno03k.orm.benchmark.entity.Width50Entity;
+import com.iineineno03k.orm.benchmark.entity.Width5Entity;
+
+/**
+ * ベンチマークで使用するエンティティの幅(カラム数)
+ */
+public enum EntityWidth {
+    NARROW(Width5Entity.class, Width5Entity::create),
+    MEDIUM(Width20Entity.class, Width20Entity::create),
+    WIDE(Width50Entity.class, Width50Entity::create);
+
+    private final Class<?> entityClass;
+    private final LongFunction<Object> factory;
+
+    EntityWidth(Class<?> entityClass, LongFunction<Object> factory) {
+        this.entityClass = entityClass;
+        this.factory = factory;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * 全カラムに値を設定したエンティティを生成する
+     * 
+     * @param id 主キー
+     * @return 生成されたエンティティ
+     */
+    public Object newEntity(long id) {
+        return factory.apply(id);
+    }
+}
@@ -0,0 +1,52 @@
+package com.iineineno03k.orm.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.MetadataProcessor;
+
+/**
+ * MetadataProcessor.processEntityのベンチマーク
+ * 
+ * 初回解析(キャッシュなし)とキャッシュ済みの取得をエンティティの幅ごとに計測する。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetadataBenchmark {
+    @Param
+    private EntityWidth width;
+
+    private MetadataProcessor warmProcessor;
+
+    @Setup
+    public void setUp() {
+        warmProcessor = new MetadataProcessor();
+        warmProcessor.processEntity(width.getEntityClass());
+    }
+
+    @Benchmark
+    public EntityMetadata processEntityCold() {
+        return new MetadataProcessor().processEntity(width.getEntityClass());
+    }
+
+    @Benchmark
+    public EntityMetadata processEntityCached() {
+        return warmProcessor.processEntity(width.getEntityClass());
+    }
+}
@@ -0,0 +1,112 @@
+package com.iineineno03k.orm.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iineineno03k.orm.annotation.Entity;
+import com.iineineno03k.orm.annotation.Id;
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+import com.iineineno03k.orm.metadata.PropertyAccessor;
+
+/**
+ * 主キーの読み書きにかかる時間をリフレクションとPropertyAccessorで比較するベンチマーク
+ * 
+ * reflectiveLookupAndInvokeは以前のEntityManager.saveと同じくメソッドを毎回検索して呼び出す。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PropertyAccessorBenchmark {
+    private AccessorEntity entity;
+    private Method getIdMethod;
+    private Field idField;
+    private FieldMetadata idMetadata;
+    private PropertyAccessor fieldOnlyAccessor;
+    private long nextId;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        entity = new AccessorEntity();
+        entity.setId(1L);
+        getIdMethod = AccessorEntity.class.getMethod("getId");
+        idField = AccessorEntity.class.getDeclaredField("id");
+        idField.setAccessible(true);
+        idMetadata = new EntityMetadata(AccessorEntity.class).getIdField();
+        fieldOnlyAccessor = PropertyAccessor.of(AccessorEntity.class.getDeclaredField("version"));
+    }
+
+    @Benchmark
+    public Object reflectiveLookupAndInvoke() throws ReflectiveOperationException {
+        return entity.getClass().getMethod("getId").invoke(entity);
+    }
+
+    @Benchmark
+    public Object reflectiveCachedMethod() throws ReflectiveOperationException {
+        return getIdMethod.invoke(entity);
+    }
+
+    @Benchmark
+    public Object reflectiveFieldGet() throws IllegalAccessException {
+        return idField.get(entity);
+    }
+
+    @Benchmark
+    public Object accessorGet() {
+        return idMetadata.getValue(entity);
+    }
+
+    @Benchmark
+    public Object accessorGetWithoutGetter() {
+        return fieldOnlyAccessor.get(entity);
+    }
+
+    @Benchmark
+    public Object directGet() {
+        return entity.getId();
+    }
+
+    @Benchmark
+    public void reflectiveFieldSet() throws IllegalAccessException {
+        idField.set(entity, nextId++);
+    }
+
+    @Benchmark
+    public void accessorSet() {
+        idMetadata.setValue(entity, nextId++);
+    }
+
+    /**
+     * ベンチマーク用のエンティティ
+     * versionはgetter/setterを持たずMethodHandleでのアクセスを計測する
+     */
+    @Entity
+    public static class AccessorEntity {
+        @Id
+        private Long id;
+        private Long version;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.iineineno03k.orm.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iineineno03k.orm.sql.DatabaseType;
+import com.iineineno03k.orm.sql.SQLGenerator;
+import com.iineineno03k.orm.sql.SQLGeneratorFactory;
+
+/**
+ * SQLGenerator実装ごとのSQL生成のベンチマーク
+ * 
+ * uncachedは各ダイアレクトのジェネレーターを直接、cachedはEntityManagerが使うキャッシュ付きジェネレーターを計測する。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SQLGeneratorBenchmark {
+    @Param
+    private DatabaseType databaseType;
+
+    @Param
+    private EntityWidth width;
+
+    private SQLGenerator uncached;
+    private SQLGenerator cached;
+    private Class<?> entityClass;
+
+    @Setup
+    public void setUp() {
+        uncached = SQLGeneratorFactory.createGenerator(databaseType);
+        cached = SQLGeneratorFactory.createCachingGenerator(databaseType);
+        entityClass = width.getEntityClass();
+    }
+
+    @Benchmark
+    public String selectUncached() {
+        return uncached.createSelectSQL(entityClass, "id");
+    }
+
+    @Benchmark
+    public String selectAllUncached() {
+        return uncached.createSelectAllSQL(entityClass);
+    }
+
+    @Benchmark
+    public String insertUncached() {
+        return uncached.createInsertSQL(entityClass);
+    }
+
+    @Benchmark
+    public String updateUncached() {
+        return uncached.createUpdateSQL(entityClass, "id");
+    }
+
+    @Benchmark
+    public String deleteUncached() {
+        return uncached.createDeleteSQL(entityClass, "id");
+    }
+
+    @Benchmark
+    public String createTableUncached() {
+        return uncached.createTableSQL(entityClass);
+    }
+
+    @Benchmark
+    public String insertCached() {
+        return cached.createInsertSQL(entityClass);
+    }
+
+    @Benchmark
+    public String updateCached() {
+        return cached.createUpdateSQL(entityClass, "id");
+    }
+}
@@ -0,0 +1,94 @@
+package com.iineineno03k.orm.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.EntityMetadataRegistry;
+import com.iineineno03k.orm.sql.DatabaseType;
+import com.iineineno03k.orm.sql.SQLGenerator;
+import com.iineineno03k.orm.sql.SQLGeneratorFactory;
+
+/**
+ * コンパイル済みの雛形からのSQL生成のベンチマーク
+ * 
+ * widthを変えて実行し、1回あたりの生成時間がカラム数に対して
+ * String.formatによる組み立て(formatInsert)より緩やかにしか増えないことを確認する。
+ * cachedはキャッシュ付きジェネレーターで、カラム数によらず一定になる。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SQLTemplateBenchmark {
+    private static final int ROW_COUNT = 10;
+
+    @Param
+    private DatabaseType databaseType;
+
+    @Param
+    private EntityWidth width;
+
+    private SQLGenerator uncached;
+    private SQLGenerator cached;
+    private EntityMetadata metadata;
+
+    @Setup
+    public void setUp() {
+        uncached = SQLGeneratorFactory.createGenerator(databaseType);
+        cached = SQLGeneratorFactory.createCachingGenerator(databaseType);
+        metadata = EntityMetadataRegistry.get(width.getEntityClass());
+        // 雛形のコンパイルを計測から除く
+        uncached.createMultiRowInsertSQL(metadata, ROW_COUNT);
+    }
+
+    @Benchmark
+    public String insert() {
+        return uncached.createInsertSQL(metadata);
+    }
+
+    @Benchmark
+    public String update() {
+        return uncached.createUpdateSQL(metadata);
+    }
+
+    @Benchmark
+    public String multiRowInsert() {
+        return uncached.createMultiRowInsertSQL(metadata, ROW_COUNT);
+    }
+
+    @Benchmark
+    public String insertCached() {
+        return cached.createInsertSQL(metadata);
+    }
+
+    /**
+     * 比較用: 雛形を使わずString.formatとStringBuilderで組み立てる
+     */
+    @Benchmark
+    public String formatInsert() {
+        StringBuilder placeholders = new StringBuilder();
+        int count = metadata.getColumnNames().size();
+        for (int i = 1; i <= count; i++) {
+            if (i > 1) {
+                placeholders.append(", ");
+            }
+            placeholders.append("$").append(i);
+        }
+        return String.format("INSERT INTO %s (%s) VALUES (%s)",
+                metadata.getTableName(), String.join(", ", metadata.getColumnNames()), placeholders);
+    }
+}
@@ -0,0 +1,225 @@
+package com.iineineno03k.orm.benchmark.entity;
+
+import com.iineineno03k.orm.annotation.Entity;
+import com.iineineno03k.orm.annotation.Id;
+import com.iineineno03k.orm.annotation.Table;
+
+/**
+ * カラム数20のベンチマーク用エンティティ
+ */
+@Entity
+@Table(name = "bench_width_20")
+public class Width20Entity {
+    @Id
+    private Long id;
+    private String column1;
+    private Integer column2;
+    private Long column3;
+    private Double column4;
+    private Boolean column5;
+    private String column6;
+    private Integer column7;
+    private Long column8;
+    private Double column9;
+    private Boolean column10;
+    private String column11;
+    private Integer column12;
+    private Long column13;
+    private Double column14;
+    private Boolean column15;
+    private String column16;
+    private Integer column17;
+    private Long column18;
+    private Double column19;
+
+    /**
+     * 全カラムに値を設定したインスタンスを生成する
+     * 
+     * @param id 主キー
+     * @return 生成されたエンティティ
+     */
+    public static Width20Entity create(long id) {
+        Width20Entity entity = new Width20Entity();
+        entity.id = id;
+        entity.column1 = "value-" + id;
+        entity.column2 = (int) id + 2;
+        entity.column3 = id + 3;
+        entity.column4 = id * 4.5;
+        entity.column5 = id % 2 == 0;
+        entity.column6 = "value-" + id;
+        entity.column7 = (int) id + 7;
+        entity.column8 = id + 8;
+        entity.column9 = id * 9.5;
+        entity.column10 = id % 2 == 0;
+        entity.column11 = "value-" + id;
+        entity.column12 = (int) id + 12;
+        entity.column13 = id + 13;
+        entity.column14 = id * 14.5;
+        entity.column15 = id % 2 == 0;
+        entity.column16 = "value-" + id;
+        entity.column17 = (int) id + 17;
+        entity.column18 = id + 18;
+        entity.column19 = id * 19.5;
+        return entity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getColumn1() {
+        return column1;
+    }
+
+    public void setColumn1(String column1) {
+        this.column1 = column1;
+    }
+
+    public Integer getColumn2() {
+        return column2;
+    }
+
+    public void setColumn2(Integer column2) {
+        this.column2 = column2;
+    }
+
+    public Long getColumn3() {
+        return column3;
+    }
+
+    public void setColumn3(Long column3) {
+        this.column3 = column3;
+    }
+
+    public Double getColumn4() {
+        return column4;
+    }
+
+    public void setColumn4(Double column4) {
+        this.column4 = column4;
+    }
+
+    public Boolean getColumn5() {
+        return column5;
+    }
+
+    public void setColumn5(Boolean column5) {
+        this.column5 = column5;
+    }
+
+    public String getColumn6() {
+        return column6;
+    }
+
+    public void setColumn6(String column6) {
+        this.column6 = column6;
+    }
+
+    public Integer getColumn7() {
+        return column7;
+    }
+
+    public void setColumn7(Integer column7) {
+        this.column7 = column7;
+    }
+
+    public Long getColumn8() {
+        return column8;
+    }
+
+    public void setColumn8(Long column8) {
+        this.column8 = column8;
+    }
+
+    public Double getColumn9() {
+        return column9;
+    }
+
+    public void setColumn9(Double column9) {
+        this.column9 = column9;
+    }
+
+    public Boolean getColumn10() {
+        return column10;
+    }
+
+    public void setColumn10(Boolean column10) {
+        this.column10 = column10;
+    }
+
+    public String getColumn11() {
+        return column11;
+    }
+
+    public void setColumn11(String column11) {
+        this.column11 = column11;
+    }
+
+    public Integer getColumn12() {
+        return column12;
+    }
+
+    public void setColumn12(Integer column12) {
+        this.column12 = column12;
+    }
+
+    public Long getColumn13() {
+        return column13;
+    }
+
+    public void setColumn13(Long column13) {
+        this.column13 = column13;
+    }
+
+    public Double getColumn14() {
+        return column14;
+    }
+
+    public void setColumn14(Double column14) {
+        this.column14 = column14;
+    }
+
+    public Boolean getColumn15() {
+        return column15;
+    }
+
+    public void setColumn15(Boolean column15) {
+        this.column15 = column15;
+    }
+
+    public String getColumn16() {
+        return column16;
+    }
+
+    public void setColumn16(String column16) {
+        this.column16 = column16;
+    }
+
+    public Integer getColumn17() {
+        return column17;
+    }
+
+    public void setColumn17(Integer column17) {
+        this.column17 = column17;
+    }
+
+    public Long getColumn18() {
+        return column18;
+    }
+
+    public void setColumn18(Long column18) {
+        this.column18 = column18;
+    }
+
+    public Double getColumn19() {
+        return column19;
+    }
+
+    public void setColumn19(Double column19) {
+        this.column19 = column19;
+    }
+}
@@ -0,0 +1,525 @@
+package com.iineineno03k.orm.benchmark.entity;
+
+import com.iineineno03k.orm.annotation.Entity;
+import com.iineineno03k.orm.annotation.Id;
+import com.iineineno03k.orm.annotation.Table;
+
+/**
+ * カラム数50のベンチマーク用エンティティ
+ */
+@Entity
+@Table(name = "bench_width_50")
+public class Width50Entity {
+    @Id
+    private Long id;
+    private String column1;
+    private Integer column2;
+    private Long column3;
+    private Double column4;
+    private Boolean column5;
+    private String column6;
+    private Integer column7;
+    private Long column8;
+    private Double column9;
+    private Boolean column10;
+    private String column11;
+    private Integer column12;
+    private Long column13;
+    private Double column14;
+    private Boolean column15;
+    private String column16;
+    private Integer column17;
+    private Long column18;
+    private Double column19;
+    private Boolean column20;
+    private String column21;
+    private Integer column22;
+    private Long column23;
+    private Double column24;
+    private Boolean column25;
+    private String column26;
+    private Integer column27;
+    private Long column28;
+    private Double column29;
+    private Boolean column30;
+    private String column31;
+    private Integer column32;
+    private Long column33;
+    private Double column34;
+    private Boolean column35;
+    private String column36;
+    private Integer column37;
+    private Long column38;
+    private Double column39;
+    private Boolean column40;
+    private String column41;
+    private Integer column42;
+    private Long column43;
+    private Double column44;
+    private Boolean column45;
+    private String column46;
+    private Integer column47;
+    private Long column48;
+    private Double column49;
+
+    /**
+     * 全カラムに値を設定したインスタンスを生成する
+     * 
+     * @param id 主キー
+     * @return 生成されたエンティティ
+     */
+    public static Width50Entity create(long id) {
+        Width50Entity entity = new Width50Entity();
+        entity.id = id;
+        entity.column1 = "value-" + id;
+        entity.column2 = (int) id + 2;
+        entity.column3 = id + 3;
+        entity.column4 = id * 4.5;
+        entity.column5 = id % 2 == 0;
+        entity.column6 = "value-" + id;
+        entity.column7 = (int) id + 7;
+        entity.column8 = id + 8;
+        entity.column9 = id * 9.5;
+        entity.column10 = id % 2 == 0;
+        entity.column11 = "value-" + id;
+        entity.column12 = (int) id + 12;
+        entity.column13 = id + 13;
+        entity.column14 = id * 14.5;
+        entity.column15 = id % 2 == 0;
+        entity.column16 = "value-" + id;
+        entity.column17 = (int) id + 17;
+        entity.column18 = id + 18;
+        entity.column19 = id * 19.5;
+        entity.column20 = id % 2 == 0;
+        entity.column21 = "value-" + id;
+        entity.column22 = (int) id + 22;
+        entity.column23 = id + 23;
+        entity.column24 = id * 24.5;
+        entity.column25 = id % 2 == 0;
+        entity.column26 = "value-" + id;
+        entity.column27 = (int) id + 27;
+        entity.column28 = id + 28;
+        entity.column29 = id * 29.5;
+        entity.column30 = id % 2 == 0;
+        entity.column31 = "value-" + id;
+        entity.column32 = (int) id + 32;
+        entity.column33 = id + 33;
+        entity.column34 = id * 34.5;
+        entity.column35 = id % 2 == 0;
+        entity.column36 = "value-" + id;
+        entity.column37 = (int) id + 37;
+        entity.column38 = id + 38;
+        entity.column39 = id * 39.5;
+        entity.column40 = id % 2 == 0;
+        entity.column41 = "value-" + id;
+        entity.column42 = (int) id + 42;
+        entity.column43 = id + 43;
+        entity.column44 = id * 44.5;
+        entity.column45 = id % 2 == 0;
+        entity.column46 = "value-" + id;
+        entity.column47 = (int) id + 47;
+        entity.column48 = id + 48;
+        entity.column49 = id * 49.5;
+        return entity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getColumn1() {
+        return column1;
+    }
+
+    public void setColumn1(String column1) {
+        this.column1 = column1;
+    }
+
+    public Integer getColumn2() {
+        return column2;
+    }
+
+    public void setColumn2(Integer column2) {
+        this.column2 = column2;
+    }
+
+    public Long getColumn3() {
+        return column3;
+    }
+
+    public void setColumn3(Long column3) {
+        this.column3 = column3;
+    }
+
+    public Double getColumn4() {
+        return column4;
+    }
+
+    public void setColumn4(Double column4) {
+        this.column4 = column4;
+    }
+
+    public Boolean getColumn5() {
+        return column5;
+    }
+
+    public void setColumn5(Boolean column5) {
+        this.column5 = column5;
+    }
+
+    public String getColumn6() {
+        return column6;
+    }
+
+    public void setColumn6(String column6) {
+        this.column6 = column6;
+    }
+
+    public Integer getColumn7() {
+        return column7;
+    }
+
+    public void setColumn7(Integer column7) {
+        this.column7 = column7;
+    }
+
+    public Long getColumn8() {
+        return column8;
+    }
+
+    public void setColumn8(Long column8) {
+        this.column8 = column8;
+    }
+
+    public Double getColumn9() {
+        return column9;
+    }
+
+    public void setColumn9(Double column9) {
+        this.column9 = column9;
+    }
+
+    public Boolean getColumn10() {
+        return column10;
+    }
+
+    public void setColumn10(Boolean column10) {
+        this.column10 = column10;
+    }
+
+    public String getColumn11() {
+        return column11;
+    }
+
+    public void setColumn11(String column11) {
+        this.column11 = column11;
+    }
+
+    public Integer getColumn12() {
+        return column12;
+    }
+
+    public void setColumn12(Integer column12) {
+        this.column12 = column12;
+    }
+
+    public Long getColumn13() {
+        return column13;
+    }
+
+    public void setColumn13(Long column13) {
+        this.column13 = column13;
+    }
+
+    public Double getColumn14() {
+        return column14;
+    }
+
+    public void setColumn14(Double column14) {
+        this.column14 = column14;
+    }
+
+    public Boolean getColumn15() {
+        return column15;
+    }
+
+    public void setColumn15(Boolean column15) {
+        this.column15 = column15;
+    }
+
+    public String getColumn16() {
+        return column16;
+    }
+
+    public void setColumn16(String column16) {
+        this.column16 = column16;
+    }
+
+    public Integer getColumn17() {
+        return column17;
+    }
+
+    public void setColumn17(Integer column17) {
+        this.column17 = column17;
+    }
+
+    public Long getColumn18() {
+        return column18;
+    }
+
+    public void setColumn18(Long column18) {
+        this.column18 = column18;
+    }
+
+    public Double getColumn19() {
+        return column19;
+    }
+
+    public void setColumn19(Double column19) {
+        this.column19 = column19;
+    }
+
+    public Boolean getColumn20() {
+        return column20;
+    }
+
+    public void setColumn20(Boolean column20) {
+        this.column20 = column20;
+    }
+
+    public String getColumn21() {
+        return column21;
+    }
+
+    public void setColumn21(String column21) {
+        this.column21 = column21;
+    }
+
+    public Integer getColumn22() {
+        return column22;
+    }
+
+    public void setColumn22(Integer column22) {
+        this.column22 = column22;
+    }
+
+    public Long getColumn23() {
+        return column23;
+    }
+
+    public void setColumn23(Long column23) {
+        this.column23 = column23;
+    }
+
+    public Double getColumn24() {
+        return column24;
+    }
+
+    public void setColumn24(Double column24) {
+        this.column24 = column24;
+    }
+
+    public Boolean getColumn25() {
+        return column25;
+    }
+
+    public void setColumn25(Boolean column25) {
+        this.column25 = column25;
+    }
+
+    public String getColumn26() {
+        return column26;
+    }
+
+    public void setColumn26(String column26) {
+        this.column26 = column26;
+    }
+
+    public Integer getColumn27() {
+        return column27;
+    }
+
+    public void setColumn27(Integer column27) {
+        this.column27 = column27;
+    }
+
+    public Long getColumn28() {
+        return column28;
+    }
+
+    public void setColumn28(Long column28) {
+        this.column28 = column28;
+    }
+
+    public Double getColumn29() {
+        return column29;
+    }
+
+    public void setColumn29(Double column29) {
+        this.column29 = column29;
+    }
+
+    public Boolean getColumn30() {
+        return column30;
+    }
+
+    public void setColumn30(Boolean column30) {
+        this.column30 = column30;
+    }
+
+    public String getColumn31() {
+        return column31;
+    }
+
+    public void setColumn31(String column31) {
+        this.column31 = column31;
+    }
+
+    public Integer getColumn32() {
+        return column32;
+    }
+
+    public void setColumn32(Integer column32) {
+        this.column32 = column32;
+    }
+
+    public Long getColumn33() {
+        return column33;
+    }
+
+    public void setColumn33(Long column33) {
+        this.column33 = column33;
+    }
+
+    public Double getColumn34() {
+        return column34;
+    }
+
+    public void setColumn34(Double column34) {
+        this.column34 = column34;
+    }
+
+    public Boolean getColumn35() {
+        return column35;
+    }
+
+    public void setColumn35(Boolean column35) {
+        this.column35 = column35;
+    }
+
+    public String getColumn36() {
+        return column36;
+    }
+
+    public void setColumn36(String column36) {
+        this.column36 = column36;
+    }
+
+    public Integer getColumn37() {
+        return column37;
+    }
+
+    public void setColumn37(Integer column37) {
+        this.column37 = column37;
+    }
+
+    public Long getColumn38() {
+        return column38;
+    }
+
+    public void setColumn38(Long column38) {
+        this.column38 = column38;
+    }
+
+    public Double getColumn39() {
+        return column39;
+    }
+
+    public void setColumn39(Double column39) {
+        this.column39 = column39;
+    }
+
+    public Boolean getColumn40() {
+        return column40;
+    }
+
+    public void setColumn40(Boolean column40) {
+        this.column40 = column40;
+    }
+
+    public String getColumn41() {
+        return column41;
+    }
+
+    public void setColumn41(String column41) {
+        this.column41 = column41;
+    }
+
+    public Integer getColumn42() {
+        return column42;
+    }
+
+    public void setColumn42(Integer column42) {
+        this.column42 = column42;
+    }
+
+    public Long getColumn43() {
+        return column43;
+    }
+
+    public void setColumn43(Long column43) {
+        this.column43 = column43;
+    }
+
+    public Double getColumn44() {
+        return column44;
+    }
+
+    public void setColumn44(Double column44) {
+        this.column44 = column44;
+    }
+
+    public Boolean getColumn45() {
+        return column45;
+    }
+
+    public void setColumn45(Boolean column45) {
+        this.column45 = column45;
+    }
+
+    public String getColumn46() {
+        return column46;
+    }
+
+    public void setColumn46(String column46) {
+        this.column46 = column46;
+    }
+
+    public Integer getColumn47() {
+        return column47;
+    }
+
+    public void setColumn47(Integer column47) {
+        this.column47 = column47;
+    }
+
+    public Long getColumn48() {
+        return column48;
+    }
+
+    public void setColumn48(Long column48) {
+        this.column48 = column48;
+    }
+
+    public Double getColumn49() {
+        return column49;
+    }
+
+    public void setColumn49(Double column49) {
+        this.column49 = column49;
+    }
+}
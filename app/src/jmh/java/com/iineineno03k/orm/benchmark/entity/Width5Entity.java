@@ -0,0 +1,75 @@
+package com.iineineno03k.orm.benchmark.entity;
+
+import com.iineineno03k.orm.annotation.Entity;
+import com.iineineno03k.orm.annotation.Id;
+import com.iineineno03k.orm.annotation.Table;
+
+/**
+ * カラム数5のベンチマーク用エンティティ
+ */
+@Entity
+@Table(name = "bench_width_5")
+public class Width5Entity {
+    @Id
+    private Long id;
+    private String column1;
+    private Integer column2;
+    private Long column3;
+    private Double column4;
+
+    /**
+     * 全カラムに値を設定したインスタンスを生成する
+     * 
+     * @param id 主キー
+     * @return 生成されたエンティティ
+     */
+    public static Width5Entity create(long id) {
+        Width5Entity entity = new Width5Entity();
+        entity.id = id;
+        entity.column1 = "value-" + id;
+        entity.column2 = (int) id + 2;
+        entity.column3 = id + 3;
+        entity.column4 = id * 4.5;
+        return entity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getColumn1() {
+        return column1;
+    }
+
+    public void setColumn1(String column1) {
+        this.column1 = column1;
+    }
+
+    public Integer getColumn2() {
+        return column2;
+    }
+
+    public void setColumn2(Integer column2) {
+        this.column2 = column2;
+    }
+
+    public Long getColumn3() {
+        return column3;
+    }
+
+    public void setColumn3(Long column3) {
+        this.column3 = column3;
+    }
+
+    public Double getColumn4() {
+        return column4;
+    }
+
+    public void setColumn4(Double column4) {
+        this.column4 = column4;
+    }
+}
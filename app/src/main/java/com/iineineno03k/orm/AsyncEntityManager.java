@@ -0,0 +1,113 @@
+package com.iineineno03k.orm;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * EntityManagerの操作をCompletableFutureで返す非同期のAPI
+ * 
+ * 既定では操作ごとに仮想スレッドを1つ起動して実行する。JDBCの待ち時間の間はキャリアスレッドを解放するため、
+ * プラットフォームスレッドの数に縛られずに多数の問い合わせを同時に待機させられる。
+ * 同時にデータベースへ送信される数はコネクションプールの最大数で制限され、
+ * 残りの操作は{@link com.iineineno03k.orm.jdbc.PoolConfig}の接続タイムアウトまで接続の返却を待つ。
+ * 
+ * 操作はトランザクションの外で実行する。呼び出し元のスレッドに束縛されたトランザクションには参加しないため、
+ * EntityManagerがトランザクション中の場合は受け付けない。
+ * 受け付けた後にトランザクションが開始された場合も、EntityManagerはトランザクションの状態を開始したスレッドに閉じ込めるので、
+ * 操作はトランザクションの外で自動コミットされ、保留中の書き込みには加わらない。
+ */
+public class AsyncEntityManager implements AutoCloseable {
+    private final EntityManager entityManager;
+    private final ExecutorService executor;
+
+    /**
+     * 仮想スレッドで操作を実行する非同期のAPIを作成する
+     * 
+     * @param entityManager 操作を委譲するEntityManager
+     */
+    public AsyncEntityManager(EntityManager entityManager) {
+        this(entityManager, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * 指定したExecutorServiceで操作を実行する非同期のAPIを作成する
+     * 
+     * @param entityManager 操作を委譲するEntityManager
+     * @param executor 操作を実行するExecutorService。{@link #close()}で終了する
+     */
+    public AsyncEntityManager(EntityManager entityManager, ExecutorService executor) {
+        if (entityManager == null) {
+            throw new IllegalArgumentException("EntityManager cannot be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        this.entityManager = entityManager;
+        this.executor = executor;
+    }
+
+    /**
+     * エンティティを非同期に保存する
+     * 
+     * @param entity 保存するエンティティ
+     * @return 保存が完了すると完了するFuture
+     * @see EntityManager#save(Object)
+     */
+    public CompletableFuture<Void> saveAsync(Object entity) {
+        return submit(() -> {
+            entityManager.save(entity);
+            return null;
+        });
+    }
+
+    /**
+     * 主キーでエンティティを非同期に取得する
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @param id 主キー
+     * @return 見つかったエンティティで完了するFuture。存在しない場合はnullで完了する
+     * @see EntityManager#findById(Class, Long)
+     */
+    public <T> CompletableFuture<T> findByIdAsync(Class<T> entityClass, Long id) {
+        return submit(() -> entityManager.findById(entityClass, id));
+    }
+
+    /**
+     * 指定されたエンティティタイプのすべてのインスタンスを非同期に取得する
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @return エンティティのリストで完了するFuture
+     * @see EntityManager#findAll(Class)
+     */
+    public <T> CompletableFuture<List<T>> findAllAsync(Class<T> entityClass) {
+        return submit(() -> entityManager.findAll(entityClass));
+    }
+
+    /**
+     * @return 操作を委譲するEntityManager
+     */
+    public EntityManager getEntityManager() {
+        return entityManager;
+    }
+
+    /**
+     * 実行中の操作の完了を待ってExecutorServiceを終了する
+     * EntityManagerは閉じない
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        if (entityManager.getTransaction() != null) {
+            throw new IllegalStateException("Async operations cannot join the transaction of the calling thread");
+        }
+        return CompletableFuture.supplyAsync(operation, executor);
+    }
+}
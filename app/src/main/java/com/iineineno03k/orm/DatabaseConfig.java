@@ -1,5 +1,6 @@
 package com.iineineno03k.orm;
 
+import com.iineineno03k.orm.jdbc.PoolConfig;
 import com.iineineno03k.orm.sql.DatabaseType;
 
 public class DatabaseConfig {
@@ -7,6 +8,7 @@ public class DatabaseConfig {
     private String username;
     private String password;
     private DatabaseType databaseType;
+    private PoolConfig poolConfig;
 
     public DatabaseConfig(String url, String username, String password) {
         this(url, username, password, DatabaseType.MYSQL); // デフォルトはMySQLとする
@@ -34,6 +36,19 @@ public class DatabaseConfig {
         }
     }
 
+    /**
+     * JDBC実行モードのDatabaseConfigを作成する
+     * プール設定を指定した場合、EntityManagerは実際のデータベースに対してSQLを発行する
+     */
+    public DatabaseConfig(String url, String username, String password, DatabaseType databaseType, PoolConfig poolConfig) {
+        this(url, username, password, databaseType);
+
+        if (poolConfig == null) {
+            throw new IllegalArgumentException("Pool config cannot be null");
+        }
+        this.poolConfig = poolConfig;
+    }
+
     public String getUrl() {
         return url;
     }
@@ -64,4 +79,22 @@ public class DatabaseConfig {
     public String getDatabaseTypeAsString() {
         return databaseType.name();
     }
+
+    /**
+     * コネクションプールの設定を取得する
+     * 
+     * @return プール設定。インメモリモードの場合はnull
+     */
+    public PoolConfig getPoolConfig() {
+        return poolConfig;
+    }
+
+    /**
+     * JDBC実行モードかどうかを判定する
+     * 
+     * @return プール設定が指定されている場合はtrue
+     */
+    public boolean isJdbcEnabled() {
+        return poolConfig != null;
+    }
 }
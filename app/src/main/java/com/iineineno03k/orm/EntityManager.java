@@ -1,85 +1,673 @@
 package com.iineineno03k.orm;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
+import com.iineineno03k.orm.cache.QueryCache;
+import com.iineineno03k.orm.cache.SecondLevelCache;
+import com.iineineno03k.orm.jdbc.ConnectionPool;
+import com.iineineno03k.orm.jdbc.JdbcEntityExecutor;
+import com.iineineno03k.orm.jdbc.Transaction;
+import com.iineineno03k.orm.jdbc.TransactionSynchronization;
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+import com.iineineno03k.orm.metadata.MetadataProcessor;
+import com.iineineno03k.orm.query.CompiledQuery;
+import com.iineineno03k.orm.query.Criteria;
+import com.iineineno03k.orm.query.Order;
+import com.iineineno03k.orm.query.Page;
+import com.iineineno03k.orm.query.ProjectionMapper;
+import com.iineineno03k.orm.query.Query;
+import com.iineineno03k.orm.relation.RelationLoader;
+import com.iineineno03k.orm.session.EntityChange;
+import com.iineineno03k.orm.session.PersistenceContext;
+import com.iineineno03k.orm.storage.EntityStorage;
 import com.iineineno03k.orm.sql.SQLGenerator;
 import com.iineineno03k.orm.sql.SQLGeneratorFactory;
 
-public class EntityManager {
+public class EntityManager implements AutoCloseable {
+    private static final Object[] NO_PARAMETERS = new Object[0];
+    // Publisherの行の受け渡しは、JDBCの待ち時間にキャリアスレッドを解放する仮想スレッドで行う
+    private static final Executor PUBLISHER_EXECUTOR = command -> Thread.ofVirtual().start(command);
+
     private DatabaseConfig config;
     private SQLGenerator sqlGenerator;
-    // クラスごとに別々のストレージを持つようにする
-    private static final Map<Class<?>, Map<Long, Object>> entityStorage = new HashMap<>();
+    private MetadataProcessor metadataProcessor;
+    // JDBC実行モードの場合のみ使用する
+    private ConnectionPool connectionPool;
+    private JdbcEntityExecutor jdbcExecutor;
+    // JDBC実行モードで読み込み・保存したエンティティ(一次キャッシュ)
+    private final PersistenceContext persistenceContext = new PersistenceContext();
+    // 変更の検出から書き込み後の反映までを1つのフラッシュにまとめる
+    // AsyncEntityManagerの複数のスレッドが同じ変更を重複して書き込まないようにする
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // JDBC実行モードで複数のEntityManagerと共有する二次キャッシュ。指定されない場合はnull
+    private final SecondLevelCache secondLevelCache;
+    // beginTransactionで開始したトランザクション。実行中でない場合はnull
+    // 開始したスレッド以外からも参照するためvolatileにする
+    private volatile Transaction transaction;
+    // トランザクション中に保存し、書き込みをフラッシュまで遅らせているエンティティ
+    // トランザクションを開始したスレッドだけが読み書きする
+    private final List<Object> pendingSaves = new ArrayList<>();
+    // トランザクション中に書き込んだエンティティ。終了後に二次キャッシュをもう一度無効にする
+    // トランザクションを開始したスレッドだけが読み書きする
+    private final List<Object> writtenInTransaction = new ArrayList<>();
+    // JDBC実行モードで読み込んだエンティティの関連を、参照先の型ごとにまとめて読み込む
+    private final RelationLoader relationLoader = new RelationLoader(new EntityManagerFetcher());
+    // インメモリモードのストレージ。EntityManagerごとに独立している
+    private final EntityStorage entityStorage = new EntityStorage();
 
     public EntityManager(DatabaseConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * 二次キャッシュを使用するEntityManagerを作成する
+     * {@link com.iineineno03k.orm.annotation.Cacheable}を付けたエンティティは、findByIdでSQLを発行する前にキャッシュを参照する。
+     * 同じデータベースを使うEntityManager同士で同じインスタンスを共有すること
+     * 
+     * @param config データベースの設定
+     * @param secondLevelCache 共有する二次キャッシュ。nullの場合は使用しない
+     */
+    public EntityManager(DatabaseConfig config, SecondLevelCache secondLevelCache) {
         this.config = config;
-        this.sqlGenerator = SQLGeneratorFactory.createGenerator(config.getDatabaseType());
+        this.secondLevelCache = secondLevelCache;
+        this.sqlGenerator = SQLGeneratorFactory.createCachingGenerator(config.getDatabaseType());
+        this.metadataProcessor = new MetadataProcessor();
+
+        if (config.isJdbcEnabled()) {
+            this.connectionPool = ConnectionPool.create(
+                    config.getUrl(), config.getUsername(), config.getPassword(), config.getPoolConfig());
+            this.jdbcExecutor = new JdbcEntityExecutor(connectionPool, sqlGenerator);
+        }
     }
 
+    /**
+     * エンティティを保存する
+     * JDBC実行モードでは、管理対象でないエンティティはすぐに書き込んで管理対象にする。
+     * 既に管理対象のエンティティは書き込みを{@link #flush()}まで遅らせ、変更されたカラムだけを更新する。
+     * トランザクション中は新しいエンティティの書き込みもフラッシュまで遅らせ、コミット時にまとめて送信する。
+     * バージョンのカラムを持つエンティティは、インメモリモードでも保存済みのバージョンと一致する場合だけ置き換える
+     * 
+     * @param entity 保存するエンティティ
+     * @throws IllegalStateException 読み取り専用のトランザクション中の場合
+     * @throws OptimisticLockException 保存済みのバージョンと一致しない場合
+     */
     public void save(Object entity) {
+        checkWritable();
         try {
+            if (jdbcExecutor != null) {
+                if (!persistenceContext.contains(entity)) {
+                    if (currentTransaction() != null) {
+                        persistenceContext.register(entity);
+                        pendingSaves.add(entity);
+                        return;
+                    }
+                    jdbcExecutor.save(entity);
+                    invalidateCaches(entity);
+                    persistenceContext.register(entity);
+                }
+                return;
+            }
+
             Class<?> entityClass = entity.getClass();
-            Long id = (Long) entityClass.getMethod("getId").invoke(entity);
-            
-            // エンティティタイプのストレージを取得、なければ作成
-            Map<Long, Object> classStorage = entityStorage.computeIfAbsent(entityClass, k -> new HashMap<>());
-            classStorage.put(id, entity);
-            
-            // 実際のDBに接続する場合はSQLを発行する
-            // String sql = sqlGenerator.createInsertSQL(entity.getClass());
-            // System.out.println("Generated SQL: " + sql);
+            EntityMetadata metadata = metadataProcessor.processEntity(entityClass);
+            FieldMetadata idField = metadata.getIdField();
+            Class<?> idType = idField.getField().getType();
+            if (idType != Long.class && idType != long.class) {
+                throw new IllegalArgumentException("In-memory storage requires a long @Id field: " + entityClass.getName());
+            }
+            Object id = idField.getValue(entity);
+            if (id == null) {
+                throw new IllegalArgumentException("Entity id cannot be null");
+            }
+            if (metadata.getVersionField() == null) {
+                entityStorage.put(entityClass, (Long) id, entity);
+            } else {
+                storeVersioned(entityClass, (Long) id, entity, metadata.getVersionField());
+            }
+        } catch (OptimisticLockException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to save entity", e);
         }
     }
 
+    /**
+     * 複数のエンティティを一括で保存する
+     * JDBC実行モードでは既定のバッチサイズでまとめて書き込む
+     * 
+     * @param entities 保存するエンティティ
+     */
+    public void saveAll(Collection<?> entities) {
+        saveAll(entities, JdbcEntityExecutor.DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * 複数のエンティティを一括で保存する
+     * JDBC実行モードではsaveと同じく、管理対象でないエンティティをUPSERT文のバッチでbatchSize件ごとに書き込んで管理対象にする。
+     * 既に管理対象のエンティティは書き込まず、変更は{@link #flush()}で書き込む。
+     * バージョンのカラムを持つエンティティは、バージョンで挿入か条件付きの更新かを決める。
+     * トランザクション中はsaveと同じく書き込みをフラッシュまで遅らせ、呼び出しの順にコミット時にまとめて送信する。
+     * インメモリモードでは1件ずつsaveと同じように保存する
+     * 
+     * @param entities 保存するエンティティ
+     * @param batchSize 1回の送信でまとめる件数
+     * @throws IllegalStateException 読み取り専用のトランザクション中の場合
+     * @throws OptimisticLockException バージョンのカラムを持つエンティティが他の更新と競合した場合。全件が書き込まれない
+     */
+    public void saveAll(Collection<?> entities, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        checkWritable();
+        if (jdbcExecutor == null) {
+            for (Object entity : entities) {
+                save(entity);
+            }
+            return;
+        }
+
+        List<Object> unmanaged = new ArrayList<>(entities.size());
+        for (Object entity : entities) {
+            if (!persistenceContext.contains(entity)) {
+                unmanaged.add(entity);
+            }
+        }
+        if (currentTransaction() != null) {
+            for (Object entity : unmanaged) {
+                persistenceContext.register(entity);
+                pendingSaves.add(entity);
+            }
+            return;
+        }
+        try {
+            jdbcExecutor.saveAll(unmanaged, batchSize);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save entities", e);
+        }
+        for (Object entity : unmanaged) {
+            invalidateCaches(entity);
+            persistenceContext.register(entity);
+        }
+    }
+
+    /**
+     * 主キーでエンティティを取得する
+     * JDBC実行モードでは管理対象のエンティティ、二次キャッシュの順に参照し、どちらにもない場合のみSQLを発行する
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @param id 主キー
+     * @return 見つかったエンティティ。存在しない場合はnull
+     */
     public <T> T findById(Class<T> entityClass, Long id) {
-        // エンティティタイプのストレージを取得
-        Map<Long, Object> classStorage = entityStorage.get(entityClass);
-        if (classStorage == null) {
-            return null;
+        if (jdbcExecutor != null) {
+            T loaded = findLoaded(entityClass, id);
+            if (loaded != null) {
+                return loaded;
+            }
+            try {
+                long generation = canPopulateCaches() ? secondLevelCache.generation(entityClass) : 0;
+                loaded = jdbcExecutor.findById(entityClass, id);
+                if (loaded == null) {
+                    return null;
+                }
+                if (canPopulateCaches()) {
+                    secondLevelCache.put(loaded, generation);
+                }
+                return manage(loaded);
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to find entity", e);
+            }
         }
-        
-        Object entity = classStorage.get(id);
-        if (entity != null && entityClass.isInstance(entity)) {
-            return entityClass.cast(entity);
+
+        if (id == null) {
+            return null;
         }
-        
-        // 実際のDBに接続する場合はSQLを発行する
-        // String sql = sqlGenerator.createSelectSQL(entityClass, "id");
-        // System.out.println("Generated SQL: " + sql);
-        
-        return null;
+        return entityStorage.get(entityClass, id);
     }
     
+    /**
+     * 主キーの一覧でエンティティを取得する
+     * 既定の件数ずつに分けて問い合わせる
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @param ids 主キーの一覧
+     * @return 見つかったエンティティのリスト
+     */
+    public <T> List<T> findAllById(Class<T> entityClass, Collection<Long> ids) {
+        return findAllById(entityClass, ids, JdbcEntityExecutor.DEFAULT_ID_CHUNK_SIZE);
+    }
+
+    /**
+     * 主キーの一覧でエンティティを取得する
+     * JDBC実行モードでは管理対象のエンティティ、二次キャッシュの順に参照し、
+     * どちらにもない主キーだけをchunkSize件ずつのSELECT文でまとめて問い合わせる。
+     * IN句の要素数に上限のあるデータベース(Oracleは1000件)では上限ごとに分け、PostgreSQLでは配列を= ANYで照合する
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @param ids 主キーの一覧
+     * @param chunkSize 1文で問い合わせる主キーの数
+     * @return 見つかったエンティティのリスト。idsの順に並び、重複した主キーと存在しない主キーは含まない
+     */
+    public <T> List<T> findAllById(Class<T> entityClass, Collection<Long> ids, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        Set<Long> distinctIds = new LinkedHashSet<>(ids.size());
+        for (Long id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("Ids cannot contain null");
+            }
+            distinctIds.add(id);
+        }
+
+        Map<Object, T> found = new HashMap<>(distinctIds.size() * 2);
+        List<Long> misses = new ArrayList<>();
+        for (Long id : distinctIds) {
+            T entity = jdbcExecutor != null ? findLoaded(entityClass, id) : entityStorage.get(entityClass, id);
+            if (entity != null) {
+                found.put(id, entity);
+            } else if (jdbcExecutor != null) {
+                misses.add(id);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            FieldMetadata idField = metadataProcessor.processEntity(entityClass).getIdField();
+            try {
+                long generation = canPopulateCaches() ? secondLevelCache.generation(entityClass) : 0;
+                for (T loaded : jdbcExecutor.findAllById(entityClass, misses, chunkSize)) {
+                    if (canPopulateCaches()) {
+                        secondLevelCache.put(loaded, generation);
+                    }
+                    T managed = manage(loaded);
+                    found.put(idField.getValue(managed), managed);
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to find entities", e);
+            }
+        }
+
+        List<T> entities = new ArrayList<>(found.size());
+        for (Long id : distinctIds) {
+            T entity = found.get(id);
+            if (entity != null) {
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+
     /**
      * 指定されたエンティティタイプのすべてのインスタンスを取得する
+     * JDBC実行モードでは未フラッシュの変更を書き込んでから問い合わせ、
+     * 管理対象と同じ主キーの行には管理対象のインスタンスを返す。
+     * 二次キャッシュの対象のエンティティは、結果の主キーの一覧をQueryCacheにキャッシュする
      * 
      * @param <T> エンティティの型
      * @param entityClass エンティティクラス
      * @return エンティティのリスト
      */
     public <T> List<T> findAll(Class<T> entityClass) {
-        // エンティティタイプのストレージを取得
-        Map<Long, Object> classStorage = entityStorage.get(entityClass);
-        if (classStorage == null) {
-            return new ArrayList<>();
-        }
-        
-        // エンティティをリストに変換して返す
-        return classStorage.values().stream()
-                .map(entity -> entityClass.cast(entity))
-                .collect(Collectors.toList());
-        
-        // 実際のDBに接続する場合はSQLを発行する
-        // String sql = sqlGenerator.createSelectAllSQL(entityClass);
-        // System.out.println("Generated SQL: " + sql);
+        if (jdbcExecutor != null) {
+            flush();
+            try {
+                String sql = sqlGenerator.createSelectAllSQL(metadataProcessor.processEntity(entityClass));
+                return executeQuery(entityClass, sql, NO_PARAMETERS, () -> jdbcExecutor.findAll(entityClass));
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to find entities", e);
+            }
+        }
+
+        return entityStorage.findAll(entityClass);
     }
     
+    /**
+     * DTOのプロパティに対応するカラムだけを取得する問い合わせを実行し、DTOに変換する
+     * 
+     * @param <R> DTOの型
+     * @param query 問い合わせ
+     * @param projectionType レコードまたはインターフェース
+     * @return DTOのリスト
+     */
+    public <R> List<R> project(Query<?> query, Class<R> projectionType) {
+        ProjectionMapper<R> mapper = ProjectionMapper.of(projectionType, metadataProcessor.processEntity(query.getEntityClass()));
+        List<Object[]> rows = project(query, mapper.getFields());
+        List<R> projections = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            projections.add(mapper.map(row));
+        }
+        return projections;
+    }
+
+    /**
+     * 主キーの昇順でpageNumber番目(0始まり)のページを取得する
+     * SQLはデータベースの構文でLIMIT/OFFSET(OracleはOFFSET/FETCH)を付ける。
+     * 読み飛ばす行もデータベースが読むため、深いページほど遅くなる。順に読み進める場合は{@link #findPageAfter}を使うこと
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @param pageNumber ページ番号(0始まり)
+     * @param pageSize 1ページの最大件数
+     * @return ページ
+     */
+    public <T> Page<T> findPage(Class<T> entityClass, int pageNumber, int pageSize) {
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page number must not be negative");
+        }
+        long offset = (long) pageNumber * checkPageSize(pageSize);
+        if (offset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Page offset is too large: " + offset);
+        }
+        Query<T> query = createPageQuery(entityClass, pageSize).offset((int) offset);
+        return toPage(entityClass, query.getResultList(), pageSize);
+    }
+
+    /**
+     * 主キーがlastKeyより大きいエンティティを、主キーの昇順で1ページ取得する(キーセットページング)
+     * 主キーのインデックスで開始位置を探すため、何ページ目でも読む行数はページの大きさに比例する
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @param lastKey 前のページの{@link Page#getLastKey()}。最初のページの場合はnull
+     * @param pageSize 1ページの最大件数
+     * @return ページ
+     */
+    public <T> Page<T> findPageAfter(Class<T> entityClass, Object lastKey, int pageSize) {
+        Query<T> query = createPageQuery(entityClass, checkPageSize(pageSize));
+        if (lastKey != null) {
+            String idField = metadataProcessor.processEntity(entityClass).getIdField().getField().getName();
+            query.where(Criteria.gt(idField, lastKey));
+        }
+        return toPage(entityClass, query.getResultList(), pageSize);
+    }
+
+    /**
+     * エンティティの問い合わせを作成する
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @return 問い合わせのビルダー
+     */
+    public <T> Query<T> createQuery(Class<T> entityClass) {
+        return new Query<>(this, entityClass);
+    }
+
+    /**
+     * 問い合わせを実行する
+     * JDBC実行モードでは条件・並び順・件数の制限をSQLでデータベースに渡し、findAllと同じく結果を管理対象にする。
+     * {@link Query#fetch(String)}で指定した関連は、結果全体の分をまとめて読み込んでから返す。
+     * インメモリモードでは保存されているエンティティに同じ条件を適用する
+     * 
+     * @param <T> エンティティの型
+     * @param query 問い合わせ
+     * @return 条件を満たすエンティティのリスト
+     */
+    public <T> List<T> getResultList(Query<T> query) {
+        Class<T> entityClass = query.getEntityClass();
+        CompiledQuery compiled = query.compile();
+        if (jdbcExecutor != null) {
+            flush();
+            try {
+                String sql = sqlGenerator.createQuerySQL(compiled.getMetadata(), compiled.getStatement());
+                Object[] parameters = sqlGenerator.createQueryParameters(compiled.getParameters(),
+                        compiled.getLimit(), compiled.getOffset());
+                List<T> entities = executeQuery(entityClass, sql, parameters,
+                        () -> jdbcExecutor.query(entityClass, sql, parameters));
+                for (String relation : query.getFetches()) {
+                    relationLoader.fetch(entities, relation);
+                }
+                return entities;
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to execute query", e);
+            }
+        }
+
+        return compiled.apply(entityStorage.findAll(entityClass));
+    }
+
+    /**
+     * 指定したフィールドだけを取得する問い合わせを実行する
+     * JDBC実行モードでは指定したカラムだけをSELECTする。結果はエンティティではないため、管理対象やキャッシュの対象にならない
+     * 
+     * @param query 問い合わせ
+     * @param fields 取得するフィールド名
+     * @return 行ごとの値の配列。値はfieldsの順に並ぶ
+     */
+    public List<Object[]> project(Query<?> query, String... fields) {
+        CompiledQuery compiled = query.compile(fields);
+        if (jdbcExecutor != null) {
+            flush();
+            try {
+                String sql = sqlGenerator.createQuerySQL(compiled.getMetadata(), compiled.getStatement());
+                Object[] parameters = sqlGenerator.createQueryParameters(compiled.getParameters(),
+                        compiled.getLimit(), compiled.getOffset());
+                return jdbcExecutor.queryValues(sql, parameters, compiled.getProjectionTypes());
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to execute query", e);
+            }
+        }
+
+        return compiled.project(compiled.apply(entityStorage.findAll(query.getEntityClass())));
+    }
+
+    /**
+     * 指定されたエンティティタイプの全行を、DTOのプロパティに対応するカラムだけ取得して変換する
+     * 
+     * @param <R> DTOの型
+     * @param entityClass エンティティクラス
+     * @param projectionType レコードまたはインターフェース
+     * @return DTOのリスト
+     * @see ProjectionMapper
+     */
+    public <R> List<R> findAll(Class<?> entityClass, Class<R> projectionType) {
+        return project(createQuery(entityClass), projectionType);
+    }
+
+    /**
+     * 指定されたエンティティタイプのすべてのインスタンスをStreamとして取得する
+     * JDBC実行モードでは既定のフェッチサイズで行を読み込みながら変換する
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @return エンティティのStream。使い終わったら閉じること
+     */
+    public <T> Stream<T> stream(Class<T> entityClass) {
+        return stream(entityClass, JdbcEntityExecutor.DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * 指定されたエンティティタイプのすべてのインスタンスをStreamとして取得する
+     * JDBC実行モードでは表全体をメモリに読み込まず、fetchSize行ずつ取得して変換する。
+     * 未フラッシュの変更は問い合わせの前に書き込む。読み込んだエンティティは管理対象にしない。
+     * Streamはコネクションを保持するため、try-with-resourcesなどで必ず閉じること
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @param fetchSize 1回の通信で取得する行数
+     * @return エンティティのStream
+     */
+    public <T> Stream<T> stream(Class<T> entityClass, int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive");
+        }
+        if (jdbcExecutor == null) {
+            return entityStorage.findAll(entityClass).stream();
+        }
+
+        flush();
+        try {
+            return jdbcExecutor.stream(entityClass, fetchSize);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to stream entities", e);
+        }
+    }
+
+    /**
+     * 指定されたエンティティタイプのすべてのインスタンスを、要求に応じて読み進めるPublisherとして取得する
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @return エンティティのPublisher
+     * @see #publish(Class, int)
+     */
+    public <T> EntityPublisher<T> publish(Class<T> entityClass) {
+        return publish(entityClass, JdbcEntityExecutor.DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * 指定されたエンティティタイプのすべてのインスタンスを、要求に応じて読み進めるPublisherとして取得する
+     * JDBC実行モードでは購読ごとに{@link #stream(Class, int)}と同じくfetchSize行ずつ取得するResultSetを開き、
+     * 購読者がrequestした件数だけ行をエンティティに変換して渡す。要求がない間は行を読まない。
+     * 未フラッシュの変更はこのメソッドの呼び出し時に書き込む。読み込んだエンティティは管理対象にしない。
+     * 
+     * 行の受け渡しは購読ごとに仮想スレッドで行う。
+     * 呼び出し元のスレッドのトランザクションには参加できないため、トランザクション中は使用できない
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @param fetchSize 1回の通信で取得する行数
+     * @return エンティティのPublisher
+     * @throws IllegalStateException トランザクション中の場合
+     */
+    public <T> EntityPublisher<T> publish(Class<T> entityClass, int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive");
+        }
+        if (transaction != null) {
+            throw new IllegalStateException("Publishers cannot join the transaction of the calling thread");
+        }
+        if (jdbcExecutor == null) {
+            return new EntityPublisher<>(() -> entityStorage.findAll(entityClass).stream(), PUBLISHER_EXECUTOR);
+        }
+
+        flush();
+        return new EntityPublisher<>(() -> {
+            try {
+                return jdbcExecutor.stream(entityClass, fetchSize);
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to stream entities", e);
+            }
+        }, PUBLISHER_EXECUTOR);
+    }
+
+    /**
+     * 管理対象のエンティティの変更をデータベースに書き込む
+     * 読み込み時・前回のフラッシュ時から値の変わったカラムだけをUPDATEし、
+     * 同じカラムの組み合わせの更新はバッチにまとめて1つのトランザクションで送信する。
+     * トランザクション中に保存したエンティティは、先にUPSERT文のバッチでまとめて書き込む。
+     * トランザクション中はそのトランザクションで送信し、コミットはしない。
+     * 読み取り専用のトランザクション中、およびインメモリモードでは何もしない。
+     * トランザクションを開始したスレッド以外からは、そのトランザクションの書き込みを送信しないよう何もしない。
+     * 複数のスレッドから同時に呼び出した場合、同じ変更は1つのスレッドだけが書き込む
+     * 
+     * @throws OptimisticLockException バージョンのカラムを持つエンティティが他の更新と競合した場合。変更は書き込まれない
+     */
+    public void flush() {
+        Transaction active = transaction;
+        if (jdbcExecutor == null || (active != null && (active != currentTransaction() || active.isReadOnly()))) {
+            return;
+        }
+        flushPendingSaves();
+        flushLock.lock();
+        try {
+            List<EntityChange> changes = persistenceContext.getChanges();
+            if (changes.isEmpty()) {
+                return;
+            }
+            try {
+                jdbcExecutor.update(changes);
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to flush entities", e);
+            }
+            for (EntityChange change : changes) {
+                invalidateCaches(change.getEntity());
+            }
+            persistenceContext.markFlushed(changes);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * トランザクションを開始する
+     * 
+     * @return 開始したトランザクション
+     * @see #beginTransaction(boolean)
+     */
+    public Transaction beginTransaction() {
+        return beginTransaction(false);
+    }
+
+    /**
+     * プールの接続を1つ確保してトランザクションを開始する
+     * 未フラッシュの変更を書き込んでから開始し、コミットまたはロールバックまで
+     * このスレッドからの全てのSQLを確保した接続で実行する。
+     * 保存したエンティティと管理対象の変更はコミットの直前にまとめて書き込むため、
+     * 複数のエンティティの書き込みは文ごとのautocommitではなく、バッチごとに1回の通信になる。
+     * ロールバックした場合、管理対象は全て外れる。
+     * 
+     * 読み取り専用のトランザクションはドライバに読み取り専用であることを伝え、書き込みを拒否する。
+     * トランザクションは開始したスレッドで終了すること
+     * 
+     * @param readOnly 読み取り専用のトランザクションの場合はtrue
+     * @return 開始したトランザクション。try-with-resourcesで使い、コミットせずに閉じるとロールバックする
+     * @throws IllegalStateException インメモリモードの場合、または既にトランザクション中の場合
+     */
+    public Transaction beginTransaction(boolean readOnly) {
+        if (jdbcExecutor == null) {
+            throw new IllegalStateException("Transactions require a DatabaseConfig with a PoolConfig");
+        }
+        if (transaction != null) {
+            throw new IllegalStateException("A transaction is already active; use a savepoint instead");
+        }
+        flush();
+        try {
+            transaction = connectionPool.begin(readOnly, new EntityManagerSynchronization());
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to begin transaction", e);
+        }
+        return transaction;
+    }
+
+    /**
+     * @return 実行中のトランザクション。ない場合はnull
+     */
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    /**
+     * エンティティを管理対象から外す。未フラッシュの変更は書き込まれない
+     * 
+     * @param entity 対象のエンティティ
+     */
+    public void detach(Object entity) {
+        persistenceContext.detach(entity);
+    }
+
+    /**
+     * 全ての管理対象を外す。未フラッシュの変更は書き込まれない
+     */
+    public void clear() {
+        persistenceContext.clear();
+        relationLoader.clear();
+    }
+
     /**
      * テーブル作成SQLを生成する
      * 
@@ -87,6 +675,317 @@ public class EntityManager {
      * @return 生成されたSQL
      */
     public String generateCreateTableSQL(Class<?> entityClass) {
-        return sqlGenerator.createTableSQL(entityClass);
+        return sqlGenerator.createTableSQL(metadataProcessor.processEntity(entityClass));
+    }
+
+    /**
+     * エンティティのテーブルをデータベースに作成する
+     * JDBC実行モードでのみ使用できる
+     * 
+     * @param entityClass エンティティクラス
+     */
+    public void createTable(Class<?> entityClass) {
+        if (jdbcExecutor == null) {
+            throw new IllegalStateException("createTable requires a DatabaseConfig with a PoolConfig");
+        }
+        try {
+            jdbcExecutor.createTable(entityClass);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to create table", e);
+        }
+    }
+
+    /**
+     * 未フラッシュの変更を書き込み、JDBC実行モードで使用しているコネクションプールを閉じる
+     * トランザクション中の場合は書き込まずにロールバックする
+     */
+    @Override
+    public void close() {
+        try {
+            if (transaction != null) {
+                transaction.rollback();
+            } else {
+                flush();
+            }
+        } finally {
+            persistenceContext.clear();
+            if (connectionPool != null) {
+                connectionPool.close();
+            }
+        }
+    }
+
+    /**
+     * 書き込んだエンティティを二次キャッシュから破棄し、そのテーブルへの問い合わせ結果を無効にする
+     */
+    private void invalidateCaches(Object entity) {
+        if (currentTransaction() != null) {
+            writtenInTransaction.add(entity);
+        }
+        if (secondLevelCache != null) {
+            EntityMetadata metadata = metadataProcessor.processEntity(entity.getClass());
+            secondLevelCache.evict(entity.getClass(), metadata.getIdField().getValue(entity));
+            secondLevelCache.getQueryCache().invalidate(metadata.getTableName());
+        }
+    }
+
+    /**
+     * トランザクション中に保存したエンティティのうち、まだ管理対象のものをまとめて書き込む
+     * 書き込んだ値をスナップショットにするため、管理対象として登録し直す
+     */
+    private void flushPendingSaves() {
+        if (pendingSaves.isEmpty()) {
+            return;
+        }
+        List<Object> saves = new ArrayList<>(pendingSaves.size());
+        for (Object entity : pendingSaves) {
+            if (persistenceContext.contains(entity)) {
+                saves.add(entity);
+            }
+        }
+        try {
+            jdbcExecutor.saveAll(saves, JdbcEntityExecutor.DEFAULT_BATCH_SIZE);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to flush entities", e);
+        }
+        pendingSaves.clear();
+        for (Object entity : saves) {
+            invalidateCaches(entity);
+            persistenceContext.register(entity);
+        }
+    }
+
+    /**
+     * インメモリモードで、保存済みのエンティティとバージョンが一致する場合だけ置き換え、バージョンを進める
+     * 比較から置き換えまでの間に他のスレッドが保存した場合も、置き換えに失敗して競合として扱う
+     */
+    private void storeVersioned(Class<?> entityClass, long id, Object entity, FieldMetadata versionField) {
+        Object current = entityStorage.get(entityClass, id);
+        Object version = versionField.getValue(entity);
+        if (current == entity) {
+            versionField.setValue(entity, versionField.nextVersion(version));
+            return;
+        }
+        if (!Objects.equals(version, current == null ? null : versionField.getValue(current))) {
+            throw new OptimisticLockException(entity, id);
+        }
+        versionField.setValue(entity, versionField.nextVersion(version));
+        if (!entityStorage.replace(entityClass, id, current, entity)) {
+            versionField.setValue(entity, version);
+            throw new OptimisticLockException(entity, id);
+        }
+    }
+
+    private void checkWritable() {
+        Transaction current = currentTransaction();
+        if (current != null && current.isReadOnly()) {
+            throw new IllegalStateException("Cannot write entities in a read-only transaction");
+        }
+    }
+
+    /**
+     * 現在のスレッドで実行中のトランザクションを取得する
+     * トランザクションの接続はConnectionPoolで開始したスレッドに束縛されるため、
+     * 他のスレッド(AsyncEntityManagerの仮想スレッドなど)からの操作はトランザクションの外で実行し、
+     * 保留中の書き込みなどトランザクションの状態には触れない
+     * 
+     * @return 現在のスレッドが開始したトランザクション。ない場合はnull
+     */
+    private Transaction currentTransaction() {
+        Transaction current = transaction;
+        return current != null && connectionPool.getCurrentTransaction() == current ? current : null;
+    }
+
+    /**
+     * 読み込んだ結果を二次キャッシュとQueryCacheに入れてよいか
+     * 書き込みのあるトランザクション中の結果は、コミットされるまで他のEntityManagerに見せない
+     */
+    private boolean canPopulateCaches() {
+        Transaction current = currentTransaction();
+        return secondLevelCache != null && (current == null || current.isReadOnly());
+    }
+
+    /**
+     * ロールバックで破棄された書き込みを管理対象からも破棄する
+     */
+    private void discardUncommittedState() {
+        pendingSaves.clear();
+        persistenceContext.clear();
+        relationLoader.clear();
+    }
+
+    private static int checkPageSize(int pageSize) {
+        if (pageSize <= 0 || pageSize == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + (Integer.MAX_VALUE - 1));
+        }
+        return pageSize;
+    }
+
+    /**
+     * 主キー順に、次のページの有無を判定する1件を含めて取得する問い合わせ
+     */
+    private <T> Query<T> createPageQuery(Class<T> entityClass, int pageSize) {
+        String idField = metadataProcessor.processEntity(entityClass).getIdField().getField().getName();
+        return createQuery(entityClass).orderBy(Order.asc(idField)).limit(pageSize + 1);
+    }
+
+    private <T> Page<T> toPage(Class<T> entityClass, List<T> rows, int pageSize) {
+        boolean hasNext = rows.size() > pageSize;
+        List<T> content = hasNext ? rows.subList(0, pageSize) : rows;
+        Object lastKey = content.isEmpty()
+                ? null
+                : metadataProcessor.processEntity(entityClass).getIdField().getValue(content.get(content.size() - 1));
+        return new Page<>(content, pageSize, hasNext, lastKey);
+    }
+
+    /**
+     * 読み込んだエンティティを管理対象にし、関連に未読み込みの参照を設定する
+     * 
+     * @return 管理対象のエンティティ。同じ主キーのエンティティが既に管理されている場合はそちら
+     */
+    private <T> T manage(T loaded) {
+        T managed = persistenceContext.registerLoaded(loaded);
+        relationLoader.attach(managed);
+        return managed;
+    }
+
+    /**
+     * 管理対象のエンティティ、二次キャッシュの順に主キーで探す
+     * 
+     * @return 見つかった管理対象のエンティティ。どちらにもない場合はnull
+     */
+    private <T> T findLoaded(Class<T> entityClass, Object id) {
+        T managed = persistenceContext.find(entityClass, id);
+        if (managed != null) {
+            return managed;
+        }
+        if (secondLevelCache != null) {
+            T cached = secondLevelCache.get(entityClass, id);
+            if (cached != null) {
+                return manage(cached);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * エンティティの一覧を返す問い合わせを実行し、結果を管理対象にする
+     * 二次キャッシュの対象のエンティティは、QueryCacheにある主キーの一覧から管理対象と二次キャッシュで結果を組み立てる。
+     * 組み立てられない場合は問い合わせを実行し、結果をキャッシュする
+     */
+    private <T> List<T> executeQuery(Class<T> entityClass, String sql, Object[] parameters, EntityQuery<T> query)
+            throws SQLException {
+        QueryCache queryCache = canPopulateCaches() && secondLevelCache.isCacheable(entityClass)
+                ? secondLevelCache.getQueryCache()
+                : null;
+        EntityMetadata metadata = metadataProcessor.processEntity(entityClass);
+        String tableName = metadata.getTableName();
+        long generation = 0;
+        long entityGeneration = 0;
+        if (queryCache != null) {
+            List<T> cached = resolveCachedResult(entityClass, queryCache.get(tableName, sql, parameters));
+            if (cached != null) {
+                return cached;
+            }
+            generation = queryCache.generation(tableName);
+            entityGeneration = secondLevelCache.generation(entityClass);
+        }
+
+        List<T> entities = query.execute();
+        List<Object> ids = queryCache == null ? null : new ArrayList<>(entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            T entity = entities.get(i);
+            if (queryCache != null) {
+                ids.add(metadata.getIdField().getValue(entity));
+                secondLevelCache.put(entity, entityGeneration);
+            }
+            entities.set(i, manage(entity));
+        }
+        if (queryCache != null) {
+            queryCache.put(tableName, generation, sql, parameters, ids);
+        }
+        return entities;
+    }
+
+    private <T> List<T> resolveCachedResult(Class<T> entityClass, List<Object> ids) {
+        if (ids == null) {
+            return null;
+        }
+        List<T> entities = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            T entity = persistenceContext.find(entityClass, id);
+            if (entity == null) {
+                T cached = secondLevelCache.get(entityClass, id);
+                if (cached == null) {
+                    // 二次キャッシュから追い出された場合は問い合わせ直す
+                    return null;
+                }
+                entity = manage(cached);
+            }
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    /**
+     * トランザクションの境界で保留中の書き込みを送信し、終了後に管理対象とキャッシュを整える
+     */
+    private class EntityManagerSynchronization implements TransactionSynchronization {
+        @Override
+        public void flush() {
+            EntityManager.this.flush();
+        }
+
+        @Override
+        public void afterRollbackToSavepoint() {
+            // どの管理対象の値がセーブポイント以降に書き込まれたかは追跡していないため、全て外す
+            discardUncommittedState();
+        }
+
+        @Override
+        public void afterCompletion(boolean committed) {
+            transaction = null;
+            // トランザクション中に他のEntityManagerが古い値をキャッシュした可能性があるため、もう一度無効にする
+            for (Object entity : writtenInTransaction) {
+                invalidateCaches(entity);
+            }
+            writtenInTransaction.clear();
+            if (!committed) {
+                discardUncommittedState();
+            }
+        }
+    }
+
+    /**
+     * 関連の読み込みに使う問い合わせ。読み込んだエンティティは他の問い合わせと同じく管理対象になる
+     */
+    private class EntityManagerFetcher implements RelationLoader.Fetcher {
+        @Override
+        public <T> List<T> findAllById(Class<T> entityClass, Collection<Long> ids) {
+            return EntityManager.this.findAllById(entityClass, ids);
+        }
+
+        @Override
+        public <T> List<T> findAllByForeignKey(Class<T> entityClass, FieldMetadata foreignKey, Collection<Long> keys) {
+            // IN句の要素数に上限のあるデータベースに合わせて分割する
+            List<Long> values = new ArrayList<>(keys);
+            List<T> entities = new ArrayList<>();
+            for (int from = 0; from < values.size(); from += JdbcEntityExecutor.DEFAULT_ID_CHUNK_SIZE) {
+                List<Long> chunk = values.subList(from,
+                        Math.min(values.size(), from + JdbcEntityExecutor.DEFAULT_ID_CHUNK_SIZE));
+                entities.addAll(createQuery(entityClass)
+                        .where(Criteria.in(foreignKey.getField().getName(), new ArrayList<>(chunk)))
+                        .getResultList());
+            }
+            return entities;
+        }
+    }
+
+    /**
+     * エンティティの一覧を返す問い合わせ
+     */
+    @FunctionalInterface
+    private interface EntityQuery<T> {
+        List<T> execute() throws SQLException;
     }
 }
@@ -0,0 +1,216 @@
+package com.iineineno03k.orm;
+
+import java.util.Spliterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * エンティティのStreamを、購読者の要求数に合わせて読み進めるFlow.Publisher
+ * 
+ * 購読ごとに最初の要求を受けた時点でStreamを開き、要求された件数だけ行を読み込んで渡す。
+ * 要求がない間は読み込みを止めるため、結果全体をメモリに保持しない。
+ * 最後の行を渡した時点、エラー時、または購読の取り消し時にStreamを閉じてコネクションを返却する。
+ * 
+ * 要求の受け付けと行の受け渡しはExecutor上で直列に行い、onNextの中から同期的にrequestを呼んでも再帰しない。
+ * onErrorで通知するのはStreamの読み込みの失敗だけで、購読者のメソッドが投げた例外は購読の取り消しとして扱う
+ * (Reactive Streams 2.13)。
+ * 
+ * @param <T> エンティティの型
+ */
+public class EntityPublisher<T> implements Flow.Publisher<T> {
+    private final Supplier<Stream<T>> source;
+    private final Executor executor;
+
+    /**
+     * @param source 購読ごとに新しいStreamを開く処理
+     * @param executor 行を受け渡すExecutor
+     */
+    EntityPublisher(Supplier<Stream<T>> source, Executor executor) {
+        this.source = source;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null");
+        }
+        subscriber.onSubscribe(new RowSubscription(subscriber));
+    }
+
+    /**
+     * 1人の購読者への受け渡し
+     * wipが0から増えたスレッドだけがdrainを起動し、drain中に届いた要求はdrainのループで処理する
+     */
+    private final class RowSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+        // 以下はdrainの中でのみ参照する
+        private Stream<T> stream;
+        private Spliterator<T> rows;
+        private T next;
+        private boolean done;
+
+        RowSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested count must be positive: " + n);
+            } else {
+                requested.getAndAccumulate(n, (current, added) -> {
+                    long sum = current + added;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // drainは起動していないため、wipを増やしたこのスレッドがdrainの代わりに終了させる
+                    if (!done) {
+                        fail(e);
+                    }
+                    // 終了済みなので、その間に届いた要求は処理しなくてよい
+                    wip.set(0);
+                }
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                if (!done) {
+                    try {
+                        emit();
+                    } catch (RuntimeException e) {
+                        // 購読者のメソッドの例外はemitの中で処理するため、ここに届くのはStreamの例外だけ
+                        fail(e);
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            if (cancelled) {
+                finish();
+                return;
+            }
+            if (invalidRequest != null) {
+                fail(invalidRequest);
+                return;
+            }
+            long demand = requested.get();
+            if (demand == 0) {
+                return;
+            }
+            if (rows == null) {
+                stream = source.get();
+                rows = stream.spliterator();
+                if (!advance()) {
+                    complete();
+                    return;
+                }
+            }
+
+            long emitted = 0;
+            while (emitted != demand && !cancelled) {
+                T item = next;
+                next = null;
+                if (!deliver(item)) {
+                    return;
+                }
+                emitted++;
+                // 1行先読みし、最後の行を渡した時点で完了を通知してコネクションを返却する
+                if (!advance()) {
+                    complete();
+                    return;
+                }
+            }
+            if (cancelled) {
+                finish();
+                return;
+            }
+            if (demand != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+        }
+
+        private boolean advance() {
+            return rows.tryAdvance(row -> next = row);
+        }
+
+        /**
+         * 購読者に行を渡す
+         * onNextが例外を投げた場合は購読が取り消されたものとして扱い、onErrorは呼ばずにStreamを閉じる
+         * 
+         * @return 渡せた場合はtrue
+         */
+        private boolean deliver(T item) {
+            try {
+                subscriber.onNext(item);
+                return true;
+            } catch (RuntimeException e) {
+                cancelled = true;
+                finish();
+                return false;
+            }
+        }
+
+        private void complete() {
+            finish();
+            try {
+                subscriber.onComplete();
+            } catch (RuntimeException e) {
+                // 終了を通知した後なので、購読者の例外を伝える先はない
+            }
+        }
+
+        private void fail(Throwable error) {
+            try {
+                finish();
+            } catch (RuntimeException e) {
+                error.addSuppressed(e);
+            }
+            if (cancelled) {
+                return;
+            }
+            try {
+                subscriber.onError(error);
+            } catch (RuntimeException e) {
+                // 終了を通知した後なので、購読者の例外を伝える先はない
+            }
+        }
+
+        private void finish() {
+            done = true;
+            next = null;
+            Stream<T> current = stream;
+            stream = null;
+            if (current != null) {
+                current.close();
+            }
+        }
+    }
+}
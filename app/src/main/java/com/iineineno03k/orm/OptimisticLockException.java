@@ -0,0 +1,26 @@
+package com.iineineno03k.orm;
+
+/**
+ * 楽観的ロックの競合を表す例外
+ * 
+ * {@link com.iineineno03k.orm.annotation.Version}を持つエンティティの書き込みで、
+ * 読み込んだ後に他の更新でバージョンが進んでいた場合、または行が削除されていた場合に発生する。
+ * 最新の状態を読み込み直してから変更をやり直すこと。
+ */
+public class OptimisticLockException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Object entity;
+
+    public OptimisticLockException(Object entity, Object id) {
+        super("Entity was updated or deleted concurrently: " + entity.getClass().getName() + " with id " + id);
+        this.entity = entity;
+    }
+
+    /**
+     * @return 書き込めなかったエンティティ
+     */
+    public Object getEntity() {
+        return entity;
+    }
+}
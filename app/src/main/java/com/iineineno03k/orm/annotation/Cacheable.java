@@ -0,0 +1,23 @@
+package com.iineineno03k.orm.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.iineineno03k.orm.cache.EvictionPolicy;
+
+/**
+ * エンティティを二次キャッシュの対象にする
+ * EntityManagerにSecondLevelCacheを渡した場合のみ有効になる
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cacheable {
+    /** キャッシュするエンティティの最大数 */
+    int maxSize() default 1000;
+    /** エントリの有効期間(秒)。0以下の場合は期限切れにしない */
+    long ttlSeconds() default 0;
+    /** 最大数を超えた場合に追い出すエントリの選び方 */
+    EvictionPolicy eviction() default EvictionPolicy.LRU;
+}
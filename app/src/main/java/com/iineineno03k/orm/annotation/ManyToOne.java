@@ -0,0 +1,20 @@
+package com.iineineno03k.orm.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 外部キーで参照する1件のエンティティへの関連
+ * 
+ * 型が{@link com.iineineno03k.orm.relation.LazyReference}のフィールドに付与する。
+ * 外部キーは同じエンティティのLong型のカラムとして宣言し、joinFieldでそのフィールド名を指定する。
+ * 関連のフィールドはカラムにならず、書き込みは外部キーのフィールドの値で行う。
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ManyToOne {
+    /** 参照先の主キーを保持するフィールド名 */
+    String joinField();
+}
@@ -0,0 +1,19 @@
+package com.iineineno03k.orm.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 参照先のエンティティの外部キーから、このエンティティを参照している全件への関連
+ * 
+ * 型がjava.util.List&lt;参照先のエンティティ&gt;のフィールドに付与する。
+ * 関連のフィールドはカラムにならず、読み込み時に最初のアクセスで読み込むリストが設定される。
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OneToMany {
+    /** 参照先のエンティティで、このエンティティを指す@ManyToOneのフィールド名 */
+    String mappedBy();
+}
@@ -0,0 +1,18 @@
+package com.iineineno03k.orm.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 楽観的ロックに使うバージョンのカラム
+ * 
+ * 型がLongまたはIntegerのフィールドに付与する。新規のエンティティではnullにしておくと、保存時に0が設定される。
+ * 更新は読み込んだときのバージョンを条件にしたUPDATE文で行い、バージョンはデータベース側で1つ進める。
+ * 他の更新でバージョンが進んでいた場合は{@link com.iineineno03k.orm.OptimisticLockException}となる。
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Version {
+}
@@ -0,0 +1,177 @@
+package com.iineineno03k.orm.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 最大数と有効期間を持つキャッシュ
+ * 
+ * 最大数を超えた場合はEvictionPolicyに従って1件ずつ追い出し、有効期間を過ぎたエントリは取得時に破棄する。
+ * 全ての操作はインスタンスのロックの中で行うため、複数のスレッドから共有してよい。
+ * 仮想スレッドがロックを待つ間にキャリアスレッドを占有しないよう、synchronizedではなくReentrantLockを使う。
+ */
+public class BoundedCache<K, V> {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Map<K, Entry<V>> entries = new HashMap<>();
+    private final EvictionQueue<K> evictionQueue;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long expirationCount;
+
+    /**
+     * @param maxSize 保持するエントリの最大数
+     * @param ttl エントリの有効期間。0以下の場合は期限切れにしない
+     * @param unit ttlの単位
+     * @param policy 追い出すエントリの選び方
+     */
+    public BoundedCache(int maxSize, long ttl, TimeUnit unit, EvictionPolicy policy) {
+        this(maxSize, ttl, unit, policy, System::nanoTime);
+    }
+
+    BoundedCache(int maxSize, long ttl, TimeUnit unit, EvictionPolicy policy, LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Eviction policy cannot be null");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl > 0 ? unit.toNanos(ttl) : 0;
+        this.clock = clock;
+        this.evictionQueue = policy.createQueue();
+    }
+
+    /**
+     * @param key キー
+     * @return 有効なエントリの値。見つからない場合や期限切れの場合はnull
+     */
+    public V get(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                missCount++;
+                return null;
+            }
+            if (entry.isExpired(clock.getAsLong())) {
+                remove(key);
+                expirationCount++;
+                missCount++;
+                return null;
+            }
+            evictionQueue.recordAccess(key);
+            hitCount++;
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 値を追加または置き換える
+     * 最大数を超えた場合はエントリを1件追い出す
+     * 
+     * @param key キー
+     * @param value 値
+     */
+    public void put(K key, V value) {
+        lock.lock();
+        try {
+            if (value == null) {
+                throw new IllegalArgumentException("Value cannot be null");
+            }
+            long expiresAt = ttlNanos > 0 ? clock.getAsLong() + ttlNanos : 0;
+            Entry<V> previous = entries.put(key, new Entry<>(value, expiresAt));
+            if (previous != null) {
+                evictionQueue.recordAccess(key);
+                return;
+            }
+            evictionQueue.recordInsert(key);
+            if (entries.size() > maxSize) {
+                // 追加したばかりのエントリを追い出さないよう、一旦外してから選ぶ
+                evictionQueue.remove(key);
+                K victim = evictionQueue.victim();
+                remove(victim);
+                evictionCount++;
+                evictionQueue.recordInsert(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param key 破棄するエントリのキー
+     */
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 全てのエントリを破棄する
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            evictionQueue.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 保持しているエントリの数(期限切れで未破棄のものを含む)
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStatistics getStatistics() {
+        lock.lock();
+        try {
+            return new CacheStatistics(hitCount, missCount, evictionCount, expirationCount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(K key) {
+        if (entries.remove(key) != null) {
+            evictionQueue.remove(key);
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        // 0の場合は期限なし
+        private final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != 0 && now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.iineineno03k.orm.cache;
+
+/**
+ * キャッシュの統計情報のスナップショット
+ */
+public final class CacheStatistics {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long expirationCount;
+
+    CacheStatistics(long hitCount, long missCount, long evictionCount, long expirationCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.expirationCount = expirationCount;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return 見つからなかった、または期限切れだった取得の回数
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return 最大数を超えたために追い出されたエントリの数
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return 有効期間が過ぎたために破棄されたエントリの数
+     */
+    public long getExpirationCount() {
+        return expirationCount;
+    }
+
+    /**
+     * @return 取得のうちヒットした割合。取得がない場合は0
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{hits=" + hitCount + ", misses=" + missCount
+                + ", evictions=" + evictionCount + ", expirations=" + expirationCount + "}";
+    }
+}
@@ -0,0 +1,132 @@
+package com.iineineno03k.orm.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * キャッシュが最大数に達した場合に追い出すエントリの選び方
+ */
+public enum EvictionPolicy {
+    /** 最後にアクセスされてから最も時間の経ったエントリを追い出す */
+    LRU {
+        @Override
+        <K> EvictionQueue<K> createQueue() {
+            return new LruQueue<>();
+        }
+    },
+    /** アクセス回数が最も少ないエントリを追い出す。同数の場合は古くからアクセスされていないものを選ぶ */
+    LFU {
+        @Override
+        <K> EvictionQueue<K> createQueue() {
+            return new LfuQueue<>();
+        }
+    };
+
+    abstract <K> EvictionQueue<K> createQueue();
+
+    private static final class LruQueue<K> implements EvictionQueue<K> {
+        // アクセス順のLinkedHashMapで、先頭が最も古い
+        private final LinkedHashMap<K, Boolean> order = new LinkedHashMap<>(16, 0.75f, true);
+
+        @Override
+        public void recordInsert(K key) {
+            order.put(key, Boolean.TRUE);
+        }
+
+        @Override
+        public void recordAccess(K key) {
+            order.get(key);
+        }
+
+        @Override
+        public void remove(K key) {
+            order.remove(key);
+        }
+
+        @Override
+        public K victim() {
+            Iterator<K> iterator = order.keySet().iterator();
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+
+        @Override
+        public void clear() {
+            order.clear();
+        }
+    }
+
+    /**
+     * アクセス回数ごとのバケットで管理し、全ての操作を定数時間で行うLFU
+     */
+    private static final class LfuQueue<K> implements EvictionQueue<K> {
+        private final Map<K, Integer> frequencies = new HashMap<>();
+        private final Map<Integer, LinkedHashSet<K>> buckets = new HashMap<>();
+        private int minFrequency;
+
+        @Override
+        public void recordInsert(K key) {
+            frequencies.put(key, 1);
+            buckets.computeIfAbsent(1, k -> new LinkedHashSet<>()).add(key);
+            minFrequency = 1;
+        }
+
+        @Override
+        public void recordAccess(K key) {
+            Integer frequency = frequencies.get(key);
+            if (frequency == null) {
+                return;
+            }
+            LinkedHashSet<K> bucket = buckets.get(frequency);
+            bucket.remove(key);
+            if (bucket.isEmpty()) {
+                buckets.remove(frequency);
+                if (minFrequency == frequency) {
+                    minFrequency = frequency + 1;
+                }
+            }
+            frequencies.put(key, frequency + 1);
+            buckets.computeIfAbsent(frequency + 1, k -> new LinkedHashSet<>()).add(key);
+        }
+
+        @Override
+        public void remove(K key) {
+            Integer frequency = frequencies.remove(key);
+            if (frequency == null) {
+                return;
+            }
+            LinkedHashSet<K> bucket = buckets.get(frequency);
+            bucket.remove(key);
+            if (bucket.isEmpty()) {
+                buckets.remove(frequency);
+            }
+        }
+
+        @Override
+        public K victim() {
+            if (frequencies.isEmpty()) {
+                return null;
+            }
+            LinkedHashSet<K> bucket = buckets.get(minFrequency);
+            if (bucket == null) {
+                // 削除によって最小のバケットが空になった場合は探し直す
+                int min = Integer.MAX_VALUE;
+                for (Integer frequency : buckets.keySet()) {
+                    min = Math.min(min, frequency);
+                }
+                minFrequency = min;
+                bucket = buckets.get(min);
+            }
+            return bucket.iterator().next();
+        }
+
+        @Override
+        public void clear() {
+            frequencies.clear();
+            buckets.clear();
+            minFrequency = 0;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.iineineno03k.orm.cache;
+
+/**
+ * BoundedCacheのキーの追い出し順序を管理する
+ * 呼び出し側(BoundedCache)のロックの中でのみ使用する
+ */
+interface EvictionQueue<K> {
+
+    /**
+     * 新しく追加されたキーを記録する
+     */
+    void recordInsert(K key);
+
+    /**
+     * 既存のキーへのアクセスを記録する
+     */
+    void recordAccess(K key);
+
+    /**
+     * キーを管理対象から外す
+     */
+    void remove(K key);
+
+    /**
+     * @return 次に追い出すキー。空の場合はnull
+     */
+    K victim();
+
+    void clear();
+}
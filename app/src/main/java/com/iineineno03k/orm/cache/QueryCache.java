@@ -0,0 +1,184 @@
+package com.iineineno03k.orm.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 問い合わせ結果の主キーの一覧を、正規化したSQLとバインドパラメータをキーとしてキャッシュする
+ * 
+ * 無効化はテーブル単位で行う。テーブルごとに世代番号を持ち、無効化のたびに番号を進める。
+ * 結果は問い合わせ開始時の世代番号とともに保存し、取得時に世代が進んでいれば古い結果として扱う。
+ * そのため、問い合わせ中に無効化された結果が後から保存されても使われることはない。
+ */
+public class QueryCache {
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    public static final int DEFAULT_MAX_RESULT_SIZE = 10_000;
+
+    private final BoundedCache<QueryKey, CachedResult> results;
+    private final int maxResultSize;
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * 既定の上限でQueryCacheを作成する
+     */
+    public QueryCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_RESULT_SIZE);
+    }
+
+    /**
+     * @param maxEntries キャッシュする問い合わせの最大数。超えた場合は最後の利用が最も古いものから追い出す
+     * @param maxResultSize キャッシュする結果の最大件数。これより多い結果はキャッシュしない
+     */
+    public QueryCache(int maxEntries, int maxResultSize) {
+        if (maxResultSize <= 0) {
+            throw new IllegalArgumentException("Max result size must be positive");
+        }
+        this.results = new BoundedCache<>(maxEntries, 0, TimeUnit.SECONDS, EvictionPolicy.LRU);
+        this.maxResultSize = maxResultSize;
+    }
+
+    /**
+     * テーブルの現在の世代番号を取得する
+     * 問い合わせを実行する前に取得し、{@link #put}に渡すこと
+     * 
+     * @param tableName テーブル名
+     * @return 世代番号
+     */
+    public long generation(String tableName) {
+        return generationOf(tableName).get();
+    }
+
+    /**
+     * キャッシュされた結果を取得する
+     * 
+     * @param tableName 問い合わせ対象のテーブル名
+     * @param sql 問い合わせのSQL
+     * @param parameters バインドパラメータ
+     * @return 結果の主キーの一覧。キャッシュにない場合や無効化された場合はnull
+     */
+    public List<Object> get(String tableName, String sql, Object... parameters) {
+        QueryKey key = new QueryKey(sql, parameters);
+        CachedResult result = results.get(key);
+        if (result == null) {
+            return null;
+        }
+        if (result.generation != generation(tableName)) {
+            results.invalidate(key);
+            return null;
+        }
+        return result.ids;
+    }
+
+    /**
+     * 問い合わせの結果をキャッシュする
+     * 問い合わせの開始後にテーブルが無効化されていた場合や、結果が上限より多い場合は何もしない
+     * 
+     * @param tableName 問い合わせ対象のテーブル名
+     * @param generation 問い合わせ開始前に{@link #generation(String)}で取得した世代番号
+     * @param sql 問い合わせのSQL
+     * @param parameters バインドパラメータ
+     * @param ids 結果の主キー(結果の順序どおり)
+     */
+    public void put(String tableName, long generation, String sql, Object[] parameters, List<?> ids) {
+        if (ids.size() > maxResultSize || generation != generation(tableName)) {
+            return;
+        }
+        results.put(new QueryKey(sql, parameters),
+                new CachedResult(generation, Collections.unmodifiableList(new ArrayList<Object>(ids))));
+    }
+
+    /**
+     * テーブルを対象とするキャッシュ済みの結果を全て無効にする
+     * 
+     * @param tableName テーブル名
+     */
+    public void invalidate(String tableName) {
+        generationOf(tableName).incrementAndGet();
+    }
+
+    /**
+     * 全ての結果を破棄する
+     */
+    public void invalidateAll() {
+        for (AtomicLong generation : generations.values()) {
+            generation.incrementAndGet();
+        }
+        results.invalidateAll();
+    }
+
+    public CacheStatistics getStatistics() {
+        return results.getStatistics();
+    }
+
+    private AtomicLong generationOf(String tableName) {
+        AtomicLong generation = generations.get(tableName);
+        return generation != null ? generation : generations.computeIfAbsent(tableName, k -> new AtomicLong());
+    }
+
+    /**
+     * 空白の違いを除いたSQLを返す
+     * 連続する空白文字を1つの空白にまとめ、前後の空白を取り除く
+     */
+    static String normalize(String sql) {
+        StringBuilder normalized = new StringBuilder(sql.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    private static final class QueryKey {
+        private final String sql;
+        private final Object[] parameters;
+        private final int hash;
+
+        QueryKey(String sql, Object[] parameters) {
+            this.sql = normalize(sql);
+            this.parameters = parameters == null ? new Object[0] : parameters.clone();
+            this.hash = 31 * this.sql.hashCode() + Arrays.deepHashCode(this.parameters);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof QueryKey)) {
+                return false;
+            }
+            QueryKey other = (QueryKey) o;
+            return sql.equals(other.sql) && Arrays.deepEquals(parameters, other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class CachedResult {
+        private final long generation;
+        private final List<Object> ids;
+
+        CachedResult(long generation, List<Object> ids) {
+            this.generation = generation;
+            this.ids = ids;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.iineineno03k.orm.cache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.iineineno03k.orm.annotation.Cacheable;
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.EntityMetadataRegistry;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+
+/**
+ * 複数のEntityManagerで共有する二次キャッシュ
+ * 
+ * {@link Cacheable}を付けたエンティティクラスごとに、アノテーションの設定でBoundedCacheの領域を作る。
+ * エンティティのインスタンスは共有せず、カラム値の配列として保持し、取得のたびに新しいインスタンスを組み立てる。
+ * そのため、あるEntityManagerでの変更が他のEntityManagerの管理対象に漏れることはない。
+ * 日時や配列のような変更可能な値は、格納時と組み立て時の両方で複製し、インスタンス間で共有しない。
+ * 
+ * 対象のエンティティへの問い合わせ結果は、主キーの一覧としてQueryCacheにキャッシュする。
+ * 
+ * 領域ごとに破棄のたびに進める世代番号を持つ。読み込んだ行は読み込み前の世代番号とともに{@link #put}し、
+ * 読み込み中に破棄があった場合はキャッシュしない。これにより、並行する書き込みで破棄された古い行を入れ直さない。
+ */
+public class SecondLevelCache {
+    private final ConcurrentMap<Class<?>, Region> regions = new ConcurrentHashMap<>();
+    private final QueryCache queryCache;
+
+    /**
+     * 既定の上限のQueryCacheを持つSecondLevelCacheを作成する
+     */
+    public SecondLevelCache() {
+        this(new QueryCache());
+    }
+
+    /**
+     * @param queryCache 問い合わせ結果のキャッシュ
+     */
+    public SecondLevelCache(QueryCache queryCache) {
+        if (queryCache == null) {
+            throw new IllegalArgumentException("Query cache cannot be null");
+        }
+        this.queryCache = queryCache;
+    }
+
+    /**
+     * @param entityClass エンティティクラス
+     * @return 二次キャッシュの対象の場合はtrue
+     */
+    public boolean isCacheable(Class<?> entityClass) {
+        return entityClass.isAnnotationPresent(Cacheable.class);
+    }
+
+    /**
+     * キャッシュからエンティティを取得する
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @param id 主キー
+     * @return キャッシュした値から組み立てた新しいインスタンス。キャッシュにない場合や対象外のクラスの場合はnull
+     */
+    public <T> T get(Class<T> entityClass, Object id) {
+        Region region = region(entityClass);
+        if (region == null || id == null) {
+            return null;
+        }
+        Object[] values = region.cache.get(id);
+        return values == null ? null : entityClass.cast(region.hydrate(values));
+    }
+
+    /**
+     * エンティティクラスの領域の現在の世代番号を取得する
+     * 行を読み込む前に取得し、{@link #put}に渡すこと
+     * 
+     * @param entityClass エンティティクラス
+     * @return 世代番号。対象外のクラスの場合は0
+     */
+    public long generation(Class<?> entityClass) {
+        Region region = region(entityClass);
+        return region == null ? 0 : region.generation.get();
+    }
+
+    /**
+     * 読み込んだエンティティの値をキャッシュする。対象外のクラスの場合は何もしない
+     * 読み込みの開始後に領域で破棄があった場合はキャッシュしない
+     * 
+     * @param entity キャッシュするエンティティ
+     * @param generation 読み込み開始前に{@link #generation(Class)}で取得した世代番号
+     */
+    public void put(Object entity, long generation) {
+        Region region = region(entity.getClass());
+        if (region == null) {
+            return;
+        }
+        Object id = region.metadata.getIdField().getValue(entity);
+        if (id == null || generation != region.generation.get()) {
+            return;
+        }
+        region.cache.put(id, region.dehydrate(entity));
+        // 確認から格納までの間に破棄された場合は、破棄の後に入れた古い値を取り除く
+        if (generation != region.generation.get()) {
+            region.cache.invalidate(id);
+        }
+    }
+
+    /**
+     * @param entityClass エンティティクラス
+     * @param id 破棄するエンティティの主キー
+     */
+    public void evict(Class<?> entityClass, Object id) {
+        Region region = regions.get(entityClass);
+        if (region != null && id != null) {
+            region.generation.incrementAndGet();
+            region.cache.invalidate(id);
+        }
+    }
+
+    /**
+     * @param entityClass 全件を破棄するエンティティクラス
+     */
+    public void evictAll(Class<?> entityClass) {
+        Region region = regions.get(entityClass);
+        if (region != null) {
+            region.generation.incrementAndGet();
+            region.cache.invalidateAll();
+        }
+    }
+
+    /**
+     * 全てのエンティティクラスのキャッシュと問い合わせ結果を破棄する
+     */
+    public void evictAll() {
+        for (Region region : regions.values()) {
+            region.generation.incrementAndGet();
+            region.cache.invalidateAll();
+        }
+        queryCache.invalidateAll();
+    }
+
+    /**
+     * @return 対象のエンティティへの問い合わせ結果のキャッシュ
+     */
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * @param entityClass エンティティクラス
+     * @return エンティティクラスの領域の統計情報。まだ使われていない場合は全て0
+     */
+    public CacheStatistics getStatistics(Class<?> entityClass) {
+        Region region = regions.get(entityClass);
+        return region == null ? new CacheStatistics(0, 0, 0, 0) : region.cache.getStatistics();
+    }
+
+    private Region region(Class<?> entityClass) {
+        Region region = regions.get(entityClass);
+        if (region != null) {
+            return region;
+        }
+        if (!isCacheable(entityClass)) {
+            return null;
+        }
+        return regions.computeIfAbsent(entityClass, Region::new);
+    }
+
+    private static final class Region {
+        private final EntityMetadata metadata;
+        private final Constructor<?> constructor;
+        private final BoundedCache<Object, Object[]> cache;
+        private final AtomicLong generation = new AtomicLong();
+
+        Region(Class<?> entityClass) {
+            Cacheable cacheable = entityClass.getAnnotation(Cacheable.class);
+            this.metadata = EntityMetadataRegistry.get(entityClass);
+            this.cache = new BoundedCache<>(cacheable.maxSize(), cacheable.ttlSeconds(), TimeUnit.SECONDS,
+                    cacheable.eviction());
+            try {
+                this.constructor = entityClass.getDeclaredConstructor();
+                this.constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("Entity " + entityClass.getName() + " must have a no-arg constructor", e);
+            }
+        }
+
+        Object[] dehydrate(Object entity) {
+            List<FieldMetadata> columns = metadata.getColumns();
+            Object[] values = new Object[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = copy(columns.get(i).getValue(entity));
+            }
+            return values;
+        }
+
+        Object hydrate(Object[] values) {
+            Object entity;
+            try {
+                entity = constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Failed to instantiate " + metadata.getEntityClass().getName(), e);
+            }
+            List<FieldMetadata> columns = metadata.getColumns();
+            for (int i = 0; i < values.length; i++) {
+                columns.get(i).setValue(entity, copy(values[i]));
+            }
+            return entity;
+        }
+
+        /**
+         * 変更可能な値を複製する。不変な値はそのまま返す
+         */
+        private static Object copy(Object value) {
+            if (value instanceof java.util.Date) {
+                // Timestampのナノ秒やサブクラスの型も保つ
+                return ((java.util.Date) value).clone();
+            }
+            if (value != null && value.getClass().isArray()) {
+                int length = Array.getLength(value);
+                Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+                System.arraycopy(value, 0, copy, 0, length);
+                return copy;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.iineineno03k.orm.jdbc;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 上限付きのJDBCコネクションプール
+ * 
+ * 払い出し数はSemaphoreで制限し、アイドル接続はロックフリーのDequeで管理する。
+ * synchronizedを使わないため、接続を待つ仮想スレッドはキャリアスレッドを占有しない。
+ * 直近に返却された接続から再利用し、古いアイドル接続は末尾から破棄する。
+ * 
+ * {@link #begin}で開始したトランザクションの接続はスレッドに束縛し、
+ * そのスレッドの{@link #acquire()}はトランザクションの終了まで同じ接続を返す。
+ * 仮想スレッドでもスレッドごとに束縛されるよう、ThreadLocalで保持する。
+ */
+public class ConnectionPool implements AutoCloseable {
+    private final String url;
+    private final String username;
+    private final String password;
+    private final PoolConfig poolConfig;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledConnection> idleConnections = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final ScheduledExecutorService evictor;
+    private final ThreadLocal<Transaction> currentTransaction = new ThreadLocal<>();
+    private volatile boolean closed;
+
+    private ConnectionPool(String url, String username, String password, PoolConfig poolConfig) {
+        if (url == null || url.isEmpty()) {
+            throw new IllegalArgumentException("JDBC url cannot be null or empty");
+        }
+        if (poolConfig == null) {
+            throw new IllegalArgumentException("Pool config cannot be null");
+        }
+
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.poolConfig = poolConfig;
+        this.permits = new Semaphore(poolConfig.getMaxSize());
+        this.evictor = poolConfig.getIdleTimeoutMillis() > 0
+                ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "custom-orm-pool-evictor");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    /**
+     * コネクションプールを作成し、最小数のアイドル接続を開いてアイドル接続の破棄を開始する
+     * 接続とスケジュールしたタスクが構築途中のプールを参照しないよう、構築が終わってから開始する
+     * 
+     * @param url JDBC URL
+     * @param username ユーザー名
+     * @param password パスワード
+     * @param poolConfig プールの設定
+     * @return 開始したコネクションプール
+     * @throws IllegalStateException 最小数の接続を開けなかった場合
+     */
+    public static ConnectionPool create(String url, String username, String password, PoolConfig poolConfig) {
+        ConnectionPool pool = new ConnectionPool(url, username, password, poolConfig);
+        pool.start();
+        return pool;
+    }
+
+    private void start() {
+        // 最小数のアイドル接続を事前に作成しておく
+        try {
+            for (int i = 0; i < poolConfig.getMinSize(); i++) {
+                PooledConnection pooled = openPooledConnection();
+                idleConnections.offerLast(pooled);
+                idleCount.incrementAndGet();
+            }
+        } catch (SQLException e) {
+            close();
+            throw new IllegalStateException("Failed to initialize connection pool", e);
+        }
+
+        if (evictor != null) {
+            long period = Math.max(poolConfig.getIdleTimeoutMillis() / 2, 1L);
+            evictor.scheduleWithFixedDelay(this::evictIdleConnections, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 接続を取得する
+     * 上限まで払い出し済みの場合は設定されたタイムアウトまで待機する
+     * 
+     * @return プールされた接続
+     * @throws SQLException 接続の取得に失敗した場合、またはタイムアウトした場合
+     */
+    public PooledConnection acquire() throws SQLException {
+        Transaction transaction = currentTransaction.get();
+        if (transaction != null) {
+            return transaction.getPooledConnection();
+        }
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        try {
+            if (!permits.tryAcquire(poolConfig.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out after " + poolConfig.getAcquireTimeoutMillis()
+                        + "ms waiting for a connection (max pool size " + poolConfig.getMaxSize() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idleConnections.pollFirst()) != null) {
+                idleCount.decrementAndGet();
+                if (!pooled.getConnection().isClosed()) {
+                    pooled.markLeased();
+                    return pooled;
+                }
+            }
+
+            pooled = openPooledConnection();
+            pooled.markLeased();
+            return pooled;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 接続を1つ取得してトランザクションを開始し、現在のスレッドに束縛する
+     * 
+     * @param readOnly 読み取り専用のトランザクションの場合はtrue
+     * @param synchronization トランザクションの境界で呼び出すコールバック。不要な場合はnull
+     * @return 開始したトランザクション
+     * @throws SQLException 接続の取得または設定に失敗した場合
+     * @throws IllegalStateException 現在のスレッドで既にトランザクションが開始されている場合
+     */
+    public Transaction begin(boolean readOnly, TransactionSynchronization synchronization) throws SQLException {
+        if (currentTransaction.get() != null) {
+            throw new IllegalStateException("A transaction is already active on this thread; use a savepoint instead");
+        }
+        PooledConnection pooled = acquire();
+        try {
+            Connection connection = pooled.getConnection();
+            connection.setAutoCommit(false);
+            if (readOnly) {
+                connection.setReadOnly(true);
+            }
+        } catch (SQLException | RuntimeException e) {
+            pooled.close();
+            throw e;
+        }
+        pooled.bind();
+        Transaction transaction = new Transaction(this, pooled, readOnly, synchronization);
+        currentTransaction.set(transaction);
+        return transaction;
+    }
+
+    /**
+     * @return 現在のスレッドに束縛されたトランザクション。ない場合はnull
+     */
+    public Transaction getCurrentTransaction() {
+        return currentTransaction.get();
+    }
+
+    /**
+     * トランザクションの束縛を解除し、接続をプールへ返却する
+     */
+    void end(Transaction transaction) {
+        currentTransaction.remove();
+        PooledConnection pooled = transaction.getPooledConnection();
+        pooled.unbind();
+        if (transaction.isReadOnly()) {
+            try {
+                pooled.getConnection().setReadOnly(false);
+            } catch (SQLException e) {
+                closeQuietly(pooled);
+            }
+        }
+        pooled.close();
+    }
+
+    /**
+     * 接続をプールへ返却する
+     * 
+     * @param pooled 返却する接続
+     */
+    void release(PooledConnection pooled) {
+        try {
+            pooled.getStatementCache().releaseUncached();
+            Connection connection = pooled.getConnection();
+            if (closed || connection.isClosed()) {
+                closeQuietly(pooled);
+                return;
+            }
+            // 未完了のトランザクションは次の利用者に引き継がない
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            pooled.markReleased(System.nanoTime());
+            idleConnections.offerFirst(pooled);
+            idleCount.incrementAndGet();
+        } catch (SQLException e) {
+            closeQuietly(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * アイドルタイムアウトを超えた接続を、最小数を下回らない範囲で破棄する
+     */
+    public void evictIdleConnections() {
+        if (poolConfig.getIdleTimeoutMillis() <= 0) {
+            return;
+        }
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(poolConfig.getIdleTimeoutMillis());
+        long now = System.nanoTime();
+
+        Iterator<PooledConnection> iterator = idleConnections.descendingIterator();
+        while (iterator.hasNext() && idleCount.get() > poolConfig.getMinSize()) {
+            PooledConnection pooled = iterator.next();
+            if (now - pooled.getLastReleasedAt() < timeoutNanos) {
+                // 末尾ほど古いので、これより前はすべてタイムアウト前
+                break;
+            }
+            // 同時にacquireされた接続は削除に失敗するのでスキップする
+            if (idleConnections.removeLastOccurrence(pooled)) {
+                idleCount.decrementAndGet();
+                closeQuietly(pooled);
+            }
+        }
+    }
+
+    /**
+     * 現在アイドル状態の接続数を取得する
+     * 
+     * @return アイドル接続数
+     */
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    /**
+     * 現在払い出し中の接続数を取得する
+     * 
+     * @return 払い出し中の接続数
+     */
+    public int getActiveCount() {
+        return poolConfig.getMaxSize() - permits.availablePermits();
+    }
+
+    public PoolConfig getPoolConfig() {
+        return poolConfig;
+    }
+
+    /**
+     * プールを閉じ、アイドル接続をすべて破棄する
+     * 払い出し中の接続は返却時に破棄される
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        closeIdleConnections();
+    }
+
+    private PooledConnection openPooledConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, username, password);
+        return new PooledConnection(this, connection, poolConfig.getStatementCacheSize());
+    }
+
+    private void closeIdleConnections() {
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            closeQuietly(pooled);
+        }
+    }
+
+    private void closeQuietly(PooledConnection pooled) {
+        pooled.getStatementCache().clear();
+        try {
+            pooled.getConnection().close();
+        } catch (SQLException e) {
+            // 破棄する接続のエラーは無視する
+        }
+    }
+}
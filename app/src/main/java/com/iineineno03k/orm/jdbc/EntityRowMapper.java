@@ -0,0 +1,264 @@
+package com.iineineno03k.orm.jdbc;
+
+import java.lang.reflect.Constructor;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.iineineno03k.orm.cache.BoundedCache;
+import com.iineineno03k.orm.cache.EvictionPolicy;
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.EntityMetadataRegistry;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+import com.iineineno03k.orm.metadata.GeneratedEntityMetadata;
+import com.iineineno03k.orm.metadata.GeneratedMetadataRegistry;
+import com.iineineno03k.orm.metadata.PropertyAccessor;
+
+/**
+ * エンティティとJDBCの行の相互変換を行うクラス
+ * フィールドの並びはEntityMetadataのカラムの並び(宣言順、静的フィールドを除く)と一致する
+ * 
+ * アノテーションプロセッサが生成したメタデータがあればそれを使い、なければPropertyAccessorで読み書きする。
+ * 同じSQLの結果は同じカラムの並びになるため、カラムの対応はSQLごとに一度だけ解決して再利用する。
+ */
+public class EntityRowMapper<T> {
+    static final int MAX_COLUMN_MAPPINGS = 256;
+
+    private final Class<T> entityClass;
+    private final EntityMetadata metadata;
+    private final GeneratedEntityMetadata<T> generated;
+    private final String[] fieldNames;
+    private final Class<?>[] fieldTypes;
+    private final int idIndex;
+    private final Map<String, Integer> indexByNormalizedName;
+    private final BoundedCache<String, int[]> columnsBySql =
+            new BoundedCache<>(MAX_COLUMN_MAPPINGS, 0, TimeUnit.SECONDS, EvictionPolicy.LRU);
+    // 生成済みメタデータがない場合のみ使用する
+    private final PropertyAccessor[] accessors;
+    private final Constructor<T> constructor;
+
+    public EntityRowMapper(Class<T> entityClass) {
+        this.entityClass = entityClass;
+        this.metadata = EntityMetadataRegistry.get(entityClass);
+        this.generated = GeneratedMetadataRegistry.find(entityClass);
+        this.indexByNormalizedName = new HashMap<>();
+
+        if (generated != null) {
+            this.fieldNames = generated.getFieldNames();
+            this.fieldTypes = generated.getFieldTypes();
+            this.idIndex = generated.getIdIndex();
+            this.accessors = null;
+            this.constructor = null;
+        } else {
+            List<FieldMetadata> columns = metadata.getColumns();
+            this.accessors = new PropertyAccessor[columns.size()];
+            this.fieldNames = new String[accessors.length];
+            this.fieldTypes = new Class<?>[accessors.length];
+            this.idIndex = columns.indexOf(metadata.getIdField());
+            for (int i = 0; i < accessors.length; i++) {
+                FieldMetadata column = columns.get(i);
+                accessors[i] = column.getAccessor();
+                fieldNames[i] = column.getField().getName();
+                fieldTypes[i] = column.getJavaType();
+            }
+
+            try {
+                this.constructor = entityClass.getDeclaredConstructor();
+                this.constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("Entity " + entityClass.getName() + " must have a no-arg constructor", e);
+            }
+        }
+
+        // ラベルはフィールド名とカラム名のどちらでも対応付ける(カラム名を優先する)
+        List<String> columnNames = metadata.getColumnNames();
+        for (int i = 0; i < fieldNames.length; i++) {
+            indexByNormalizedName.put(normalize(fieldNames[i]), i);
+        }
+        for (int i = 0; i < columnNames.size(); i++) {
+            indexByNormalizedName.put(normalize(columnNames.get(i)), i);
+        }
+    }
+
+    /**
+     * SQLの結果のカラム位置ごとの対応フィールドを取得する
+     * 初回はResultSetのメタデータから解決し、同じSQLの2回目以降はメタデータを取得せずに解決済みの対応を返す
+     * 
+     * @param sql 実行したSQL
+     * @param resultSet そのSQLの結果
+     * @return {@link #resolveColumns(ResultSetMetaData)}の結果。呼び出し側で変更してはならない
+     * @throws SQLException メタデータの取得に失敗した場合
+     */
+    public int[] resolveColumns(String sql, ResultSet resultSet) throws SQLException {
+        int[] columns = columnsBySql.get(sql);
+        if (columns == null) {
+            columns = resolveColumns(resultSet.getMetaData());
+            columnsBySql.put(sql, columns);
+        }
+        return columns;
+    }
+
+    /**
+     * カラム位置ごとの対応フィールドを解決する
+     * カラムはラベルからアンダースコアを除き大文字小文字を無視して、カラム名またはフィールド名と対応付ける
+     * 
+     * @param metaData ResultSetのメタデータ
+     * @return カラム位置(0始まり)ごとのフィールド位置。対応するフィールドがない場合は-1
+     * @throws SQLException メタデータの取得に失敗した場合
+     */
+    public int[] resolveColumns(ResultSetMetaData metaData) throws SQLException {
+        int[] columns = new int[metaData.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            Integer index = indexByNormalizedName.get(normalize(metaData.getColumnLabel(i + 1)));
+            columns[i] = index == null ? -1 : index;
+        }
+        return columns;
+    }
+
+    /**
+     * 解決済みのカラム対応を使ってResultSetの現在行をエンティティに変換する
+     * 
+     * @param resultSet 読み取り元
+     * @param columns {@link #resolveColumns(String, ResultSet)}の結果
+     * @return 変換されたエンティティ
+     * @throws SQLException 読み取りに失敗した場合
+     */
+    public T mapRow(ResultSet resultSet, int[] columns) throws SQLException {
+        if (generated != null && isDeclarationOrder(columns)) {
+            return generated.read(resultSet);
+        }
+
+        T entity = newInstance();
+        for (int i = 0; i < columns.length; i++) {
+            int index = columns[i];
+            if (index < 0) {
+                continue;
+            }
+            setValue(entity, index, JdbcSupport.read(resultSet, i + 1, fieldTypes[index]));
+        }
+        return entity;
+    }
+
+    /**
+     * エンティティの全フィールドの値を宣言順で取得する
+     * 
+     * @param entity 対象のエンティティ
+     * @return フィールド値の配列
+     */
+    public Object[] extractValues(Object entity) {
+        T typed = entityClass.cast(entity);
+        if (generated != null) {
+            return generated.extract(typed);
+        }
+        Object[] values = new Object[accessors.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getValue(typed, i);
+        }
+        return values;
+    }
+
+    /**
+     * エンティティの全フィールドの値を宣言順に、指定した位置のパラメータから順にバインドする
+     * INSERT文とUPSERT文のパラメータ順序に対応する。複数行の文では行ごとに位置をずらして呼び出す。
+     * 生成済みメタデータがあれば値の配列を作らずにバインドする
+     * 
+     * @param statement バインド先
+     * @param firstIndex 最初のフィールドをバインドするパラメータ位置(1始まり)
+     * @param entity 対象のエンティティ
+     * @throws SQLException バインドに失敗した場合
+     */
+    public void bind(PreparedStatement statement, int firstIndex, Object entity) throws SQLException {
+        T typed = entityClass.cast(entity);
+        if (generated != null) {
+            generated.bind(statement, firstIndex, typed);
+            return;
+        }
+        for (int i = 0; i < accessors.length; i++) {
+            JdbcSupport.bind(statement, firstIndex + i, getValue(typed, i), fieldTypes[i]);
+        }
+    }
+
+    /**
+     * エンティティの主キーの値を取得する
+     * 
+     * @param entity 対象のエンティティ
+     * @return 主キーの値
+     */
+    public Object getId(Object entity) {
+        return getValue(entityClass.cast(entity), idIndex);
+    }
+
+    /**
+     * @return マッピング対象のフィールド数(INSERT文のカラム数)
+     */
+    public int getFieldCount() {
+        return fieldNames.length;
+    }
+
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @return エンティティのメタデータ
+     */
+    public EntityMetadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * @return コンパイル時に生成されたメタデータを使っている場合はtrue
+     */
+    public boolean isGenerated() {
+        return generated != null;
+    }
+
+    private boolean isDeclarationOrder(int[] columns) {
+        if (columns.length != fieldNames.length) {
+            return false;
+        }
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private T newInstance() {
+        if (generated != null) {
+            return generated.newInstance();
+        }
+        try {
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to instantiate " + entityClass.getName(), e);
+        }
+    }
+
+    private Object getValue(T entity, int index) {
+        if (generated != null) {
+            return generated.get(entity, index);
+        }
+        return accessors[index].get(entity);
+    }
+
+    private void setValue(T entity, int index, Object value) {
+        if (generated != null) {
+            generated.set(entity, index, value);
+            return;
+        }
+        // プリミティブ型のフィールドはNULLの場合デフォルト値のままになる
+        accessors[index].set(entity, value);
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,607 @@
+package com.iineineno03k.orm.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.iineineno03k.orm.OptimisticLockException;
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.EntityMetadataRegistry;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+import com.iineineno03k.orm.session.EntityChange;
+import com.iineineno03k.orm.sql.SQLGenerator;
+
+/**
+ * SQLGeneratorが生成したSQLをコネクションプール経由で実行するクラス
+ * 
+ * PreparedStatementは接続ごとのキャッシュから取得し、同じSQLの再解析を避ける。
+ * バージョンのカラムを持つエンティティは、UPSERT文ではなくINSERT文とバージョンを条件にしたUPDATE文で書き込み、
+ * 更新件数が0の場合は{@link OptimisticLockException}とする。
+ */
+public class JdbcEntityExecutor {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_FETCH_SIZE = 100;
+    public static final int DEFAULT_ID_CHUNK_SIZE = 500;
+    // 1文あたりのバインドパラメータ数の上限(PostgreSQLのプロトコル上の上限に合わせる)
+    static final int MAX_BIND_PARAMETERS = 32767;
+
+    private final ConnectionPool connectionPool;
+    private final SQLGenerator sqlGenerator;
+    private final Map<Class<?>, EntityRowMapper<?>> rowMappers = new ConcurrentHashMap<>();
+    // 方言のSQLからJDBC形式への変換結果
+    private final Map<String, String> jdbcSqlCache = new ConcurrentHashMap<>();
+
+    public JdbcEntityExecutor(ConnectionPool connectionPool, SQLGenerator sqlGenerator) {
+        this.connectionPool = connectionPool;
+        this.sqlGenerator = sqlGenerator;
+    }
+
+    /**
+     * エンティティのテーブルを作成する
+     * 
+     * @param entityClass エンティティクラス
+     * @throws SQLException SQLの実行に失敗した場合
+     */
+    public void createTable(Class<?> entityClass) throws SQLException {
+        String sql = toJdbcSql(sqlGenerator.createTableSQL(EntityMetadataRegistry.get(entityClass)));
+        try (PooledConnection pooled = connectionPool.acquire();
+                Statement statement = pooled.getConnection().createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+
+    /**
+     * エンティティを保存する
+     * ダイアレクトのUPSERT文で、主キーの行があれば更新し、なければ挿入する。
+     * 1文で実行するため、同じ主キーを同時に保存しても重複キーのエラーにならない。
+     * バージョンのカラムを持つエンティティは{@link #saveAll(Collection, int)}と同じく、バージョンで挿入か更新かを決める
+     * 
+     * @param entity 保存するエンティティ
+     * @throws SQLException SQLの実行に失敗した場合
+     * @throws OptimisticLockException 他の更新でバージョンが進んでいた場合
+     */
+    public void save(Object entity) throws SQLException {
+        EntityRowMapper<?> mapper = getRowMapper(entity.getClass());
+        if (mapper.getMetadata().getVersionField() != null) {
+            saveAll(List.of(entity), 1);
+            return;
+        }
+        String sql = toJdbcSql(sqlGenerator.createUpsertSQL(mapper.getMetadata()));
+
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            PreparedStatement statement = pooled.prepareStatement(sql);
+            mapper.bind(statement, 1, entity);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * 複数のエンティティを複数行のUPSERT文のJDBCバッチで保存する
+     * エンティティはクラスごとにまとめ、1文に複数行を並べてbatchSize件ごとに送信する。
+     * 同じ主キーのエンティティが複数ある場合は最後のものを書き込む。
+     * 全件を1つのトランザクションで保存し、失敗した場合はロールバックする。
+     * 
+     * バージョンのカラムを持つエンティティは、バージョンがnullなら初期値を設定してINSERTし、
+     * それ以外はバージョンを条件にしたUPDATE文で更新して、成功後にエンティティのバージョンを進める。
+     * 
+     * @param entities 保存するエンティティ
+     * @param batchSize 1回の送信でまとめる件数
+     * @throws SQLException SQLの実行に失敗した場合
+     * @throws OptimisticLockException 他の更新でバージョンが進んでいた場合、または行が削除されていた場合
+     */
+    public void saveAll(Collection<?> entities, int batchSize) throws SQLException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        if (entities.isEmpty()) {
+            return;
+        }
+
+        Map<Class<?>, List<Object>> entitiesByClass = groupByClass(entities);
+        List<Object> initialized = new ArrayList<>();
+        List<Object> updated = new ArrayList<>();
+
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            inTransaction(pooled, () -> {
+                for (Map.Entry<Class<?>, List<Object>> entry : entitiesByClass.entrySet()) {
+                    EntityRowMapper<?> mapper = getRowMapper(entry.getKey());
+                    FieldMetadata versionField = mapper.getMetadata().getVersionField();
+                    if (versionField == null) {
+                        upsertBatch(pooled, mapper, entry.getValue(), batchSize);
+                        continue;
+                    }
+                    List<Object> inserts = new ArrayList<>();
+                    List<Object> updates = new ArrayList<>();
+                    for (Object entity : entry.getValue()) {
+                        (versionField.getValue(entity) == null ? inserts : updates).add(entity);
+                    }
+                    initializeVersions(inserts, initialized);
+                    insertBatch(pooled, entry.getKey(), inserts, batchSize);
+                    updateBatch(pooled, mapper.getMetadata(), updates, batchSize);
+                    updated.addAll(updates);
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            resetVersions(initialized);
+            throw e;
+        }
+        for (Object entity : updated) {
+            FieldMetadata versionField = EntityMetadataRegistry.get(entity.getClass()).getVersionField();
+            versionField.setValue(entity, versionField.nextVersion(versionField.getValue(entity)));
+        }
+    }
+
+    /**
+     * 管理対象のエンティティの変更を、変更されたカラムだけのUPDATE文で書き込む
+     * 同じカラムの組み合わせの変更は1つのPreparedStatementのバッチにまとめて送信する。
+     * 全件を1つのトランザクションで更新し、失敗した場合はロールバックする。
+     * {@link Transaction}の実行中は、そのトランザクションに参加してコミットしない。
+     * バージョンのカラムを持つエンティティの更新件数が0の場合は全体をロールバックする。
+     * エンティティのバージョンは進めないので、成功後に{@link com.iineineno03k.orm.session.PersistenceContext#markFlushed}で反映する。
+     * 
+     * @param changes 書き込む変更
+     * @throws SQLException SQLの実行に失敗した場合
+     * @throws OptimisticLockException 他の更新でバージョンが進んでいた場合、または行が削除されていた場合
+     */
+    public void update(List<EntityChange> changes) throws SQLException {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<EntityChange>> changesBySql = new LinkedHashMap<>();
+        for (EntityChange change : changes) {
+            String sql = toJdbcSql(sqlGenerator.createUpdateSQL(change.getMetadata(), change.getChangedColumns()));
+            changesBySql.computeIfAbsent(sql, k -> new ArrayList<>()).add(change);
+        }
+
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            inTransaction(pooled, () -> {
+                for (Map.Entry<String, List<EntityChange>> entry : changesBySql.entrySet()) {
+                    PreparedStatement statement = pooled.prepareStatement(entry.getKey());
+                    for (EntityChange change : entry.getValue()) {
+                        Object[] parameters = change.getParameters();
+                        List<FieldMetadata> columns = change.getChangedColumns();
+                        for (int i = 0; i < parameters.length; i++) {
+                            Class<?> type = i < columns.size() ? columns.get(i).getJavaType() : null;
+                            JdbcSupport.bind(statement, i + 1, parameters[i], type);
+                        }
+                        statement.addBatch();
+                    }
+                    int[] counts = statement.executeBatch();
+                    List<EntityChange> batch = entry.getValue();
+                    if (batch.get(0).getMetadata().getVersionField() != null) {
+                        for (int i = 0; i < counts.length; i++) {
+                            if (counts[i] == 0) {
+                                throw new OptimisticLockException(batch.get(i).getEntity(), batch.get(i).getId());
+                            }
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 主キーでエンティティを取得する
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @param id 主キー
+     * @return 見つかったエンティティ。存在しない場合はnull
+     * @throws SQLException SQLの実行に失敗した場合
+     */
+    public <T> T findById(Class<T> entityClass, Object id) throws SQLException {
+        EntityRowMapper<T> mapper = getRowMapper(entityClass);
+        String sql = toJdbcSql(sqlGenerator.createSelectSQL(mapper.getMetadata()));
+
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            PreparedStatement statement = pooled.prepareStatement(sql);
+            JdbcSupport.bind(statement, 1, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                return mapper.mapRow(resultSet, mapper.resolveColumns(sql, resultSet));
+            }
+        }
+    }
+
+    /**
+     * 主キーの一覧でエンティティを取得する
+     * 主キーはchunkSize件(データベースの上限を超える場合は上限)ずつに分けて、1つの接続で順に問い合わせる。
+     * IN句で問い合わせる場合、最後の端数は2の累乗の件数まで最後の主キーを繰り返して埋め、
+     * 生成されるSQLの種類を主キーの数ではなくその対数に比例する数に抑える。
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @param ids 重複のない主キーの一覧
+     * @param chunkSize 1文で問い合わせる主キーの数
+     * @return 見つかったエンティティ。順序は保証しない
+     * @throws SQLException SQLの実行に失敗した場合
+     */
+    public <T> List<T> findAllById(Class<T> entityClass, List<?> ids, int chunkSize) throws SQLException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        EntityRowMapper<T> mapper = getRowMapper(entityClass);
+        EntityMetadata metadata = mapper.getMetadata();
+        boolean bindArray = sqlGenerator.bindsIdsAsArray();
+        int size = Math.min(chunkSize, sqlGenerator.getMaxIdsPerQuery());
+        if (!bindArray) {
+            size = Math.min(size, MAX_BIND_PARAMETERS);
+        }
+
+        List<T> entities = new ArrayList<>(ids.size());
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            for (int from = 0; from < ids.size(); from += size) {
+                List<?> chunk = ids.subList(from, Math.min(ids.size(), from + size));
+                int idCount = bindArray ? chunk.size() : padToPowerOfTwo(chunk.size(), size);
+                String sql = toJdbcSql(sqlGenerator.createSelectByIdsSQL(metadata, idCount));
+                PreparedStatement statement = pooled.prepareStatement(sql);
+                if (bindArray) {
+                    statement.setArray(1, pooled.getConnection().createArrayOf(
+                            arrayElementType(metadata.getIdField().getJavaType()), chunk.toArray()));
+                } else {
+                    for (int i = 0; i < idCount; i++) {
+                        JdbcSupport.bind(statement, i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                    }
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    int[] columns = mapper.resolveColumns(sql, resultSet);
+                    while (resultSet.next()) {
+                        entities.add(mapper.mapRow(resultSet, columns));
+                    }
+                }
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * 指定されたエンティティタイプの全行を取得する
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @return エンティティのリスト
+     * @throws SQLException SQLの実行に失敗した場合
+     */
+    public <T> List<T> findAll(Class<T> entityClass) throws SQLException {
+        EntityRowMapper<T> mapper = getRowMapper(entityClass);
+        String sql = toJdbcSql(sqlGenerator.createSelectAllSQL(mapper.getMetadata()));
+
+        try (PooledConnection pooled = connectionPool.acquire();
+                ResultSet resultSet = pooled.prepareStatement(sql).executeQuery()) {
+            int[] columns = mapper.resolveColumns(sql, resultSet);
+            List<T> entities = new ArrayList<>();
+            while (resultSet.next()) {
+                entities.add(mapper.mapRow(resultSet, columns));
+            }
+            return entities;
+        }
+    }
+
+    /**
+     * 条件付きのSELECT文でエンティティを取得する
+     * 問い合わせの形は値の数などで多岐にわたるため、JDBC形式への変換結果はキャッシュしない
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @param sql SQLGeneratorが生成したSELECT文
+     * @param parameters バインドする値
+     * @return エンティティのリスト
+     * @throws SQLException SQLの実行に失敗した場合
+     */
+    public <T> List<T> query(Class<T> entityClass, String sql, Object[] parameters) throws SQLException {
+        EntityRowMapper<T> mapper = getRowMapper(entityClass);
+
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            PreparedStatement statement = prepareQuery(pooled, sql, parameters);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                int[] columns = mapper.resolveColumns(sql, resultSet);
+                List<T> entities = new ArrayList<>();
+                while (resultSet.next()) {
+                    entities.add(mapper.mapRow(resultSet, columns));
+                }
+                return entities;
+            }
+        }
+    }
+
+    /**
+     * 条件付きのSELECT文で指定したカラムの値だけを取得する
+     * 
+     * @param sql SQLGeneratorが生成したSELECT文
+     * @param parameters バインドする値
+     * @param types SELECT句のカラムの順に並べたJavaの型
+     * @return 行ごとの値の配列
+     * @throws SQLException SQLの実行に失敗した場合
+     */
+    public List<Object[]> queryValues(String sql, Object[] parameters, Class<?>[] types) throws SQLException {
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            PreparedStatement statement = prepareQuery(pooled, sql, parameters);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                List<Object[]> rows = new ArrayList<>();
+                while (resultSet.next()) {
+                    Object[] row = new Object[types.length];
+                    for (int i = 0; i < types.length; i++) {
+                        row[i] = JdbcSupport.read(resultSet, i + 1, types[i]);
+                    }
+                    rows.add(row);
+                }
+                return rows;
+            }
+        }
+    }
+
+    /**
+     * 指定されたエンティティタイプの全行を、読み込みながら変換するStreamとして取得する
+     * 前方向のみ・読み取り専用のResultSetをfetchSize行ずつ取得するため、メモリ使用量は表の大きさに依存しない。
+     * PostgreSQLのドライバはautocommitが無効な場合のみカーソルで取得するので、ストリームの間はautocommitを無効にする。
+     * 
+     * 返されたStreamはコネクションを保持しているため、try-with-resourcesなどで必ず閉じること。
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @param fetchSize 1回の通信で取得する行数
+     * @return エンティティのStream
+     * @throws SQLException SQLの実行に失敗した場合
+     */
+    public <T> Stream<T> stream(Class<T> entityClass, int fetchSize) throws SQLException {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive");
+        }
+        EntityRowMapper<T> mapper = getRowMapper(entityClass);
+        String sql = toJdbcSql(sqlGenerator.createSelectAllSQL(mapper.getMetadata()));
+
+        PooledConnection pooled = connectionPool.acquire();
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            Connection connection = pooled.getConnection();
+            connection.setAutoCommit(false);
+            // 行を保持したままキャッシュに戻さないよう、ステートメントキャッシュは使わない
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            resultSet = statement.executeQuery();
+
+            ResultSetSpliterator<T> spliterator = new ResultSetSpliterator<>(pooled, statement, resultSet, mapper,
+                    mapper.resolveColumns(sql, resultSet));
+            return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+        } catch (SQLException | RuntimeException e) {
+            if (resultSet != null) {
+                resultSet.close();
+            }
+            if (statement != null) {
+                statement.close();
+            }
+            pooled.close();
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> EntityRowMapper<T> getRowMapper(Class<T> entityClass) {
+        return (EntityRowMapper<T>) rowMappers.computeIfAbsent(entityClass, EntityRowMapper::new);
+    }
+
+    private String toJdbcSql(String sql) {
+        return jdbcSqlCache.computeIfAbsent(sql, JdbcSupport::toJdbcSql);
+    }
+
+    private void insertBatch(PooledConnection pooled, Class<?> entityClass, List<Object> entities, int batchSize)
+            throws SQLException {
+        EntityRowMapper<?> mapper = getRowMapper(entityClass);
+        EntityMetadata metadata = mapper.getMetadata();
+        writeRows(pooled, mapper, entities, batchSize, rowCount -> rowCount == 1
+                ? sqlGenerator.createInsertSQL(metadata)
+                : sqlGenerator.createMultiRowInsertSQL(metadata, rowCount));
+    }
+
+    /**
+     * 複数行のUPSERT文で書き込む
+     * 1文に同じ主キーの行を含められないデータベースがあるため、同じ主キーは最後のエンティティだけを書き込む
+     */
+    private void upsertBatch(PooledConnection pooled, EntityRowMapper<?> mapper, List<Object> entities, int batchSize)
+            throws SQLException {
+        Map<Object, Object> lastById = new LinkedHashMap<>(entities.size() * 2);
+        for (Object entity : entities) {
+            Object id = mapper.getId(entity);
+            lastById.remove(id);
+            lastById.put(id, entity);
+        }
+        EntityMetadata metadata = mapper.getMetadata();
+        writeRows(pooled, mapper, new ArrayList<>(lastById.values()), batchSize,
+                rowCount -> sqlGenerator.createMultiRowUpsertSQL(metadata, rowCount));
+    }
+
+    /**
+     * 複数行の文のJDBCバッチで行を書き込む
+     * 1文にbatchSize行(バインドパラメータの上限を超える場合は上限まで)を並べ、埋められない残りは1行の文をまとめて送信する。
+     * 値は行ごとにパラメータ位置をずらして直接バインドする
+     * 
+     * @param sqlForRows 行数から方言のSQLを生成する処理
+     */
+    private void writeRows(PooledConnection pooled, EntityRowMapper<?> mapper, List<Object> entities, int batchSize,
+            IntFunction<String> sqlForRows) throws SQLException {
+        int fieldCount = mapper.getFieldCount();
+        int rowsPerStatement = Math.max(1, Math.min(batchSize, MAX_BIND_PARAMETERS / fieldCount));
+        int statementsPerFlush = Math.max(1, batchSize / rowsPerStatement);
+        int index = 0;
+
+        // 複数行の文で埋められる分を送信する
+        if (rowsPerStatement > 1 && entities.size() >= rowsPerStatement) {
+            PreparedStatement statement = pooled.prepareStatement(toJdbcSql(sqlForRows.apply(rowsPerStatement)));
+            int pending = 0;
+            while (entities.size() - index >= rowsPerStatement) {
+                for (int row = 0; row < rowsPerStatement; row++) {
+                    mapper.bind(statement, row * fieldCount + 1, entities.get(index++));
+                }
+                statement.addBatch();
+                if (++pending == statementsPerFlush) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+
+        // 残りは1行の文をまとめて送信する
+        if (index < entities.size()) {
+            PreparedStatement statement = pooled.prepareStatement(toJdbcSql(sqlForRows.apply(1)));
+            int pending = 0;
+            while (index < entities.size()) {
+                mapper.bind(statement, 1, entities.get(index++));
+                statement.addBatch();
+                if (++pending == batchSize) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * バージョンを条件にしたUPDATE文で全カラムを更新する
+     * 更新件数が0の行があれば、その時点で{@link OptimisticLockException}とする。
+     * 件数を返さないドライバ({@link Statement#SUCCESS_NO_INFO})の場合は競合を検出できない
+     */
+    private void updateBatch(PooledConnection pooled, EntityMetadata metadata, List<Object> entities, int batchSize)
+            throws SQLException {
+        if (entities.isEmpty()) {
+            return;
+        }
+        PreparedStatement statement = pooled.prepareStatement(toJdbcSql(sqlGenerator.createUpdateSQL(metadata)));
+        FieldMetadata idField = metadata.getIdField();
+        FieldMetadata versionField = metadata.getVersionField();
+        List<Object> batch = new ArrayList<>(Math.min(batchSize, entities.size()));
+        for (Object entity : entities) {
+            int parameterIndex = 1;
+            for (FieldMetadata column : metadata.getNonIdColumns()) {
+                if (!column.isVersion()) {
+                    JdbcSupport.bind(statement, parameterIndex++, column.getValue(entity), column.getJavaType());
+                }
+            }
+            JdbcSupport.bind(statement, parameterIndex++, idField.getValue(entity));
+            JdbcSupport.bind(statement, parameterIndex, versionField.getValue(entity));
+            statement.addBatch();
+            batch.add(entity);
+            if (batch.size() == batchSize) {
+                checkUpdated(statement.executeBatch(), batch, idField);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            checkUpdated(statement.executeBatch(), batch, idField);
+        }
+    }
+
+    private static void checkUpdated(int[] counts, List<Object> entities, FieldMetadata idField) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                Object entity = entities.get(i);
+                throw new OptimisticLockException(entity, idField.getValue(entity));
+            }
+        }
+    }
+
+    /**
+     * バージョンがnullのエンティティに初期値を設定し、設定したエンティティをinitializedに加える
+     */
+    private static void initializeVersions(List<Object> entities, List<Object> initialized) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        FieldMetadata versionField = EntityMetadataRegistry.get(entities.get(0).getClass()).getVersionField();
+        if (versionField == null) {
+            return;
+        }
+        for (Object entity : entities) {
+            if (versionField.getValue(entity) == null) {
+                versionField.setValue(entity, versionField.nextVersion(null));
+                initialized.add(entity);
+            }
+        }
+    }
+
+    /**
+     * 書き込みに失敗した新規のエンティティのバージョンをnullに戻す
+     */
+    private static void resetVersions(List<Object> initialized) {
+        for (Object entity : initialized) {
+            EntityMetadataRegistry.get(entity.getClass()).getVersionField().setValue(entity, null);
+        }
+    }
+
+    private static Map<Class<?>, List<Object>> groupByClass(Collection<?> entities) {
+        Map<Class<?>, List<Object>> entitiesByClass = new LinkedHashMap<>();
+        for (Object entity : entities) {
+            entitiesByClass.computeIfAbsent(entity.getClass(), k -> new ArrayList<>()).add(entity);
+        }
+        return entitiesByClass;
+    }
+
+    private static int padToPowerOfTwo(int count, int max) {
+        return count <= 1 ? count : Math.min(max, Integer.highestOneBit(count - 1) << 1);
+    }
+
+    /**
+     * createArrayOfに渡す要素の型名。ダイアレクトの型名から長さなどの指定を除く
+     */
+    private String arrayElementType(Class<?> javaType) {
+        String sqlType = sqlGenerator.mapJavaTypeToSQLType(javaType);
+        int parenthesis = sqlType.indexOf('(');
+        return parenthesis < 0 ? sqlType : sqlType.substring(0, parenthesis);
+    }
+
+    /**
+     * 処理を1つのトランザクションで実行する
+     * 接続が既にトランザクション中(autocommitが無効)の場合は参加するだけで、コミットもロールバックもしない
+     */
+    private void inTransaction(PooledConnection pooled, SqlWork work) throws SQLException {
+        Connection connection = pooled.getConnection();
+        if (!connection.getAutoCommit()) {
+            work.execute();
+            return;
+        }
+        connection.setAutoCommit(false);
+        try {
+            work.execute();
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private PreparedStatement prepareQuery(PooledConnection pooled, String sql, Object[] parameters)
+            throws SQLException {
+        PreparedStatement statement = pooled.prepareStatement(JdbcSupport.toJdbcSql(sql));
+        for (int i = 0; i < parameters.length; i++) {
+            JdbcSupport.bind(statement, i + 1, parameters[i]);
+        }
+        return statement;
+    }
+
+    @FunctionalInterface
+    private interface SqlWork {
+        void execute() throws SQLException;
+    }
+}
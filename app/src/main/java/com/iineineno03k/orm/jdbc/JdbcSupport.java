@@ -0,0 +1,172 @@
+package com.iineineno03k.orm.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * JDBC実行時の共通処理をまとめたユーティリティ
+ */
+public final class JdbcSupport {
+
+    private JdbcSupport() {
+    }
+
+    /**
+     * 方言ごとのプレースホルダー($1, :1)をJDBCの?に置き換える
+     * 文字列リテラル内は置換しない。末尾のセミコロンも取り除く
+     * 
+     * @param sql SQLGeneratorが生成したSQL
+     * @return PreparedStatementに渡せるSQL
+     */
+    public static String toJdbcSql(String sql) {
+        int end = sql.length();
+        while (end > 0 && (sql.charAt(end - 1) == ';' || Character.isWhitespace(sql.charAt(end - 1)))) {
+            end--;
+        }
+
+        StringBuilder result = new StringBuilder(end);
+        boolean inLiteral = false;
+        int i = 0;
+        while (i < end) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            } else if (!inLiteral && (c == '$' || c == ':') && i + 1 < end && isDigit(sql.charAt(i + 1))) {
+                result.append('?');
+                i++;
+                while (i < end && isDigit(sql.charAt(i))) {
+                    i++;
+                }
+                continue;
+            }
+            result.append(c);
+            i++;
+        }
+        return result.toString();
+    }
+
+    /**
+     * 値をPreparedStatementにバインドする
+     * 型の分からない値に使う。nullは{@link Types#NULL}としてバインドする
+     * 
+     * @param statement バインド先
+     * @param index パラメータ位置(1始まり)
+     * @param value バインドする値
+     * @throws SQLException バインドに失敗した場合
+     */
+    public static void bind(PreparedStatement statement, int index, Object value) throws SQLException {
+        bind(statement, index, value, null);
+    }
+
+    /**
+     * フィールドの型を指定して値をPreparedStatementにバインドする
+     * nullはフィールドの型に対応するSQLの型を指定してバインドし、ドライバに型を推測させない
+     * 
+     * @param statement バインド先
+     * @param index パラメータ位置(1始まり)
+     * @param value バインドする値
+     * @param type フィールドの型。不明な場合はnull
+     * @throws SQLException バインドに失敗した場合
+     */
+    public static void bind(PreparedStatement statement, int index, Object value, Class<?> type) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, sqlTypeFor(type));
+        } else if (value instanceof java.util.Date && !(value instanceof java.sql.Date)
+                && !(value instanceof java.sql.Time) && !(value instanceof java.sql.Timestamp)) {
+            statement.setTimestamp(index, new Timestamp(((java.util.Date) value).getTime()));
+        } else {
+            statement.setObject(index, value);
+        }
+    }
+
+    /**
+     * フィールドの型に対応する{@link Types}の値を返す
+     * 
+     * @param type フィールドの型。nullの場合は{@link Types#NULL}
+     * @return SQLの型
+     */
+    static int sqlTypeFor(Class<?> type) {
+        if (type == null) {
+            return Types.NULL;
+        }
+        Class<?> wrapped = wrap(type);
+        if (wrapped == String.class) {
+            return Types.VARCHAR;
+        } else if (wrapped == Long.class) {
+            return Types.BIGINT;
+        } else if (wrapped == Integer.class) {
+            return Types.INTEGER;
+        } else if (wrapped == Short.class) {
+            return Types.SMALLINT;
+        } else if (wrapped == Byte.class) {
+            return Types.TINYINT;
+        } else if (wrapped == Boolean.class) {
+            return Types.BOOLEAN;
+        } else if (wrapped == Double.class) {
+            return Types.DOUBLE;
+        } else if (wrapped == Float.class) {
+            return Types.REAL;
+        } else if (wrapped == Character.class) {
+            return Types.CHAR;
+        } else if (wrapped == java.math.BigDecimal.class) {
+            return Types.DECIMAL;
+        } else if (wrapped == java.sql.Date.class || wrapped == java.time.LocalDate.class) {
+            return Types.DATE;
+        } else if (wrapped == java.sql.Time.class || wrapped == java.time.LocalTime.class) {
+            return Types.TIME;
+        } else if (java.util.Date.class.isAssignableFrom(wrapped) || wrapped == java.time.LocalDateTime.class) {
+            return Types.TIMESTAMP;
+        } else if (wrapped == byte[].class) {
+            return Types.VARBINARY;
+        }
+        return Types.NULL;
+    }
+
+    /**
+     * ResultSetからフィールドの型に合わせて値を読み取る
+     * 
+     * @param resultSet 読み取り元
+     * @param index カラム位置(1始まり)
+     * @param type フィールドの型
+     * @return 読み取った値。SQLのNULLの場合はnull
+     * @throws SQLException 読み取りに失敗した場合
+     */
+    public static Object read(ResultSet resultSet, int index, Class<?> type) throws SQLException {
+        if (type == java.util.Date.class) {
+            Timestamp timestamp = resultSet.getTimestamp(index);
+            return timestamp == null ? null : new java.util.Date(timestamp.getTime());
+        }
+        return resultSet.getObject(index, wrap(type));
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == long.class) {
+            return Long.class;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == char.class) {
+            return Character.class;
+        }
+        return type;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,86 @@
+package com.iineineno03k.orm.jdbc;
+
+/**
+ * コネクションプールの設定
+ */
+public class PoolConfig {
+    public static final int DEFAULT_MIN_SIZE = 2;
+    public static final int DEFAULT_MAX_SIZE = 10;
+    public static final long DEFAULT_ACQUIRE_TIMEOUT_MILLIS = 30_000L;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 600_000L;
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final int statementCacheSize;
+
+    /**
+     * デフォルト値でPoolConfigを作成する
+     */
+    public PoolConfig() {
+        this(DEFAULT_MIN_SIZE, DEFAULT_MAX_SIZE, DEFAULT_ACQUIRE_TIMEOUT_MILLIS, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param minSize 常に保持しておくアイドル接続の最小数
+     * @param maxSize 同時に払い出せる物理接続の最大数
+     * @param acquireTimeoutMillis 接続取得時の最大待ち時間（ミリ秒）
+     * @param idleTimeoutMillis アイドル接続を破棄するまでの時間（ミリ秒）。0以下の場合は破棄しない
+     */
+    public PoolConfig(int minSize, int maxSize, long acquireTimeoutMillis, long idleTimeoutMillis) {
+        this(minSize, maxSize, acquireTimeoutMillis, idleTimeoutMillis, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * @param minSize 常に保持しておくアイドル接続の最小数
+     * @param maxSize 同時に払い出せる物理接続の最大数
+     * @param acquireTimeoutMillis 接続取得時の最大待ち時間（ミリ秒）
+     * @param idleTimeoutMillis アイドル接続を破棄するまでの時間（ミリ秒）。0以下の場合は破棄しない
+     * @param statementCacheSize 接続ごとにキャッシュするPreparedStatementの最大数。0の場合はキャッシュしない
+     */
+    public PoolConfig(int minSize, int maxSize, long acquireTimeoutMillis, long idleTimeoutMillis, int statementCacheSize) {
+        if (minSize < 0) {
+            throw new IllegalArgumentException("Pool min size cannot be negative: " + minSize);
+        }
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool max size must be positive: " + maxSize);
+        }
+        if (minSize > maxSize) {
+            throw new IllegalArgumentException("Pool min size " + minSize + " exceeds max size " + maxSize);
+        }
+        if (acquireTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Acquire timeout cannot be negative: " + acquireTimeoutMillis);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Statement cache size cannot be negative: " + statementCacheSize);
+        }
+
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+}
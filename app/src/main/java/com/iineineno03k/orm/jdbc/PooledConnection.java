@@ -0,0 +1,83 @@
+package com.iineineno03k.orm.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * プールから払い出された接続
+ * closeすると物理接続は閉じずにプールへ返却される
+ */
+public class PooledConnection implements AutoCloseable {
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final StatementCache statementCache;
+    private long lastReleasedAt;
+    private boolean leased;
+    // トランザクションに束縛されている間は、closeしてもプールへ返却しない
+    private boolean bound;
+
+    PooledConnection(ConnectionPool pool, Connection connection, int statementCacheSize) {
+        this.pool = pool;
+        this.connection = connection;
+        this.statementCache = new StatementCache(statementCacheSize);
+        this.lastReleasedAt = System.nanoTime();
+    }
+
+    /**
+     * 物理接続を取得する
+     * 
+     * @return JDBCの接続
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * 接続ごとにキャッシュされたPreparedStatementを取得する
+     * 返されたPreparedStatementは閉じずにそのまま使い捨てること
+     * 
+     * @param sql JDBC形式のSQL
+     * @return パラメータがクリアされたPreparedStatement
+     * @throws SQLException 作成に失敗した場合
+     */
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return statementCache.prepare(connection, sql);
+    }
+
+    /**
+     * 接続をプールへ返却する
+     * トランザクションに束縛されている場合は、トランザクションの終了時に返却する
+     */
+    @Override
+    public void close() {
+        if (leased && !bound) {
+            leased = false;
+            pool.release(this);
+        }
+    }
+
+    void markLeased() {
+        leased = true;
+    }
+
+    void bind() {
+        bound = true;
+    }
+
+    void unbind() {
+        bound = false;
+    }
+
+    void markReleased(long nanoTime) {
+        lastReleasedAt = nanoTime;
+    }
+
+    StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    long getLastReleasedAt() {
+        return lastReleasedAt;
+    }
+}
@@ -0,0 +1,76 @@
+package com.iineineno03k.orm.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * ResultSetを1行ずつエンティティに変換するSpliterator
+ * 
+ * 行は要求されたときに読み込むため、保持するのは現在の行だけとなる。
+ * 最後の行まで読み終えたとき、読み取りに失敗したとき、またはclose()の呼び出しで
+ * ResultSet・PreparedStatement・コネクションを解放する。
+ */
+class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+    private final PooledConnection pooled;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private final EntityRowMapper<T> mapper;
+    private final int[] columns;
+    private boolean closed;
+
+    ResultSetSpliterator(PooledConnection pooled, PreparedStatement statement, ResultSet resultSet,
+            EntityRowMapper<T> mapper, int[] columns) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.pooled = pooled;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.mapper = mapper;
+        this.columns = columns;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (closed) {
+            return false;
+        }
+        T entity;
+        try {
+            if (!resultSet.next()) {
+                close();
+                return false;
+            }
+            entity = mapper.mapRow(resultSet, columns);
+        } catch (SQLException e) {
+            close();
+            throw new RuntimeException("Failed to read entity from result set", e);
+        }
+        action.accept(entity);
+        return true;
+    }
+
+    /**
+     * 保持しているリソースを解放する。複数回呼び出しても問題ない
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            resultSet.close();
+        } catch (SQLException e) {
+            // 解放処理の失敗は無視する
+        }
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // 解放処理の失敗は無視する
+        }
+        pooled.close();
+    }
+}
@@ -0,0 +1,105 @@
+package com.iineineno03k.orm.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 1つの物理接続に紐づくPreparedStatementのLRUキャッシュ
+ * 
+ * 接続は同時に1スレッドにしか払い出されないため同期は行わない。
+ * 上限を超えた場合は最も長く使われていない文を閉じる。
+ * 上限が0の場合はキャッシュせず、接続の返却時にまとめて閉じる。
+ */
+public class StatementCache {
+    private final int maxSize;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+    private final List<PreparedStatement> uncachedStatements = new ArrayList<>();
+
+    public StatementCache(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Statement cache size cannot be negative: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * キャッシュ済みのPreparedStatementを取得する。なければ作成する
+     * 返されたPreparedStatementは呼び出し側で閉じてはならない
+     * 
+     * @param connection 物理接続
+     * @param sql JDBC形式のSQL
+     * @return パラメータがクリアされたPreparedStatement
+     * @throws SQLException 作成に失敗した場合
+     */
+    public PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        if (maxSize == 0) {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            uncachedStatements.add(statement);
+            return statement;
+        }
+
+        PreparedStatement statement = statements.get(sql);
+        if (statement != null) {
+            if (!statement.isClosed()) {
+                statement.clearParameters();
+                return statement;
+            }
+            statements.remove(sql);
+        }
+
+        statement = connection.prepareStatement(sql);
+        statements.put(sql, statement);
+        evictOverflow();
+        return statement;
+    }
+
+    /**
+     * キャッシュされていない文を閉じる
+     * 接続をプールへ返却する際に呼び出す
+     */
+    public void releaseUncached() {
+        for (PreparedStatement statement : uncachedStatements) {
+            closeQuietly(statement);
+        }
+        uncachedStatements.clear();
+    }
+
+    /**
+     * すべての文を閉じてキャッシュを空にする
+     */
+    public void clear() {
+        releaseUncached();
+        for (PreparedStatement statement : statements.values()) {
+            closeQuietly(statement);
+        }
+        statements.clear();
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+    private void evictOverflow() {
+        Iterator<PreparedStatement> iterator = statements.values().iterator();
+        while (statements.size() > maxSize && iterator.hasNext()) {
+            PreparedStatement eldest = iterator.next();
+            iterator.remove();
+            closeQuietly(eldest);
+        }
+    }
+
+    private void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // 破棄する文のエラーは無視する
+        }
+    }
+}
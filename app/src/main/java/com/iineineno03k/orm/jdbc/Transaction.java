@@ -0,0 +1,169 @@
+package com.iineineno03k.orm.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+/**
+ * 1つの接続に束縛されたトランザクション
+ * 
+ * 開始したスレッドでは、コミットまたはロールバックまで{@link ConnectionPool#acquire()}が常にこの接続を返すため、
+ * 同じスレッドから実行したSQLは全てこのトランザクションに参加する。
+ * 読み取り専用のトランザクションは{@link Connection#setReadOnly(boolean)}でドライバに伝え、
+ * レプリカへの振り分けやロックの省略などをドライバに任せる。
+ * 
+ * try-with-resourcesで使い、コミットせずに閉じた場合はロールバックする。
+ */
+public class Transaction implements AutoCloseable {
+    private final ConnectionPool pool;
+    private final PooledConnection pooled;
+    private final boolean readOnly;
+    private final TransactionSynchronization synchronization;
+    private final Thread owner;
+    private boolean active = true;
+
+    Transaction(ConnectionPool pool, PooledConnection pooled, boolean readOnly,
+            TransactionSynchronization synchronization) {
+        this.pool = pool;
+        this.pooled = pooled;
+        this.readOnly = readOnly;
+        this.synchronization = synchronization;
+        this.owner = Thread.currentThread();
+    }
+
+    /**
+     * 保留中の書き込みを送信してからコミットする
+     * 送信またはコミットに失敗した場合はロールバックする
+     */
+    public void commit() {
+        checkActive();
+        boolean committed = false;
+        try {
+            if (synchronization != null) {
+                synchronization.flush();
+            }
+            pooled.getConnection().commit();
+            committed = true;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to commit transaction", e);
+        } finally {
+            if (!committed) {
+                rollbackQuietly();
+            }
+            complete(committed);
+        }
+    }
+
+    /**
+     * ロールバックする。保留中の書き込みは送信しない
+     */
+    public void rollback() {
+        checkActive();
+        try {
+            pooled.getConnection().rollback();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to roll back transaction", e);
+        } finally {
+            complete(false);
+        }
+    }
+
+    /**
+     * 保留中の書き込みを送信してからセーブポイントを作成する
+     * 
+     * @param name セーブポイントの名前
+     * @return 作成したセーブポイント
+     */
+    public Savepoint setSavepoint(String name) {
+        checkActive();
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Savepoint name cannot be null or empty");
+        }
+        if (synchronization != null) {
+            synchronization.flush();
+        }
+        try {
+            return pooled.getConnection().setSavepoint(name);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to set savepoint " + name, e);
+        }
+    }
+
+    /**
+     * セーブポイントまでロールバックする。トランザクションは継続する
+     * 
+     * @param savepoint {@link #setSavepoint(String)}で作成したセーブポイント
+     */
+    public void rollbackTo(Savepoint savepoint) {
+        checkActive();
+        try {
+            pooled.getConnection().rollback(savepoint);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to roll back to savepoint", e);
+        }
+        if (synchronization != null) {
+            synchronization.afterRollbackToSavepoint();
+        }
+    }
+
+    /**
+     * セーブポイントを解放する
+     * 
+     * @param savepoint 解放するセーブポイント
+     */
+    public void releaseSavepoint(Savepoint savepoint) {
+        checkActive();
+        try {
+            pooled.getConnection().releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to release savepoint", e);
+        }
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * コミットもロールバックもしていない場合はロールバックする
+     */
+    @Override
+    public void close() {
+        if (active) {
+            rollback();
+        }
+    }
+
+    PooledConnection getPooledConnection() {
+        return pooled;
+    }
+
+    private void checkActive() {
+        if (!active) {
+            throw new IllegalStateException("Transaction is no longer active");
+        }
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("Transaction must be completed on the thread that began it");
+        }
+    }
+
+    private void rollbackQuietly() {
+        try {
+            pooled.getConnection().rollback();
+        } catch (SQLException e) {
+            // 接続の返却時にもロールバックされる
+        }
+    }
+
+    private void complete(boolean committed) {
+        active = false;
+        pool.end(this);
+        if (synchronization != null) {
+            synchronization.afterCompletion(committed);
+        }
+    }
+}
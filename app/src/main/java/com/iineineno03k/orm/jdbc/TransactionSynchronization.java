@@ -0,0 +1,28 @@
+package com.iineineno03k.orm.jdbc;
+
+/**
+ * トランザクションの境界で呼び出されるコールバック
+ * 
+ * EntityManagerはこれを通して、保留中の書き込みをコミットの直前にまとめて送信し、
+ * ロールバック後に管理対象の状態を破棄する。
+ */
+public interface TransactionSynchronization {
+
+    /**
+     * 保留中の書き込みを送信する
+     * コミットとセーブポイントの作成の直前に呼ばれる。例外を投げた場合、コミットは行われない
+     */
+    void flush();
+
+    /**
+     * セーブポイントまでロールバックした後に呼ばれる
+     */
+    void afterRollbackToSavepoint();
+
+    /**
+     * トランザクションが終了し、接続がプールへ返却された後に呼ばれる
+     * 
+     * @param committed コミットした場合はtrue、ロールバックした場合はfalse
+     */
+    void afterCompletion(boolean committed);
+}
@@ -1,33 +1,78 @@
 package com.iineineno03k.orm.metadata;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
-import com.iineineno03k.orm.annotation.Id;
 import com.iineineno03k.orm.annotation.Table;
 
+/**
+ * エンティティクラスのテーブル名・カラム定義を保持するクラス
+ * 
+ * テーブル名は@Tableのname、なければクラス名をスネークケースに変換したもの。
+ * カラムは静的フィールドと合成フィールドを除いた宣言順のフィールドで、
+ * SQLGeneratorの全ダイアレクトとJDBCの行変換はここで計算したカラムの並びを使う。
+ * @ManyToOne・@OneToManyを付与したフィールドはカラムにせず、関連として別に保持する。
+ * @Versionを付与したフィールドは楽観的ロックのバージョンとして扱う(エンティティごとに1つまで)。
+ */
 public class EntityMetadata {
+    private static final Pattern CAMEL_CASE_BOUNDARY = Pattern.compile("([a-z])([A-Z])");
+
     private final Class<?> entityClass;
     private final String tableName;
     private final Map<String, FieldMetadata> fieldMetadataMap;
+    private final List<FieldMetadata> columns;
+    private final List<String> columnNames;
+    private final List<FieldMetadata> nonIdColumns;
+    private final Map<String, RelationMetadata> relations;
     private FieldMetadata idField;
+    private FieldMetadata versionField;
 
     public EntityMetadata(Class<?> entityClass) {
+        this(entityClass, resolveTableName(entityClass), reflectColumns(entityClass), -1);
+    }
+
+    /**
+     * コンパイル時に生成されたメタデータから、テーブル名・カラムの並び・カラム名・主キーを組み立てる
+     * 全フィールドのアノテーションからカラム名を解決せず、スネークケースへの変換も行わない
+     * 
+     * @param entityClass エンティティクラス
+     * @param generated entityClassに対して生成されたメタデータ
+     * @throws IllegalStateException 生成されたメタデータのフィールドがエンティティクラスにない場合
+     */
+    EntityMetadata(Class<?> entityClass, GeneratedEntityMetadata<?> generated) {
+        this(entityClass, generated.getTableName(), generatedColumns(entityClass, generated), generated.getIdIndex());
+    }
+
+    /**
+     * @param idIndex 主キーのカラムの位置。負の場合は最初の@Idフィールド
+     */
+    private EntityMetadata(Class<?> entityClass, String tableName, List<FieldMetadata> allColumns, int idIndex) {
         this.entityClass = entityClass;
-        this.tableName = resolveTableName(entityClass);
+        this.tableName = tableName;
         this.fieldMetadataMap = new LinkedHashMap<>();
-        
-        // フィールドの処理
-        for (Field field : entityClass.getDeclaredFields()) {
-            FieldMetadata metadata = new FieldMetadata(field);
-            fieldMetadataMap.put(field.getName(), metadata);
 
-            if (field.isAnnotationPresent(Id.class)) {
-                if (idField != null) {
-                    // 複数の@Idフィールドがある場合は最初のものを使用
-                    continue;
+        List<String> allColumnNames = new ArrayList<>(allColumns.size());
+        for (int i = 0; i < allColumns.size(); i++) {
+            FieldMetadata metadata = allColumns.get(i);
+            fieldMetadataMap.put(metadata.getField().getName(), metadata);
+            allColumnNames.add(metadata.getColumnName());
+
+            if (metadata.isVersion()) {
+                if (versionField != null) {
+                    throw new IllegalArgumentException("Entity " + entityClass.getName() + " has more than one @Version field");
                 }
+                versionField = metadata;
+            }
+
+            // 複数の@Idフィールドがある場合は最初のものを使用
+            if (idField == null && (idIndex < 0 ? metadata.isId() : i == idIndex)) {
                 idField = metadata;
             }
         }
@@ -36,9 +81,72 @@ public class EntityMetadata {
         if (idField == null) {
             throw new IllegalArgumentException("Entity " + entityClass.getName() + " must have an @Id field");
         }
+
+        List<FieldMetadata> otherColumns = new ArrayList<>(allColumns.size());
+        for (FieldMetadata column : allColumns) {
+            if (column != idField) {
+                otherColumns.add(column);
+            }
+        }
+        this.columns = Collections.unmodifiableList(new ArrayList<>(allColumns));
+        this.columnNames = Collections.unmodifiableList(allColumnNames);
+        this.nonIdColumns = Collections.unmodifiableList(otherColumns);
+        this.relations = Collections.unmodifiableMap(resolveRelations(entityClass));
+    }
+
+    private static List<FieldMetadata> reflectColumns(Class<?> entityClass) {
+        List<FieldMetadata> columns = new ArrayList<>();
+        for (Field field : entityClass.getDeclaredFields()) {
+            // 静的フィールドとコンパイラが生成したフィールドはカラムにしない
+            if (isExcluded(field) || RelationMetadata.isRelation(field)) {
+                continue;
+            }
+            columns.add(new FieldMetadata(field));
+        }
+        return columns;
+    }
+
+    private static List<FieldMetadata> generatedColumns(Class<?> entityClass, GeneratedEntityMetadata<?> generated) {
+        String[] fieldNames = generated.getFieldNames();
+        String[] columnNames = generated.getColumnNames();
+        List<FieldMetadata> columns = new ArrayList<>(fieldNames.length);
+        for (int i = 0; i < fieldNames.length; i++) {
+            try {
+                columns.add(new FieldMetadata(entityClass.getDeclaredField(fieldNames[i]), columnNames[i]));
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException("Generated metadata of " + entityClass.getName()
+                        + " refers to a missing field: " + fieldNames[i], e);
+            }
+        }
+        return columns;
+    }
+
+    private static Map<String, RelationMetadata> resolveRelations(Class<?> entityClass) {
+        Map<String, RelationMetadata> relationMap = new LinkedHashMap<>();
+        for (Field field : entityClass.getDeclaredFields()) {
+            if (!isExcluded(field) && RelationMetadata.isRelation(field)) {
+                relationMap.put(field.getName(), new RelationMetadata(field));
+            }
+        }
+        return relationMap;
+    }
+
+    private static boolean isExcluded(Field field) {
+        return Modifier.isStatic(field.getModifiers()) || field.isSynthetic();
     }
 
-    private String resolveTableName(Class<?> entityClass) {
+    /**
+     * キャメルケースをスネークケースに変換する
+     * テーブル名・カラム名の既定値の決定に使う
+     * 
+     * @param camel キャメルケース文字列
+     * @return スネークケース文字列
+     */
+    public static String toSnakeCase(String camel) {
+        return CAMEL_CASE_BOUNDARY.matcher(camel).replaceAll("$1_$2").toLowerCase();
+    }
+
+    private static String resolveTableName(Class<?> entityClass) {
         // @Tableアノテーションのname属性を優先
         if (entityClass.isAnnotationPresent(Table.class)) {
             String name = entityClass.getAnnotation(Table.class).name();
@@ -47,8 +155,7 @@ public class EntityMetadata {
             }
         }
         // デフォルトはクラス名をスネークケースに変換
-        String className = entityClass.getSimpleName();
-        return className.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+        return toSnakeCase(entityClass.getSimpleName());
     }
 
     public String generateCreateTableSql() {
@@ -94,7 +201,57 @@ public class EntityMetadata {
         return idField;
     }
 
+    /**
+     * @return 楽観的ロックのバージョンのフィールド。ない場合はnull
+     */
+    public FieldMetadata getVersionField() {
+        return versionField;
+    }
+
     public Map<String, FieldMetadata> getFieldMetadataMap() {
         return fieldMetadataMap;
     }
+
+    /**
+     * @return 宣言順のカラム(主キーを含む)
+     */
+    public List<FieldMetadata> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return 宣言順のカラム名(主キーを含む)
+     */
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * @return 主キー以外の宣言順のカラム。UPDATE文のSET句の並びに対応する
+     */
+    public List<FieldMetadata> getNonIdColumns() {
+        return nonIdColumns;
+    }
+
+    /**
+     * @return 宣言順の関連
+     */
+    public Collection<RelationMetadata> getRelations() {
+        return relations.values();
+    }
+
+    /**
+     * @param name 関連のフィールド名
+     * @return 関連。見つからない場合はnull
+     */
+    public RelationMetadata getRelation(String name) {
+        return relations.get(name);
+    }
+
+    /**
+     * @return 主キーのカラム名
+     */
+    public String getIdColumnName() {
+        return idField.getColumnName();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.iineineno03k.orm.metadata;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import com.iineineno03k.orm.annotation.Entity;
+
+/**
+ * EntityMetadataを全EntityManagerで共有するレジストリ
+ * 
+ * メタデータはClassValueでエンティティクラスに紐づけて保持するため、取得時にロックを取らず、
+ * クラスがアンロードされればメタデータも一緒に解放される。
+ * アノテーションプロセッサが生成したメタデータがある場合は、カラムの並び・カラム名・主キーをそこから組み立てる。
+ * 起動時にwarmUpを呼び出しておくと、最初のリクエストでリフレクションと正規表現のコストを払わずに済む。
+ */
+public final class EntityMetadataRegistry {
+    private static final ClassValue<EntityMetadata> REGISTRY = new ClassValue<>() {
+        @Override
+        protected EntityMetadata computeValue(Class<?> entityClass) {
+            GeneratedEntityMetadata<?> generated = GeneratedMetadataRegistry.find(entityClass);
+            return generated != null ? new EntityMetadata(entityClass, generated) : new EntityMetadata(entityClass);
+        }
+    };
+
+    private EntityMetadataRegistry() {
+    }
+
+    /**
+     * エンティティクラスのメタデータを取得する。初回のみ解析する
+     * 
+     * @param entityClass エンティティクラス
+     * @return メタデータ
+     * @throws IllegalArgumentException @Entityが付与されていない、または@Idフィールドがない場合
+     */
+    public static EntityMetadata get(Class<?> entityClass) {
+        if (!entityClass.isAnnotationPresent(Entity.class)) {
+            throw new IllegalArgumentException("Class " + entityClass.getName() + " is not an entity");
+        }
+        return REGISTRY.get(entityClass);
+    }
+
+    /**
+     * 指定されたエンティティクラスのメタデータを事前に構築する
+     * フィールドのアクセサも合わせて生成する
+     * 
+     * @param entityClasses エンティティクラス
+     * @return 構築したメタデータ
+     */
+    public static List<EntityMetadata> warmUp(Class<?>... entityClasses) {
+        List<EntityMetadata> warmed = new ArrayList<>(entityClasses.length);
+        for (Class<?> entityClass : entityClasses) {
+            EntityMetadata metadata = get(entityClass);
+            for (FieldMetadata field : metadata.getColumns()) {
+                field.getAccessor();
+            }
+            warmed.add(metadata);
+        }
+        return warmed;
+    }
+
+    /**
+     * パッケージ(サブパッケージを含む)内の@Entityクラスを探し、メタデータを事前に構築する
+     * クラスパス上のディレクトリとJARファイルを対象とする
+     * 
+     * @param packageName パッケージ名
+     * @return 構築したメタデータ
+     * @throws IllegalArgumentException @Idフィールドがないなど不正なエンティティが含まれる場合
+     * @throws IllegalStateException パッケージの走査に失敗した場合
+     */
+    public static List<EntityMetadata> warmUp(String packageName) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = EntityMetadataRegistry.class.getClassLoader();
+        }
+
+        List<Class<?>> entityClasses = new ArrayList<>();
+        for (String className : findClassNames(classLoader, packageName)) {
+            Class<?> candidate;
+            try {
+                candidate = Class.forName(className, false, classLoader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                // 依存関係が解決できないクラスはエンティティとして扱わない
+                continue;
+            }
+            if (candidate.isAnnotationPresent(Entity.class)) {
+                entityClasses.add(candidate);
+            }
+        }
+        return warmUp(entityClasses.toArray(new Class<?>[0]));
+    }
+
+    private static List<String> findClassNames(ClassLoader classLoader, String packageName) {
+        String path = packageName.replace('.', '/');
+        List<String> classNames = new ArrayList<>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(path);
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                URLConnection connection = resource.openConnection();
+                if (connection instanceof JarURLConnection) {
+                    collectFromJar(((JarURLConnection) connection).getJarFile(), path, classNames);
+                } else if ("file".equals(resource.getProtocol())) {
+                    collectFromDirectory(new File(resource.toURI()), packageName, classNames);
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new IllegalStateException("Failed to scan package " + packageName, e);
+        }
+        return classNames;
+    }
+
+    private static void collectFromDirectory(File directory, String packageName, List<String> classNames) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (file.isDirectory()) {
+                collectFromDirectory(file, packageName + "." + name, classNames);
+            } else if (name.endsWith(".class")) {
+                classNames.add(packageName + "." + name.substring(0, name.length() - ".class".length()));
+            }
+        }
+    }
+
+    private static void collectFromJar(JarFile jarFile, String path, List<String> classNames) {
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+            String name = entries.nextElement().getName();
+            if (name.startsWith(path + "/") && name.endsWith(".class")) {
+                classNames.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+            }
+        }
+    }
+}
@@ -6,28 +6,45 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import com.iineineno03k.orm.annotation.Column;
 import com.iineineno03k.orm.annotation.Id;
+import com.iineineno03k.orm.annotation.Version;
 
 public class FieldMetadata {
     private final Field field;
     private final boolean isId;
+    private final boolean isVersion;
     private final String columnName;
     private final boolean nullable;
     private final boolean unique;
+    // 初回アクセス時に生成してキャッシュする
+    private volatile PropertyAccessor accessor;
 
     public FieldMetadata(Field field) {
+        this(field, null);
+    }
+
+    /**
+     * @param field フィールド
+     * @param columnName 解決済みのカラム名。nullの場合は@Columnとフィールド名から求める
+     */
+    FieldMetadata(Field field, String columnName) {
         this.field = field;
         this.isId = field.isAnnotationPresent(Id.class);
+        this.isVersion = field.isAnnotationPresent(Version.class);
+        if (isVersion && field.getType() != Long.class && field.getType() != Integer.class) {
+            // 新規のエンティティをnullで見分けるため、プリミティブ型は受け付けない
+            throw new IllegalArgumentException("@Version field must be Long or Integer: " + field.getName());
+        }
         
         Column column = field.getAnnotation(Column.class);
-        if (column != null) {
-            this.columnName = column.name().isEmpty() ? field.getName() : column.name();
-            this.nullable = column.nullable();
-            this.unique = column.unique();
+        if (columnName != null) {
+            this.columnName = columnName;
+        } else if (column != null && !column.name().isEmpty()) {
+            this.columnName = column.name();
         } else {
-            this.columnName = field.getName();
-            this.nullable = true;
-            this.unique = false;
+            this.columnName = EntityMetadata.toSnakeCase(field.getName());
         }
+        this.nullable = column == null || column.nullable();
+        this.unique = column != null && column.unique();
     }
 
     public String getSqlType() {
@@ -60,6 +77,42 @@ public class FieldMetadata {
         throw new IllegalArgumentException("Unsupported type: " + type.getName());
     }
 
+    /**
+     * エンティティからこのフィールドの値を取得する
+     * 
+     * @param entity 対象のエンティティ
+     * @return フィールドの値
+     */
+    public Object getValue(Object entity) {
+        return getAccessor().get(entity);
+    }
+
+    /**
+     * エンティティのこのフィールドに値を設定する
+     * 
+     * @param entity 対象のエンティティ
+     * @param value 設定する値
+     */
+    public void setValue(Object entity, Object value) {
+        getAccessor().set(entity, value);
+    }
+
+    public PropertyAccessor getAccessor() {
+        PropertyAccessor current = accessor;
+        if (current == null) {
+            current = PropertyAccessor.of(field);
+            accessor = current;
+        }
+        return current;
+    }
+
+    /**
+     * @return フィールドのJavaの型
+     */
+    public Class<?> getJavaType() {
+        return field.getType();
+    }
+
     public Field getField() {
         return field;
     }
@@ -72,6 +125,26 @@ public class FieldMetadata {
         return isId;
     }
 
+    /**
+     * @return 楽観的ロックのバージョンのカラムの場合はtrue
+     */
+    public boolean isVersion() {
+        return isVersion;
+    }
+
+    /**
+     * バージョンのカラムについて、現在の値の次の値を求める
+     * 
+     * @param current 現在のバージョン。新規の場合はnull
+     * @return 次のバージョン。新規の場合は0
+     */
+    public Object nextVersion(Object current) {
+        if (field.getType() == Integer.class) {
+            return current == null ? 0 : (Integer) current + 1;
+        }
+        return current == null ? 0L : (Long) current + 1;
+    }
+
     public boolean isNullable() {
         return nullable;
     }
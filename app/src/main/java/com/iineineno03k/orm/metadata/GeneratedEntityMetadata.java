@@ -0,0 +1,90 @@
+package com.iineineno03k.orm.metadata;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * アノテーションプロセッサがコンパイル時に生成するエンティティのメタデータ
+ * 
+ * 生成クラスはエンティティと同じパッケージに「エンティティ名_Metadata」という名前で出力され、
+ * フィールドの読み書きをリフレクションを使わずに行う。
+ * フィールドの並びは宣言順(静的フィールドを除く)で、SQLGeneratorが生成するカラム順と一致する。
+ * 
+ * @param <T> エンティティの型
+ */
+public interface GeneratedEntityMetadata<T> {
+
+    Class<T> getEntityClass();
+
+    String getTableName();
+
+    /**
+     * @return フィールド名の配列(宣言順)
+     */
+    String[] getFieldNames();
+
+    /**
+     * @return カラム名の配列(@Column(name)、未指定の場合はフィールド名をスネークケースに変換したもの)
+     */
+    String[] getColumnNames();
+
+    /**
+     * @return フィールドの型の配列
+     */
+    Class<?>[] getFieldTypes();
+
+    /**
+     * @return @Idフィールドの位置
+     */
+    int getIdIndex();
+
+    /**
+     * @return 引数なしコンストラクタで作成した新しいインスタンス
+     */
+    T newInstance();
+
+    /**
+     * 指定位置のフィールド値を取得する
+     * 
+     * @param entity 対象のエンティティ
+     * @param index フィールドの位置
+     * @return フィールドの値
+     */
+    Object get(T entity, int index);
+
+    /**
+     * 指定位置のフィールドに値を設定する
+     * プリミティブ型のフィールドにnullを渡した場合は何もしない
+     * 
+     * @param entity 対象のエンティティ
+     * @param index フィールドの位置
+     * @param value 設定する値
+     */
+    void set(T entity, int index, Object value);
+
+    /**
+     * @param entity 対象のエンティティ
+     * @return 全フィールドの値(宣言順)
+     */
+    Object[] extract(T entity);
+
+    /**
+     * 全フィールドの値を宣言順に、指定した位置のパラメータから順にバインドする
+     * 
+     * @param statement バインド先
+     * @param firstIndex 最初のフィールドをバインドするパラメータ位置(1始まり)
+     * @param entity 対象のエンティティ
+     * @throws SQLException バインドに失敗した場合
+     */
+    void bind(PreparedStatement statement, int firstIndex, T entity) throws SQLException;
+
+    /**
+     * カラムが宣言順に並んだResultSetの現在行をエンティティに変換する
+     * 
+     * @param resultSet 読み取り元
+     * @return 変換されたエンティティ
+     * @throws SQLException 読み取りに失敗した場合
+     */
+    T read(ResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,54 @@
+package com.iineineno03k.orm.metadata;
+
+/**
+ * コンパイル時に生成されたメタデータを検索するクラス
+ * 検索結果はクラスごとにClassValueでキャッシュされるため、クラスのロードは一度だけ行われる
+ */
+public final class GeneratedMetadataRegistry {
+    /** 生成クラス名の接尾辞 */
+    public static final String SUFFIX = "_Metadata";
+
+    private static final ClassValue<GeneratedEntityMetadata<?>> REGISTRY = new ClassValue<>() {
+        @Override
+        protected GeneratedEntityMetadata<?> computeValue(Class<?> entityClass) {
+            return load(entityClass);
+        }
+    };
+
+    private GeneratedMetadataRegistry() {
+    }
+
+    /**
+     * エンティティクラスに対応する生成済みメタデータを取得する
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @return 生成済みメタデータ。アノテーションプロセッサが適用されていない場合はnull
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> GeneratedEntityMetadata<T> find(Class<T> entityClass) {
+        return (GeneratedEntityMetadata<T>) REGISTRY.get(entityClass);
+    }
+
+    /**
+     * 生成クラスの完全修飾名を求める
+     * ネストしたクラスの場合は外側のクラス名を「_」でつなげる
+     * 
+     * @param entityClass エンティティクラス
+     * @return 生成クラスの完全修飾名
+     */
+    public static String generatedClassName(Class<?> entityClass) {
+        return entityClass.getName().replace('$', '_') + SUFFIX;
+    }
+
+    private static GeneratedEntityMetadata<?> load(Class<?> entityClass) {
+        try {
+            Class<?> generated = Class.forName(generatedClassName(entityClass), true, entityClass.getClassLoader());
+            return (GeneratedEntityMetadata<?>) generated.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalStateException("Failed to load generated metadata for " + entityClass.getName(), e);
+        }
+    }
+}
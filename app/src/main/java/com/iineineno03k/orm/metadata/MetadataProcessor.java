@@ -1,23 +1,12 @@
 package com.iineineno03k.orm.metadata;
 
-import java.lang.reflect.Field;
-import java.util.HashMap;
-import java.util.Map;
-
-import com.iineineno03k.orm.annotation.Entity;
-
+/**
+ * エンティティクラスのメタデータを取得するクラス
+ * メタデータはEntityMetadataRegistryで全インスタンス共有でキャッシュされる
+ */
 public class MetadataProcessor {
-    private final Map<Class<?>, EntityMetadata> metadataCache;
-
-    public MetadataProcessor() {
-        this.metadataCache = new HashMap<>();
-    }
 
     public EntityMetadata processEntity(Class<?> entityClass) {
-        if (!entityClass.isAnnotationPresent(Entity.class)) {
-            throw new IllegalArgumentException("Class " + entityClass.getName() + " is not an entity");
-        }
-
-        return metadataCache.computeIfAbsent(entityClass, EntityMetadata::new);
+        return EntityMetadataRegistry.get(entityClass);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.iineineno03k.orm.metadata;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * エンティティのフィールドを読み書きするアクセサ
+ * 
+ * getter/setterがあればLambdaMetafactoryで関数オブジェクトを生成し、
+ * なければフィールドに対するMethodHandleを使う。
+ * どちらもリフレクションのMethod.invoke/Field.getと異なりJITでインライン化できる。
+ */
+public final class PropertyAccessor {
+    private final Field field;
+    private final Function<Object, Object> getter;
+    private final BiConsumer<Object, Object> setter;
+
+    private PropertyAccessor(Field field, Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+        this.field = field;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * フィールドに対するアクセサを生成する
+     * 
+     * @param field 対象のフィールド(staticフィールドは不可)
+     * @return 生成されたアクセサ
+     */
+    public static PropertyAccessor of(Field field) {
+        if (Modifier.isStatic(field.getModifiers())) {
+            throw new IllegalArgumentException("Static field is not supported: " + field.getName());
+        }
+
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access " + field.getDeclaringClass().getName(), e);
+        }
+
+        Function<Object, Object> getter = createGetter(lookup, field);
+        BiConsumer<Object, Object> setter = Modifier.isFinal(field.getModifiers()) ? null : createSetter(lookup, field);
+        return new PropertyAccessor(field, getter, setter);
+    }
+
+    /**
+     * フィールドの値を取得する
+     * 
+     * @param entity 対象のエンティティ
+     * @return フィールドの値
+     */
+    public Object get(Object entity) {
+        return getter.apply(entity);
+    }
+
+    /**
+     * フィールドに値を設定する
+     * プリミティブ型のフィールドにnullを設定した場合は何もしない
+     * 
+     * @param entity 対象のエンティティ
+     * @param value 設定する値
+     */
+    public void set(Object entity, Object value) {
+        if (setter == null) {
+            throw new IllegalStateException("Field " + field.getName() + " is final");
+        }
+        if (value == null && field.getType().isPrimitive()) {
+            return;
+        }
+        setter.accept(entity, value);
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createGetter(MethodHandles.Lookup lookup, Field field) {
+        Method method = findAccessorMethod(field, field.getType() == boolean.class ? "is" : "get", 0);
+        if (method == null && field.getType() == boolean.class) {
+            method = findAccessorMethod(field, "get", 0);
+        }
+        if (method != null) {
+            try {
+                MethodHandle target = lookup.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        target,
+                        MethodType.methodType(wrap(field.getType()), field.getDeclaringClass()));
+                return (Function<Object, Object>) site.getTarget().invokeExact();
+            } catch (Throwable e) {
+                // 生成できない場合はフィールドへの直接アクセスにフォールバックする
+            }
+        }
+
+        MethodHandle handle;
+        try {
+            handle = lookup.unreflectGetter(field)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read field " + field.getName(), e);
+        }
+        return entity -> {
+            try {
+                return (Object) handle.invokeExact(entity);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Failed to read field " + field.getName(), e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> createSetter(MethodHandles.Lookup lookup, Field field) {
+        Method method = findAccessorMethod(field, "set", 1);
+        if (method != null) {
+            try {
+                MethodHandle target = lookup.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        target,
+                        MethodType.methodType(void.class, field.getDeclaringClass(), wrap(field.getType())));
+                return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+            } catch (Throwable e) {
+                // 生成できない場合はフィールドへの直接アクセスにフォールバックする
+            }
+        }
+
+        MethodHandle handle;
+        try {
+            handle = lookup.unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot write field " + field.getName(), e);
+        }
+        return (entity, value) -> {
+            try {
+                handle.invokeExact(entity, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Failed to write field " + field.getName(), e);
+            }
+        };
+    }
+
+    private static Method findAccessorMethod(Field field, String prefix, int parameterCount) {
+        String name = field.getName();
+        String methodName = prefix + name.substring(0, 1).toUpperCase(Locale.ROOT) + name.substring(1);
+        for (Method method : field.getDeclaringClass().getDeclaredMethods()) {
+            if (!method.getName().equals(methodName)
+                    || method.getParameterCount() != parameterCount
+                    || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            if (parameterCount == 0 && method.getReturnType() == field.getType()) {
+                return method;
+            }
+            if (parameterCount == 1 && method.getParameterTypes()[0] == field.getType()
+                    && method.getReturnType() == void.class) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
@@ -0,0 +1,160 @@
+package com.iineineno03k.orm.metadata;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import com.iineineno03k.orm.annotation.ManyToOne;
+import com.iineineno03k.orm.annotation.OneToMany;
+import com.iineineno03k.orm.relation.LazyReference;
+
+/**
+ * @ManyToOneまたは@OneToManyを付与したフィールドの定義
+ * 
+ * どちらの関連も、外部キーは@ManyToOne側のエンティティのカラムで表す。
+ * 外部キーのカラムは参照先のエンティティのメタデータを必要とするため、初回の参照時に解決する。
+ */
+public class RelationMetadata {
+    private final Field field;
+    private final boolean toMany;
+    private final Class<?> targetClass;
+    private final String joinField;
+    private final String mappedBy;
+    // 初回アクセス時に生成してキャッシュする
+    private volatile PropertyAccessor accessor;
+    private volatile FieldMetadata foreignKey;
+
+    RelationMetadata(Field field) {
+        this.field = field;
+        ManyToOne manyToOne = field.getAnnotation(ManyToOne.class);
+        this.toMany = manyToOne == null;
+        if (toMany) {
+            if (field.getType() != List.class) {
+                throw new IllegalArgumentException("@OneToMany field must be a java.util.List: " + describe(field));
+            }
+            this.joinField = null;
+            this.mappedBy = field.getAnnotation(OneToMany.class).mappedBy();
+        } else {
+            if (field.getType() != LazyReference.class) {
+                throw new IllegalArgumentException("@ManyToOne field must be a LazyReference: " + describe(field));
+            }
+            this.joinField = manyToOne.joinField();
+            this.mappedBy = null;
+        }
+        this.targetClass = typeArgument(field);
+    }
+
+    /**
+     * @param field 対象のフィールド
+     * @return @ManyToOneまたは@OneToManyが付与されている場合はtrue
+     */
+    static boolean isRelation(Field field) {
+        return field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToMany.class);
+    }
+
+    /**
+     * 外部キーのカラムを取得する
+     * @ManyToOneの場合はこのエンティティの、@OneToManyの場合は参照先のエンティティのカラム
+     * 
+     * @return 外部キーのカラム
+     * @throws IllegalArgumentException 外部キーのフィールドが見つからない、またはLong型でない場合
+     */
+    public FieldMetadata getForeignKey() {
+        FieldMetadata current = foreignKey;
+        if (current == null) {
+            current = resolveForeignKey();
+            foreignKey = current;
+        }
+        return current;
+    }
+
+    /**
+     * エンティティからこの関連の値を取得する
+     * 
+     * @param entity 対象のエンティティ
+     * @return LazyReferenceまたはList。設定されていない場合はnull
+     */
+    public Object getValue(Object entity) {
+        return getAccessor().get(entity);
+    }
+
+    /**
+     * エンティティにこの関連の値を設定する
+     * 
+     * @param entity 対象のエンティティ
+     * @param value LazyReferenceまたはList
+     */
+    public void setValue(Object entity, Object value) {
+        getAccessor().set(entity, value);
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public String getName() {
+        return field.getName();
+    }
+
+    /**
+     * @return @OneToManyの場合はtrue
+     */
+    public boolean isToMany() {
+        return toMany;
+    }
+
+    /**
+     * @return 参照先のエンティティクラス
+     */
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    private PropertyAccessor getAccessor() {
+        PropertyAccessor current = accessor;
+        if (current == null) {
+            current = PropertyAccessor.of(field);
+            accessor = current;
+        }
+        return current;
+    }
+
+    private FieldMetadata resolveForeignKey() {
+        FieldMetadata column;
+        if (toMany) {
+            EntityMetadata target = EntityMetadataRegistry.get(targetClass);
+            RelationMetadata inverse = target.getRelation(mappedBy);
+            if (inverse == null || inverse.isToMany() || inverse.getTargetClass() != field.getDeclaringClass()) {
+                throw new IllegalArgumentException("mappedBy of " + describe(field)
+                        + " must name a @ManyToOne field of " + targetClass.getName()
+                        + " referring to " + field.getDeclaringClass().getName() + ": " + mappedBy);
+            }
+            column = inverse.getForeignKey();
+        } else {
+            column = EntityMetadataRegistry.get(field.getDeclaringClass()).getFieldMetadataMap().get(joinField);
+            if (column == null) {
+                throw new IllegalArgumentException("joinField of " + describe(field) + " is not a column: " + joinField);
+            }
+        }
+        if (column.getJavaType() != Long.class && column.getJavaType() != long.class) {
+            throw new IllegalArgumentException("Foreign key of " + describe(field) + " must be a long column");
+        }
+        return column;
+    }
+
+    private static Class<?> typeArgument(Field field) {
+        Type type = field.getGenericType();
+        if (type instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) type).getActualTypeArguments()[0];
+            if (argument instanceof Class) {
+                return (Class<?>) argument;
+            }
+        }
+        throw new IllegalArgumentException("Relation field must declare its entity type: " + describe(field));
+    }
+
+    private static String describe(Field field) {
+        return field.getDeclaringClass().getName() + "." + field.getName();
+    }
+}
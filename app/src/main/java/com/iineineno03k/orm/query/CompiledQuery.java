@@ -0,0 +1,141 @@
+package com.iineineno03k.orm.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+import com.iineineno03k.orm.sql.SelectStatement;
+
+/**
+ * 検証済みの問い合わせ
+ *
+ * SQLの形を表す{@link SelectStatement}とバインドする値を分けて持つ。件数の制限の値もバインドする値として持つ。
+ * SelectStatementは値を含まないので、値だけが異なる問い合わせは同じSQLを再利用できる。
+ * インメモリモードでは同じ条件・並び順・件数の制限をJavaで適用する。
+ */
+public final class CompiledQuery {
+    private final EntityMetadata metadata;
+    private final SelectStatement statement;
+    private final Object[] parameters;
+    private final int limit;
+    private final int offset;
+    private final List<FieldMetadata> projection;
+    private final Predicate predicate;
+    private final List<Order> orders;
+
+    CompiledQuery(EntityMetadata metadata, SelectStatement statement, Object[] parameters, int limit, int offset,
+            List<FieldMetadata> projection, Predicate predicate, List<Order> orders) {
+        this.metadata = metadata;
+        this.statement = statement;
+        this.parameters = parameters;
+        this.limit = limit;
+        this.offset = offset;
+        this.projection = Collections.unmodifiableList(projection);
+        this.predicate = predicate;
+        this.orders = orders;
+    }
+
+    public EntityMetadata getMetadata() {
+        return metadata;
+    }
+
+    public SelectStatement getStatement() {
+        return statement;
+    }
+
+    /**
+     * @return WHERE句のパラメータ位置の順に並べたバインドする値
+     */
+    public Object[] getParameters() {
+        return parameters.clone();
+    }
+
+    /**
+     * @return 取得する最大件数。制限しない場合は{@link SelectStatement#NO_LIMIT}
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return 読み飛ばす件数
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return 取得するカラム。射影しない場合はエンティティの全カラム
+     */
+    public List<FieldMetadata> getProjection() {
+        return projection;
+    }
+
+    /**
+     * @return 取得するカラムのJavaの型
+     */
+    public Class<?>[] getProjectionTypes() {
+        Class<?>[] types = new Class<?>[projection.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = projection.get(i).getJavaType();
+        }
+        return types;
+    }
+
+    /**
+     * 条件・並び順・件数の制限をエンティティの一覧に適用する
+     *
+     * @param <T> エンティティの型
+     * @param entities 対象のエンティティ
+     * @return 条件を満たすエンティティの新しいリスト
+     */
+    public <T> List<T> apply(List<T> entities) {
+        List<T> result = new ArrayList<>();
+        for (T entity : entities) {
+            if (predicate == null || Boolean.TRUE.equals(predicate.evaluate(entity, metadata))) {
+                result.add(entity);
+            }
+        }
+        if (!orders.isEmpty()) {
+            result.sort(comparator());
+        }
+
+        int from = Math.min(offset, result.size());
+        int to = limit != SelectStatement.NO_LIMIT ? Math.min(result.size(), from + limit) : result.size();
+        return from == 0 && to == result.size() ? result : new ArrayList<>(result.subList(from, to));
+    }
+
+    /**
+     * エンティティから射影するカラムの値を取り出す
+     *
+     * @param entities 対象のエンティティ({@link #apply}の結果)
+     * @return エンティティごとの値の配列
+     */
+    public List<Object[]> project(List<?> entities) {
+        List<Object[]> rows = new ArrayList<>(entities.size());
+        for (Object entity : entities) {
+            Object[] row = new Object[projection.size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = projection.get(i).getValue(entity);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private Comparator<Object> comparator() {
+        Comparator<Object> comparator = null;
+        for (Order order : orders) {
+            FieldMetadata field = Predicate.resolveField(metadata, order.getField());
+            Comparator<Object> values = order.isAscending()
+                    ? Comparator.nullsLast(Predicate::compare)
+                    : Comparator.nullsFirst((Object left, Object right) -> Predicate.compare(right, left));
+            Comparator<Object> byField = Comparator.comparing(field::getValue, values);
+            comparator = comparator == null ? byField : comparator.thenComparing(byField);
+        }
+        return comparator;
+    }
+}
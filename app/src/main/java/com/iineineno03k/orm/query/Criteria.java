@@ -0,0 +1,114 @@
+package com.iineineno03k.orm.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 問い合わせの条件を組み立てるファクトリ
+ *
+ * フィールドはJavaのフィールド名(またはカラム名)で指定する。
+ * 存在しないフィールドや型の合わない値は、問い合わせのコンパイル時にIllegalArgumentExceptionになる。
+ *
+ * <pre>
+ * List&lt;UserEntity&gt; users = entityManager.createQuery(UserEntity.class)
+ *         .where(Criteria.eq("active", true).and(Criteria.like("email", "%@example.com")))
+ *         .orderBy(Order.desc("createdAt"))
+ *         .limit(20)
+ *         .getResultList();
+ * </pre>
+ */
+public final class Criteria {
+
+    private Criteria() {
+    }
+
+    /** field = value */
+    public static Predicate eq(String field, Object value) {
+        return new Predicate.Comparison(field, Predicate.Operator.EQ, value);
+    }
+
+    /** field &lt;&gt; value */
+    public static Predicate ne(String field, Object value) {
+        return new Predicate.Comparison(field, Predicate.Operator.NE, value);
+    }
+
+    /** field &gt; value */
+    public static Predicate gt(String field, Object value) {
+        return new Predicate.Comparison(field, Predicate.Operator.GT, value);
+    }
+
+    /** field &gt;= value */
+    public static Predicate ge(String field, Object value) {
+        return new Predicate.Comparison(field, Predicate.Operator.GE, value);
+    }
+
+    /** field &lt; value */
+    public static Predicate lt(String field, Object value) {
+        return new Predicate.Comparison(field, Predicate.Operator.LT, value);
+    }
+
+    /** field &lt;= value */
+    public static Predicate le(String field, Object value) {
+        return new Predicate.Comparison(field, Predicate.Operator.LE, value);
+    }
+
+    /** field LIKE pattern(%は0文字以上、_は1文字) */
+    public static Predicate like(String field, String pattern) {
+        return new Predicate.Like(field, pattern);
+    }
+
+    /** field IN (values...)。valuesが空の場合は常に偽 */
+    public static Predicate in(String field, Collection<?> values) {
+        return new Predicate.In(field, values);
+    }
+
+    /** field IS NULL */
+    public static Predicate isNull(String field) {
+        return new Predicate.NullCheck(field, true);
+    }
+
+    /** field IS NOT NULL */
+    public static Predicate isNotNull(String field) {
+        return new Predicate.NullCheck(field, false);
+    }
+
+    /** field BETWEEN lower AND upper */
+    public static Predicate between(String field, Object lower, Object upper) {
+        return new Predicate.Between(field, lower, upper);
+    }
+
+    /** 全ての条件を満たす */
+    public static Predicate and(Predicate... predicates) {
+        return new Predicate.Junction(true, flatten(true, predicates));
+    }
+
+    /** いずれかの条件を満たす */
+    public static Predicate or(Predicate... predicates) {
+        return new Predicate.Junction(false, flatten(false, predicates));
+    }
+
+    /** 条件を満たさない */
+    public static Predicate not(Predicate predicate) {
+        return new Predicate.Not(predicate);
+    }
+
+    /**
+     * a.and(b).and(c)が入れ子の括弧にならないよう、同じ種類のJunctionを展開する
+     */
+    private static List<Predicate> flatten(boolean conjunction, Predicate[] predicates) {
+        if (predicates == null) {
+            throw new IllegalArgumentException("Predicates cannot be null");
+        }
+        List<Predicate> flattened = new ArrayList<>(predicates.length);
+        for (Predicate predicate : Arrays.asList(predicates)) {
+            if (predicate instanceof Predicate.Junction && ((Predicate.Junction) predicate).isConjunction() == conjunction) {
+                flattened.addAll(((Predicate.Junction) predicate).getPredicates());
+            } else {
+                flattened.add(predicate);
+            }
+        }
+        return flattened;
+    }
+}
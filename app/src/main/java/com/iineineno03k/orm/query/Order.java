@@ -0,0 +1,54 @@
+package com.iineineno03k.orm.query;
+
+import com.iineineno03k.orm.metadata.EntityMetadata;
+
+/**
+ * 問い合わせの並び順
+ *
+ * NULLの位置はデータベースによって異なる。インメモリモードではPostgreSQLと同じく、
+ * 昇順では最後、降順では最初に並べる。
+ */
+public final class Order {
+    private final String field;
+    private final boolean ascending;
+
+    private Order(String field, boolean ascending) {
+        if (field == null) {
+            throw new IllegalArgumentException("Field cannot be null");
+        }
+        this.field = field;
+        this.ascending = ascending;
+    }
+
+    /**
+     * @param field フィールド名
+     * @return 昇順の並び順
+     */
+    public static Order asc(String field) {
+        return new Order(field, true);
+    }
+
+    /**
+     * @param field フィールド名
+     * @return 降順の並び順
+     */
+    public static Order desc(String field) {
+        return new Order(field, false);
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * @param metadata エンティティのメタデータ
+     * @return ORDER BY句の項目("column ASC"など)
+     */
+    String toSQL(EntityMetadata metadata) {
+        return Predicate.resolveField(metadata, field).getColumnName() + (ascending ? " ASC" : " DESC");
+    }
+}
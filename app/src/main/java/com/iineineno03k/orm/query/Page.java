@@ -0,0 +1,54 @@
+package com.iineineno03k.orm.query;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 主キー順に区切ったエンティティの1ページ
+ *
+ * 次のページの有無は1件多く問い合わせて判定するため、件数を数えるCOUNT文は発行しない。
+ * キーセットページングでは{@link #getLastKey()}を次の問い合わせの開始位置として渡す。
+ *
+ * @param <T> エンティティの型
+ */
+public final class Page<T> {
+    private final List<T> content;
+    private final int pageSize;
+    private final boolean hasNext;
+    private final Object lastKey;
+
+    /**
+     * @param content ページのエンティティ
+     * @param pageSize 1ページの最大件数
+     * @param hasNext 次のページがある場合はtrue
+     * @param lastKey ページの最後のエンティティの主キー。空のページの場合はnull
+     */
+    public Page(List<T> content, int pageSize, boolean hasNext, Object lastKey) {
+        if (content == null) {
+            throw new IllegalArgumentException("Content cannot be null");
+        }
+        this.content = Collections.unmodifiableList(content);
+        this.pageSize = pageSize;
+        this.hasNext = hasNext;
+        this.lastKey = lastKey;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    /**
+     * @return ページの最後のエンティティの主キー。空のページの場合はnull
+     */
+    public Object getLastKey() {
+        return lastKey;
+    }
+}
@@ -0,0 +1,484 @@
+package com.iineineno03k.orm.query;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+import com.iineineno03k.orm.sql.SQLTemplate;
+
+/**
+ * 問い合わせの条件
+ *
+ * 条件はフィールド名と値で組み立て、コンパイル時にエンティティのメタデータでカラム名と型を検証する。
+ * JDBC実行モードではパラメータ付きのWHERE句としてデータベースで評価し、
+ * インメモリモードでは同じ条件をSQLと同じ3値論理(NULLとの比較は不明)で評価する。
+ *
+ * 不変なので、複数の問い合わせで使い回してよい。
+ */
+public abstract class Predicate {
+
+    Predicate() {
+    }
+
+    /**
+     * @param other 追加する条件
+     * @return この条件とotherの両方を満たす条件
+     */
+    public Predicate and(Predicate other) {
+        return Criteria.and(this, other);
+    }
+
+    /**
+     * @param other 追加する条件
+     * @return この条件とotherのどちらかを満たす条件
+     */
+    public Predicate or(Predicate other) {
+        return Criteria.or(this, other);
+    }
+
+    /**
+     * WHERE句の条件をパラメータ位置({@link SQLTemplate#PARAMETER})付きで書き出す
+     *
+     * @param sql 書き出し先
+     * @param parameters バインドする値の追加先
+     * @param metadata エンティティのメタデータ
+     */
+    abstract void appendTo(StringBuilder sql, List<Object> parameters, EntityMetadata metadata);
+
+    /**
+     * エンティティに対して条件を評価する
+     *
+     * @param entity 評価するエンティティ
+     * @param metadata エンティティのメタデータ
+     * @return 条件を満たす場合はTRUE、満たさない場合はFALSE、NULLとの比較で不明な場合はnull
+     */
+    abstract Boolean evaluate(Object entity, EntityMetadata metadata);
+
+    /**
+     * フィールド名、またはカラム名でフィールドを探す
+     */
+    static FieldMetadata resolveField(EntityMetadata metadata, String name) {
+        FieldMetadata field = metadata.getFieldMetadataMap().get(name);
+        if (field != null) {
+            return field;
+        }
+        for (FieldMetadata column : metadata.getColumns()) {
+            if (column.getColumnName().equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException(
+                "Unknown field " + name + " for entity " + metadata.getEntityClass().getName());
+    }
+
+    /**
+     * 値をフィールドの型に合わせる
+     * 数値は桁の異なる型(intとlongなど)でも指定できるよう、フィールドの型に変換する
+     */
+    static Object coerce(FieldMetadata field, Object value) {
+        Class<?> type = wrap(field.getJavaType());
+        if (value == null || type.isInstance(value)) {
+            return value;
+        }
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (type == Long.class) {
+                return number.longValue();
+            } else if (type == Integer.class) {
+                return number.intValue();
+            } else if (type == Double.class) {
+                return number.doubleValue();
+            } else if (type == Float.class) {
+                return number.floatValue();
+            } else if (type == Short.class) {
+                return number.shortValue();
+            } else if (type == Byte.class) {
+                return number.byteValue();
+            } else if (type == BigDecimal.class) {
+                return new BigDecimal(number.toString());
+            }
+        }
+        throw new IllegalArgumentException("Value " + value + " (" + value.getClass().getName()
+                + ") is not compatible with field " + field.getField().getName());
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static int compare(Object left, Object right) {
+        return ((Comparable) left).compareTo(right);
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == long.class) {
+            return Long.class;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == char.class) {
+            return Character.class;
+        }
+        return type;
+    }
+
+    /**
+     * 比較演算子
+     */
+    enum Operator {
+        EQ("="),
+        NE("<>"),
+        GT(">"),
+        GE(">="),
+        LT("<"),
+        LE("<=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        boolean matches(int comparison) {
+            switch (this) {
+                case EQ:
+                    return comparison == 0;
+                case NE:
+                    return comparison != 0;
+                case GT:
+                    return comparison > 0;
+                case GE:
+                    return comparison >= 0;
+                case LT:
+                    return comparison < 0;
+                default:
+                    return comparison <= 0;
+            }
+        }
+    }
+
+    /**
+     * フィールドと値の比較
+     */
+    static final class Comparison extends Predicate {
+        private final String field;
+        private final Operator operator;
+        private final Object value;
+
+        Comparison(String field, Operator operator, Object value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Value cannot be null; use isNull or isNotNull");
+            }
+            if (operator != Operator.EQ && operator != Operator.NE && !(value instanceof Comparable)) {
+                throw new IllegalArgumentException("Value must be comparable: " + value);
+            }
+            this.field = field;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        @Override
+        void appendTo(StringBuilder sql, List<Object> parameters, EntityMetadata metadata) {
+            FieldMetadata column = resolveField(metadata, field);
+            sql.append(column.getColumnName()).append(' ').append(operator.symbol).append(' ')
+                    .append(SQLTemplate.PARAMETER);
+            parameters.add(coerce(column, value));
+        }
+
+        @Override
+        Boolean evaluate(Object entity, EntityMetadata metadata) {
+            FieldMetadata column = resolveField(metadata, field);
+            Object actual = column.getValue(entity);
+            if (actual == null) {
+                return null;
+            }
+            Object expected = coerce(column, value);
+            if (operator == Operator.EQ || operator == Operator.NE) {
+                return (operator == Operator.EQ) == actual.equals(expected);
+            }
+            return operator.matches(compare(actual, expected));
+        }
+    }
+
+    /**
+     * LIKEによるパターン一致。%は0文字以上、_は1文字に一致する
+     */
+    static final class Like extends Predicate {
+        private final String field;
+        private final String pattern;
+
+        Like(String field, String pattern) {
+            if (pattern == null) {
+                throw new IllegalArgumentException("Pattern cannot be null");
+            }
+            this.field = field;
+            this.pattern = pattern;
+        }
+
+        @Override
+        void appendTo(StringBuilder sql, List<Object> parameters, EntityMetadata metadata) {
+            sql.append(stringField(metadata).getColumnName()).append(" LIKE ").append(SQLTemplate.PARAMETER);
+            parameters.add(pattern);
+        }
+
+        @Override
+        Boolean evaluate(Object entity, EntityMetadata metadata) {
+            Object actual = stringField(metadata).getValue(entity);
+            return actual == null ? null : matches((String) actual, pattern);
+        }
+
+        private FieldMetadata stringField(EntityMetadata metadata) {
+            FieldMetadata column = resolveField(metadata, field);
+            if (column.getJavaType() != String.class) {
+                throw new IllegalArgumentException("LIKE requires a String field: " + field);
+            }
+            return column;
+        }
+
+        /**
+         * 最後に出現した%の位置まで戻りながら照合する。正規表現は使わない
+         */
+        static boolean matches(String text, String pattern) {
+            int t = 0;
+            int p = 0;
+            int starPattern = -1;
+            int starText = 0;
+            while (t < text.length()) {
+                if (p < pattern.length() && (pattern.charAt(p) == '_' || pattern.charAt(p) == text.charAt(t))
+                        && pattern.charAt(p) != '%') {
+                    t++;
+                    p++;
+                } else if (p < pattern.length() && pattern.charAt(p) == '%') {
+                    starPattern = p++;
+                    starText = t;
+                } else if (starPattern >= 0) {
+                    p = starPattern + 1;
+                    t = ++starText;
+                } else {
+                    return false;
+                }
+            }
+            while (p < pattern.length() && pattern.charAt(p) == '%') {
+                p++;
+            }
+            return p == pattern.length();
+        }
+    }
+
+    /**
+     * 値の一覧のいずれかに一致する
+     */
+    static final class In extends Predicate {
+        private final String field;
+        private final List<Object> values;
+
+        In(String field, Collection<?> values) {
+            if (values == null) {
+                throw new IllegalArgumentException("Values cannot be null");
+            }
+            for (Object value : values) {
+                if (value == null) {
+                    throw new IllegalArgumentException("Values cannot contain null; use isNull");
+                }
+            }
+            this.field = field;
+            this.values = new ArrayList<>(values);
+        }
+
+        @Override
+        void appendTo(StringBuilder sql, List<Object> parameters, EntityMetadata metadata) {
+            FieldMetadata column = resolveField(metadata, field);
+            if (values.isEmpty()) {
+                // 空のIN ()は構文エラーになるため、常に偽の条件にする
+                sql.append("1 = 0");
+                return;
+            }
+            sql.append(column.getColumnName()).append(" IN (");
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(SQLTemplate.PARAMETER);
+                parameters.add(coerce(column, values.get(i)));
+            }
+            sql.append(')');
+        }
+
+        @Override
+        Boolean evaluate(Object entity, EntityMetadata metadata) {
+            FieldMetadata column = resolveField(metadata, field);
+            if (values.isEmpty()) {
+                return Boolean.FALSE;
+            }
+            Object actual = column.getValue(entity);
+            if (actual == null) {
+                return null;
+            }
+            for (Object value : values) {
+                if (actual.equals(coerce(column, value))) {
+                    return Boolean.TRUE;
+                }
+            }
+            return Boolean.FALSE;
+        }
+    }
+
+    /**
+     * IS NULL / IS NOT NULL
+     */
+    static final class NullCheck extends Predicate {
+        private final String field;
+        private final boolean isNull;
+
+        NullCheck(String field, boolean isNull) {
+            this.field = field;
+            this.isNull = isNull;
+        }
+
+        @Override
+        void appendTo(StringBuilder sql, List<Object> parameters, EntityMetadata metadata) {
+            sql.append(resolveField(metadata, field).getColumnName()).append(isNull ? " IS NULL" : " IS NOT NULL");
+        }
+
+        @Override
+        Boolean evaluate(Object entity, EntityMetadata metadata) {
+            return (resolveField(metadata, field).getValue(entity) == null) == isNull;
+        }
+    }
+
+    /**
+     * 下限と上限を含む範囲
+     */
+    static final class Between extends Predicate {
+        private final String field;
+        private final Object lower;
+        private final Object upper;
+
+        Between(String field, Object lower, Object upper) {
+            if (!(lower instanceof Comparable) || !(upper instanceof Comparable)) {
+                throw new IllegalArgumentException("Bounds must be non-null comparable values");
+            }
+            this.field = field;
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        @Override
+        void appendTo(StringBuilder sql, List<Object> parameters, EntityMetadata metadata) {
+            FieldMetadata column = resolveField(metadata, field);
+            sql.append(column.getColumnName()).append(" BETWEEN ").append(SQLTemplate.PARAMETER)
+                    .append(" AND ").append(SQLTemplate.PARAMETER);
+            parameters.add(coerce(column, lower));
+            parameters.add(coerce(column, upper));
+        }
+
+        @Override
+        Boolean evaluate(Object entity, EntityMetadata metadata) {
+            FieldMetadata column = resolveField(metadata, field);
+            Object actual = column.getValue(entity);
+            if (actual == null) {
+                return null;
+            }
+            return compare(actual, coerce(column, lower)) >= 0 && compare(actual, coerce(column, upper)) <= 0;
+        }
+    }
+
+    /**
+     * 複数の条件のAND/OR
+     */
+    static final class Junction extends Predicate {
+        private final boolean conjunction;
+        private final List<Predicate> predicates;
+
+        Junction(boolean conjunction, List<Predicate> predicates) {
+            if (predicates.isEmpty()) {
+                throw new IllegalArgumentException("At least one predicate is required");
+            }
+            for (Predicate predicate : predicates) {
+                if (predicate == null) {
+                    throw new IllegalArgumentException("Predicate cannot be null");
+                }
+            }
+            this.conjunction = conjunction;
+            this.predicates = predicates;
+        }
+
+        boolean isConjunction() {
+            return conjunction;
+        }
+
+        List<Predicate> getPredicates() {
+            return predicates;
+        }
+
+        @Override
+        void appendTo(StringBuilder sql, List<Object> parameters, EntityMetadata metadata) {
+            if (predicates.size() == 1) {
+                predicates.get(0).appendTo(sql, parameters, metadata);
+                return;
+            }
+            sql.append('(');
+            for (int i = 0; i < predicates.size(); i++) {
+                if (i > 0) {
+                    sql.append(conjunction ? " AND " : " OR ");
+                }
+                predicates.get(i).appendTo(sql, parameters, metadata);
+            }
+            sql.append(')');
+        }
+
+        @Override
+        Boolean evaluate(Object entity, EntityMetadata metadata) {
+            // ANDは偽が1つでもあれば偽、ORは真が1つでもあれば真。決まらずにNULLを含む場合は不明
+            boolean unknown = false;
+            for (Predicate predicate : predicates) {
+                Boolean result = predicate.evaluate(entity, metadata);
+                if (result == null) {
+                    unknown = true;
+                } else if (result != conjunction) {
+                    return result;
+                }
+            }
+            return unknown ? null : conjunction;
+        }
+    }
+
+    /**
+     * 条件の否定
+     */
+    static final class Not extends Predicate {
+        private final Predicate predicate;
+
+        Not(Predicate predicate) {
+            if (predicate == null) {
+                throw new IllegalArgumentException("Predicate cannot be null");
+            }
+            this.predicate = predicate;
+        }
+
+        @Override
+        void appendTo(StringBuilder sql, List<Object> parameters, EntityMetadata metadata) {
+            sql.append("NOT (");
+            predicate.appendTo(sql, parameters, metadata);
+            sql.append(')');
+        }
+
+        @Override
+        Boolean evaluate(Object entity, EntityMetadata metadata) {
+            Boolean result = predicate.evaluate(entity, metadata);
+            return result == null ? null : !result;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.iineineno03k.orm.query;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+
+/**
+ * 射影したカラムの値をレコードまたはインターフェースのDTOに変換するクラス
+ *
+ * レコードはコンポーネント名、インターフェースはアクセサ名(getName、isActive、name)を
+ * エンティティのフィールド名またはカラム名と対応付け、対応するカラムだけをSELECTする。
+ * レコードは正規コンストラクタのMethodHandleで生成し、インターフェースは値の配列を保持するProxyで実装する。
+ * どちらもエンティティの生成と管理対象への登録を行わない。
+ *
+ * 変換方法は(DTOの型, エンティティクラス)ごとに一度だけ組み立てる。
+ *
+ * @param <R> DTOの型
+ */
+public final class ProjectionMapper<R> {
+    private static final ClassValue<ConcurrentMap<Class<?>, ProjectionMapper<?>>> MAPPERS =
+            new ClassValue<ConcurrentMap<Class<?>, ProjectionMapper<?>>>() {
+                @Override
+                protected ConcurrentMap<Class<?>, ProjectionMapper<?>> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private final Class<R> type;
+    private final String[] fields;
+    // プリミティブ型のコンポーネントにNULLが読まれた場合の既定値。参照型はnull
+    private final Object[] defaults;
+    // レコードの場合のみ使用する。(Object[])Objectの形に揃えた正規コンストラクタ
+    private final MethodHandle constructor;
+    // インターフェースの場合のみ使用する。アクセサから値の位置への対応
+    private final Map<Method, Integer> indexByMethod;
+
+    private ProjectionMapper(Class<R> type, EntityMetadata metadata) {
+        this.type = type;
+        List<String> fieldNames = new ArrayList<>();
+        List<Class<?>> valueTypes = new ArrayList<>();
+
+        if (type.isRecord()) {
+            RecordComponent[] components = type.getRecordComponents();
+            Class<?>[] parameterTypes = new Class<?>[components.length];
+            for (int i = 0; i < components.length; i++) {
+                parameterTypes[i] = components[i].getType();
+                fieldNames.add(resolve(metadata, components[i].getType(), components[i].getName()));
+                valueTypes.add(components[i].getType());
+            }
+            this.constructor = createConstructor(type, parameterTypes);
+            this.indexByMethod = null;
+        } else if (type.isInterface()) {
+            this.indexByMethod = new HashMap<>();
+            for (Method method : type.getMethods()) {
+                if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                if (method.getParameterCount() != 0 || method.getReturnType() == void.class) {
+                    throw new IllegalArgumentException("Projection interface " + type.getName()
+                            + " may only declare accessor methods: " + method.getName());
+                }
+                indexByMethod.put(method, fieldNames.size());
+                fieldNames.add(resolve(metadata, method.getReturnType(), propertyName(method)));
+                valueTypes.add(method.getReturnType());
+            }
+            this.constructor = null;
+        } else {
+            throw new IllegalArgumentException("Projection type must be a record or an interface: " + type.getName());
+        }
+
+        if (fieldNames.isEmpty()) {
+            throw new IllegalArgumentException("Projection type " + type.getName() + " has no properties");
+        }
+        this.fields = fieldNames.toArray(new String[0]);
+        this.defaults = new Object[valueTypes.size()];
+        for (int i = 0; i < defaults.length; i++) {
+            Class<?> valueType = valueTypes.get(i);
+            defaults[i] = valueType.isPrimitive() ? Array.get(Array.newInstance(valueType, 1), 0) : null;
+        }
+    }
+
+    /**
+     * @param <R> DTOの型
+     * @param type レコードまたはインターフェース
+     * @param metadata 射影元のエンティティのメタデータ
+     * @return DTOへの変換方法
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> ProjectionMapper<R> of(Class<R> type, EntityMetadata metadata) {
+        if (type == null) {
+            throw new IllegalArgumentException("Projection type cannot be null");
+        }
+        return (ProjectionMapper<R>) MAPPERS.get(type)
+                .computeIfAbsent(metadata.getEntityClass(), entityClass -> new ProjectionMapper<>(type, metadata));
+    }
+
+    /**
+     * @return 射影するエンティティのフィールド名。{@link #map}に渡す値の順に並ぶ
+     */
+    public String[] getFields() {
+        return fields.clone();
+    }
+
+    /**
+     * 1行分の値をDTOに変換する
+     *
+     * @param values {@link #getFields()}の順に並べた値
+     * @return DTO
+     */
+    public R map(Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                values[i] = defaults[i];
+            }
+        }
+        if (constructor == null) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                    new ProjectionHandler(this, values)));
+        }
+        try {
+            return type.cast(constructor.invokeExact(values));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to create " + type.getName(), e);
+        }
+    }
+
+    private static MethodHandle createConstructor(Class<?> type, Class<?>[] parameterTypes) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            return lookup.findConstructor(type, MethodType.methodType(void.class, parameterTypes))
+                    .asSpreader(Object[].class, parameterTypes.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access the canonical constructor of " + type.getName(), e);
+        }
+    }
+
+    /**
+     * DTOのプロパティに対応するフィールドを探し、型が代入可能か検証する
+     */
+    private static String resolve(EntityMetadata metadata, Class<?> valueType, String property) {
+        FieldMetadata field = Predicate.resolveField(metadata, property);
+        if (!wrap(valueType).isAssignableFrom(wrap(field.getJavaType()))) {
+            throw new IllegalArgumentException("Property " + property + " (" + valueType.getName()
+                    + ") is not assignable from field type " + field.getJavaType().getName());
+        }
+        return field.getField().getName();
+    }
+
+    private static String propertyName(Method method) {
+        String name = method.getName();
+        if (name.startsWith("get") && name.length() > 3) {
+            return decapitalize(name.substring(3));
+        }
+        if (name.startsWith("is") && name.length() > 2
+                && (method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class)) {
+            return decapitalize(name.substring(2));
+        }
+        return name;
+    }
+
+    private static String decapitalize(String name) {
+        return name.substring(0, 1).toLowerCase(Locale.ROOT) + name.substring(1);
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    /**
+     * インターフェースのDTOの実装。アクセサは保持している値を返す
+     */
+    private static final class ProjectionHandler implements InvocationHandler {
+        private final ProjectionMapper<?> mapper;
+        private final Object[] values;
+
+        ProjectionHandler(ProjectionMapper<?> mapper, Object[] values) {
+            this.mapper = mapper;
+            this.values = values;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Integer index = mapper.indexByMethod.get(method);
+            if (index != null) {
+                return values[index];
+            }
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            switch (method.getName()) {
+                case "equals":
+                    return args[0] != null && Proxy.isProxyClass(args[0].getClass())
+                            && Proxy.getInvocationHandler(args[0]) instanceof ProjectionHandler
+                            && equalsHandler((ProjectionHandler) Proxy.getInvocationHandler(args[0]));
+                case "hashCode":
+                    return Arrays.hashCode(values);
+                case "toString":
+                    return toString();
+                default:
+                    throw new UnsupportedOperationException(method.toString());
+            }
+        }
+
+        private boolean equalsHandler(ProjectionHandler other) {
+            return mapper.type == other.mapper.type && Arrays.equals(values, other.values);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(mapper.type.getSimpleName()).append('[');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                builder.append(mapper.fields[i]).append('=').append(values[i]);
+            }
+            return builder.append(']').toString();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.iineineno03k.orm.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.iineineno03k.orm.EntityManager;
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.EntityMetadataRegistry;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+import com.iineineno03k.orm.sql.SelectStatement;
+
+/**
+ * エンティティの問い合わせを組み立てるビルダー
+ *
+ * 条件・並び順・件数の制限はSQLに変換してデータベースで評価するため、
+ * 必要な行だけが転送される。生成したSQLは問い合わせの形ごとにSQLGeneratorがキャッシュする。
+ *
+ * @param <T> エンティティの型
+ */
+public class Query<T> {
+    private final EntityManager entityManager;
+    private final Class<T> entityClass;
+    private final List<Order> orders = new ArrayList<>();
+    private final List<String> fetches = new ArrayList<>();
+    private Predicate predicate;
+    private int limit = SelectStatement.NO_LIMIT;
+    private int offset;
+
+    public Query(EntityManager entityManager, Class<T> entityClass) {
+        if (entityManager == null) {
+            throw new IllegalArgumentException("EntityManager cannot be null");
+        }
+        if (entityClass == null) {
+            throw new IllegalArgumentException("Entity class cannot be null");
+        }
+        this.entityManager = entityManager;
+        this.entityClass = entityClass;
+    }
+
+    /**
+     * 条件を設定する。既存の条件は置き換える
+     *
+     * @param predicate 条件
+     * @return このQuery
+     */
+    public Query<T> where(Predicate predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("Predicate cannot be null");
+        }
+        this.predicate = predicate;
+        return this;
+    }
+
+    /**
+     * 既存の条件とANDで条件を追加する
+     *
+     * @param predicate 追加する条件
+     * @return このQuery
+     */
+    public Query<T> and(Predicate predicate) {
+        return where(this.predicate == null ? predicate : this.predicate.and(predicate));
+    }
+
+    /**
+     * 既存の条件とORで条件を追加する
+     *
+     * @param predicate 追加する条件
+     * @return このQuery
+     */
+    public Query<T> or(Predicate predicate) {
+        return where(this.predicate == null ? predicate : this.predicate.or(predicate));
+    }
+
+    /**
+     * 並び順を追加する。先に追加したものが優先される
+     *
+     * @param orders 並び順
+     * @return このQuery
+     */
+    public Query<T> orderBy(Order... orders) {
+        for (Order order : orders) {
+            if (order == null) {
+                throw new IllegalArgumentException("Order cannot be null");
+            }
+        }
+        this.orders.addAll(Arrays.asList(orders));
+        return this;
+    }
+
+    /**
+     * @param limit 取得する最大件数
+     * @return このQuery
+     */
+    public Query<T> limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * @param offset 読み飛ばす件数
+     * @return このQuery
+     */
+    public Query<T> offset(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative");
+        }
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * 関連を結果と合わせて読み込む
+     * 結果を取得した後、全件の関連を参照先の型ごとに1回のIN句の問い合わせでまとめて読み込む。
+     * JDBC実行モードでのみ有効で、射影の問い合わせでは無視される
+     *
+     * @param relation @ManyToOneまたは@OneToManyのフィールド名
+     * @return このQuery
+     */
+    public Query<T> fetch(String relation) {
+        if (EntityMetadataRegistry.get(entityClass).getRelation(relation) == null) {
+            throw new IllegalArgumentException("Unknown relation " + relation + " of " + entityClass.getName());
+        }
+        if (!fetches.contains(relation)) {
+            fetches.add(relation);
+        }
+        return this;
+    }
+
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @return 結果と合わせて読み込む関連のフィールド名
+     */
+    public List<String> getFetches() {
+        return Collections.unmodifiableList(fetches);
+    }
+
+    /**
+     * 問い合わせを実行する
+     *
+     * @return 条件を満たすエンティティ
+     */
+    public List<T> getResultList() {
+        return entityManager.getResultList(this);
+    }
+
+    /**
+     * 指定したフィールドだけを取得する問い合わせを実行する
+     * エンティティは組み立てず、管理対象にもしない
+     *
+     * @param fields 取得するフィールド名
+     * @return 行ごとの値の配列。値はfieldsの順に並ぶ
+     */
+    public List<Object[]> project(String... fields) {
+        if (fields.length == 0) {
+            throw new IllegalArgumentException("At least one field is required");
+        }
+        return entityManager.project(this, fields);
+    }
+
+    /**
+     * DTOのプロパティに対応するカラムだけを取得し、DTOに変換する問い合わせを実行する
+     * エンティティは組み立てず、管理対象にもしない
+     *
+     * @param <R> DTOの型
+     * @param projectionType レコードまたはインターフェース
+     * @return DTOのリスト
+     * @see ProjectionMapper
+     */
+    public <R> List<R> project(Class<R> projectionType) {
+        return entityManager.project(this, projectionType);
+    }
+
+    /**
+     * フィールド名を検証し、SQLの形とバインドする値に分ける
+     *
+     * @param fields 射影するフィールド名。空の場合はエンティティの全カラム
+     * @return コンパイルされた問い合わせ
+     */
+    public CompiledQuery compile(String... fields) {
+        EntityMetadata metadata = EntityMetadataRegistry.get(entityClass);
+
+        List<FieldMetadata> projection;
+        List<String> columns;
+        if (fields.length == 0) {
+            projection = metadata.getColumns();
+            columns = Collections.emptyList();
+        } else {
+            projection = new ArrayList<>(fields.length);
+            columns = new ArrayList<>(fields.length);
+            for (String field : fields) {
+                FieldMetadata column = Predicate.resolveField(metadata, field);
+                projection.add(column);
+                columns.add(column.getColumnName());
+            }
+        }
+
+        String where = null;
+        List<Object> parameters = new ArrayList<>();
+        if (predicate != null) {
+            StringBuilder sql = new StringBuilder();
+            predicate.appendTo(sql, parameters, metadata);
+            where = sql.toString();
+        }
+
+        List<String> orderBy = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            orderBy.add(order.toSQL(metadata));
+        }
+
+        SelectStatement statement = new SelectStatement(columns, where, orderBy,
+                limit != SelectStatement.NO_LIMIT, offset > 0);
+        return new CompiledQuery(metadata, statement, parameters.toArray(), limit, offset, projection, predicate,
+                new ArrayList<>(orders));
+    }
+}
@@ -0,0 +1,67 @@
+package com.iineineno03k.orm.relation;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import com.iineineno03k.orm.metadata.RelationMetadata;
+
+/**
+ * @OneToManyのフィールドに設定する、最初のアクセスで要素を読み込む読み取り専用のリスト
+ * 
+ * 読み込み時は、同じEntityManagerで未読み込みの同じ関連のリストをまとめて1回の問い合わせで読み込む。
+ * 
+ * @param <T> 要素のエンティティの型
+ */
+final class LazyList<T> extends AbstractList<T> {
+    private final RelationLoader loader;
+    private final RelationMetadata relation;
+    private final Long ownerId;
+    private volatile List<T> elements;
+
+    LazyList(RelationLoader loader, RelationMetadata relation, Long ownerId) {
+        this.loader = loader;
+        this.relation = relation;
+        this.ownerId = ownerId;
+    }
+
+    @Override
+    public T get(int index) {
+        return elements().get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements().size();
+    }
+
+    boolean isLoaded() {
+        return elements != null;
+    }
+
+    RelationMetadata getRelation() {
+        return relation;
+    }
+
+    Long getOwnerId() {
+        return ownerId;
+    }
+
+    @SuppressWarnings("unchecked")
+    void complete(List<?> loaded) {
+        elements = (List<T>) loaded;
+    }
+
+    private List<T> elements() {
+        List<T> current = elements;
+        if (current == null) {
+            loader.load(this);
+            current = elements;
+        }
+        return current;
+    }
+
+    @Override
+    public String toString() {
+        return isLoaded() ? super.toString() : "LazyList[" + relation.getName() + " of #" + ownerId + ", not loaded]";
+    }
+}
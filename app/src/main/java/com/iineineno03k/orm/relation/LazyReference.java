@@ -0,0 +1,102 @@
+package com.iineineno03k.orm.relation;
+
+import com.iineineno03k.orm.metadata.EntityMetadataRegistry;
+
+/**
+ * @ManyToOneで参照するエンティティへの遅延参照
+ * 
+ * 読み込んだエンティティには、外部キーの値を持つ未読み込みの参照が設定される。
+ * 最初の{@link #get()}で、同じEntityManagerで未読み込みの同じ型の参照をまとめて1回の問い合わせで読み込む。
+ * 参照先は読み込み時の外部キーの値で決まり、外部キーのフィールドを変更しても追随しない。
+ * 
+ * @param <T> 参照先のエンティティの型
+ */
+public final class LazyReference<T> {
+    private final Class<T> targetClass;
+    private final Long id;
+    // 読み込み済みで作成した場合はnull
+    private final RelationLoader loader;
+    private volatile boolean loaded;
+    private T value;
+
+    LazyReference(RelationLoader loader, Class<T> targetClass, Long id) {
+        this.loader = loader;
+        this.targetClass = targetClass;
+        this.id = id;
+    }
+
+    /**
+     * 読み込み済みの参照を作成する
+     * 
+     * @param <T> 参照先のエンティティの型
+     * @param entity 参照先のエンティティ
+     * @return 参照
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> LazyReference<T> of(T entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("Entity cannot be null; use empty() instead");
+        }
+        Class<T> targetClass = (Class<T>) entity.getClass();
+        Object id = EntityMetadataRegistry.get(targetClass).getIdField().getValue(entity);
+        LazyReference<T> reference = new LazyReference<>(null, targetClass, (Long) id);
+        reference.complete(entity);
+        return reference;
+    }
+
+    /**
+     * 何も参照しない(外部キーがNULLの)参照を作成する
+     * 
+     * @param <T> 参照先のエンティティの型
+     * @param targetClass 参照先のエンティティクラス
+     * @return 参照
+     */
+    public static <T> LazyReference<T> empty(Class<T> targetClass) {
+        LazyReference<T> reference = new LazyReference<>(null, targetClass, null);
+        reference.complete(null);
+        return reference;
+    }
+
+    /**
+     * 参照先のエンティティを取得する。未読み込みの場合は読み込む
+     * 
+     * @return 参照先のエンティティ。外部キーがNULLの場合、または参照先の行が存在しない場合はnull
+     */
+    public T get() {
+        if (!loaded) {
+            loader.load(this);
+        }
+        return value;
+    }
+
+    /**
+     * @return 参照先の主キー。読み込まずに取得できる
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return 参照先のエンティティクラス
+     */
+    public Class<T> getTargetClass() {
+        return targetClass;
+    }
+
+    /**
+     * @return 参照先を読み込み済みの場合はtrue
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    void complete(Object entity) {
+        value = targetClass.cast(entity);
+        loaded = true;
+    }
+
+    @Override
+    public String toString() {
+        return "LazyReference[" + targetClass.getSimpleName() + "#" + id + (loaded ? "" : ", not loaded") + "]";
+    }
+}
@@ -0,0 +1,262 @@
+package com.iineineno03k.orm.relation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.EntityMetadataRegistry;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+import com.iineineno03k.orm.metadata.RelationMetadata;
+
+/**
+ * EntityManagerが読み込んだエンティティの関連を遅延読み込みするクラス
+ * 
+ * 読み込んだエンティティの関連のフィールドには未読み込みのLazyReference・リストを設定し、
+ * 読み込み待ちとして参照先の型(@OneToManyの場合は関連)ごとに保持する。
+ * どれか1つにアクセスすると、同じ型の読み込み待ちの主キーをまとめて1回のIN句の問い合わせで解決し、
+ * 親エンティティごとに1回ずつ問い合わせるN+1問題を避ける。
+ * 
+ * ロックは読み込み待ちの出し入れだけを守り、問い合わせはロックを解放してから行う。
+ * 読み込み待ちは型(関連)ごとに{@link #MAX_PENDING}件までとし、超えた分は古いものから破棄する。
+ */
+public class RelationLoader {
+    /** 型(@OneToManyの場合は関連)ごとに保持する読み込み待ちの上限 */
+    static final int MAX_PENDING = 1000;
+
+    private final Fetcher fetcher;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Class<?>, ArrayDeque<LazyReference<?>>> pendingReferences = new HashMap<>();
+    private final Map<RelationMetadata, ArrayDeque<LazyList<?>>> pendingCollections = new HashMap<>();
+
+    /**
+     * 関連の読み込みに使う問い合わせ
+     */
+    public interface Fetcher {
+        /**
+         * @param <T> エンティティの型
+         * @param entityClass エンティティクラス
+         * @param ids 主キーの一覧
+         * @return 見つかったエンティティ
+         */
+        <T> List<T> findAllById(Class<T> entityClass, Collection<Long> ids);
+
+        /**
+         * @param <T> エンティティの型
+         * @param entityClass エンティティクラス
+         * @param foreignKey 外部キーのカラム
+         * @param keys 外部キーの値の一覧
+         * @return 外部キーがいずれかの値に一致するエンティティ
+         */
+        <T> List<T> findAllByForeignKey(Class<T> entityClass, FieldMetadata foreignKey, Collection<Long> keys);
+    }
+
+    public RelationLoader(Fetcher fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * 設定されていない関連のフィールドに、未読み込みの参照・リストを設定する
+     * 
+     * @param entity 読み込んだエンティティ
+     */
+    public void attach(Object entity) {
+        EntityMetadata metadata = EntityMetadataRegistry.get(entity.getClass());
+        if (metadata.getRelations().isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            for (RelationMetadata relation : metadata.getRelations()) {
+                if (relation.getValue(entity) == null) {
+                    relation.setValue(entity, createPending(entity, metadata, relation));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * エンティティの関連をまとめて読み込む
+     * 参照先の型ごとに1回(主キーの数によっては分割した回数)の問い合わせで読み込む
+     * 
+     * @param entities 同じクラスのエンティティ
+     * @param relationName 関連のフィールド名
+     * @throws IllegalArgumentException 関連が見つからない場合
+     */
+    public void fetch(List<?> entities, String relationName) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        EntityMetadata metadata = EntityMetadataRegistry.get(entities.get(0).getClass());
+        RelationMetadata relation = metadata.getRelation(relationName);
+        if (relation == null) {
+            throw new IllegalArgumentException("Unknown relation " + relationName + " of " + metadata.getEntityClass().getName());
+        }
+
+        List<Object> unloaded = new ArrayList<>();
+        for (Object entity : entities) {
+            attach(entity);
+            Object value = relation.getValue(entity);
+            if (value instanceof LazyReference && !((LazyReference<?>) value).isLoaded()
+                    || value instanceof LazyList && !((LazyList<?>) value).isLoaded()) {
+                unloaded.add(value);
+            }
+        }
+        if (unloaded.isEmpty()) {
+            return;
+        }
+        if (relation.isToMany()) {
+            List<LazyList<?>> lists = new ArrayList<>(unloaded.size());
+            for (Object value : unloaded) {
+                lists.add((LazyList<?>) value);
+            }
+            loadCollections(relation, lists);
+        } else {
+            List<LazyReference<?>> references = new ArrayList<>(unloaded.size());
+            for (Object value : unloaded) {
+                references.add((LazyReference<?>) value);
+            }
+            loadReferences(relation.getTargetClass(), references);
+        }
+    }
+
+    /**
+     * 読み込み待ちを全て破棄する
+     * 破棄した参照・リストは、アクセスされた時点で個別に読み込む
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            pendingReferences.clear();
+            pendingCollections.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void load(LazyReference<?> reference) {
+        if (!reference.isLoaded()) {
+            loadReferences(reference.getTargetClass(), Collections.singletonList(reference));
+        }
+    }
+
+    void load(LazyList<?> list) {
+        if (!list.isLoaded()) {
+            loadCollections(list.getRelation(), Collections.singletonList(list));
+        }
+    }
+
+    private Object createPending(Object entity, EntityMetadata metadata, RelationMetadata relation) {
+        if (relation.isToMany()) {
+            Long ownerId = (Long) metadata.getIdField().getValue(entity);
+            LazyList<?> list = new LazyList<>(this, relation, ownerId);
+            addPending(pendingCollections.computeIfAbsent(relation, k -> new ArrayDeque<>()), list);
+            return list;
+        }
+        Long id = (Long) relation.getForeignKey().getValue(entity);
+        if (id == null) {
+            return LazyReference.empty(relation.getTargetClass());
+        }
+        LazyReference<?> reference = new LazyReference<>(this, relation.getTargetClass(), id);
+        addPending(pendingReferences.computeIfAbsent(relation.getTargetClass(), k -> new ArrayDeque<>()), reference);
+        return reference;
+    }
+
+    /**
+     * 読み込み待ちに追加する。上限に達している場合は最も古いものを破棄する
+     * 破棄したものはアクセスされた時点で個別に読み込む
+     */
+    private static <E> void addPending(ArrayDeque<E> pending, E element) {
+        if (pending.size() >= MAX_PENDING) {
+            pending.pollFirst();
+        }
+        pending.addLast(element);
+    }
+
+    /**
+     * 読み込み待ちの同じ型の参照と合わせて、参照先をまとめて読み込む
+     * 読み込み待ちはロックの中で取り出し、問い合わせはロックを解放してから行う
+     */
+    private void loadReferences(Class<?> targetClass, List<LazyReference<?>> requested) {
+        List<LazyReference<?>> batch = new ArrayList<>(requested);
+        lock.lock();
+        try {
+            ArrayDeque<LazyReference<?>> pending = pendingReferences.remove(targetClass);
+            if (pending != null) {
+                batch.addAll(pending);
+            }
+        } finally {
+            lock.unlock();
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        for (LazyReference<?> reference : batch) {
+            if (!reference.isLoaded()) {
+                ids.add(reference.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        // 読み込んだエンティティの関連は、この中でattachされて次の読み込み待ちになる
+        FieldMetadata idField = EntityMetadataRegistry.get(targetClass).getIdField();
+        Map<Object, Object> byId = new HashMap<>(ids.size() * 2);
+        for (Object entity : fetcher.findAllById(targetClass, ids)) {
+            byId.put(idField.getValue(entity), entity);
+        }
+        for (LazyReference<?> reference : batch) {
+            if (!reference.isLoaded()) {
+                reference.complete(byId.get(reference.getId()));
+            }
+        }
+    }
+
+    /**
+     * 読み込み待ちの同じ関連のリストと合わせて、要素をまとめて読み込む
+     * 読み込み待ちはロックの中で取り出し、問い合わせはロックを解放してから行う
+     */
+    private void loadCollections(RelationMetadata relation, List<LazyList<?>> requested) {
+        List<LazyList<?>> batch = new ArrayList<>(requested);
+        lock.lock();
+        try {
+            ArrayDeque<LazyList<?>> pending = pendingCollections.remove(relation);
+            if (pending != null) {
+                batch.addAll(pending);
+            }
+        } finally {
+            lock.unlock();
+        }
+        Set<Long> ownerIds = new LinkedHashSet<>();
+        for (LazyList<?> list : batch) {
+            if (!list.isLoaded()) {
+                ownerIds.add(list.getOwnerId());
+            }
+        }
+        if (ownerIds.isEmpty()) {
+            return;
+        }
+
+        FieldMetadata foreignKey = relation.getForeignKey();
+        Map<Object, List<Object>> byOwner = new HashMap<>(ownerIds.size() * 2);
+        for (Object entity : fetcher.findAllByForeignKey(relation.getTargetClass(), foreignKey, ownerIds)) {
+            byOwner.computeIfAbsent(foreignKey.getValue(entity), k -> new ArrayList<>()).add(entity);
+        }
+        for (LazyList<?> list : batch) {
+            if (!list.isLoaded()) {
+                List<Object> elements = byOwner.get(list.getOwnerId());
+                list.complete(elements == null
+                        ? Collections.emptyList()
+                        : Collections.unmodifiableList(elements));
+            }
+        }
+    }
+}
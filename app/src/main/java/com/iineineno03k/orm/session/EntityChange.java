@@ -0,0 +1,68 @@
+package com.iineineno03k.orm.session;
+
+import java.util.List;
+
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+
+/**
+ * フラッシュ時に検出された管理対象エンティティの変更
+ * 変更されたカラムだけをUPDATEするための情報を持つ
+ */
+public final class EntityChange {
+    private final Object entity;
+    private final EntityMetadata metadata;
+    private final List<FieldMetadata> changedColumns;
+    private final Object id;
+    private final Object version;
+    private final Object[] parameters;
+
+    EntityChange(Object entity, EntityMetadata metadata, List<FieldMetadata> changedColumns, Object id, Object version,
+            Object[] parameters) {
+        this.entity = entity;
+        this.metadata = metadata;
+        this.changedColumns = changedColumns;
+        this.id = id;
+        this.version = version;
+        this.parameters = parameters;
+    }
+
+    public Object getEntity() {
+        return entity;
+    }
+
+    public EntityMetadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * @return 更新対象の主キー(管理対象にしたときの値)
+     */
+    public Object getId() {
+        return id;
+    }
+
+    /**
+     * @return 更新の条件にするバージョン(読み込んだとき・前回のフラッシュ時の値)。バージョンのカラムがない場合はnull
+     */
+    public Object getVersion() {
+        return version;
+    }
+
+    /**
+     * @return 変更されたカラム(宣言順、主キーとバージョンを除く)
+     */
+    public List<FieldMetadata> getChangedColumns() {
+        return changedColumns;
+    }
+
+    /**
+     * 変更されたカラムの値を宣言順に並べ、主キーの値を付け加えたもの。バージョンのカラムがある場合は最後にバージョンが続く
+     * {@link com.iineineno03k.orm.sql.SQLGenerator#createUpdateSQL(EntityMetadata, List)}のパラメータ順序に対応する
+     * 
+     * @return UPDATE文のパラメータ
+     */
+    public Object[] getParameters() {
+        return parameters;
+    }
+}
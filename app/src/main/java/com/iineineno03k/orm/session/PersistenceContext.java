@@ -0,0 +1,299 @@
+package com.iineineno03k.orm.session;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.EntityMetadataRegistry;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+
+/**
+ * EntityManagerが読み込み・保存したエンティティを管理する永続化コンテキスト(一次キャッシュ)
+ * 
+ * 管理対象のエンティティはクラスと主キーごとに1インスタンスだけ保持し、登録時のカラム値をスナップショットとして記録する。
+ * フラッシュ時にスナップショットと現在の値を比較し、変更のあったエンティティと変更カラムだけを返す。
+ * バージョンのカラムは比較せず、スナップショットの値を更新の条件にする。
+ * 
+ * 管理対象は明示的に{@link #detach(Object)}または{@link #clear()}されるまで強参照で保持する。
+ * 非同期のAPIから多数の仮想スレッドが同時に参照するため、synchronizedではなくReentrantLockで排他する。
+ */
+public class PersistenceContext {
+    private final Map<Class<?>, Map<Object, ManagedEntity>> entitiesByClass = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 管理対象のエンティティを主キーで取得する
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @param id 主キー
+     * @return 管理対象のエンティティ。管理されていない場合はnull
+     */
+    public <T> T find(Class<T> entityClass, Object id) {
+        lock.lock();
+        try {
+            Map<Object, ManagedEntity> entities = entitiesByClass.get(entityClass);
+            if (entities == null || id == null) {
+                return null;
+            }
+            ManagedEntity managed = entities.get(id);
+            return managed == null ? null : entityClass.cast(managed.entity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * エンティティを管理対象として登録し、現在の値をスナップショットとして記録する
+     * 同じ主キーのエンティティが既に管理されている場合は置き換える
+     * 
+     * @param entity 登録するエンティティ
+     */
+    public void register(Object entity) {
+        lock.lock();
+        try {
+            EntityMetadata metadata = EntityMetadataRegistry.get(entity.getClass());
+            Object id = requireId(entity, metadata);
+            entities(entity.getClass()).put(id, new ManagedEntity(entity, metadata));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * データベースから読み込んだエンティティを管理対象にする
+     * 同じ主キーのエンティティが既に管理されている場合は、そちらを返して同一性を保つ
+     * 
+     * @param <T> エンティティの型
+     * @param entity 読み込んだエンティティ
+     * @return 管理対象のエンティティ
+     */
+    public <T> T registerLoaded(T entity) {
+        lock.lock();
+        try {
+            EntityMetadata metadata = EntityMetadataRegistry.get(entity.getClass());
+            Object id = requireId(entity, metadata);
+            Map<Object, ManagedEntity> entities = entities(entity.getClass());
+            ManagedEntity managed = entities.get(id);
+            if (managed != null) {
+                @SuppressWarnings("unchecked")
+                T existing = (T) managed.entity;
+                return existing;
+            }
+            entities.put(id, new ManagedEntity(entity, metadata));
+            return entity;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param entity 対象のエンティティ
+     * @return このインスタンスそのものが管理対象の場合はtrue
+     */
+    public boolean contains(Object entity) {
+        lock.lock();
+        try {
+            Map<Object, ManagedEntity> entities = entitiesByClass.get(entity.getClass());
+            if (entities == null) {
+                return false;
+            }
+            Object id = EntityMetadataRegistry.get(entity.getClass()).getIdField().getValue(entity);
+            ManagedEntity managed = id == null ? null : entities.get(id);
+            return managed != null && managed.entity == entity;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * エンティティを管理対象から外す。未フラッシュの変更は書き込まれない
+     * 
+     * @param entity 対象のエンティティ
+     */
+    public void detach(Object entity) {
+        lock.lock();
+        try {
+            Map<Object, ManagedEntity> entities = entitiesByClass.get(entity.getClass());
+            if (entities == null) {
+                return;
+            }
+            Object id = EntityMetadataRegistry.get(entity.getClass()).getIdField().getValue(entity);
+            if (id != null && entities.containsKey(id) && entities.get(id).entity == entity) {
+                entities.remove(id);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 全ての管理対象を外す
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            entitiesByClass.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 管理対象のエンティティ数
+     */
+    public int size() {
+        lock.lock();
+        try {
+            int size = 0;
+            for (Map<Object, ManagedEntity> entities : entitiesByClass.values()) {
+                size += entities.size();
+            }
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * スナップショットから変更された管理対象のエンティティを検出する
+     * 主キーのカラムは比較しない
+     * 
+     * @return 変更のあったエンティティ(登録順)
+     */
+    public List<EntityChange> getChanges() {
+        lock.lock();
+        try {
+            List<EntityChange> changes = new ArrayList<>();
+            for (Map<Object, ManagedEntity> entities : entitiesByClass.values()) {
+                for (ManagedEntity managed : entities.values()) {
+                    EntityChange change = managed.diff();
+                    if (change != null) {
+                        changes.add(change);
+                    }
+                }
+            }
+            return changes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 書き込みが完了した変更について、スナップショットを書き込んだ値で更新する
+     * バージョンのカラムがある場合は、データベース側で進めた値をエンティティとスナップショットに反映する
+     * 
+     * @param changes {@link #getChanges()}で取得し、データベースに書き込んだ変更
+     */
+    public void markFlushed(List<EntityChange> changes) {
+        lock.lock();
+        try {
+            for (EntityChange change : changes) {
+                Object entity = change.getEntity();
+                Map<Object, ManagedEntity> entities = entitiesByClass.get(entity.getClass());
+                if (entities == null) {
+                    continue;
+                }
+                ManagedEntity managed = entities.get(change.getId());
+                if (managed != null && managed.entity == entity) {
+                    managed.apply(change);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<Object, ManagedEntity> entities(Class<?> entityClass) {
+        // 変更の検出順を登録順にそろえる
+        return entitiesByClass.computeIfAbsent(entityClass, k -> new LinkedHashMap<>());
+    }
+
+    private static Object requireId(Object entity, EntityMetadata metadata) {
+        Object id = metadata.getIdField().getValue(entity);
+        if (id == null) {
+            throw new IllegalArgumentException("Entity id cannot be null");
+        }
+        return id;
+    }
+
+    private static final class ManagedEntity {
+        private final Object entity;
+        private final EntityMetadata metadata;
+        private final Object[] snapshot;
+
+        ManagedEntity(Object entity, EntityMetadata metadata) {
+            this.entity = entity;
+            this.metadata = metadata;
+            this.snapshot = read();
+        }
+
+        private Object[] read() {
+            List<FieldMetadata> columns = metadata.getColumns();
+            Object[] values = new Object[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = columns.get(i).getValue(entity);
+            }
+            return values;
+        }
+
+        private void apply(EntityChange change) {
+            List<FieldMetadata> columns = metadata.getColumns();
+            List<FieldMetadata> changed = change.getChangedColumns();
+            Object[] parameters = change.getParameters();
+            for (int i = 0; i < changed.size(); i++) {
+                snapshot[columns.indexOf(changed.get(i))] = parameters[i];
+            }
+            FieldMetadata versionField = metadata.getVersionField();
+            if (versionField != null) {
+                Object next = versionField.nextVersion(change.getVersion());
+                snapshot[columns.indexOf(versionField)] = next;
+                versionField.setValue(entity, next);
+            }
+        }
+
+        private EntityChange diff() {
+            List<FieldMetadata> columns = metadata.getColumns();
+            List<FieldMetadata> changed = null;
+            List<Object> parameters = null;
+            Object id = null;
+            Object version = null;
+            for (int i = 0; i < columns.size(); i++) {
+                FieldMetadata column = columns.get(i);
+                if (column.isId()) {
+                    id = snapshot[i];
+                    continue;
+                }
+                if (column.isVersion()) {
+                    version = snapshot[i];
+                    continue;
+                }
+                Object current = column.getValue(entity);
+                if (!Objects.deepEquals(snapshot[i], current)) {
+                    if (changed == null) {
+                        changed = new ArrayList<>();
+                        parameters = new ArrayList<>();
+                    }
+                    changed.add(column);
+                    parameters.add(current);
+                }
+            }
+            if (changed == null) {
+                return null;
+            }
+            // 主キーは登録時の値で更新対象を特定する
+            parameters.add(id);
+            if (metadata.getVersionField() != null) {
+                parameters.add(version);
+            }
+            return new EntityChange(entity, metadata, Collections.unmodifiableList(changed), id, version,
+                    parameters.toArray());
+        }
+    }
+}
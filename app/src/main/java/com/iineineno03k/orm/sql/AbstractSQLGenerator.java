@@ -1,80 +1,178 @@
 package com.iineineno03k.orm.sql;
 
-import java.lang.reflect.Field;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
-import com.iineineno03k.orm.annotation.Column;
-import com.iineineno03k.orm.annotation.Entity;
-import com.iineineno03k.orm.annotation.Id;
-import com.iineineno03k.orm.annotation.Table;
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.EntityMetadataRegistry;
+import com.iineineno03k.orm.metadata.FieldMetadata;
 
 /**
  * SQLGeneratorの基本的な実装を提供する抽象クラス。
  * 各データベース固有の実装はこのクラスを拡張する。
+ * 
+ * テーブル名・カラム名・カラムの並びはすべてEntityMetadataから取得する。
+ * エンティティクラスを受け取るメソッドはEntityMetadataRegistryのメタデータに委譲するため、
+ * SQLの生成ごとにリフレクションや正規表現による変換は行わない。
+ * 
+ * CREATE TABLE文以外の文は、エンティティごとにコンパイル済みのSQLTemplateに
+ * ダイアレクトのプレースホルダー表記を当てはめて描画する。
  */
 public abstract class AbstractSQLGenerator implements SQLGenerator {
     
+    @Override
+    public String createSelectSQL(Class<?> entityClass, String idColumnName) {
+        return createSelectSQL(getMetadata(entityClass), idColumnName);
+    }
+    
+    @Override
+    public String createSelectSQL(EntityMetadata metadata) {
+        return createSelectSQL(metadata, metadata.getIdColumnName());
+    }
+    
+    @Override
+    public String createInsertSQL(Class<?> entityClass) {
+        return createInsertSQL(getMetadata(entityClass));
+    }
+    
+    @Override
+    public String createMultiRowInsertSQL(Class<?> entityClass, int rowCount) {
+        return createMultiRowInsertSQL(getMetadata(entityClass), rowCount);
+    }
+    
+    @Override
+    public String createUpdateSQL(Class<?> entityClass, String idColumnName) {
+        return createUpdateSQL(getMetadata(entityClass), idColumnName);
+    }
+    
+    @Override
+    public String createUpdateSQL(EntityMetadata metadata) {
+        return createUpdateSQL(metadata, metadata.getIdColumnName());
+    }
+    
+    @Override
+    public String createDeleteSQL(Class<?> entityClass, String idColumnName) {
+        return createDeleteSQL(getMetadata(entityClass), idColumnName);
+    }
+    
+    @Override
+    public String createDeleteSQL(EntityMetadata metadata) {
+        return createDeleteSQL(metadata, metadata.getIdColumnName());
+    }
+    
+    @Override
+    public String createTableSQL(Class<?> entityClass) {
+        return createTableSQL(getMetadata(entityClass));
+    }
+    
+    @Override
+    public String createSelectAllSQL(Class<?> entityClass) {
+        return createSelectAllSQL(getMetadata(entityClass));
+    }
+    
     /**
-     * エンティティクラスのテーブル名を取得する
+     * エンティティの全件取得用のSELECT文を生成する
+     * INSERT文やCREATE TABLE文と同じカラム名を使う
      * 
-     * @param entityClass エンティティクラス
-     * @return テーブル名
+     * @param metadata エンティティのメタデータ
+     * @return 生成されたSQL
      */
-    protected String getTableName(Class<?> entityClass) {
-        if (entityClass.isAnnotationPresent(Table.class)) {
-            Table tableAnnotation = entityClass.getAnnotation(Table.class);
-            return tableAnnotation.name();
-        } else if (entityClass.isAnnotationPresent(Entity.class)) {
-            return entityClass.getSimpleName().toLowerCase();
-        } else {
-            throw new IllegalArgumentException("Class is not an entity: " + entityClass.getName());
+    @Override
+    public String createSelectAllSQL(EntityMetadata metadata) {
+        return templatesOf(metadata).selectAll();
+    }
+    
+    /**
+     * 主キーのIN句で複数件を取得するSELECT文を生成する
+     * IN句の要素数に上限のあるデータベースは{@link #getMaxIdsPerQuery()}をオーバーライドする
+     */
+    @Override
+    public String createSelectByIdsSQL(EntityMetadata metadata, int idCount) {
+        if (idCount <= 0) {
+            throw new IllegalArgumentException("Id count must be positive");
         }
+        return templatesOf(metadata).selectAll() + " WHERE " + metadata.getIdColumnName() + " IN ("
+                + SQLTemplate.parameters(idCount).render(getPlaceholderStyle()) + ")";
+    }
+    
+    @Override
+    public int getMaxIdsPerQuery() {
+        return Integer.MAX_VALUE;
+    }
+    
+    @Override
+    public boolean bindsIdsAsArray() {
+        return false;
+    }
+    
+    @Override
+    public String createInsertSQL(EntityMetadata metadata) {
+        return templatesOf(metadata).insert().render(getPlaceholderStyle());
     }
     
     /**
-     * エンティティのフィールド名一覧を取得する
+     * 複数行のINSERT文を生成する
+     * 既定ではVALUES句に行を並べる。複数行のVALUESをサポートしないデータベースはオーバーライドする
      * 
-     * @param entityClass エンティティのクラス
-     * @return フィールド名のリスト
+     * @param metadata エンティティのメタデータ
+     * @param rowCount 1文で挿入する行数
+     * @return 生成されたSQL文
      */
-    protected List<String> getFieldNames(Class<?> entityClass) {
-        Field[] fields = entityClass.getDeclaredFields();
-        List<String> fieldNames = new ArrayList<>();
-        
-        for (Field field : fields) {
-            // 静的フィールドは除外
-            if (java.lang.reflect.Modifier.isStatic(field.getModifiers())) {
-                continue;
-            }
-            fieldNames.add(field.getName());
-        }
-        
-        return fieldNames;
+    @Override
+    public String createMultiRowInsertSQL(EntityMetadata metadata, int rowCount) {
+        EntityTemplates templates = templatesOf(metadata);
+        return templates.valuesRow().renderRows(getPlaceholderStyle(), templates.insertPrefix(), rowCount, ", ", "");
     }
     
     /**
-     * キャメルケースをスネークケースに変換する
+     * 主キーのカラム名を指定してSELECT文を生成する
      * 
-     * @param camel キャメルケース文字列
-     * @return スネークケース文字列
+     * @param metadata エンティティのメタデータ
+     * @param idColumnName 主キーのカラム名
+     * @return 生成されたSQL文
      */
-    protected String camelToSnake(String camel) {
-        String regex = "([a-z])([A-Z])";
-        String replacement = "$1_$2";
-        return camel.replaceAll(regex, replacement).toLowerCase();
+    protected String createSelectSQL(EntityMetadata metadata, String idColumnName) {
+        return templatesOf(metadata).selectById(idColumnName).render(getPlaceholderStyle());
     }
     
     /**
-     * フィールド名をカラム名に変換する
+     * 主キーのカラム名を指定してUPDATE文を生成する
+     * SET句には主キー以外のカラムを宣言順に並べる。
+     * バージョンのカラムはSET句で1つ進め、WHERE句の主キーの後に読み込んだときの値を条件として加える
      * 
-     * @param fieldName フィールド名
-     * @return カラム名
+     * @param metadata エンティティのメタデータ
+     * @param idColumnName 主キーのカラム名
+     * @return 生成されたSQL文
      */
-    protected String fieldToColumnName(String fieldName) {
-        return camelToSnake(fieldName);
+    protected String createUpdateSQL(EntityMetadata metadata, String idColumnName) {
+        return templatesOf(metadata).update(metadata, idColumnName).render(getPlaceholderStyle());
+    }
+    
+    @Override
+    public String createUpdateSQL(EntityMetadata metadata, List<FieldMetadata> columns) {
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("At least one column must be updated");
+        }
+        for (FieldMetadata column : columns) {
+            if (column.isId()) {
+                throw new IllegalArgumentException("Primary key column cannot be updated: " + column.getColumnName());
+            }
+            if (column.isVersion()) {
+                throw new IllegalArgumentException("Version column is incremented automatically: " + column.getColumnName());
+            }
+        }
+        return templatesOf(metadata).update(columns).render(getPlaceholderStyle());
+    }
+    
+    /**
+     * 主キーのカラム名を指定してDELETE文を生成する
+     * 
+     * @param metadata エンティティのメタデータ
+     * @param idColumnName 主キーのカラム名
+     * @return 生成されたSQL文
+     */
+    protected String createDeleteSQL(EntityMetadata metadata, String idColumnName) {
+        return templatesOf(metadata).delete(idColumnName).render(getPlaceholderStyle());
     }
     
     /**
@@ -83,49 +181,171 @@ public abstract class AbstractSQLGenerator implements SQLGenerator {
      * @param count プレースホルダーの数
      * @return カンマ区切りのプレースホルダー
      */
-    protected abstract String createPlaceholders(int count);
+    protected String createPlaceholders(int count) {
+        return SQLTemplate.parameters(count).render(getPlaceholderStyle());
+    }
     
     /**
-     * フィールドのカラム名を取得する
+     * @return このデータベースのバインドパラメータの表記
+     */
+    protected abstract PlaceholderStyle getPlaceholderStyle();
+    
+    /**
+     * エンティティのコンパイル済みの雛形を取得する
      * 
-     * @param field フィールド
-     * @return カラム名
+     * @param metadata エンティティのメタデータ
+     * @return 雛形
      */
-    protected String getColumnName(Field field) {
-        if (field.isAnnotationPresent(Column.class)) {
-            Column columnAnnotation = field.getAnnotation(Column.class);
-            if (!columnAnnotation.name().isEmpty()) {
-                return columnAnnotation.name();
-            }
+    EntityTemplates templatesOf(EntityMetadata metadata) {
+        return EntityTemplates.of(metadata.getEntityClass());
+    }
+    
+    @Override
+    public String createQuerySQL(EntityMetadata metadata, SelectStatement statement) {
+        StringBuilder pattern = new StringBuilder(64).append("SELECT ");
+        pattern.append(statement.getColumns().isEmpty()
+                ? String.join(", ", metadata.getColumnNames())
+                : String.join(", ", statement.getColumns()));
+        pattern.append(" FROM ").append(metadata.getTableName());
+        if (statement.getWhere() != null) {
+            pattern.append(" WHERE ").append(statement.getWhere());
+        }
+        if (!statement.getOrderBy().isEmpty()) {
+            pattern.append(" ORDER BY ").append(String.join(", ", statement.getOrderBy()));
         }
-        return field.getName().toLowerCase();
+        appendPagination(pattern, statement.hasLimit(), statement.hasOffset());
+        return SQLTemplate.compile(pattern.toString()).render(getPlaceholderStyle());
     }
     
     /**
-     * エンティティクラスの全フィールドを取得する
+     * 件数の制限をパラメータ位置としてSQLの末尾に付け加える
+     * 既定ではLIMIT/OFFSET句を使う。構文の異なるデータベースはオーバーライドし、
+     * {@link #appendPaginationParameters}もパラメータ位置の順に合わせる
+     * 
+     * @param sql 付け加える先のSQL
+     * @param limited 取得する最大件数を制限する場合はtrue
+     * @param offset 先頭の行を読み飛ばす場合はtrue
+     */
+    protected void appendPagination(StringBuilder sql, boolean limited, boolean offset) {
+        if (limited) {
+            sql.append(" LIMIT ").append(SQLTemplate.PARAMETER);
+        }
+        if (offset) {
+            sql.append(" OFFSET ").append(SQLTemplate.PARAMETER);
+        }
+    }
+    
+    @Override
+    public Object[] createQueryParameters(Object[] parameters, int limit, int offset) {
+        List<Object> values = new ArrayList<>(parameters.length + 2);
+        for (Object parameter : parameters) {
+            values.add(parameter);
+        }
+        appendPaginationParameters(values, limit, offset);
+        return values.toArray();
+    }
+    
+    /**
+     * 件数の制限の値を{@link #appendPagination}が付けたパラメータ位置の順に付け加える
+     * 
+     * @param values 付け加える先の値のリスト
+     * @param limit 取得する最大件数。制限しない場合は{@link SelectStatement#NO_LIMIT}
+     * @param offset 読み飛ばす件数
+     */
+    protected void appendPaginationParameters(List<Object> values, int limit, int offset) {
+        if (limit != SelectStatement.NO_LIMIT) {
+            values.add(limit);
+        }
+        if (offset > 0) {
+            values.add(offset);
+        }
+    }
+    
+    /**
+     * エンティティクラスのメタデータを取得する
      * 
      * @param entityClass エンティティクラス
-     * @return フィールドのリスト
+     * @return メタデータ
+     * @throws IllegalArgumentException エンティティクラスでない場合
      */
-    protected List<Field> getAllFields(Class<?> entityClass) {
-        return Arrays.asList(entityClass.getDeclaredFields());
+    protected EntityMetadata getMetadata(Class<?> entityClass) {
+        return EntityMetadataRegistry.get(entityClass);
     }
     
     /**
-     * エンティティクラスから全件取得用のSELECT文を生成する
+     * エンティティクラスのテーブル名を取得する
      * 
      * @param entityClass エンティティクラス
-     * @return 生成されたSQL
+     * @return テーブル名
      */
-    @Override
-    public String createSelectAllSQL(Class<?> entityClass) {
-        String tableName = getTableName(entityClass);
-        List<Field> fields = getAllFields(entityClass);
+    protected String getTableName(Class<?> entityClass) {
+        return getMetadata(entityClass).getTableName();
+    }
+    
+    /**
+     * エンティティのフィールド名一覧を取得する
+     * 
+     * @param entityClass エンティティのクラス
+     * @return フィールド名のリスト
+     */
+    protected List<String> getFieldNames(Class<?> entityClass) {
+        List<FieldMetadata> columns = getMetadata(entityClass).getColumns();
+        List<String> fieldNames = new ArrayList<>(columns.size());
+        for (FieldMetadata column : columns) {
+            fieldNames.add(column.getField().getName());
+        }
+        return fieldNames;
+    }
+    
+    /**
+     * キャメルケースをスネークケースに変換する
+     * 
+     * @param camel キャメルケース文字列
+     * @return スネークケース文字列
+     */
+    protected String camelToSnake(String camel) {
+        return EntityMetadata.toSnakeCase(camel);
+    }
+    
+    /**
+     * フィールド名をカラム名に変換する
+     * @Columnでカラム名が指定されていない場合の既定のカラム名となる
+     * 
+     * @param fieldName フィールド名
+     * @return カラム名
+     */
+    protected String fieldToColumnName(String fieldName) {
+        return camelToSnake(fieldName);
+    }
+    
+    /**
+     * CREATE TABLE文のカラム定義と主キー制約を生成する
+     * 
+     * @param metadata エンティティのメタデータ
+     * @return カラム定義(各行の先頭に空白2つ、行はカンマと改行で区切る)
+     */
+    protected String createColumnDefinitions(EntityMetadata metadata) {
+        StringBuilder definitions = new StringBuilder();
+        for (FieldMetadata column : metadata.getColumns()) {
+            definitions.append("  ")
+                    .append(column.getColumnName())
+                    .append(" ")
+                    .append(mapJavaTypeToSQLType(column.getJavaType()));
+            
+            // NULL制約
+            if (!column.isNullable()) {
+                definitions.append(" NOT NULL");
+            }
+            
+            // UNIQUE制約
+            if (column.isUnique()) {
+                definitions.append(" UNIQUE");
+            }
+            definitions.append(",\n");
+        }
         
-        String columnList = fields.stream()
-                .map(this::getColumnName)
-                .collect(Collectors.joining(", "));
-                
-        return String.format("SELECT %s FROM %s", columnList, tableName);
+        // Primary Key制約を追加
+        definitions.append("  PRIMARY KEY (").append(metadata.getIdColumnName()).append(")");
+        return definitions.toString();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,296 @@
+package com.iineineno03k.orm.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.iineineno03k.orm.cache.BoundedCache;
+import com.iineineno03k.orm.cache.EvictionPolicy;
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+
+/**
+ * 生成済みのSQLをキャッシュするSQLGeneratorのデコレータ
+ * 
+ * キャッシュはエンティティクラスごとにClassValueで保持し、(文の種類, データベースタイプ, 主キーのカラム名, 行数,
+ * 更新するカラム)をキーとして全インスタンスで共有する。生成されるSQLはエンティティクラスに対して不変なので無効化はしない。
+ * エンティティクラスを強く参照しないため、クラスローダーが破棄されればキャッシュも破棄される。
+ * 
+ * 条件付きの問い合わせは形の種類が多くなりうるため、上限のあるキャッシュに保持する。
+ */
+public class CachingSQLGenerator implements SQLGenerator {
+    static final int MAX_QUERY_PLANS = 1024;
+
+    private static final ClassValue<ConcurrentMap<CacheKey, String>> SQL_CACHE =
+            new ClassValue<ConcurrentMap<CacheKey, String>>() {
+                @Override
+                protected ConcurrentMap<CacheKey, String> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+    private static final BoundedCache<QueryPlanKey, String> QUERY_PLANS =
+            new BoundedCache<>(MAX_QUERY_PLANS, 0, TimeUnit.SECONDS, EvictionPolicy.LRU);
+
+    private final DatabaseType databaseType;
+    private final SQLGenerator delegate;
+
+    public CachingSQLGenerator(DatabaseType databaseType, SQLGenerator delegate) {
+        if (databaseType == null) {
+            throw new IllegalArgumentException("Database type cannot be null");
+        }
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate generator cannot be null");
+        }
+        this.databaseType = databaseType;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String createSelectSQL(Class<?> entityClass, String idColumnName) {
+        return cached(entityClass, SQLOperation.SELECT_BY_ID, idColumnName,
+                () -> delegate.createSelectSQL(entityClass, idColumnName));
+    }
+
+    @Override
+    public String createSelectSQL(EntityMetadata metadata) {
+        return cached(metadata.getEntityClass(), SQLOperation.SELECT_BY_ID, metadata.getIdColumnName(),
+                () -> delegate.createSelectSQL(metadata));
+    }
+
+    @Override
+    public String createInsertSQL(Class<?> entityClass) {
+        return cached(entityClass, SQLOperation.INSERT, null,
+                () -> delegate.createInsertSQL(entityClass));
+    }
+
+    @Override
+    public String createInsertSQL(EntityMetadata metadata) {
+        return cached(metadata.getEntityClass(), SQLOperation.INSERT, null,
+                () -> delegate.createInsertSQL(metadata));
+    }
+
+    @Override
+    public String createMultiRowInsertSQL(Class<?> entityClass, int rowCount) {
+        return cached(entityClass, SQLOperation.MULTI_ROW_INSERT, null, rowCount,
+                () -> delegate.createMultiRowInsertSQL(entityClass, rowCount));
+    }
+
+    @Override
+    public String createMultiRowInsertSQL(EntityMetadata metadata, int rowCount) {
+        return cached(metadata.getEntityClass(), SQLOperation.MULTI_ROW_INSERT, null, rowCount,
+                () -> delegate.createMultiRowInsertSQL(metadata, rowCount));
+    }
+
+    @Override
+    public String createUpdateSQL(Class<?> entityClass, String idColumnName) {
+        return cached(entityClass, SQLOperation.UPDATE, idColumnName,
+                () -> delegate.createUpdateSQL(entityClass, idColumnName));
+    }
+
+    @Override
+    public String createUpdateSQL(EntityMetadata metadata) {
+        return cached(metadata.getEntityClass(), SQLOperation.UPDATE, metadata.getIdColumnName(),
+                () -> delegate.createUpdateSQL(metadata));
+    }
+
+    @Override
+    public String createUpdateSQL(EntityMetadata metadata, List<FieldMetadata> columns) {
+        List<String> columnNames = new ArrayList<>(columns.size());
+        for (FieldMetadata column : columns) {
+            columnNames.add(column.getColumnName());
+        }
+        CacheKey key = new CacheKey(SQLOperation.UPDATE_COLUMNS, databaseType, metadata.getIdColumnName(), 0, columnNames);
+        return cached(metadata.getEntityClass(), key, () -> delegate.createUpdateSQL(metadata, columns));
+    }
+
+    @Override
+    public String createUpsertSQL(EntityMetadata metadata) {
+        return cached(metadata.getEntityClass(), SQLOperation.UPSERT, metadata.getIdColumnName(),
+                () -> delegate.createUpsertSQL(metadata));
+    }
+
+    @Override
+    public String createMultiRowUpsertSQL(EntityMetadata metadata, int rowCount) {
+        return cached(metadata.getEntityClass(), SQLOperation.MULTI_ROW_UPSERT, metadata.getIdColumnName(), rowCount,
+                () -> delegate.createMultiRowUpsertSQL(metadata, rowCount));
+    }
+
+    @Override
+    public String createDeleteSQL(Class<?> entityClass, String idColumnName) {
+        return cached(entityClass, SQLOperation.DELETE, idColumnName,
+                () -> delegate.createDeleteSQL(entityClass, idColumnName));
+    }
+
+    @Override
+    public String createDeleteSQL(EntityMetadata metadata) {
+        return cached(metadata.getEntityClass(), SQLOperation.DELETE, metadata.getIdColumnName(),
+                () -> delegate.createDeleteSQL(metadata));
+    }
+
+    @Override
+    public String mapJavaTypeToSQLType(Class<?> javaType) {
+        return delegate.mapJavaTypeToSQLType(javaType);
+    }
+
+    @Override
+    public String createTableSQL(Class<?> entityClass) {
+        return cached(entityClass, SQLOperation.CREATE_TABLE, null,
+                () -> delegate.createTableSQL(entityClass));
+    }
+
+    @Override
+    public String createTableSQL(EntityMetadata metadata) {
+        return cached(metadata.getEntityClass(), SQLOperation.CREATE_TABLE, null,
+                () -> delegate.createTableSQL(metadata));
+    }
+
+    @Override
+    public String createSelectAllSQL(Class<?> entityClass) {
+        return cached(entityClass, SQLOperation.SELECT_ALL, null,
+                () -> delegate.createSelectAllSQL(entityClass));
+    }
+
+    @Override
+    public String createSelectAllSQL(EntityMetadata metadata) {
+        return cached(metadata.getEntityClass(), SQLOperation.SELECT_ALL, null,
+                () -> delegate.createSelectAllSQL(metadata));
+    }
+
+    @Override
+    public String createSelectByIdsSQL(EntityMetadata metadata, int idCount) {
+        // 配列でバインドする場合はidCountによらず同じSQLになるので1件だけ保持する
+        int rowCount = delegate.bindsIdsAsArray() ? 0 : idCount;
+        return cached(metadata.getEntityClass(), SQLOperation.SELECT_BY_IDS, metadata.getIdColumnName(), rowCount,
+                () -> delegate.createSelectByIdsSQL(metadata, idCount));
+    }
+
+    @Override
+    public int getMaxIdsPerQuery() {
+        return delegate.getMaxIdsPerQuery();
+    }
+
+    @Override
+    public boolean bindsIdsAsArray() {
+        return delegate.bindsIdsAsArray();
+    }
+
+    @Override
+    public String createQuerySQL(EntityMetadata metadata, SelectStatement statement) {
+        QueryPlanKey key = new QueryPlanKey(metadata.getEntityClass(), databaseType, statement);
+        String sql = QUERY_PLANS.get(key);
+        if (sql == null) {
+            sql = delegate.createQuerySQL(metadata, statement);
+            QUERY_PLANS.put(key, sql);
+        }
+        return sql;
+    }
+
+    @Override
+    public Object[] createQueryParameters(Object[] parameters, int limit, int offset) {
+        return delegate.createQueryParameters(parameters, limit, offset);
+    }
+
+    public DatabaseType getDatabaseType() {
+        return databaseType;
+    }
+
+    private String cached(Class<?> entityClass, SQLOperation operation, String idColumnName, Supplier<String> generator) {
+        return cached(entityClass, operation, idColumnName, 0, generator);
+    }
+
+    private String cached(Class<?> entityClass, SQLOperation operation, String idColumnName, int rowCount,
+            Supplier<String> generator) {
+        return cached(entityClass, new CacheKey(operation, databaseType, idColumnName, rowCount, null), generator);
+    }
+
+    private String cached(Class<?> entityClass, CacheKey key, Supplier<String> generator) {
+        ConcurrentMap<CacheKey, String> entries = SQL_CACHE.get(entityClass);
+        String sql = entries.get(key);
+        if (sql == null) {
+            // 初回のみ生成する。競合した場合も同じ文字列になるので先勝ちでよい
+            sql = entries.computeIfAbsent(key, k -> generator.get());
+        }
+        return sql;
+    }
+
+    private static final class QueryPlanKey {
+        private final Class<?> entityClass;
+        private final DatabaseType databaseType;
+        private final SelectStatement statement;
+        private final int hash;
+
+        QueryPlanKey(Class<?> entityClass, DatabaseType databaseType, SelectStatement statement) {
+            this.entityClass = entityClass;
+            this.databaseType = databaseType;
+            this.statement = statement;
+            this.hash = Objects.hash(entityClass, databaseType, statement);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof QueryPlanKey)) {
+                return false;
+            }
+            QueryPlanKey other = (QueryPlanKey) o;
+            return entityClass == other.entityClass
+                    && databaseType == other.databaseType
+                    && statement.equals(other.statement);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * エンティティクラスごとのキャッシュのキー
+     * 更新するカラムは更新するカラムを指定したUPDATE文でのみ使い、それ以外はnull
+     */
+    private static final class CacheKey {
+        private final SQLOperation operation;
+        private final DatabaseType databaseType;
+        private final String idColumnName;
+        private final int rowCount;
+        private final List<String> columnNames;
+        private final int hash;
+
+        CacheKey(SQLOperation operation, DatabaseType databaseType, String idColumnName, int rowCount,
+                List<String> columnNames) {
+            this.operation = operation;
+            this.databaseType = databaseType;
+            this.idColumnName = idColumnName;
+            this.rowCount = rowCount;
+            this.columnNames = columnNames;
+            this.hash = Objects.hash(operation, databaseType, idColumnName, rowCount, columnNames);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return operation == other.operation
+                    && databaseType == other.databaseType
+                    && Objects.equals(idColumnName, other.idColumnName)
+                    && rowCount == other.rowCount
+                    && Objects.equals(columnNames, other.columnNames);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.iineineno03k.orm.sql;
+
+import java.util.List;
+
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.EntityMetadataRegistry;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+
+/**
+ * エンティティごとにコンパイル済みのSQLの雛形
+ *
+ * 雛形はプレースホルダーの表記に依存しないので、全てのダイアレクトで共有する。
+ * エンティティクラスごとに一度だけ組み立てる。
+ */
+final class EntityTemplates {
+    private static final ClassValue<EntityTemplates> TEMPLATES = new ClassValue<EntityTemplates>() {
+        @Override
+        protected EntityTemplates computeValue(Class<?> type) {
+            return new EntityTemplates(EntityMetadataRegistry.get(type));
+        }
+    };
+
+    private final String tableName;
+    private final String idColumnName;
+    private final String versionColumnName;
+    private final String columnList;
+    private final String insertPrefix;
+    private final SQLTemplate selectById;
+    private final SQLTemplate insert;
+    private final SQLTemplate valuesRow;
+    private final SQLTemplate intoRow;
+    private final SQLTemplate update;
+    private final SQLTemplate delete;
+    private final String selectAll;
+
+    private EntityTemplates(EntityMetadata metadata) {
+        this.tableName = metadata.getTableName();
+        this.idColumnName = metadata.getIdColumnName();
+        this.versionColumnName = metadata.getVersionField() == null ? null : metadata.getVersionField().getColumnName();
+        this.columnList = String.join(", ", metadata.getColumnNames());
+        this.insertPrefix = "INSERT INTO " + tableName + " (" + columnList + ") VALUES ";
+
+        String values = "(" + join(metadata.getColumns().size()) + ")";
+        this.selectById = compileSelectById(tableName, idColumnName);
+        this.insert = SQLTemplate.compile(insertPrefix + values);
+        this.valuesRow = SQLTemplate.compile(values);
+        this.intoRow = SQLTemplate.compile(" INTO " + tableName + " (" + columnList + ") VALUES " + values);
+        this.update = compileUpdate(tableName, metadata.getNonIdColumns(), idColumnName, versionColumnName);
+        this.delete = compileDelete(tableName, idColumnName);
+        this.selectAll = "SELECT " + columnList + " FROM " + tableName;
+    }
+
+    /**
+     * @param entityClass エンティティクラス
+     * @return エンティティクラスの雛形
+     */
+    static EntityTemplates of(Class<?> entityClass) {
+        return TEMPLATES.get(entityClass);
+    }
+
+    /**
+     * @param idColumnName 主キーのカラム名
+     * @return 主キーで1件取得するSELECT文の雛形
+     */
+    SQLTemplate selectById(String idColumnName) {
+        return this.idColumnName.equals(idColumnName) ? selectById : compileSelectById(tableName, idColumnName);
+    }
+
+    /**
+     * @return 1行を挿入するINSERT文の雛形
+     */
+    SQLTemplate insert() {
+        return insert;
+    }
+
+    /**
+     * @return INSERT文のVALUES句1行分の雛形("(?, ?, ...)")
+     */
+    SQLTemplate valuesRow() {
+        return valuesRow;
+    }
+
+    /**
+     * @return OracleのINSERT ALLで使うINTO句1行分の雛形
+     */
+    SQLTemplate intoRow() {
+        return intoRow;
+    }
+
+    /**
+     * @param metadata エンティティのメタデータ
+     * @param idColumnName 主キーのカラム名
+     * @return 主キーで1件更新するUPDATE文の雛形
+     */
+    SQLTemplate update(EntityMetadata metadata, String idColumnName) {
+        return this.idColumnName.equals(idColumnName)
+                ? update
+                : compileUpdate(tableName, metadata.getNonIdColumns(), idColumnName, versionColumnName);
+    }
+
+    /**
+     * @param columns SET句に含めるカラム
+     * @return 指定したカラムだけを更新するUPDATE文の雛形
+     */
+    SQLTemplate update(List<FieldMetadata> columns) {
+        return compileUpdate(tableName, columns, idColumnName, versionColumnName);
+    }
+
+    /**
+     * @param idColumnName 主キーのカラム名
+     * @return 主キーで1件削除するDELETE文の雛形
+     */
+    SQLTemplate delete(String idColumnName) {
+        return this.idColumnName.equals(idColumnName) ? delete : compileDelete(tableName, idColumnName);
+    }
+
+    /**
+     * @return INSERT文の"INSERT INTO table (columns) VALUES "までの部分
+     */
+    String insertPrefix() {
+        return insertPrefix;
+    }
+
+    /**
+     * @return 全件取得するSELECT文(パラメータなし)
+     */
+    String selectAll() {
+        return selectAll;
+    }
+
+    private static SQLTemplate compileSelectById(String tableName, String idColumnName) {
+        return SQLTemplate.compile("SELECT * FROM " + tableName + " WHERE " + idColumnName + " = ?");
+    }
+
+    /**
+     * バージョンのカラムがある場合は、SET句でデータベース側に1つ進めさせ、WHERE句で読み込んだときの値と比較する
+     * パラメータはSET句のカラム、主キー、バージョンの順になる
+     */
+    private static SQLTemplate compileUpdate(String tableName, List<FieldMetadata> columns, String idColumnName,
+            String versionColumnName) {
+        StringBuilder pattern = new StringBuilder("UPDATE ").append(tableName).append(" SET ");
+        boolean first = true;
+        for (FieldMetadata column : columns) {
+            if (column.isVersion()) {
+                continue;
+            }
+            if (!first) {
+                pattern.append(", ");
+            }
+            pattern.append(column.getColumnName()).append(" = ?");
+            first = false;
+        }
+        if (versionColumnName != null) {
+            if (!first) {
+                pattern.append(", ");
+            }
+            pattern.append(versionColumnName).append(" = ").append(versionColumnName).append(" + 1");
+        }
+        pattern.append(" WHERE ").append(idColumnName).append(" = ?");
+        if (versionColumnName != null) {
+            pattern.append(" AND ").append(versionColumnName).append(" = ?");
+        }
+        return SQLTemplate.compile(pattern.toString());
+    }
+
+    private static SQLTemplate compileDelete(String tableName, String idColumnName) {
+        return SQLTemplate.compile("DELETE FROM " + tableName + " WHERE " + idColumnName + " = ?");
+    }
+
+    private static String join(int count) {
+        StringBuilder parameters = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                parameters.append(", ");
+            }
+            parameters.append(SQLTemplate.PARAMETER);
+        }
+        return parameters.toString();
+    }
+}
@@ -1,18 +1,14 @@
 package com.iineineno03k.orm.sql;
 
-import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.sql.Date;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
-import com.iineineno03k.orm.annotation.Column;
-import com.iineineno03k.orm.annotation.Id;
-import com.iineineno03k.orm.annotation.Table;
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.FieldMetadata;
 
 /**
  * MySQL用のSQLジェネレータ実装
@@ -40,43 +36,47 @@ public class MySQLSQLGenerator extends AbstractSQLGenerator {
         TYPE_MAPPING.put(BigDecimal.class, "DECIMAL(19,4)");
     }
     
+    /**
+     * INSERT ... ON DUPLICATE KEY UPDATEで主キーの重複時に更新する
+     */
     @Override
-    public String createSelectSQL(Class<?> entityClass, String idColumnName) {
-        String tableName = getTableName(entityClass);
-        return String.format("SELECT * FROM %s WHERE %s = ?", tableName, idColumnName);
+    public String createUpsertSQL(EntityMetadata metadata) {
+        return createMultiRowUpsertSQL(metadata, 1);
     }
     
+    /**
+     * 複数行のVALUESにON DUPLICATE KEY UPDATEを付ける。VALUES(カラム)は行ごとの値を参照する
+     */
     @Override
-    public String createInsertSQL(Class<?> entityClass) {
-        String tableName = getTableName(entityClass);
-        List<String> fieldNames = getFieldNames(entityClass);
-        
-        String columns = fieldNames.stream()
-                .map(this::fieldToColumnName)
-                .collect(Collectors.joining(", "));
-        
-        String placeholders = createPlaceholders(fieldNames.size());
-        
-        return String.format("INSERT INTO %s (%s) VALUES (%s)", tableName, columns, placeholders);
-    }
-    
-    @Override
-    public String createUpdateSQL(Class<?> entityClass, String idColumnName) {
-        String tableName = getTableName(entityClass);
-        List<String> fieldNames = getFieldNames(entityClass);
-        
-        String setClause = fieldNames.stream()
-                .filter(field -> !field.equals(idColumnName))
-                .map(field -> fieldToColumnName(field) + " = ?")
-                .collect(Collectors.joining(", "));
-        
-        return String.format("UPDATE %s SET %s WHERE %s = ?", tableName, setClause, idColumnName);
+    public String createMultiRowUpsertSQL(EntityMetadata metadata, int rowCount) {
+        StringBuilder sql = new StringBuilder(createMultiRowInsertSQL(metadata, rowCount))
+                .append(" ON DUPLICATE KEY UPDATE ");
+        if (metadata.getNonIdColumns().isEmpty()) {
+            // 更新するカラムがない場合も重複をエラーにしない
+            String idColumnName = metadata.getIdColumnName();
+            return sql.append(idColumnName).append(" = ").append(idColumnName).toString();
+        }
+        boolean first = true;
+        for (FieldMetadata column : metadata.getNonIdColumns()) {
+            if (!first) {
+                sql.append(", ");
+            }
+            sql.append(column.getColumnName()).append(" = VALUES(").append(column.getColumnName()).append(')');
+            first = false;
+        }
+        return sql.toString();
     }
     
+    /**
+     * MySQLはLIMITのないOFFSETをサポートしないため、OFFSETのみの場合は最大値のLIMITを付ける
+     */
     @Override
-    public String createDeleteSQL(Class<?> entityClass, String idColumnName) {
-        String tableName = getTableName(entityClass);
-        return String.format("DELETE FROM %s WHERE %s = ?", tableName, idColumnName);
+    protected void appendPagination(StringBuilder sql, boolean limited, boolean offset) {
+        if (!limited && offset) {
+            sql.append(" LIMIT 18446744073709551615 OFFSET ").append(SQLTemplate.PARAMETER);
+            return;
+        }
+        super.appendPagination(sql, limited, offset);
     }
     
     @Override
@@ -86,95 +86,17 @@ public class MySQLSQLGenerator extends AbstractSQLGenerator {
     }
     
     @Override
-    protected String createPlaceholders(int count) {
-        if (count <= 0) {
-            return "";
-        }
-        
-        StringBuilder placeholders = new StringBuilder();
-        for (int i = 0; i < count; i++) {
-            if (i > 0) {
-                placeholders.append(", ");
-            }
-            placeholders.append("?");
-        }
-        
-        return placeholders.toString();
+    protected PlaceholderStyle getPlaceholderStyle() {
+        return PlaceholderStyle.QUESTION_MARK;
     }
     
     @Override
-    public String createTableSQL(Class<?> entityClass) {
-        String tableName = determineTableName(entityClass);
+    public String createTableSQL(EntityMetadata metadata) {
         StringBuilder sql = new StringBuilder();
-        sql.append("CREATE TABLE ").append(tableName).append(" (\n");
-        
-        Field[] fields = entityClass.getDeclaredFields();
-        String primaryKey = null;
-        
-        for (int i = 0; i < fields.length; i++) {
-            Field field = fields[i];
-            
-            // 静的フィールドをスキップ
-            if (java.lang.reflect.Modifier.isStatic(field.getModifiers())) {
-                continue;
-            }
-            
-            String columnDefinition = createColumnDefinition(field);
-            sql.append("  ").append(columnDefinition);
-            
-            // Primary Key を特定
-            if (field.isAnnotationPresent(Id.class)) {
-                primaryKey = fieldToColumnName(field.getName());
-            }
-            
-            // 最後のフィールドでなければコンマを追加
-            if (i < fields.length - 1) {
-                sql.append(",\n");
-            } else {
-                sql.append("\n");
-            }
-        }
-        
-        // Primary Key制約を追加
-        if (primaryKey != null) {
-            sql.append(", PRIMARY KEY (").append(primaryKey).append(")");
-        }
-        
+        sql.append("CREATE TABLE ").append(metadata.getTableName()).append(" (\n");
+        sql.append(createColumnDefinitions(metadata));
         sql.append("\n) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;");
         
         return sql.toString();
     }
-    
-    private String createColumnDefinition(Field field) {
-        String columnName = fieldToColumnName(field.getName());
-        String sqlType = mapJavaTypeToSQLType(field.getType());
-        
-        StringBuilder definition = new StringBuilder();
-        definition.append(columnName).append(" ").append(sqlType);
-        
-        // アノテーションの処理
-        if (field.isAnnotationPresent(Column.class)) {
-            Column column = field.getAnnotation(Column.class);
-            
-            // NULL制約
-            if (!column.nullable()) {
-                definition.append(" NOT NULL");
-            }
-            
-            // UNIQUE制約
-            if (column.unique()) {
-                definition.append(" UNIQUE");
-            }
-        }
-        
-        return definition.toString();
-    }
-    
-    private String determineTableName(Class<?> entityClass) {
-        if (entityClass.isAnnotationPresent(Table.class)) {
-            Table tableAnnotation = entityClass.getAnnotation(Table.class);
-            return tableAnnotation.name();
-        }
-        return getTableName(entityClass);
-    }
-} 
\ No newline at end of file
+}
@@ -1,6 +1,5 @@
 package com.iineineno03k.orm.sql;
 
-import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.sql.Date;
 import java.sql.Time;
@@ -8,17 +7,17 @@ import java.sql.Timestamp;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
-import com.iineineno03k.orm.annotation.Column;
-import com.iineineno03k.orm.annotation.Id;
-import com.iineineno03k.orm.annotation.Table;
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.FieldMetadata;
 
 /**
  * Oracle用のSQLジェネレータ実装
  */
 public class OracleSQLGenerator extends AbstractSQLGenerator {
     
+    static final int MAX_IN_LIST_SIZE = 1000;
+    
     private static final Map<Class<?>, String> TYPE_MAPPING = new HashMap<>();
     
     static {
@@ -41,51 +40,109 @@ public class OracleSQLGenerator extends AbstractSQLGenerator {
     }
     
     @Override
-    public String createSelectSQL(Class<?> entityClass, String idColumnName) {
-        String tableName = getTableName(entityClass);
-        return String.format("SELECT * FROM %s WHERE %s = :1", tableName, idColumnName);
+    public String createMultiRowInsertSQL(EntityMetadata metadata, int rowCount) {
+        // Oracleは複数行のVALUESをサポートしないため、INSERT ALLで行ごとにINTO句を並べる
+        // プレースホルダーは行をまたいで:1, :2, ...と続く
+        return templatesOf(metadata).intoRow()
+                .renderRows(getPlaceholderStyle(), "INSERT ALL", rowCount, "", " SELECT 1 FROM DUAL");
     }
     
+    /**
+     * OracleのIN句は1000要素まで
+     */
     @Override
-    public String createInsertSQL(Class<?> entityClass) {
-        String tableName = getTableName(entityClass);
-        List<String> fieldNames = getFieldNames(entityClass);
-        
-        String columns = fieldNames.stream()
-                .map(this::fieldToColumnName)
-                .collect(Collectors.joining(", "));
-        
-        String placeholders = createPlaceholders(fieldNames.size());
-        
-        return String.format("INSERT INTO %s (%s) VALUES (%s)", tableName, columns, placeholders);
+    public int getMaxIdsPerQuery() {
+        return MAX_IN_LIST_SIZE;
     }
     
+    /**
+     * OracleにはINSERTの重複時の更新がないため、バインドした値をDUALから選択してMERGEする
+     * プレースホルダーはUSING句のSELECTにカラムの宣言順で並ぶ
+     */
     @Override
-    public String createUpdateSQL(Class<?> entityClass, String idColumnName) {
-        String tableName = getTableName(entityClass);
-        List<String> fieldNames = getFieldNames(entityClass);
-        
-        // Oracleのプレースホルダーは:1, :2, ...と続く
-        int paramIndex = 1;
-        StringBuilder setClause = new StringBuilder();
-        
-        for (String field : fieldNames) {
-            if (!field.equals(idColumnName)) {
-                if (setClause.length() > 0) {
-                    setClause.append(", ");
+    public String createUpsertSQL(EntityMetadata metadata) {
+        return createMultiRowUpsertSQL(metadata, 1);
+    }
+    
+    /**
+     * USING句で行ごとのDUALからのSELECTをUNION ALLでつなぎ、まとめてMERGEする
+     */
+    @Override
+    public String createMultiRowUpsertSQL(EntityMetadata metadata, int rowCount) {
+        if (rowCount <= 0) {
+            throw new IllegalArgumentException("Row count must be positive");
+        }
+        String idColumnName = metadata.getIdColumnName();
+        StringBuilder pattern = new StringBuilder("MERGE INTO ").append(metadata.getTableName()).append(" t USING (");
+        for (int row = 0; row < rowCount; row++) {
+            if (row > 0) {
+                pattern.append(" UNION ALL ");
+            }
+            pattern.append("SELECT ");
+            boolean first = true;
+            for (FieldMetadata column : metadata.getColumns()) {
+                if (!first) {
+                    pattern.append(", ");
                 }
-                setClause.append(fieldToColumnName(field)).append(" = :").append(paramIndex++);
+                pattern.append(SQLTemplate.PARAMETER).append(" AS ").append(column.getColumnName());
+                first = false;
             }
+            pattern.append(" FROM DUAL");
+        }
+        StringBuilder insertColumns = new StringBuilder();
+        StringBuilder insertValues = new StringBuilder();
+        boolean first = true;
+        for (FieldMetadata column : metadata.getColumns()) {
+            if (!first) {
+                insertColumns.append(", ");
+                insertValues.append(", ");
+            }
+            insertColumns.append(column.getColumnName());
+            insertValues.append("s.").append(column.getColumnName());
+            first = false;
+        }
+        pattern.append(") s ON (t.").append(idColumnName).append(" = s.").append(idColumnName).append(')');
+
+        if (!metadata.getNonIdColumns().isEmpty()) {
+            pattern.append(" WHEN MATCHED THEN UPDATE SET ");
+            first = true;
+            for (FieldMetadata column : metadata.getNonIdColumns()) {
+                if (!first) {
+                    pattern.append(", ");
+                }
+                pattern.append("t.").append(column.getColumnName()).append(" = s.").append(column.getColumnName());
+                first = false;
+            }
+        }
+        pattern.append(" WHEN NOT MATCHED THEN INSERT (").append(insertColumns)
+                .append(") VALUES (").append(insertValues).append(')');
+        return SQLTemplate.compile(pattern.toString()).render(getPlaceholderStyle());
+    }
+    
+    /**
+     * Oracle 12c以降のOFFSET/FETCH句で件数を制限する
+     */
+    @Override
+    protected void appendPagination(StringBuilder sql, boolean limited, boolean offset) {
+        if (offset) {
+            sql.append(" OFFSET ").append(SQLTemplate.PARAMETER).append(" ROWS");
+        }
+        if (limited) {
+            sql.append(" FETCH NEXT ").append(SQLTemplate.PARAMETER).append(" ROWS ONLY");
         }
-        
-        return String.format("UPDATE %s SET %s WHERE %s = :%d", 
-                tableName, setClause.toString(), idColumnName, paramIndex);
     }
     
+    /**
+     * OFFSET句がFETCH句より前にあるため、読み飛ばす件数を先にバインドする
+     */
     @Override
-    public String createDeleteSQL(Class<?> entityClass, String idColumnName) {
-        String tableName = getTableName(entityClass);
-        return String.format("DELETE FROM %s WHERE %s = :1", tableName, idColumnName);
+    protected void appendPaginationParameters(List<Object> values, int limit, int offset) {
+        if (offset > 0) {
+            values.add(offset);
+        }
+        if (limit != SelectStatement.NO_LIMIT) {
+            values.add(limit);
+        }
     }
     
     @Override
@@ -95,95 +152,17 @@ public class OracleSQLGenerator extends AbstractSQLGenerator {
     }
     
     @Override
-    protected String createPlaceholders(int count) {
-        if (count <= 0) {
-            return "";
-        }
-        
-        StringBuilder placeholders = new StringBuilder();
-        for (int i = 1; i <= count; i++) {
-            if (i > 1) {
-                placeholders.append(", ");
-            }
-            placeholders.append(":").append(i);
-        }
-        
-        return placeholders.toString();
+    protected PlaceholderStyle getPlaceholderStyle() {
+        return PlaceholderStyle.COLON;
     }
     
     @Override
-    public String createTableSQL(Class<?> entityClass) {
-        String tableName = determineTableName(entityClass);
+    public String createTableSQL(EntityMetadata metadata) {
         StringBuilder sql = new StringBuilder();
-        sql.append("CREATE TABLE ").append(tableName).append(" (\n");
-        
-        Field[] fields = entityClass.getDeclaredFields();
-        String primaryKey = null;
-        
-        for (int i = 0; i < fields.length; i++) {
-            Field field = fields[i];
-            
-            // 静的フィールドをスキップ
-            if (java.lang.reflect.Modifier.isStatic(field.getModifiers())) {
-                continue;
-            }
-            
-            String columnDefinition = createColumnDefinition(field);
-            sql.append("  ").append(columnDefinition);
-            
-            // Primary Key を特定
-            if (field.isAnnotationPresent(Id.class)) {
-                primaryKey = fieldToColumnName(field.getName());
-            }
-            
-            // 最後のフィールドでなければコンマを追加
-            if (i < fields.length - 1) {
-                sql.append(",\n");
-            } else {
-                sql.append("\n");
-            }
-        }
-        
-        // Primary Key制約を追加
-        if (primaryKey != null) {
-            sql.append(", PRIMARY KEY (").append(primaryKey).append(")");
-        }
-        
+        sql.append("CREATE TABLE ").append(metadata.getTableName()).append(" (\n");
+        sql.append(createColumnDefinitions(metadata));
         sql.append("\n)");
         
         return sql.toString();
     }
-    
-    private String createColumnDefinition(Field field) {
-        String columnName = fieldToColumnName(field.getName());
-        String sqlType = mapJavaTypeToSQLType(field.getType());
-        
-        StringBuilder definition = new StringBuilder();
-        definition.append(columnName).append(" ").append(sqlType);
-        
-        // アノテーションの処理
-        if (field.isAnnotationPresent(Column.class)) {
-            Column column = field.getAnnotation(Column.class);
-            
-            // NULL制約
-            if (!column.nullable()) {
-                definition.append(" NOT NULL");
-            }
-            
-            // UNIQUE制約
-            if (column.unique()) {
-                definition.append(" UNIQUE");
-            }
-        }
-        
-        return definition.toString();
-    }
-    
-    private String determineTableName(Class<?> entityClass) {
-        if (entityClass.isAnnotationPresent(Table.class)) {
-            Table tableAnnotation = entityClass.getAnnotation(Table.class);
-            return tableAnnotation.name();
-        }
-        return getTableName(entityClass);
-    }
-} 
\ No newline at end of file
+}
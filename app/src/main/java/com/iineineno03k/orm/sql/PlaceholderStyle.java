@@ -0,0 +1,61 @@
+package com.iineineno03k.orm.sql;
+
+/**
+ * データベースごとのバインドパラメータの表記
+ *
+ * 番号付きの表記では、1文の中のパラメータを1から順に番号付けする。
+ */
+public enum PlaceholderStyle {
+    /** MySQLの位置を持たないプレースホルダー(?) */
+    QUESTION_MARK('?', false),
+    /** PostgreSQLの番号付きプレースホルダー($1, $2, ...) */
+    DOLLAR('$', true),
+    /** Oracleの番号付きプレースホルダー(:1, :2, ...) */
+    COLON(':', true);
+
+    private final char marker;
+    private final boolean numbered;
+
+    PlaceholderStyle(char marker, boolean numbered) {
+        this.marker = marker;
+        this.numbered = numbered;
+    }
+
+    /**
+     * @param index パラメータ番号(1始まり)
+     * @return プレースホルダーの文字数
+     */
+    public int length(int index) {
+        return numbered ? 1 + digits(index) : 1;
+    }
+
+    /**
+     * プレースホルダーをバッファに書き込む
+     *
+     * @param buffer 書き込み先
+     * @param offset 書き込み位置
+     * @param index パラメータ番号(1始まり)
+     * @return 書き込んだ後の位置
+     */
+    public int write(char[] buffer, int offset, int index) {
+        buffer[offset++] = marker;
+        if (!numbered) {
+            return offset;
+        }
+        int end = offset + digits(index);
+        for (int pos = end - 1; pos >= offset; pos--) {
+            buffer[pos] = (char) ('0' + index % 10);
+            index /= 10;
+        }
+        return end;
+    }
+
+    private static int digits(int value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
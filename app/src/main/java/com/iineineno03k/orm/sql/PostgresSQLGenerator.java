@@ -1,18 +1,14 @@
 package com.iineineno03k.orm.sql;
 
-import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.sql.Date;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
-import com.iineineno03k.orm.annotation.Column;
-import com.iineineno03k.orm.annotation.Id;
-import com.iineineno03k.orm.annotation.Table;
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.FieldMetadata;
 
 /**
  * PostgreSQL用のSQLジェネレータ実装
@@ -40,52 +36,51 @@ public class PostgresSQLGenerator extends AbstractSQLGenerator {
         TYPE_MAPPING.put(BigDecimal.class, "NUMERIC(19,4)");
     }
     
+    /**
+     * 主キーを配列として1つのパラメータにバインドし、= ANYで照合する
+     * 主キーの数によらず同じSQLになるため、文の解析結果を使い回せる
+     */
     @Override
-    public String createSelectSQL(Class<?> entityClass, String idColumnName) {
-        String tableName = getTableName(entityClass);
-        return String.format("SELECT * FROM %s WHERE %s = $1", tableName, idColumnName);
+    public String createSelectByIdsSQL(EntityMetadata metadata, int idCount) {
+        if (idCount <= 0) {
+            throw new IllegalArgumentException("Id count must be positive");
+        }
+        return createSelectAllSQL(metadata) + " WHERE " + metadata.getIdColumnName() + " = ANY($1)";
     }
     
     @Override
-    public String createInsertSQL(Class<?> entityClass) {
-        String tableName = getTableName(entityClass);
-        List<String> fieldNames = getFieldNames(entityClass);
-        
-        String columns = fieldNames.stream()
-                .map(this::fieldToColumnName)
-                .collect(Collectors.joining(", "));
-        
-        String placeholders = createPlaceholders(fieldNames.size());
-        
-        return String.format("INSERT INTO %s (%s) VALUES (%s)", tableName, columns, placeholders);
+    public boolean bindsIdsAsArray() {
+        return true;
     }
     
+    /**
+     * INSERT ... ON CONFLICT (主キー) DO UPDATEで主キーの重複時に更新する
+     */
     @Override
-    public String createUpdateSQL(Class<?> entityClass, String idColumnName) {
-        String tableName = getTableName(entityClass);
-        List<String> fieldNames = getFieldNames(entityClass);
-        
-        // PostgreSQLのプレースホルダーは$1, $2, ...と続く
-        int paramIndex = 1;
-        StringBuilder setClause = new StringBuilder();
-        
-        for (String field : fieldNames) {
-            if (!field.equals(idColumnName)) {
-                if (setClause.length() > 0) {
-                    setClause.append(", ");
-                }
-                setClause.append(fieldToColumnName(field)).append(" = $").append(paramIndex++);
-            }
-        }
-        
-        return String.format("UPDATE %s SET %s WHERE %s = $%d", 
-                tableName, setClause.toString(), idColumnName, paramIndex);
+    public String createUpsertSQL(EntityMetadata metadata) {
+        return createMultiRowUpsertSQL(metadata, 1);
     }
     
+    /**
+     * 複数行のVALUESにON CONFLICTを付ける。EXCLUDEDは行ごとの値を参照する
+     */
     @Override
-    public String createDeleteSQL(Class<?> entityClass, String idColumnName) {
-        String tableName = getTableName(entityClass);
-        return String.format("DELETE FROM %s WHERE %s = $1", tableName, idColumnName);
+    public String createMultiRowUpsertSQL(EntityMetadata metadata, int rowCount) {
+        StringBuilder sql = new StringBuilder(createMultiRowInsertSQL(metadata, rowCount))
+                .append(" ON CONFLICT (").append(metadata.getIdColumnName()).append(')');
+        if (metadata.getNonIdColumns().isEmpty()) {
+            return sql.append(" DO NOTHING").toString();
+        }
+        sql.append(" DO UPDATE SET ");
+        boolean first = true;
+        for (FieldMetadata column : metadata.getNonIdColumns()) {
+            if (!first) {
+                sql.append(", ");
+            }
+            sql.append(column.getColumnName()).append(" = EXCLUDED.").append(column.getColumnName());
+            first = false;
+        }
+        return sql.toString();
     }
     
     @Override
@@ -95,95 +90,17 @@ public class PostgresSQLGenerator extends AbstractSQLGenerator {
     }
     
     @Override
-    protected String createPlaceholders(int count) {
-        if (count <= 0) {
-            return "";
-        }
-        
-        StringBuilder placeholders = new StringBuilder();
-        for (int i = 1; i <= count; i++) {
-            if (i > 1) {
-                placeholders.append(", ");
-            }
-            placeholders.append("$").append(i);
-        }
-        
-        return placeholders.toString();
+    protected PlaceholderStyle getPlaceholderStyle() {
+        return PlaceholderStyle.DOLLAR;
     }
     
     @Override
-    public String createTableSQL(Class<?> entityClass) {
-        String tableName = determineTableName(entityClass);
+    public String createTableSQL(EntityMetadata metadata) {
         StringBuilder sql = new StringBuilder();
-        sql.append("CREATE TABLE ").append(tableName).append(" (\n");
-        
-        Field[] fields = entityClass.getDeclaredFields();
-        String primaryKey = null;
-        
-        for (int i = 0; i < fields.length; i++) {
-            Field field = fields[i];
-            
-            // 静的フィールドをスキップ
-            if (java.lang.reflect.Modifier.isStatic(field.getModifiers())) {
-                continue;
-            }
-            
-            String columnDefinition = createColumnDefinition(field);
-            sql.append("  ").append(columnDefinition);
-            
-            // Primary Key を特定
-            if (field.isAnnotationPresent(Id.class)) {
-                primaryKey = fieldToColumnName(field.getName());
-            }
-            
-            // 最後のフィールドでなければコンマを追加
-            if (i < fields.length - 1) {
-                sql.append(",\n");
-            } else {
-                sql.append("\n");
-            }
-        }
-        
-        // Primary Key制約を追加
-        if (primaryKey != null) {
-            sql.append(", PRIMARY KEY (").append(primaryKey).append(")");
-        }
-        
+        sql.append("CREATE TABLE ").append(metadata.getTableName()).append(" (\n");
+        sql.append(createColumnDefinitions(metadata));
         sql.append("\n);");
         
         return sql.toString();
     }
-    
-    private String createColumnDefinition(Field field) {
-        String columnName = fieldToColumnName(field.getName());
-        String sqlType = mapJavaTypeToSQLType(field.getType());
-        
-        StringBuilder definition = new StringBuilder();
-        definition.append(columnName).append(" ").append(sqlType);
-        
-        // アノテーションの処理
-        if (field.isAnnotationPresent(Column.class)) {
-            Column column = field.getAnnotation(Column.class);
-            
-            // NULL制約
-            if (!column.nullable()) {
-                definition.append(" NOT NULL");
-            }
-            
-            // UNIQUE制約
-            if (column.unique()) {
-                definition.append(" UNIQUE");
-            }
-        }
-        
-        return definition.toString();
-    }
-    
-    private String determineTableName(Class<?> entityClass) {
-        if (entityClass.isAnnotationPresent(Table.class)) {
-            Table tableAnnotation = entityClass.getAnnotation(Table.class);
-            return tableAnnotation.name();
-        }
-        return getTableName(entityClass);
-    }
-} 
\ No newline at end of file
+}
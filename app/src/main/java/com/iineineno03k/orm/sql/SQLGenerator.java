@@ -1,8 +1,16 @@
 package com.iineineno03k.orm.sql;
 
+import java.util.List;
+
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+
 /**
  * SQLジェネレーターのインターフェース
  * 各データベース固有のSQL生成器が実装する
+ * 
+ * EntityMetadataを受け取るメソッドは計算済みのテーブル名・カラム名をそのまま使う。
+ * エンティティクラスを受け取るメソッドはクラスごとに共有されるメタデータを参照して同じSQLを生成する。
  */
 public interface SQLGenerator {
     
@@ -15,6 +23,14 @@ public interface SQLGenerator {
      */
     String createSelectSQL(Class<?> entityClass, String idColumnName);
     
+    /**
+     * メタデータを基に主キーで1件取得するSELECT文を生成する
+     * 
+     * @param metadata エンティティのメタデータ
+     * @return 生成されたSQL文
+     */
+    String createSelectSQL(EntityMetadata metadata);
+    
     /**
      * エンティティクラスを基にINSERT文を生成する
      * 
@@ -23,6 +39,33 @@ public interface SQLGenerator {
      */
     String createInsertSQL(Class<?> entityClass);
     
+    /**
+     * メタデータを基にINSERT文を生成する
+     * 
+     * @param metadata エンティティのメタデータ
+     * @return 生成されたSQL文
+     */
+    String createInsertSQL(EntityMetadata metadata);
+    
+    /**
+     * エンティティクラスを基に複数行を一度に挿入するINSERT文を生成する
+     * パラメータは1行目の全カラム、2行目の全カラム、...の順に並ぶ
+     * 
+     * @param entityClass エンティティのクラス
+     * @param rowCount 1文で挿入する行数
+     * @return 生成されたSQL文
+     */
+    String createMultiRowInsertSQL(Class<?> entityClass, int rowCount);
+    
+    /**
+     * メタデータを基に複数行を一度に挿入するINSERT文を生成する
+     * 
+     * @param metadata エンティティのメタデータ
+     * @param rowCount 1文で挿入する行数
+     * @return 生成されたSQL文
+     */
+    String createMultiRowInsertSQL(EntityMetadata metadata, int rowCount);
+    
     /**
      * エンティティクラスと主キーを基にUPDATE文を生成する
      * 
@@ -32,6 +75,49 @@ public interface SQLGenerator {
      */
     String createUpdateSQL(Class<?> entityClass, String idColumnName);
     
+    /**
+     * メタデータを基に主キーで1件更新するUPDATE文を生成する
+     * パラメータは主キーとバージョン以外のカラムの宣言順に並び、主キーが続く。
+     * {@link com.iineineno03k.orm.annotation.Version}のカラムがある場合は"version = version + 1"で進め、
+     * 最後に"AND version = ?"の条件で読み込んだときのバージョンが続く
+     * 
+     * @param metadata エンティティのメタデータ
+     * @return 生成されたSQL文
+     */
+    String createUpdateSQL(EntityMetadata metadata);
+    
+    /**
+     * メタデータを基に、指定したカラムだけを更新するUPDATE文を生成する
+     * パラメータは指定したカラムの順に並び、主キーが続く。
+     * バージョンのカラムがある場合は{@link #createUpdateSQL(EntityMetadata)}と同じく自動で進め、最後にバージョンが続く
+     * 
+     * @param metadata エンティティのメタデータ
+     * @param columns SET句に含めるカラム(主キーとバージョン以外)
+     * @return 生成されたSQL文
+     */
+    String createUpdateSQL(EntityMetadata metadata, List<FieldMetadata> columns);
+    
+    /**
+     * メタデータを基に主キーで1件を挿入または更新する文を生成する
+     * 主キーの行が既にあれば主キー以外のカラムを更新し、なければ挿入する。
+     * パラメータはINSERT文と同じくカラムの宣言順に並ぶ
+     * 
+     * @param metadata エンティティのメタデータ
+     * @return 生成されたSQL文
+     */
+    String createUpsertSQL(EntityMetadata metadata);
+    
+    /**
+     * メタデータを基に複数行を一度に挿入または更新する文を生成する
+     * 行ごとに{@link #createUpsertSQL(EntityMetadata)}と同じく扱う。同じ主キーの行を1文に含めてはならない。
+     * パラメータは1行目の全カラム、2行目の全カラム、...の順に並ぶ
+     * 
+     * @param metadata エンティティのメタデータ
+     * @param rowCount 1文で書き込む行数
+     * @return 生成されたSQL文
+     */
+    String createMultiRowUpsertSQL(EntityMetadata metadata, int rowCount);
+    
     /**
      * エンティティクラスと主キーを基にDELETE文を生成する
      * 
@@ -41,6 +127,14 @@ public interface SQLGenerator {
      */
     String createDeleteSQL(Class<?> entityClass, String idColumnName);
     
+    /**
+     * メタデータを基に主キーで1件削除するDELETE文を生成する
+     * 
+     * @param metadata エンティティのメタデータ
+     * @return 生成されたSQL文
+     */
+    String createDeleteSQL(EntityMetadata metadata);
+    
     /**
      * データベース固有のJava型からSQL型への変換を行う
      * 
@@ -57,6 +151,14 @@ public interface SQLGenerator {
      */
     String createTableSQL(Class<?> entityClass);
     
+    /**
+     * メタデータに基づいてテーブル作成用のSQL文を生成する
+     * 
+     * @param metadata エンティティのメタデータ
+     * @return 生成されたCREATE TABLE文
+     */
+    String createTableSQL(EntityMetadata metadata);
+    
     /**
      * エンティティクラスから全件取得用のSELECT文を生成する
      * 
@@ -64,4 +166,54 @@ public interface SQLGenerator {
      * @return 生成されたSQL
      */
     String createSelectAllSQL(Class<?> entityClass);
-} 
\ No newline at end of file
+    
+    /**
+     * メタデータから全件取得用のSELECT文を生成する
+     * 
+     * @param metadata エンティティのメタデータ
+     * @return 生成されたSQL
+     */
+    String createSelectAllSQL(EntityMetadata metadata);
+    
+    /**
+     * 主キーの一覧で複数件を取得するSELECT文を生成する
+     * 主キーを配列として1つのパラメータにバインドするデータベースでは、idCountに関係なく同じSQLになる
+     * 
+     * @param metadata エンティティのメタデータ
+     * @param idCount 1文で取得する主キーの数
+     * @return 生成されたSQL
+     */
+    String createSelectByIdsSQL(EntityMetadata metadata, int idCount);
+    
+    /**
+     * @return {@link #createSelectByIdsSQL}の1文に含められる主キーの上限
+     */
+    int getMaxIdsPerQuery();
+    
+    /**
+     * @return {@link #createSelectByIdsSQL}の主キーを配列として1つのパラメータにバインドする場合はtrue
+     */
+    boolean bindsIdsAsArray();
+    
+    /**
+     * 条件付きのSELECT文を生成する
+     * WHERE句のパラメータ位置はダイアレクトのプレースホルダーに置き換え、件数の制限はダイアレクトの構文で付け加える。
+     * 件数の制限の値もプレースホルダーにするため、バインドする値は{@link #createQueryParameters}で並べる
+     * 
+     * @param metadata エンティティのメタデータ
+     * @param statement 問い合わせの構造
+     * @return 生成されたSQL
+     */
+    String createQuerySQL(EntityMetadata metadata, SelectStatement statement);
+    
+    /**
+     * {@link #createQuerySQL}で生成したSQLにバインドする値を並べる
+     * WHERE句の値の後に、件数の制限の値をダイアレクトの構文の順に続ける
+     * 
+     * @param parameters WHERE句のパラメータ位置の順に並べた値
+     * @param limit 取得する最大件数。制限しない場合は{@link SelectStatement#NO_LIMIT}
+     * @param offset 読み飛ばす件数
+     * @return バインドする値
+     */
+    Object[] createQueryParameters(Object[] parameters, int limit, int offset);
+}
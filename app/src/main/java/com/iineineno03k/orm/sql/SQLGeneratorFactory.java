@@ -29,6 +29,17 @@ public class SQLGeneratorFactory {
         }
     }
     
+    /**
+     * 生成したSQLをキャッシュするSQLジェネレーターを生成する
+     * 
+     * @param databaseType データベースタイプ
+     * @return キャッシュ付きのSQLGenerator実装
+     * @throws IllegalArgumentException サポートされていないデータベースタイプの場合
+     */
+    public static SQLGenerator createCachingGenerator(DatabaseType databaseType) {
+        return new CachingSQLGenerator(databaseType, createGenerator(databaseType));
+    }
+    
     /**
      * 文字列からデータベースタイプを指定してSQLジェネレーターを生成する
      * 後方互換性のために残してある
@@ -0,0 +1,18 @@
+package com.iineineno03k.orm.sql;
+
+/**
+ * SQLGeneratorが生成する文の種類
+ */
+public enum SQLOperation {
+    SELECT_BY_ID,
+    SELECT_ALL,
+    SELECT_BY_IDS,
+    INSERT,
+    MULTI_ROW_INSERT,
+    UPDATE,
+    UPDATE_COLUMNS,
+    UPSERT,
+    MULTI_ROW_UPSERT,
+    DELETE,
+    CREATE_TABLE
+}
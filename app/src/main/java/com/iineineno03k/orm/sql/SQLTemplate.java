@@ -0,0 +1,147 @@
+package com.iineineno03k.orm.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一度だけ組み立てておくSQL文の雛形
+ *
+ * 雛形はリテラル部分とパラメータ部分の並びとして保持し、描画時にプレースホルダーの表記を当てはめる。
+ * 描画では最終的な文字数を先に計算し、ちょうどの大きさのバッファに書き込むため、
+ * String.formatやStringBuilderの拡張によるコピーは発生しない。
+ *
+ * 不変なので、複数のスレッドから共有してよい。
+ */
+public final class SQLTemplate {
+    /** 雛形の中でパラメータの位置を表す文字 */
+    public static final char PARAMETER = '?';
+
+    // パラメータの前後のリテラル。要素数はパラメータ数+1
+    private final String[] literals;
+    private final int literalLength;
+
+    private SQLTemplate(String[] literals) {
+        this.literals = literals;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * 雛形の文字列をコンパイルする
+     *
+     * @param pattern パラメータの位置を{@link #PARAMETER}で表したSQL
+     * @return コンパイルされた雛形
+     */
+    public static SQLTemplate compile(String pattern) {
+        if (pattern == null) {
+            throw new IllegalArgumentException("Pattern cannot be null");
+        }
+        List<String> literals = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            if (pattern.charAt(i) == PARAMETER) {
+                literals.add(pattern.substring(start, i));
+                start = i + 1;
+            }
+        }
+        literals.add(pattern.substring(start));
+        return new SQLTemplate(literals.toArray(new String[0]));
+    }
+
+    /**
+     * カンマ区切りのパラメータの並びを生成する
+     *
+     * @param count パラメータの数
+     * @return "?, ?, ..."に相当する雛形。countが0以下の場合は空の雛形
+     */
+    public static SQLTemplate parameters(int count) {
+        if (count <= 0) {
+            return new SQLTemplate(new String[] { "" });
+        }
+        String[] literals = new String[count + 1];
+        literals[0] = "";
+        for (int i = 1; i < count; i++) {
+            literals[i] = ", ";
+        }
+        literals[count] = "";
+        return new SQLTemplate(literals);
+    }
+
+    /**
+     * @return 雛形に含まれるパラメータの数
+     */
+    public int getParameterCount() {
+        return literals.length - 1;
+    }
+
+    /**
+     * パラメータ番号を1から振ってSQLを描画する
+     *
+     * @param style プレースホルダーの表記
+     * @return 描画されたSQL
+     */
+    public String render(PlaceholderStyle style) {
+        char[] buffer = new char[length(style, 1)];
+        writeTo(buffer, 0, style, 1);
+        return new String(buffer);
+    }
+
+    /**
+     * この雛形を1行分として繰り返し、複数行のSQLを描画する
+     * パラメータ番号は行をまたいで連番になる
+     *
+     * @param style プレースホルダーの表記
+     * @param prefix 先頭のリテラル
+     * @param rowCount 繰り返す行数
+     * @param separator 行の区切り
+     * @param suffix 末尾のリテラル
+     * @return 描画されたSQL
+     */
+    public String renderRows(PlaceholderStyle style, String prefix, int rowCount, String separator, String suffix) {
+        if (rowCount <= 0) {
+            throw new IllegalArgumentException("Row count must be positive");
+        }
+        int parameterCount = getParameterCount();
+        int length = prefix.length() + suffix.length() + separator.length() * (rowCount - 1);
+        for (int row = 0; row < rowCount; row++) {
+            length += length(style, row * parameterCount + 1);
+        }
+
+        char[] buffer = new char[length];
+        int offset = write(buffer, 0, prefix);
+        for (int row = 0; row < rowCount; row++) {
+            if (row > 0) {
+                offset = write(buffer, offset, separator);
+            }
+            offset = writeTo(buffer, offset, style, row * parameterCount + 1);
+        }
+        write(buffer, offset, suffix);
+        return new String(buffer);
+    }
+
+    private int length(PlaceholderStyle style, int firstIndex) {
+        int length = literalLength;
+        int parameterCount = getParameterCount();
+        for (int i = 0; i < parameterCount; i++) {
+            length += style.length(firstIndex + i);
+        }
+        return length;
+    }
+
+    private int writeTo(char[] buffer, int offset, PlaceholderStyle style, int firstIndex) {
+        offset = write(buffer, offset, literals[0]);
+        for (int i = 1; i < literals.length; i++) {
+            offset = style.write(buffer, offset, firstIndex + i - 1);
+            offset = write(buffer, offset, literals[i]);
+        }
+        return offset;
+    }
+
+    private static int write(char[] buffer, int offset, String literal) {
+        literal.getChars(0, literal.length(), buffer, offset);
+        return offset + literal.length();
+    }
+}
@@ -0,0 +1,83 @@
+package com.iineineno03k.orm.sql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 条件付きSELECT文の構造
+ * 
+ * WHERE句とORDER BY句はカラム名とパラメータ位置({@link SQLTemplate#PARAMETER})で表した
+ * ダイアレクトに依存しない形で持ち、SQLGeneratorがプレースホルダーとページングの表記を当てはめる。
+ * 件数の制限もパラメータとしてバインドするため、制限の有無だけを持つ。
+ * 値を含まないので、同じ形の問い合わせは同じSelectStatementになり、生成したSQLをキャッシュのキーに使える。
+ */
+public final class SelectStatement {
+    /** 件数を制限しない場合のlimit */
+    public static final int NO_LIMIT = -1;
+
+    private final List<String> columns;
+    private final String where;
+    private final List<String> orderBy;
+    private final boolean limited;
+    private final boolean offset;
+    private final int hash;
+
+    /**
+     * @param columns 取得するカラム名。空の場合はエンティティの全カラム
+     * @param where WHERE句の条件。条件がない場合はnull
+     * @param orderBy ORDER BY句の項目("column ASC"など)。並べ替えない場合は空
+     * @param limited 取得する最大件数を制限する場合はtrue
+     * @param offset 先頭の行を読み飛ばす場合はtrue
+     */
+    public SelectStatement(List<String> columns, String where, List<String> orderBy, boolean limited, boolean offset) {
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.where = where;
+        this.orderBy = Collections.unmodifiableList(new ArrayList<>(orderBy));
+        this.limited = limited;
+        this.offset = offset;
+        this.hash = Objects.hash(this.columns, where, this.orderBy, limited, offset);
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public String getWhere() {
+        return where;
+    }
+
+    public List<String> getOrderBy() {
+        return orderBy;
+    }
+
+    public boolean hasLimit() {
+        return limited;
+    }
+
+    public boolean hasOffset() {
+        return offset;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SelectStatement)) {
+            return false;
+        }
+        SelectStatement other = (SelectStatement) o;
+        return limited == other.limited
+                && offset == other.offset
+                && columns.equals(other.columns)
+                && Objects.equals(where, other.where)
+                && orderBy.equals(other.orderBy);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
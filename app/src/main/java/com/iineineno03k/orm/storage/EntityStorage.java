@@ -0,0 +1,116 @@
+package com.iineineno03k.orm.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * インメモリモードでエンティティを保持するストレージ
+ * 
+ * EntityManagerごとに1つ生成し、エンティティクラスごとに主キー(long)をボクシングしないマップで保持する。
+ * put/getは線形化可能で、findAllはグローバルなロックを取らずにセグメント単位で走査する(弱一貫性)。
+ */
+public class EntityStorage {
+    private final Map<Class<?>, StripedLongObjectMap<Object>> storage = new ConcurrentHashMap<>();
+
+    /**
+     * エンティティを保存する。同じ主キーのエンティティがあれば置き換える
+     * 
+     * @param entityClass エンティティクラス
+     * @param id 主キー
+     * @param entity 保存するエンティティ
+     */
+    public void put(Class<?> entityClass, long id, Object entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("Entity cannot be null");
+        }
+        storage.computeIfAbsent(entityClass, k -> new StripedLongObjectMap<>()).put(id, entity);
+    }
+
+    /**
+     * 保存されているエンティティがexpectedと同じインスタンスの場合だけ置き換える
+     * 
+     * @param entityClass エンティティクラス
+     * @param id 主キー
+     * @param expected 期待する保存済みのエンティティ。保存されていないことを期待する場合はnull
+     * @param entity 保存するエンティティ
+     * @return 置き換えた場合はtrue
+     */
+    public boolean replace(Class<?> entityClass, long id, Object expected, Object entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("Entity cannot be null");
+        }
+        return storage.computeIfAbsent(entityClass, k -> new StripedLongObjectMap<>()).replace(id, expected, entity);
+    }
+
+    /**
+     * 主キーでエンティティを取得する
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @param id 主キー
+     * @return エンティティ。存在しない場合はnull
+     */
+    public <T> T get(Class<T> entityClass, long id) {
+        StripedLongObjectMap<Object> classStorage = storage.get(entityClass);
+        if (classStorage == null) {
+            return null;
+        }
+
+        Object entity = classStorage.get(id);
+        if (entity != null && entityClass.isInstance(entity)) {
+            return entityClass.cast(entity);
+        }
+        return null;
+    }
+
+    /**
+     * 指定されたエンティティクラスのすべてのエンティティを取得する
+     * 走査中に並行して保存されたエンティティは含まれない場合がある
+     * 
+     * @param <T> エンティティの型
+     * @param entityClass エンティティクラス
+     * @return エンティティのリスト
+     */
+    public <T> List<T> findAll(Class<T> entityClass) {
+        StripedLongObjectMap<Object> classStorage = storage.get(entityClass);
+        if (classStorage == null) {
+            return new ArrayList<>();
+        }
+
+        List<T> entities = new ArrayList<>();
+        classStorage.forEachValue(entity -> entities.add(entityClass.cast(entity)));
+        return entities;
+    }
+
+    /**
+     * エンティティを削除する
+     * 
+     * @param entityClass エンティティクラス
+     * @param id 主キー
+     * @return 削除された場合はtrue
+     */
+    public boolean remove(Class<?> entityClass, long id) {
+        StripedLongObjectMap<Object> classStorage = storage.get(entityClass);
+        return classStorage != null && classStorage.remove(id) != null;
+    }
+
+    /**
+     * 指定されたエンティティクラスの保存件数を取得する
+     * 
+     * @param entityClass エンティティクラス
+     * @return 保存件数
+     */
+    public int size(Class<?> entityClass) {
+        StripedLongObjectMap<Object> classStorage = storage.get(entityClass);
+        return classStorage == null ? 0 : classStorage.size();
+    }
+
+    /**
+     * すべてのエンティティを削除する
+     */
+    public void clear() {
+        storage.clear();
+    }
+}
@@ -0,0 +1,203 @@
+package com.iineineno03k.orm.storage;
+
+import java.util.function.Consumer;
+
+/**
+ * long型のキーをボクシングせずに保持するオープンアドレス法(線形探索)のハッシュマップ
+ * 
+ * キーと値を別々の配列に保持するため、HashMapのようにエントリごとのオブジェクトを作らない。
+ * 値にnullは格納できない(空きスロットの印として使う)。スレッドセーフではない。
+ * getは更新と並行して呼ばれても例外を投げない(結果の正しさは呼び出し側で検証する)。
+ * 
+ * @param <V> 値の型
+ */
+public class LongObjectHashMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int resizeThreshold;
+
+    public LongObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize 想定する要素数
+     */
+    public LongObjectHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must be >= 0");
+        }
+        allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+    }
+
+    /**
+     * 値を取得する
+     * 
+     * @param key キー
+     * @return 値。存在しない場合はnull
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        long[] keys = this.keys;
+        Object[] values = this.values;
+        // 並行してリサイズされた場合に備え、短い方の配列に合わせて探索を打ち切る
+        int length = Math.min(keys.length, values.length);
+        int mask = length - 1;
+        int index = indexOf(key, mask);
+        for (int probes = 0; probes < length; probes++) {
+            Object value = values[index];
+            if (value == null) {
+                return null;
+            }
+            if (keys[index] == key) {
+                return (V) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * 値を格納する
+     * 
+     * @param key キー
+     * @param value 値(nullは不可)
+     * @return 以前の値。存在しなかった場合はnull
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null");
+        }
+        int mask = keys.length - 1;
+        int index = indexOf(key, mask);
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                Object previous = values[index];
+                values[index] = value;
+                return (V) previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeThreshold) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * 値を削除する
+     * 後続のスロットを詰めるため、削除済みの印は残らない
+     * 
+     * @param key キー
+     * @return 削除された値。存在しなかった場合はnull
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int mask = keys.length - 1;
+        int index = indexOf(key, mask);
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                Object previous = values[index];
+                shiftBack(index, mask);
+                size--;
+                return (V) previous;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * すべての値を順不同で処理する
+     * 
+     * @param action 値ごとの処理
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        Object[] values = this.values;
+        for (Object value : values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    public void clear() {
+        allocate(DEFAULT_CAPACITY);
+        size = 0;
+    }
+
+    private void shiftBack(int removed, int mask) {
+        int gap = removed;
+        int index = (removed + 1) & mask;
+        while (values[index] != null) {
+            int home = indexOf(keys[index], mask);
+            // 本来の位置から見て空きスロットが探索経路上にあれば詰める
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[gap] = 0L;
+        values[gap] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        long[] newKeys = new long[capacity];
+        Object[] newValues = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = indexOf(oldKeys[i], mask);
+                while (newValues[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                newKeys[index] = oldKeys[i];
+                newValues[index] = oldValues[i];
+            }
+        }
+        this.values = newValues;
+        this.keys = newKeys;
+        this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void allocate(int capacity) {
+        this.values = new Object[capacity];
+        this.keys = new long[capacity];
+        this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int indexOf(long key, int mask) {
+        long hash = key * GOLDEN_RATIO;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        return Math.max(size, DEFAULT_CAPACITY);
+    }
+}
@@ -0,0 +1,129 @@
+package com.iineineno03k.orm.storage;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * LongObjectHashMapをセグメントに分割し、セグメントごとのStampedLockで保護するマップ
+ * 
+ * 読み取りは楽観的読み取りで行い、並行する書き込みがあった場合のみ読み取りロックを取る。
+ * 
+ * @param <V> 値の型
+ */
+class StripedLongObjectMap<V> {
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment<V>[] segments;
+
+    StripedLongObjectMap() {
+        this.segments = newSegments(SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment<>();
+        }
+    }
+
+    V get(long key) {
+        Segment<V> segment = segmentFor(key);
+        StampedLock lock = segment.lock;
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            V value = segment.map.get(key);
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return segment.map.get(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    V put(long key, V value) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.map.put(key, value);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 現在の値がexpectedと同じインスタンスの場合だけ値を置き換える
+     * 
+     * @param expected 期待する現在の値。キーがないことを期待する場合はnull
+     * @return 置き換えた場合はtrue
+     */
+    boolean replace(long key, V expected, V value) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            if (segment.map.get(key) != expected) {
+                return false;
+            }
+            segment.map.put(key, value);
+            return true;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    V remove(long key) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.map.remove(key);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                size += segment.map.size();
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * すべての値を順不同で処理する
+     * ロックはセグメント単位で取るため、走査全体としては弱一貫性となる
+     */
+    void forEachValue(Consumer<? super V> action) {
+        for (Segment<V> segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                segment.map.forEachValue(action);
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    // ジェネリクスの配列は作成できないため、ワイルドカードの配列を作成してキャストする。
+    // 要素にはSegment<V>だけを格納し、配列を外部に公開しないので安全
+    @SuppressWarnings("unchecked")
+    private static <V> Segment<V>[] newSegments(int count) {
+        return (Segment<V>[]) new Segment<?>[count];
+    }
+
+    private Segment<V> segmentFor(long key) {
+        // LongObjectHashMap内のスロット決定とは異なるビットを使う
+        int hash = (int) (key ^ (key >>> 32));
+        hash ^= hash >>> 16;
+        return segments[hash & (SEGMENT_COUNT - 1)];
+    }
+
+    private static final class Segment<V> {
+        private final StampedLock lock = new StampedLock();
+        private final LongObjectHashMap<V> map = new LongObjectHashMap<>();
+    }
+}
@@ -0,0 +1,196 @@
+package com.iineineno03k.orm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iineineno03k.orm.jdbc.PoolConfig;
+import com.iineineno03k.orm.jdbc.Transaction;
+import com.iineineno03k.orm.sql.DatabaseType;
+import com.iineineno03k.orm.testentity.AccountEntity;
+import com.iineineno03k.orm.testentity.TestEntity;
+
+/**
+ * AsyncEntityManagerのテストクラス
+ */
+@DisplayName("AsyncEntityManager のテスト")
+public class AsyncEntityManagerTest {
+
+    private static TestEntity createTestEntity(Long id, String name) {
+        TestEntity entity = new TestEntity();
+        entity.setId(id);
+        entity.setName(name);
+        entity.setCode("CODE" + id);
+        entity.setActive(true);
+        return entity;
+    }
+
+    @Test
+    @DisplayName("インメモリモードで保存と取得を非同期に実行できる")
+    void shouldSaveAndFindAsyncInMemoryMode() {
+        EntityManager entityManager = new EntityManager(
+                new DatabaseConfig("jdbc:h2:mem:test", "sa", "", DatabaseType.MYSQL));
+        try (AsyncEntityManager async = new AsyncEntityManager(entityManager)) {
+            TestEntity entity = createTestEntity(1L, "Async");
+            async.saveAsync(entity).join();
+
+            assertSame(entity, async.findByIdAsync(TestEntity.class, 1L).join());
+            assertNull(async.findByIdAsync(TestEntity.class, 2L).join());
+            assertEquals(1, async.findAllAsync(TestEntity.class).join().size());
+        }
+    }
+
+    @Test
+    @DisplayName("失敗した操作は例外で完了する")
+    void shouldCompleteExceptionallyOnFailure() {
+        EntityManager entityManager = new EntityManager(
+                new DatabaseConfig("jdbc:h2:mem:test", "sa", "", DatabaseType.MYSQL));
+        try (AsyncEntityManager async = new AsyncEntityManager(entityManager)) {
+            CompletableFuture<Void> future = async.saveAsync(createTestEntity(null, "No Id"));
+
+            CompletionException exception = assertThrows(CompletionException.class, future::join);
+            assertTrue(exception.getCause() instanceof RuntimeException);
+        }
+    }
+
+    @Test
+    @DisplayName("プールの最大数を超える同時の問い合わせは接続の返却を待って実行される")
+    void shouldRunManyConcurrentLookupsOnSmallPool() {
+        DatabaseConfig config = new DatabaseConfig("jdbc:h2:mem:async_lookup;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "sa", "", DatabaseType.MYSQL, new PoolConfig(1, 4, 5000, 0));
+        try (EntityManager entityManager = new EntityManager(config);
+                AsyncEntityManager async = new AsyncEntityManager(entityManager)) {
+            entityManager.createTable(TestEntity.class);
+            for (long id = 1; id <= 10; id++) {
+                entityManager.save(createTestEntity(id, "Entity " + id));
+            }
+            entityManager.clear();
+
+            List<CompletableFuture<TestEntity>> futures = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                futures.add(async.findByIdAsync(TestEntity.class, (long) (i % 10 + 1)));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals("Entity " + (i % 10 + 1), futures.get(i).join().getName());
+            }
+            assertEquals(10, async.findAllAsync(TestEntity.class).join().size());
+        }
+    }
+
+    @Test
+    @DisplayName("トランザクション中は非同期の操作を受け付けない")
+    void shouldRejectOperationsDuringTransaction() {
+        DatabaseConfig config = new DatabaseConfig("jdbc:h2:mem:async_transaction;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "sa", "", DatabaseType.MYSQL, new PoolConfig(1, 4, 5000, 0));
+        try (EntityManager entityManager = new EntityManager(config);
+                AsyncEntityManager async = new AsyncEntityManager(entityManager)) {
+            entityManager.createTable(TestEntity.class);
+            try (Transaction transaction = entityManager.beginTransaction()) {
+                assertThrows(IllegalStateException.class, () -> async.findAllAsync(TestEntity.class));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("同じEntityManagerに対する多数の非同期の保存を同時に実行できる")
+    void shouldRunManyConcurrentSaves() {
+        DatabaseConfig config = new DatabaseConfig("jdbc:h2:mem:async_save;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "sa", "", DatabaseType.MYSQL, new PoolConfig(1, 4, 5000, 0));
+        try (EntityManager entityManager = new EntityManager(config);
+                AsyncEntityManager async = new AsyncEntityManager(entityManager)) {
+            entityManager.createTable(TestEntity.class);
+
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (long id = 1; id <= 200; id++) {
+                futures.add(async.saveAsync(createTestEntity(id, "Entity " + id)));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+            entityManager.clear();
+            assertEquals(200, entityManager.findAll(TestEntity.class).size());
+        }
+    }
+
+    @Test
+    @DisplayName("同時の非同期の問い合わせは管理対象の変更を一度だけ書き込む")
+    void shouldFlushDirtyVersionedEntityOnceForConcurrentQueries() {
+        DatabaseConfig config = new DatabaseConfig("jdbc:h2:mem:async_flush;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "sa", "", DatabaseType.MYSQL, new PoolConfig(1, 4, 5000, 0));
+        try (EntityManager entityManager = new EntityManager(config);
+                AsyncEntityManager async = new AsyncEntityManager(entityManager)) {
+            entityManager.createTable(AccountEntity.class);
+            entityManager.save(new AccountEntity(1L, "Alice", 0L));
+            AccountEntity account = entityManager.findById(AccountEntity.class, 1L);
+            long initialVersion = account.getVersion();
+
+            for (long round = 1; round <= 20; round++) {
+                account.setBalance(round);
+                List<CompletableFuture<List<AccountEntity>>> futures = new ArrayList<>();
+                for (int i = 0; i < 16; i++) {
+                    futures.add(async.findAllAsync(AccountEntity.class));
+                }
+                // 重複したUPDATEはバージョンが一致せずOptimisticLockExceptionになる
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+                assertEquals(initialVersion + round, account.getVersion());
+            }
+
+            try (EntityManager other = new EntityManager(config)) {
+                AccountEntity stored = other.findById(AccountEntity.class, 1L);
+                assertEquals(20L, stored.getBalance());
+                assertEquals(initialVersion + 20, stored.getVersion());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("受け付けた後に開始されたトランザクションに非同期の保存は加わらない")
+    void shouldNotJoinTransactionBegunAfterSubmission() {
+        DatabaseConfig config = new DatabaseConfig("jdbc:h2:mem:async_isolation;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "sa", "", DatabaseType.MYSQL, new PoolConfig(1, 4, 5000, 0));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch started = new CountDownLatch(1);
+        try (EntityManager entityManager = new EntityManager(config);
+                AsyncEntityManager async = new AsyncEntityManager(entityManager, executor)) {
+            entityManager.createTable(TestEntity.class);
+
+            // 実行スレッドを止めておき、保存を受け付けた後でトランザクションを開始する
+            executor.execute(() -> {
+                try {
+                    started.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            CompletableFuture<Void> future = async.saveAsync(createTestEntity(1L, "Async"));
+            try (EntityManager other = new EntityManager(config);
+                    Transaction transaction = entityManager.beginTransaction()) {
+                entityManager.save(createTestEntity(2L, "Transactional"));
+                started.countDown();
+                future.join();
+
+                // 非同期の保存はトランザクションの外ですぐに書き込まれ、トランザクションの保存はコミットまで送信されない
+                assertEquals("Async", other.findById(TestEntity.class, 1L).getName());
+                assertNull(other.findById(TestEntity.class, 2L));
+                transaction.commit();
+            }
+
+            entityManager.clear();
+            assertEquals(2, entityManager.findAll(TestEntity.class).size());
+        }
+    }
+}
@@ -2,21 +2,55 @@ package com.iineineno03k.orm;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
+import com.iineineno03k.orm.cache.CacheStatistics;
+import com.iineineno03k.orm.cache.QueryCache;
+import com.iineineno03k.orm.cache.SecondLevelCache;
+import com.iineineno03k.orm.jdbc.PoolConfig;
+import com.iineineno03k.orm.jdbc.Transaction;
+import com.iineineno03k.orm.query.Criteria;
+import com.iineineno03k.orm.query.Order;
+import com.iineineno03k.orm.query.Page;
 import com.iineineno03k.orm.sql.DatabaseType;
+import com.iineineno03k.orm.testentity.AccountEntity;
+import com.iineineno03k.orm.testentity.AuthorEntity;
+import com.iineineno03k.orm.testentity.BookEntity;
+import com.iineineno03k.orm.testentity.CountryEntity;
 import com.iineineno03k.orm.testentity.ProductEntity;
 import com.iineineno03k.orm.testentity.TestEntity;
 import com.iineineno03k.orm.testentity.UserEntity;
 
 public class EntityManagerTest {
+    record TestEntitySummary(Long id, String name, boolean active) {
+    }
+
+    // JDBCモードのテストごとに別のインメモリDBを使う
+    private static final AtomicInteger databaseCounter = new AtomicInteger();
+
     private EntityManager entityManager;
     private EntityManager postgresEntityManager;
     private EntityManager oracleEntityManager;
@@ -213,4 +247,871 @@ public class EntityManagerTest {
         assertTrue(oracleSql.startsWith("CREATE TABLE"));
         assertTrue(!oracleSql.contains("ENGINE"));  // Oracleにはエンジン指定がない
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRejectCreateTableInMemoryMode() {
+        assertThrows(IllegalStateException.class, () -> entityManager.createTable(TestEntity.class));
+    }
+
+    @Test
+    void shouldRejectTransactionInMemoryMode() {
+        assertThrows(IllegalStateException.class, () -> entityManager.beginTransaction());
+    }
+
+    @Test
+    void shouldSaveAllEntitiesInMemoryMode() {
+        TestEntity testEntity = new TestEntity();
+        testEntity.setId(1L);
+        ProductEntity productEntity = new ProductEntity();
+        productEntity.setId(1L);
+
+        entityManager.saveAll(Arrays.asList(testEntity, productEntity));
+
+        assertNotNull(entityManager.findById(TestEntity.class, 1L));
+        assertNotNull(entityManager.findById(ProductEntity.class, 1L));
+        assertThrows(IllegalArgumentException.class, () -> entityManager.saveAll(Arrays.asList(testEntity), 0));
+    }
+
+    @Test
+    void shouldStreamEntitiesInMemoryMode() {
+        TestEntity entity = new TestEntity();
+        entity.setId(1L);
+        entityManager.save(entity);
+
+        try (Stream<TestEntity> stream = entityManager.stream(TestEntity.class)) {
+            assertEquals(1, stream.count());
+        }
+        assertThrows(IllegalArgumentException.class, () -> entityManager.stream(TestEntity.class, 0));
+    }
+
+    @Test
+    void shouldIsolateStorageBetweenEntityManagers() {
+        TestEntity entity = new TestEntity();
+        entity.setId(1L);
+        entity.setName("Only in MySQL manager");
+
+        entityManager.save(entity);
+
+        assertNotNull(entityManager.findById(TestEntity.class, 1L));
+        assertNull(postgresEntityManager.findById(TestEntity.class, 1L));
+        assertTrue(oracleEntityManager.findAll(TestEntity.class).isEmpty());
+    }
+
+    @Test
+    void shouldEvaluateQueryInMemoryMode() {
+        for (long id = 1; id <= 5; id++) {
+            TestEntity entity = new TestEntity();
+            entity.setId(id);
+            entity.setName("Entity " + id);
+            entity.setActive(id % 2 == 1);
+            entityManager.save(entity);
+        }
+
+        List<TestEntity> result = entityManager.createQuery(TestEntity.class)
+                .where(Criteria.eq("active", true))
+                .and(Criteria.gt("id", 1))
+                .orderBy(Order.desc("id"))
+                .limit(1)
+                .getResultList();
+
+        assertEquals(1, result.size());
+        assertEquals(5L, result.get(0).getId());
+
+        List<Object[]> names = entityManager.createQuery(TestEntity.class)
+                .where(Criteria.like("name", "%3"))
+                .project("id", "name");
+        assertEquals(1, names.size());
+        assertEquals(3L, names.get(0)[0]);
+        assertEquals("Entity 3", names.get(0)[1]);
+    }
+
+    @Test
+    void shouldPageEntitiesInMemoryMode() {
+        for (long id = 5; id >= 1; id--) {
+            TestEntity entity = new TestEntity();
+            entity.setId(id);
+            entityManager.save(entity);
+        }
+
+        Page<TestEntity> second = entityManager.findPage(TestEntity.class, 1, 2);
+        Page<TestEntity> last = entityManager.findPageAfter(TestEntity.class, second.getLastKey(), 2);
+
+        assertEquals(Arrays.asList(3L, 4L), second.getContent().stream().map(TestEntity::getId).collect(Collectors.toList()));
+        assertTrue(second.hasNext());
+        assertEquals(1, last.getContent().size());
+        assertEquals(5L, last.getLastKey());
+        assertTrue(!last.hasNext());
+        assertThrows(IllegalArgumentException.class, () -> entityManager.findPage(TestEntity.class, -1, 2));
+        assertThrows(IllegalArgumentException.class, () -> entityManager.findPageAfter(TestEntity.class, null, 0));
+    }
+
+    @Test
+    void shouldFindAllByIdInMemoryMode() {
+        for (long id = 1; id <= 3; id++) {
+            TestEntity entity = new TestEntity();
+            entity.setId(id);
+            entityManager.save(entity);
+        }
+
+        List<TestEntity> found = entityManager.findAllById(TestEntity.class, Arrays.asList(3L, 99L, 1L, 3L));
+
+        assertEquals(Arrays.asList(3L, 1L), found.stream().map(TestEntity::getId).collect(Collectors.toList()));
+        assertThrows(IllegalArgumentException.class,
+                () -> entityManager.findAllById(TestEntity.class, Arrays.asList(1L), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> entityManager.findAllById(TestEntity.class, Arrays.asList(1L, null)));
+    }
+
+    @Test
+    void shouldRejectStaleSaveInMemoryMode() {
+        AccountEntity account = new AccountEntity(1L, "Alice", 100L);
+        entityManager.save(account);
+        assertEquals(0L, account.getVersion());
+
+        AccountEntity copy = new AccountEntity(1L, "Alice", 200L);
+        copy.setVersion(0L);
+        entityManager.save(copy);
+        assertEquals(1L, copy.getVersion());
+        assertSame(copy, entityManager.findById(AccountEntity.class, 1L));
+
+        // 古いバージョンのままの保存や、新規としての保存は置き換えない
+        AccountEntity stale = new AccountEntity(1L, "Alice", 300L);
+        stale.setVersion(0L);
+        assertThrows(OptimisticLockException.class, () -> entityManager.save(stale));
+        assertThrows(OptimisticLockException.class, () -> entityManager.save(new AccountEntity(1L, "Bob", 0L)));
+        assertEquals(0L, stale.getVersion());
+        assertEquals(200L, entityManager.findById(AccountEntity.class, 1L).getBalance());
+    }
+
+    /**
+     * JDBC実行モードのテスト
+     * 各データベースタイプに対応するH2の互換モードで実行する
+     */
+    @Nested
+    class JdbcModeTest {
+        private EntityManager createJdbcEntityManager(DatabaseType databaseType) {
+            EntityManager jdbcEntityManager = openJdbcEntityManager(databaseType, createDatabaseUrl(databaseType));
+            jdbcEntityManager.createTable(TestEntity.class);
+            return jdbcEntityManager;
+        }
+
+        private String createDatabaseUrl(DatabaseType databaseType) {
+            return "jdbc:h2:mem:entity_manager_" + databaseType.name().toLowerCase() + "_"
+                    + databaseCounter.incrementAndGet() + ";MODE=" + h2Mode(databaseType) + ";DB_CLOSE_DELAY=-1";
+        }
+
+        private EntityManager openJdbcEntityManager(DatabaseType databaseType, String url) {
+            DatabaseConfig config = new DatabaseConfig(url, "sa", "", databaseType, new PoolConfig(1, 4, 5000, 0));
+            return new EntityManager(config);
+        }
+
+        private String h2Mode(DatabaseType databaseType) {
+            switch (databaseType) {
+                case MYSQL:
+                    return "MySQL";
+                case POSTGRESQL:
+                    return "PostgreSQL";
+                default:
+                    return "Oracle";
+            }
+        }
+
+        private TestEntity createTestEntity(Long id, String name) {
+            TestEntity entity = new TestEntity();
+            entity.setId(id);
+            entity.setName(name);
+            entity.setCode("CODE" + id);
+            entity.setDescription("Description " + id);
+            entity.setActive(true);
+            return entity;
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldSaveAndRetrieveEntityThroughDatabase(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                jdbcEntityManager.save(createTestEntity(1L, "Test Entity"));
+
+                TestEntity retrieved = jdbcEntityManager.findById(TestEntity.class, 1L);
+
+                assertNotNull(retrieved);
+                assertEquals(1L, retrieved.getId());
+                assertEquals("Test Entity", retrieved.getName());
+                assertEquals("CODE1", retrieved.getCode());
+                assertEquals("Description 1", retrieved.getDescription());
+                assertTrue(retrieved.isActive());
+                assertNull(jdbcEntityManager.findById(TestEntity.class, 999L));
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldSaveNullColumnsThroughDatabase(DatabaseType databaseType) {
+            String url = createDatabaseUrl(databaseType);
+            try (EntityManager jdbcEntityManager = openJdbcEntityManager(databaseType, url)) {
+                jdbcEntityManager.createTable(TestEntity.class);
+                TestEntity single = createTestEntity(1L, "Single");
+                single.setDescription(null);
+                jdbcEntityManager.save(single);
+                TestEntity batched = createTestEntity(2L, "Batched");
+                batched.setDescription(null);
+                jdbcEntityManager.saveAll(Arrays.asList(batched));
+                TestEntity managed = jdbcEntityManager.findById(TestEntity.class, 1L);
+                managed.setDescription("Described");
+                jdbcEntityManager.flush();
+                managed.setDescription(null);
+                jdbcEntityManager.flush();
+
+                try (EntityManager other = openJdbcEntityManager(databaseType, url)) {
+                    assertNull(other.findById(TestEntity.class, 1L).getDescription());
+                    assertNull(other.findById(TestEntity.class, 2L).getDescription());
+                    assertEquals("Batched", other.findById(TestEntity.class, 2L).getName());
+                }
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldUpdateExistingRowOnSecondSave(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                TestEntity entity = createTestEntity(1L, "Before");
+                jdbcEntityManager.save(entity);
+
+                entity.setName("After");
+                entity.setActive(false);
+                jdbcEntityManager.save(entity);
+
+                List<TestEntity> all = jdbcEntityManager.findAll(TestEntity.class);
+                assertEquals(1, all.size());
+                assertEquals("After", all.get(0).getName());
+                assertTrue(!all.get(0).isActive());
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldFindAllRowsThroughDatabase(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                jdbcEntityManager.save(createTestEntity(1L, "Test Entity 1"));
+                jdbcEntityManager.save(createTestEntity(2L, "Test Entity 2"));
+                jdbcEntityManager.save(createTestEntity(3L, "Test Entity 3"));
+
+                List<TestEntity> all = jdbcEntityManager.findAll(TestEntity.class);
+
+                assertEquals(3, all.size());
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldSaveAllEntitiesInBatches(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                List<TestEntity> entities = new ArrayList<>();
+                for (long id = 1; id <= 7; id++) {
+                    entities.add(createTestEntity(id, "Test Entity " + id));
+                }
+
+                // UPSERT文を3件ずつのバッチで送信する
+                jdbcEntityManager.saveAll(entities, 3);
+
+                assertEquals(7, jdbcEntityManager.findAll(TestEntity.class).size());
+                assertEquals("Test Entity 7", jdbcEntityManager.findById(TestEntity.class, 7L).getName());
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldUpsertExistingRowsAndKeepManagedChangesOnSaveAll(DatabaseType databaseType) {
+            String url = createDatabaseUrl(databaseType);
+            try (EntityManager first = openJdbcEntityManager(databaseType, url);
+                    EntityManager second = openJdbcEntityManager(databaseType, url)) {
+                first.createTable(TestEntity.class);
+                first.saveAll(Arrays.asList(createTestEntity(1L, "First"), createTestEntity(2L, "Second")));
+
+                // 既存の行は重複エラーにならずに置き換える
+                second.saveAll(Arrays.asList(createTestEntity(2L, "Replaced"), createTestEntity(3L, "Third")));
+
+                // 管理対象のエンティティは書き込まず、未フラッシュの変更はフラッシュで書き込む
+                TestEntity managed = first.findById(TestEntity.class, 1L);
+                managed.setName("Changed");
+                first.saveAll(Arrays.asList(managed, createTestEntity(4L, "Fourth")));
+                first.flush();
+
+                second.clear();
+                assertEquals(4, second.findAll(TestEntity.class).size());
+                assertEquals("Changed", second.findById(TestEntity.class, 1L).getName());
+                assertEquals("Replaced", second.findById(TestEntity.class, 2L).getName());
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldRollbackSaveAllOnFailure(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                jdbcEntityManager.createTable(AccountEntity.class);
+                AccountEntity created = new AccountEntity(1L, "Alice", 100L);
+                // 存在しない行の条件付きの更新は競合となり、同じバッチの挿入もロールバックする
+                AccountEntity missing = new AccountEntity(2L, "Bob", 100L);
+                missing.setVersion(5L);
+
+                assertThrows(OptimisticLockException.class,
+                        () -> jdbcEntityManager.saveAll(Arrays.asList(created, missing), 2));
+
+                assertTrue(jdbcEntityManager.findAll(AccountEntity.class).isEmpty());
+                assertNull(created.getVersion());
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldStreamRowsWithFetchSize(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                for (long id = 1; id <= 5; id++) {
+                    jdbcEntityManager.save(createTestEntity(id, "Test Entity " + id));
+                }
+
+                List<String> names;
+                try (Stream<TestEntity> stream = jdbcEntityManager.stream(TestEntity.class, 2)) {
+                    names = stream.map(TestEntity::getName).sorted().collect(Collectors.toList());
+                }
+
+                assertEquals(5, names.size());
+                assertEquals("Test Entity 1", names.get(0));
+                assertEquals("Test Entity 5", names.get(4));
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldReleaseConnectionWhenStreamIsClosed(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                jdbcEntityManager.save(createTestEntity(1L, "Test Entity 1"));
+                jdbcEntityManager.save(createTestEntity(2L, "Test Entity 2"));
+
+                // プールの最大数より多く途中で閉じても、コネクションは枯渇しない
+                for (int i = 0; i < 8; i++) {
+                    try (Stream<TestEntity> stream = jdbcEntityManager.stream(TestEntity.class)) {
+                        assertTrue(stream.findFirst().isPresent());
+                    }
+                }
+
+                assertEquals(2, jdbcEntityManager.findAll(TestEntity.class).size());
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldPublishRowsOnDemand(DatabaseType databaseType) throws InterruptedException {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                for (long id = 1; id <= 5; id++) {
+                    jdbcEntityManager.save(createTestEntity(id, "Test Entity " + id));
+                }
+
+                // プールの最大数より多く購読しても、完了時にコネクションを返却する
+                for (int i = 0; i < 8; i++) {
+                    List<String> names = new CopyOnWriteArrayList<>();
+                    CountDownLatch completed = new CountDownLatch(1);
+                    jdbcEntityManager.publish(TestEntity.class, 2).subscribe(new Flow.Subscriber<TestEntity>() {
+                        private Flow.Subscription subscription;
+
+                        @Override
+                        public void onSubscribe(Flow.Subscription subscription) {
+                            this.subscription = subscription;
+                            subscription.request(1);
+                        }
+
+                        @Override
+                        public void onNext(TestEntity item) {
+                            names.add(item.getName());
+                            subscription.request(1);
+                        }
+
+                        @Override
+                        public void onError(Throwable throwable) {
+                            completed.countDown();
+                        }
+
+                        @Override
+                        public void onComplete() {
+                            completed.countDown();
+                        }
+                    });
+
+                    assertTrue(completed.await(5, TimeUnit.SECONDS));
+                    assertEquals(5, names.size());
+                }
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldReturnManagedInstanceFromFindById(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                TestEntity entity = createTestEntity(1L, "Managed");
+                jdbcEntityManager.save(entity);
+
+                assertSame(entity, jdbcEntityManager.findById(TestEntity.class, 1L));
+                assertSame(entity, jdbcEntityManager.findAll(TestEntity.class).get(0));
+
+                jdbcEntityManager.clear();
+                TestEntity reloaded = jdbcEntityManager.findById(TestEntity.class, 1L);
+                assertNotSame(entity, reloaded);
+                assertSame(reloaded, jdbcEntityManager.findById(TestEntity.class, 1L));
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldFlushChangesOfManagedEntities(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                jdbcEntityManager.save(createTestEntity(1L, "First"));
+                jdbcEntityManager.save(createTestEntity(2L, "Second"));
+                jdbcEntityManager.clear();
+
+                jdbcEntityManager.findById(TestEntity.class, 1L).setName("First changed");
+                jdbcEntityManager.findById(TestEntity.class, 2L).setName("Second changed");
+                jdbcEntityManager.flush();
+                jdbcEntityManager.clear();
+
+                assertEquals("First changed", jdbcEntityManager.findById(TestEntity.class, 1L).getName());
+                assertEquals("Second changed", jdbcEntityManager.findById(TestEntity.class, 2L).getName());
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldUpdateOnlyChangedColumnsOnFlush(DatabaseType databaseType) {
+            String url = createDatabaseUrl(databaseType);
+            try (EntityManager first = openJdbcEntityManager(databaseType, url);
+                    EntityManager second = openJdbcEntityManager(databaseType, url)) {
+                first.createTable(TestEntity.class);
+                first.save(createTestEntity(1L, "Before"));
+
+                // 別のEntityManagerが説明だけを書き換える
+                TestEntity external = second.findById(TestEntity.class, 1L);
+                external.setDescription("Changed elsewhere");
+                second.flush();
+
+                // 名前だけを変更したので、説明は上書きされない
+                first.findById(TestEntity.class, 1L).setName("After");
+                first.flush();
+                second.clear();
+
+                TestEntity stored = second.findById(TestEntity.class, 1L);
+                assertEquals("After", stored.getName());
+                assertEquals("Changed elsewhere", stored.getDescription());
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldNotWriteDetachedChanges(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                TestEntity entity = createTestEntity(1L, "Before");
+                jdbcEntityManager.save(entity);
+
+                jdbcEntityManager.detach(entity);
+                entity.setName("After");
+                jdbcEntityManager.flush();
+
+                assertEquals("Before", jdbcEntityManager.findById(TestEntity.class, 1L).getName());
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldShareSecondLevelCacheAcrossEntityManagers(DatabaseType databaseType) {
+            String url = createDatabaseUrl(databaseType);
+            DatabaseConfig config = new DatabaseConfig(url, "sa", "", databaseType, new PoolConfig(1, 4, 5000, 0));
+            SecondLevelCache cache = new SecondLevelCache();
+            try (EntityManager first = new EntityManager(config, cache);
+                    EntityManager second = new EntityManager(config, cache)) {
+                first.createTable(CountryEntity.class);
+                first.save(new CountryEntity(1L, "Japan", "JP"));
+
+                // 1回目はSQLで読み込んでキャッシュし、別のEntityManagerからはキャッシュを使う
+                assertEquals("Japan", second.findById(CountryEntity.class, 1L).getName());
+                second.clear();
+                assertEquals("Japan", second.findById(CountryEntity.class, 1L).getName());
+                CacheStatistics statistics = cache.getStatistics(CountryEntity.class);
+                assertEquals(1, statistics.getHitCount());
+                assertEquals(1, statistics.getMissCount());
+
+                // 更新をフラッシュするとキャッシュから破棄される
+                second.findById(CountryEntity.class, 1L).setName("Nippon");
+                second.flush();
+                assertNull(cache.get(CountryEntity.class, 1L));
+
+                first.clear();
+                assertEquals("Nippon", first.findById(CountryEntity.class, 1L).getName());
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldCacheFindAllResultsUntilTableIsWritten(DatabaseType databaseType) {
+            String url = createDatabaseUrl(databaseType);
+            DatabaseConfig config = new DatabaseConfig(url, "sa", "", databaseType, new PoolConfig(1, 4, 5000, 0));
+            SecondLevelCache cache = new SecondLevelCache(new QueryCache(10, 10));
+            try (EntityManager first = new EntityManager(config, cache);
+                    EntityManager second = new EntityManager(config, cache)) {
+                first.createTable(CountryEntity.class);
+                first.save(new CountryEntity(1L, "Japan", "JP"));
+                first.save(new CountryEntity(2L, "France", "FR"));
+
+                assertEquals(2, first.findAll(CountryEntity.class).size());
+                // 別のEntityManagerでも主キーの一覧と二次キャッシュから結果を組み立てる
+                assertEquals(2, second.findAll(CountryEntity.class).size());
+                assertEquals(1, cache.getQueryCache().getStatistics().getHitCount());
+
+                // 保存するとテーブルの問い合わせ結果は無効になる
+                second.save(new CountryEntity(3L, "Brazil", "BR"));
+                assertEquals(3, first.findAll(CountryEntity.class).size());
+            }
+        }
+    
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldPushQueryDownToDatabase(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                for (long id = 1; id <= 6; id++) {
+                    TestEntity entity = createTestEntity(id, "Test Entity " + id);
+                    entity.setActive(id <= 4);
+                    jdbcEntityManager.save(entity);
+                }
+
+                List<TestEntity> page = jdbcEntityManager.createQuery(TestEntity.class)
+                        .where(Criteria.eq("active", true))
+                        .and(Criteria.or(Criteria.like("name", "%2"), Criteria.ge("id", 3)))
+                        .orderBy(Order.desc("id"))
+                        .limit(2)
+                        .offset(1)
+                        .getResultList();
+
+                assertEquals(Arrays.asList(3L, 2L), page.stream().map(TestEntity::getId).collect(Collectors.toList()));
+                // 管理対象と同じ主キーの行は管理対象のインスタンスになる
+                assertSame(jdbcEntityManager.findById(TestEntity.class, 3L), page.get(0));
+
+                List<Object[]> codes = jdbcEntityManager.createQuery(TestEntity.class)
+                        .where(Criteria.in("id", Arrays.asList(1L, 5L)))
+                        .orderBy(Order.asc("id"))
+                        .project("code");
+                assertEquals(2, codes.size());
+                assertEquals("CODE1", codes.get(0)[0]);
+                assertEquals("CODE5", codes.get(1)[0]);
+            }
+        }
+    
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldPageByOffsetAndByKey(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                for (long id = 1; id <= 5; id++) {
+                    jdbcEntityManager.save(createTestEntity(id, "Test Entity " + id));
+                }
+
+                Page<TestEntity> byOffset = jdbcEntityManager.findPage(TestEntity.class, 1, 2);
+                assertEquals(Arrays.asList(3L, 4L),
+                        byOffset.getContent().stream().map(TestEntity::getId).collect(Collectors.toList()));
+                assertTrue(byOffset.hasNext());
+
+                // 前のページの最後の主キーから読み進めると、全件を重複なく1回ずつ返す
+                List<Long> ids = new ArrayList<>();
+                Page<TestEntity> page = jdbcEntityManager.findPageAfter(TestEntity.class, null, 2);
+                ids.addAll(page.getContent().stream().map(TestEntity::getId).collect(Collectors.toList()));
+                while (page.hasNext()) {
+                    page = jdbcEntityManager.findPageAfter(TestEntity.class, page.getLastKey(), 2);
+                    ids.addAll(page.getContent().stream().map(TestEntity::getId).collect(Collectors.toList()));
+                }
+                assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), ids);
+                assertTrue(jdbcEntityManager.findPage(TestEntity.class, 3, 2).getContent().isEmpty());
+            }
+        }
+    
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldProjectSelectedColumnsIntoRecords(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                jdbcEntityManager.save(createTestEntity(1L, "Test Entity 1"));
+                jdbcEntityManager.save(createTestEntity(2L, "Test Entity 2"));
+
+                List<TestEntitySummary> summaries = jdbcEntityManager.createQuery(TestEntity.class)
+                        .orderBy(Order.desc("id"))
+                        .project(TestEntitySummary.class);
+
+                assertEquals(Arrays.asList(new TestEntitySummary(2L, "Test Entity 2", true),
+                        new TestEntitySummary(1L, "Test Entity 1", true)), summaries);
+                assertEquals(2, jdbcEntityManager.findAll(TestEntity.class, TestEntitySummary.class).size());
+            }
+        }
+    
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldUpsertRowSavedByAnotherEntityManager(DatabaseType databaseType) {
+            String url = createDatabaseUrl(databaseType);
+            try (EntityManager first = openJdbcEntityManager(databaseType, url);
+                    EntityManager second = openJdbcEntityManager(databaseType, url)) {
+                first.createTable(TestEntity.class);
+                first.save(createTestEntity(1L, "Inserted"));
+
+                // 管理対象でないエンティティの保存は、既存の行があれば1文で更新する
+                TestEntity replacement = createTestEntity(1L, "Replaced");
+                replacement.setActive(false);
+                second.save(replacement);
+
+                first.clear();
+                List<TestEntity> all = first.findAll(TestEntity.class);
+                assertEquals(1, all.size());
+                assertEquals("Replaced", all.get(0).getName());
+                assertTrue(!all.get(0).isActive());
+            }
+        }
+    
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldFindAllByIdInChunks(DatabaseType databaseType) {
+            String url = createDatabaseUrl(databaseType);
+            try (EntityManager writer = openJdbcEntityManager(databaseType, url);
+                    EntityManager reader = openJdbcEntityManager(databaseType, url)) {
+                writer.createTable(TestEntity.class);
+                for (long id = 1; id <= 7; id++) {
+                    writer.save(createTestEntity(id, "Test Entity " + id));
+                }
+                TestEntity managed = reader.findById(TestEntity.class, 4L);
+
+                List<Long> ids = Arrays.asList(7L, 4L, 100L, 1L, 2L, 3L, 5L, 7L);
+                List<TestEntity> found = reader.findAllById(TestEntity.class, ids, 2);
+
+                assertEquals(Arrays.asList(7L, 4L, 1L, 2L, 3L, 5L),
+                        found.stream().map(TestEntity::getId).collect(Collectors.toList()));
+                assertSame(managed, found.get(1));
+                assertSame(found.get(0), reader.findById(TestEntity.class, 7L));
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldWriteDeferredSavesOnCommit(DatabaseType databaseType) {
+            String url = createDatabaseUrl(databaseType);
+            try (EntityManager writer = openJdbcEntityManager(databaseType, url);
+                    EntityManager reader = openJdbcEntityManager(databaseType, url)) {
+                writer.createTable(TestEntity.class);
+                try (Transaction transaction = writer.beginTransaction()) {
+                    TestEntity first = createTestEntity(1L, "First");
+                    writer.save(first);
+                    writer.save(createTestEntity(2L, "Second"));
+                    // 保存後の変更もコミット時の1回の書き込みに含まれる
+                    first.setName("First Updated");
+                    assertSame(first, writer.findById(TestEntity.class, 1L));
+                    assertThrows(IllegalStateException.class, () -> writer.beginTransaction());
+                    transaction.commit();
+                }
+
+                assertNull(writer.getTransaction());
+                List<TestEntity> all = reader.findAll(TestEntity.class);
+                assertEquals(2, all.size());
+                assertEquals("First Updated", reader.findById(TestEntity.class, 1L).getName());
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldDeferSaveAllInTransactionInCallOrder(DatabaseType databaseType) {
+            String url = createDatabaseUrl(databaseType);
+            try (EntityManager writer = openJdbcEntityManager(databaseType, url);
+                    EntityManager reader = openJdbcEntityManager(databaseType, url)) {
+                writer.createTable(TestEntity.class);
+                try (Transaction transaction = writer.beginTransaction()) {
+                    writer.save(createTestEntity(1L, "Saved"));
+                    writer.saveAll(Arrays.asList(createTestEntity(1L, "Saved All"), createTestEntity(2L, "Second")));
+                    // saveAllもコミットまで送信しない
+                    assertNull(reader.findById(TestEntity.class, 2L));
+                    transaction.commit();
+                }
+
+                // 後から呼び出したsaveAllの値が残る
+                assertEquals("Saved All", reader.findById(TestEntity.class, 1L).getName());
+                assertEquals(2, reader.findAll(TestEntity.class).size());
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldDiscardWritesOnRollback(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                TestEntity existing = createTestEntity(1L, "Committed");
+                jdbcEntityManager.save(existing);
+
+                try (Transaction transaction = jdbcEntityManager.beginTransaction()) {
+                    existing.setName("Rolled Back");
+                    jdbcEntityManager.save(createTestEntity(2L, "Rolled Back"));
+                    // 問い合わせの前にトランザクション内でフラッシュされる
+                    assertEquals(2, jdbcEntityManager.findAll(TestEntity.class).size());
+                }
+
+                assertEquals(1, jdbcEntityManager.findAll(TestEntity.class).size());
+                assertEquals("Committed", jdbcEntityManager.findById(TestEntity.class, 1L).getName());
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldRollbackToSavepoint(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                try (Transaction transaction = jdbcEntityManager.beginTransaction()) {
+                    jdbcEntityManager.save(createTestEntity(1L, "Kept"));
+                    Savepoint savepoint = transaction.setSavepoint("after_first");
+                    jdbcEntityManager.save(createTestEntity(2L, "Discarded"));
+                    jdbcEntityManager.flush();
+
+                    transaction.rollbackTo(savepoint);
+                    jdbcEntityManager.save(createTestEntity(3L, "Added"));
+                    transaction.commit();
+                }
+
+                List<TestEntity> all = jdbcEntityManager.findAll(TestEntity.class);
+                assertEquals(Arrays.asList(1L, 3L),
+                        all.stream().map(TestEntity::getId).sorted().collect(Collectors.toList()));
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldRejectWritesInReadOnlyTransaction(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = createJdbcEntityManager(databaseType)) {
+                jdbcEntityManager.save(createTestEntity(1L, "Stored"));
+
+                try (Transaction transaction = jdbcEntityManager.beginTransaction(true)) {
+                    assertTrue(transaction.isReadOnly());
+                    assertEquals("Stored", jdbcEntityManager.findById(TestEntity.class, 1L).getName());
+                    assertThrows(IllegalStateException.class,
+                            () -> jdbcEntityManager.save(createTestEntity(2L, "Rejected")));
+                    transaction.commit();
+                }
+
+                assertNull(jdbcEntityManager.findById(TestEntity.class, 2L));
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldLoadRelationsLazilyInBatches(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = openJdbcEntityManager(databaseType, createDatabaseUrl(databaseType))) {
+                jdbcEntityManager.createTable(AuthorEntity.class);
+                jdbcEntityManager.createTable(BookEntity.class);
+                jdbcEntityManager.save(new AuthorEntity(1L, "Author 1"));
+                jdbcEntityManager.save(new AuthorEntity(2L, "Author 2"));
+                jdbcEntityManager.save(new BookEntity(10L, "Book 10", 1L));
+                jdbcEntityManager.save(new BookEntity(11L, "Book 11", 2L));
+                jdbcEntityManager.save(new BookEntity(12L, "Book 12", 1L));
+                jdbcEntityManager.clear();
+
+                List<BookEntity> books = jdbcEntityManager.createQuery(BookEntity.class)
+                        .orderBy(Order.asc("id"))
+                        .getResultList();
+                assertTrue(books.stream().noneMatch(book -> book.getAuthor().isLoaded()));
+
+                // 1件目へのアクセスで、全ての書籍の著者をまとめて読み込む
+                AuthorEntity author = books.get(0).getAuthor().get();
+                assertEquals("Author 1", author.getName());
+                assertTrue(books.stream().allMatch(book -> book.getAuthor().isLoaded()));
+                assertSame(author, books.get(2).getAuthor().get());
+                assertSame(author, jdbcEntityManager.findById(AuthorEntity.class, 1L));
+
+                assertEquals(Arrays.asList(10L, 12L),
+                        author.getBooks().stream().map(BookEntity::getId).collect(Collectors.toList()));
+                assertSame(books.get(0), author.getBooks().get(0));
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldFetchRelationsWithQuery(DatabaseType databaseType) {
+            try (EntityManager jdbcEntityManager = openJdbcEntityManager(databaseType, createDatabaseUrl(databaseType))) {
+                jdbcEntityManager.createTable(AuthorEntity.class);
+                jdbcEntityManager.createTable(BookEntity.class);
+                jdbcEntityManager.save(new AuthorEntity(1L, "Author 1"));
+                jdbcEntityManager.save(new AuthorEntity(2L, "Author 2"));
+                jdbcEntityManager.save(new BookEntity(10L, "Book 10", 1L));
+                jdbcEntityManager.clear();
+
+                List<AuthorEntity> authors = jdbcEntityManager.createQuery(AuthorEntity.class)
+                        .fetch("books")
+                        .orderBy(Order.asc("id"))
+                        .getResultList();
+
+                assertEquals(1, authors.get(0).getBooks().size());
+                assertTrue(authors.get(1).getBooks().isEmpty());
+                assertThrows(IllegalArgumentException.class,
+                        () -> jdbcEntityManager.createQuery(AuthorEntity.class).fetch("name"));
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldRejectConflictingFlushWithOptimisticLock(DatabaseType databaseType) {
+            String url = createDatabaseUrl(databaseType);
+            try (EntityManager first = openJdbcEntityManager(databaseType, url);
+                    EntityManager second = openJdbcEntityManager(databaseType, url)) {
+                first.createTable(AccountEntity.class);
+                AccountEntity account = new AccountEntity(1L, "Alice", 100L);
+                first.save(account);
+                assertEquals(0L, account.getVersion());
+
+                AccountEntity other = second.findById(AccountEntity.class, 1L);
+                account.setBalance(150L);
+                first.flush();
+                assertEquals(1L, account.getVersion());
+
+                // 読み込んだ後に進んだバージョンとは一致しないので、更新せずに例外とする
+                other.setBalance(50L);
+                assertThrows(OptimisticLockException.class, second::flush);
+                assertEquals(0L, other.getVersion());
+
+                second.clear();
+                AccountEntity reloaded = second.findById(AccountEntity.class, 1L);
+                assertEquals(150L, reloaded.getBalance());
+                assertEquals(1L, reloaded.getVersion());
+                reloaded.setBalance(80L);
+                second.flush();
+                assertEquals(2L, reloaded.getVersion());
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(DatabaseType.class)
+        void shouldRejectStaleDetachedSaveWithOptimisticLock(DatabaseType databaseType) {
+            String url = createDatabaseUrl(databaseType);
+            try (EntityManager first = openJdbcEntityManager(databaseType, url);
+                    EntityManager second = openJdbcEntityManager(databaseType, url);
+                    EntityManager third = openJdbcEntityManager(databaseType, url)) {
+                first.createTable(AccountEntity.class);
+                first.saveAll(Arrays.asList(new AccountEntity(1L, "Alice", 100L), new AccountEntity(2L, "Bob", 100L)));
+
+                // 管理対象でないエンティティはUPSERTではなく、バージョンを条件にしたUPDATEで書き込む
+                AccountEntity copy = new AccountEntity(1L, "Alice", 120L);
+                copy.setVersion(0L);
+                second.save(copy);
+                assertEquals(1L, copy.getVersion());
+
+                AccountEntity stale = new AccountEntity(1L, "Alice", 999L);
+                stale.setVersion(0L);
+                assertThrows(OptimisticLockException.class, () -> third.save(stale));
+
+                // 同じ主キーの新規のエンティティは重複として失敗し、バージョンは未設定に戻す
+                AccountEntity duplicate = new AccountEntity(2L, "Carol", 0L);
+                assertThrows(RuntimeException.class, () -> third.save(duplicate));
+                assertNull(duplicate.getVersion());
+
+                first.clear();
+                assertEquals(120L, first.findById(AccountEntity.class, 1L).getBalance());
+                assertEquals("Bob", first.findById(AccountEntity.class, 2L).getOwner());
+            }
+        }
+    }
+}
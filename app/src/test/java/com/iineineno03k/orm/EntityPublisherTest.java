@@ -0,0 +1,222 @@
+package com.iineineno03k.orm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * EntityPublisherのテストクラス
+ * 行の受け渡しを呼び出し元のスレッドで行い、要求と受け渡しの順序を確認する
+ */
+@DisplayName("EntityPublisher のテスト")
+public class EntityPublisherTest {
+    private static final Executor DIRECT = Runnable::run;
+
+    private AtomicInteger opened;
+    private AtomicInteger closed;
+    private AtomicInteger read;
+
+    @BeforeEach
+    void setUp() {
+        opened = new AtomicInteger();
+        closed = new AtomicInteger();
+        read = new AtomicInteger();
+    }
+
+    private EntityPublisher<Integer> createPublisher(int count) {
+        return new EntityPublisher<>(() -> {
+            opened.incrementAndGet();
+            return IntStream.rangeClosed(1, count).boxed()
+                    .peek(i -> read.incrementAndGet())
+                    .onClose(closed::incrementAndGet);
+        }, DIRECT);
+    }
+
+    @Test
+    @DisplayName("要求された件数だけ渡し、最後の行を渡した時点で完了する")
+    void shouldEmitOnlyRequestedItems() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        createPublisher(5).subscribe(subscriber);
+
+        // 要求されるまでStreamを開かない
+        assertEquals(0, opened.get());
+
+        subscriber.subscription.request(2);
+        assertEquals(List.of(1, 2), subscriber.items);
+        // 完了を判定するため1行だけ先読みする
+        assertEquals(3, read.get());
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(3);
+        assertEquals(List.of(1, 2, 3, 4, 5), subscriber.items);
+        assertTrue(subscriber.completed);
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    @DisplayName("取り消すとStreamを閉じ、以降は渡さない")
+    void shouldCloseStreamOnCancel() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        createPublisher(5).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(10);
+
+        assertEquals(List.of(1), subscriber.items);
+        assertFalse(subscriber.completed);
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    @DisplayName("0以下の件数を要求するとエラーで終了する")
+    void shouldFailOnNonPositiveRequest() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        createPublisher(5).subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(subscriber.items.isEmpty());
+    }
+
+    @Test
+    @DisplayName("onNextの中から要求しても再帰せずに全件を渡す")
+    void shouldNotRecurseWhenRequestingFromOnNext() {
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(Integer item) {
+                super.onNext(item);
+                subscription.request(1);
+            }
+        };
+        createPublisher(10_000).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+
+        assertEquals(10_000, subscriber.items.size());
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    @DisplayName("空の結果はすぐに完了する")
+    void shouldCompleteEmptyResult() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new EntityPublisher<Integer>(Stream::empty, DIRECT).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+
+        assertTrue(subscriber.completed);
+        assertThrows(NullPointerException.class, () -> createPublisher(1).subscribe(null));
+    }
+
+    @Test
+    @DisplayName("onNextが例外を投げると取り消したものとして扱い、onErrorは呼ばない")
+    void shouldCancelWithoutOnErrorWhenOnNextThrows() {
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(Integer item) {
+                super.onNext(item);
+                throw new IllegalStateException("Subscriber failure");
+            }
+        };
+        createPublisher(5).subscribe(subscriber);
+
+        subscriber.subscription.request(3);
+        subscriber.subscription.request(1);
+
+        assertEquals(List.of(1), subscriber.items);
+        assertNull(subscriber.error);
+        assertFalse(subscriber.completed);
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    @DisplayName("Streamの例外はStreamを閉じてonErrorで通知する")
+    void shouldSignalSourceFailureToOnError() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new EntityPublisher<Integer>(() -> Stream.of(1, 2, 3)
+                .peek(i -> {
+                    if (i == 2) {
+                        throw new IllegalStateException("Read failure");
+                    }
+                })
+                .onClose(closed::incrementAndGet), DIRECT).subscribe(subscriber);
+
+        subscriber.subscription.request(5);
+
+        assertEquals(List.of(1), subscriber.items);
+        assertTrue(subscriber.error instanceof IllegalStateException);
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    @DisplayName("Executorに拒否された場合はStreamを閉じてエラーで終了し、以降の要求も受け付けられる")
+    void shouldFailOnceWhenExecutorRejects() {
+        AtomicInteger executions = new AtomicInteger();
+        Executor rejectSecond = task -> {
+            if (executions.incrementAndGet() == 2) {
+                throw new RejectedExecutionException("Executor is shut down");
+            }
+            task.run();
+        };
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new EntityPublisher<>(() -> IntStream.rangeClosed(1, 5).boxed().onClose(closed::incrementAndGet),
+                rejectSecond).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        subscriber.subscription.request(1);
+        Throwable error = subscriber.error;
+        subscriber.subscription.request(1);
+
+        assertEquals(List.of(1), subscriber.items);
+        assertTrue(error instanceof RejectedExecutionException);
+        assertSame(error, subscriber.error);
+        assertEquals(1, closed.get());
+        // wipが戻っているため、3回目の要求でもdrainを起動する
+        assertEquals(3, executions.get());
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<Integer> {
+        final List<Integer> items = new ArrayList<>();
+        Flow.Subscription subscription;
+        boolean completed;
+        Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
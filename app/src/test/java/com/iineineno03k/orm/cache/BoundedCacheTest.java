@@ -0,0 +1,111 @@
+package com.iineineno03k.orm.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * BoundedCacheのテストクラス
+ */
+@DisplayName("BoundedCache のテスト")
+public class BoundedCacheTest {
+
+    @Test
+    @DisplayName("LRUでは最後のアクセスが最も古いエントリを追い出す")
+    void shouldEvictLeastRecentlyUsedEntry() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(2, 0, TimeUnit.SECONDS, EvictionPolicy.LRU);
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.get(1L);
+
+        cache.put(3L, "three");
+
+        assertEquals("one", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals("three", cache.get(3L));
+        assertEquals(1, cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("LFUではアクセス回数が最も少ないエントリを追い出す")
+    void shouldEvictLeastFrequentlyUsedEntry() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(2, 0, TimeUnit.SECONDS, EvictionPolicy.LFU);
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(2L);
+
+        // 3は追加直後に追い出されず、回数の少ない2が追い出される
+        cache.put(3L, "three");
+        assertNull(cache.get(2L));
+
+        // 3(1回)と1(3回)では3が追い出される
+        cache.put(4L, "four");
+        assertEquals("one", cache.get(1L));
+        assertNull(cache.get(3L));
+        assertEquals("four", cache.get(4L));
+        assertEquals(2, cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("有効期間を過ぎたエントリは取得時に破棄する")
+    void shouldExpireEntriesAfterTtl() {
+        AtomicLong now = new AtomicLong();
+        BoundedCache<Long, String> cache = new BoundedCache<>(10, 5, TimeUnit.SECONDS, EvictionPolicy.LRU, now::get);
+        cache.put(1L, "one");
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        assertEquals("one", cache.get(1L));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getStatistics().getExpirationCount());
+    }
+
+    @Test
+    @DisplayName("ヒットとミスを数える")
+    void shouldCountHitsAndMisses() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(10, 0, TimeUnit.SECONDS, EvictionPolicy.LRU);
+        cache.put(1L, "one");
+
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(2L);
+        cache.invalidate(1L);
+        cache.get(1L);
+
+        CacheStatistics statistics = cache.getStatistics();
+        assertEquals(2, statistics.getHitCount());
+        assertEquals(2, statistics.getMissCount());
+        assertEquals(0.5, statistics.getHitRate());
+    }
+
+    @Test
+    @DisplayName("既存のキーを置き換えても追い出さない")
+    void shouldReplaceWithoutEviction() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(1, 0, TimeUnit.SECONDS, EvictionPolicy.LFU);
+        cache.put(1L, "one");
+        cache.put(1L, "uno");
+
+        assertEquals("uno", cache.get(1L));
+        assertEquals(1, cache.size());
+        assertEquals(0, cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("不正な設定は例外を投げる")
+    void shouldRejectInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BoundedCache<Long, String>(0, 0, TimeUnit.SECONDS, EvictionPolicy.LRU));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BoundedCache<Long, String>(1, 0, TimeUnit.SECONDS, null));
+    }
+}
@@ -0,0 +1,80 @@
+package com.iineineno03k.orm.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * QueryCacheのテストクラス
+ */
+@DisplayName("QueryCache のテスト")
+public class QueryCacheTest {
+    private static final String SQL = "SELECT id, name FROM countries WHERE name = ?";
+
+    @Test
+    @DisplayName("SQLとパラメータが同じ問い合わせの結果を返す")
+    void shouldReturnResultForSameSqlAndParameters() {
+        QueryCache cache = new QueryCache();
+        cache.put("countries", cache.generation("countries"), SQL, new Object[] { "Japan" }, Arrays.asList(1L, 2L));
+
+        assertEquals(Arrays.asList(1L, 2L), cache.get("countries", SQL, "Japan"));
+        assertNull(cache.get("countries", SQL, "France"));
+    }
+
+    @Test
+    @DisplayName("空白の違いは同じSQLとして扱う")
+    void shouldNormalizeWhitespace() {
+        QueryCache cache = new QueryCache();
+        cache.put("countries", cache.generation("countries"), SQL, new Object[] { "Japan" }, Arrays.asList(1L));
+
+        assertEquals(Arrays.asList(1L),
+                cache.get("countries", "  SELECT id,  name\n FROM countries\tWHERE name = ? ", "Japan"));
+        assertEquals("SELECT a FROM t", QueryCache.normalize("\n SELECT   a\r\nFROM t  "));
+    }
+
+    @Test
+    @DisplayName("テーブルを無効化すると、そのテーブルの結果だけを使わなくなる")
+    void shouldInvalidatePerTable() {
+        QueryCache cache = new QueryCache();
+        cache.put("countries", cache.generation("countries"), SQL, null, Arrays.asList(1L));
+        cache.put("products", cache.generation("products"), "SELECT id FROM products", null, Arrays.asList(2L));
+
+        cache.invalidate("countries");
+
+        assertNull(cache.get("countries", SQL));
+        assertEquals(Arrays.asList(2L), cache.get("products", "SELECT id FROM products"));
+    }
+
+    @Test
+    @DisplayName("問い合わせ中に無効化された結果はキャッシュしない")
+    void shouldNotCacheResultsInvalidatedDuringQuery() {
+        QueryCache cache = new QueryCache();
+        long generation = cache.generation("countries");
+
+        cache.invalidate("countries");
+        cache.put("countries", generation, SQL, null, Arrays.asList(1L));
+
+        assertNull(cache.get("countries", SQL));
+    }
+
+    @Test
+    @DisplayName("上限を超える結果や問い合わせはキャッシュしない")
+    void shouldRespectMemoryCaps() {
+        QueryCache cache = new QueryCache(1, 2);
+        List<Object> large = Arrays.asList(1L, 2L, 3L);
+
+        cache.put("countries", cache.generation("countries"), SQL, new Object[] { "large" }, large);
+        assertNull(cache.get("countries", SQL, "large"));
+
+        cache.put("countries", cache.generation("countries"), SQL, new Object[] { "first" }, Arrays.asList(1L));
+        cache.put("countries", cache.generation("countries"), SQL, new Object[] { "second" }, Arrays.asList(2L));
+        assertNull(cache.get("countries", SQL, "first"));
+        assertEquals(Arrays.asList(2L), cache.get("countries", SQL, "second"));
+        assertEquals(1, cache.getStatistics().getEvictionCount());
+    }
+}
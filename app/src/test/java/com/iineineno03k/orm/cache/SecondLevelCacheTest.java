@@ -0,0 +1,126 @@
+package com.iineineno03k.orm.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iineineno03k.orm.testentity.AttachmentEntity;
+import com.iineineno03k.orm.testentity.CountryEntity;
+import com.iineineno03k.orm.testentity.TestEntity;
+
+/**
+ * SecondLevelCacheのテストクラス
+ */
+@DisplayName("SecondLevelCache のテスト")
+public class SecondLevelCacheTest {
+
+    @Test
+    @DisplayName("キャッシュした値から新しいインスタンスを組み立てる")
+    void shouldReturnCopiesOfCachedEntities() {
+        SecondLevelCache cache = new SecondLevelCache();
+        CountryEntity japan = new CountryEntity(1L, "Japan", "JP");
+        cache.put(japan, cache.generation(CountryEntity.class));
+
+        // キャッシュ後の変更はキャッシュに影響しない
+        japan.setName("Changed");
+        CountryEntity cached = cache.get(CountryEntity.class, 1L);
+
+        assertNotSame(japan, cached);
+        assertEquals("Japan", cached.getName());
+        assertEquals("JP", cached.getIsoCode());
+        assertNotSame(cached, cache.get(CountryEntity.class, 1L));
+        assertEquals(2, cache.getStatistics(CountryEntity.class).getHitCount());
+    }
+
+    @Test
+    @DisplayName("日時や配列の値は複製し、インスタンス間で共有しない")
+    void shouldCopyMutableValues() {
+        SecondLevelCache cache = new SecondLevelCache();
+        Timestamp expected = new Timestamp(1000L);
+        expected.setNanos(123456789);
+        Timestamp updatedAt = (Timestamp) expected.clone();
+        byte[] content = { 1, 2, 3 };
+        cache.put(new AttachmentEntity(1L, updatedAt, content), cache.generation(AttachmentEntity.class));
+
+        // キャッシュ後に元の値を変更してもキャッシュに影響しない
+        updatedAt.setTime(2000L);
+        content[0] = 9;
+        AttachmentEntity first = cache.get(AttachmentEntity.class, 1L);
+        // 取得したインスタンスの値を変更しても他のインスタンスに影響しない
+        first.getUpdatedAt().setTime(3000L);
+        first.getContent()[1] = 9;
+        AttachmentEntity second = cache.get(AttachmentEntity.class, 1L);
+
+        assertEquals(expected, second.getUpdatedAt());
+        assertEquals("[1, 2, 3]", Arrays.toString(second.getContent()));
+        assertNotSame(first.getContent(), second.getContent());
+    }
+
+    @Test
+    @DisplayName("@Cacheableのないエンティティはキャッシュしない")
+    void shouldIgnoreNonCacheableEntities() {
+        SecondLevelCache cache = new SecondLevelCache();
+        TestEntity entity = new TestEntity();
+        entity.setId(1L);
+        cache.put(entity, cache.generation(TestEntity.class));
+
+        assertTrue(cache.isCacheable(CountryEntity.class));
+        assertFalse(cache.isCacheable(TestEntity.class));
+        assertNull(cache.get(TestEntity.class, 1L));
+        assertEquals(0, cache.getStatistics(TestEntity.class).getMissCount());
+    }
+
+    @Test
+    @DisplayName("アノテーションの最大数を超えると追い出す")
+    void shouldApplyAnnotationSettings() {
+        SecondLevelCache cache = new SecondLevelCache();
+        cache.put(new CountryEntity(1L, "Japan", "JP"), 0);
+        cache.put(new CountryEntity(2L, "France", "FR"), 0);
+        cache.put(new CountryEntity(3L, "Brazil", "BR"), 0);
+
+        assertNull(cache.get(CountryEntity.class, 1L));
+        assertEquals(1, cache.getStatistics(CountryEntity.class).getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("破棄したエントリは取得できない")
+    void shouldEvictEntries() {
+        SecondLevelCache cache = new SecondLevelCache();
+        cache.put(new CountryEntity(1L, "Japan", "JP"), 0);
+        cache.put(new CountryEntity(2L, "France", "FR"), 0);
+
+        cache.evict(CountryEntity.class, 1L);
+        assertNull(cache.get(CountryEntity.class, 1L));
+        assertEquals("France", cache.get(CountryEntity.class, 2L).getName());
+
+        cache.evictAll();
+        assertNull(cache.get(CountryEntity.class, 2L));
+    }
+
+    @Test
+    @DisplayName("読み込み中に破棄された場合は古い値をキャッシュしない")
+    void shouldNotCacheRowsLoadedBeforeEviction() {
+        SecondLevelCache cache = new SecondLevelCache();
+        cache.put(new CountryEntity(1L, "Japan", "JP"), 0);
+
+        // 読み込みを開始した後に、並行する書き込みが同じエンティティを破棄する
+        long generation = cache.generation(CountryEntity.class);
+        CountryEntity loaded = new CountryEntity(1L, "Japan", "JP");
+        cache.evict(CountryEntity.class, 1L);
+        cache.put(loaded, generation);
+
+        assertNull(cache.get(CountryEntity.class, 1L));
+
+        // 破棄の後に読み込んだ行はキャッシュする
+        cache.put(new CountryEntity(1L, "Nippon", "JP"), cache.generation(CountryEntity.class));
+        assertEquals("Nippon", cache.get(CountryEntity.class, 1L).getName());
+    }
+}
@@ -0,0 +1,151 @@
+package com.iineineno03k.orm.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ConnectionPoolのテストクラス
+ */
+@DisplayName("ConnectionPool のテスト")
+public class ConnectionPoolTest {
+    private static final String URL = "jdbc:h2:mem:pool_test;DB_CLOSE_DELAY=-1";
+
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Nested
+    @DisplayName("接続の払い出しと返却のテスト")
+    class AcquireReleaseTest {
+        @Test
+        @DisplayName("最小数のアイドル接続が事前に作成される")
+        void shouldPrefillMinimumIdleConnections() {
+            pool = ConnectionPool.create(URL, "sa", "", new PoolConfig(2, 5, 1000, 0));
+
+            assertEquals(2, pool.getIdleCount());
+            assertEquals(0, pool.getActiveCount());
+        }
+
+        @Test
+        @DisplayName("返却した物理接続が再利用される")
+        void shouldReuseReleasedConnection() throws SQLException {
+            pool = ConnectionPool.create(URL, "sa", "", new PoolConfig(0, 2, 1000, 0));
+
+            Connection first;
+            try (PooledConnection pooled = pool.acquire()) {
+                first = pooled.getConnection();
+                assertEquals(1, pool.getActiveCount());
+            }
+            try (PooledConnection pooled = pool.acquire()) {
+                assertSame(first, pooled.getConnection());
+            }
+            assertEquals(0, pool.getActiveCount());
+            assertEquals(1, pool.getIdleCount());
+        }
+
+        @Test
+        @DisplayName("返却後もPreparedStatementのキャッシュが引き継がれる")
+        void shouldKeepStatementCacheAcrossLeases() throws SQLException {
+            pool = ConnectionPool.create(URL, "sa", "", new PoolConfig(0, 1, 1000, 0, 8));
+
+            PreparedStatement first;
+            try (PooledConnection pooled = pool.acquire()) {
+                first = pooled.prepareStatement("SELECT 1");
+            }
+            try (PooledConnection pooled = pool.acquire()) {
+                assertSame(first, pooled.prepareStatement("SELECT 1"));
+            }
+        }
+
+        @Test
+        @DisplayName("最大数まで払い出し済みの場合はタイムアウトする")
+        void shouldTimeoutWhenPoolIsExhausted() throws SQLException {
+            pool = ConnectionPool.create(URL, "sa", "", new PoolConfig(0, 1, 50, 0));
+
+            try (PooledConnection pooled = pool.acquire()) {
+                assertThrows(SQLTimeoutException.class, () -> pool.acquire());
+            }
+            try (PooledConnection pooled = pool.acquire()) {
+                assertEquals(1, pool.getActiveCount());
+            }
+        }
+
+        @Test
+        @DisplayName("未完了のトランザクションは返却時にロールバックされる")
+        void shouldResetAutoCommitOnRelease() throws SQLException {
+            pool = ConnectionPool.create(URL, "sa", "", new PoolConfig(0, 1, 1000, 0));
+
+            try (PooledConnection pooled = pool.acquire()) {
+                pooled.getConnection().setAutoCommit(false);
+            }
+            try (PooledConnection pooled = pool.acquire()) {
+                assertTrue(pooled.getConnection().getAutoCommit());
+            }
+        }
+
+        @Test
+        @DisplayName("閉じたプールからは取得できない")
+        void shouldRejectAcquireAfterClose() {
+            pool = ConnectionPool.create(URL, "sa", "", new PoolConfig(1, 1, 1000, 0));
+            pool.close();
+
+            assertThrows(SQLException.class, () -> pool.acquire());
+            assertEquals(0, pool.getIdleCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("アイドル接続の破棄のテスト")
+    class EvictionTest {
+        @Test
+        @DisplayName("タイムアウトしたアイドル接続を最小数まで破棄する")
+        void shouldEvictIdleConnectionsDownToMinimum() throws Exception {
+            pool = ConnectionPool.create(URL, "sa", "", new PoolConfig(1, 3, 1000, 10));
+
+            PooledConnection first = pool.acquire();
+            PooledConnection second = pool.acquire();
+            PooledConnection third = pool.acquire();
+            first.close();
+            second.close();
+            third.close();
+
+            Thread.sleep(50);
+            pool.evictIdleConnections();
+
+            assertEquals(1, pool.getIdleCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("PoolConfig のテスト")
+    class PoolConfigTest {
+        @Test
+        @DisplayName("最小数が最大数を超える場合は例外を投げる")
+        void shouldRejectMinGreaterThanMax() {
+            assertThrows(IllegalArgumentException.class, () -> new PoolConfig(5, 2, 1000, 0));
+        }
+
+        @Test
+        @DisplayName("最大数が0以下の場合は例外を投げる")
+        void shouldRejectNonPositiveMax() {
+            assertThrows(IllegalArgumentException.class, () -> new PoolConfig(0, 0, 1000, 0));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.iineineno03k.orm.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iineineno03k.orm.testentity.TestEntity;
+
+/**
+ * EntityRowMapperのテストクラス
+ */
+@DisplayName("EntityRowMapper のテスト")
+public class EntityRowMapperTest {
+
+    @Test
+    @DisplayName("同じSQLのカラムの対応は一度だけ解決する")
+    void shouldResolveColumnsOncePerSql() throws Exception {
+        EntityRowMapper<TestEntity> mapper = new EntityRowMapper<>(TestEntity.class);
+        AtomicInteger metaDataCalls = new AtomicInteger();
+        ResultSet resultSet = resultSet(metaDataCalls, "ID", "ENTITY_NAME");
+
+        int[] first = mapper.resolveColumns("SELECT id, entity_name FROM test_entities", resultSet);
+        int[] second = mapper.resolveColumns("SELECT id, entity_name FROM test_entities", resultSet);
+        int[] other = mapper.resolveColumns("SELECT entity_name, id FROM test_entities",
+                resultSet(metaDataCalls, "entity_name", "id"));
+
+        assertEquals(Arrays.toString(new int[] { 0, 1 }), Arrays.toString(first));
+        assertSame(first, second);
+        assertEquals(Arrays.toString(new int[] { 1, 0 }), Arrays.toString(other));
+        assertEquals(2, metaDataCalls.get());
+    }
+
+    private static ResultSet resultSet(AtomicInteger metaDataCalls, String... labels) {
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+                ResultSetMetaData.class.getClassLoader(), new Class<?>[] { ResultSetMetaData.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getColumnCount":
+                            return labels.length;
+                        case "getColumnLabel":
+                            return labels[(Integer) args[0] - 1];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getMetaData")) {
+                        metaDataCalls.incrementAndGet();
+                        return metaData;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,71 @@
+package com.iineineno03k.orm.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * JdbcSupportのテストクラス
+ */
+@DisplayName("JdbcSupport のテスト")
+public class JdbcSupportTest {
+
+    @DisplayName("方言ごとのプレースホルダーをJDBC形式に変換する")
+    @ParameterizedTest(name = "{0} => {1}")
+    @MethodSource("placeholderProvider")
+    void shouldConvertPlaceholders(String sql, String expected) {
+        assertEquals(expected, JdbcSupport.toJdbcSql(sql));
+    }
+
+    static Stream<Arguments> placeholderProvider() {
+        return Stream.of(
+            Arguments.of("SELECT * FROM t WHERE id = ?", "SELECT * FROM t WHERE id = ?"),
+            Arguments.of("SELECT * FROM t WHERE id = $1", "SELECT * FROM t WHERE id = ?"),
+            Arguments.of("UPDATE t SET a = $1, b = $2 WHERE id = $10", "UPDATE t SET a = ?, b = ? WHERE id = ?"),
+            Arguments.of("DELETE FROM t WHERE id = :1", "DELETE FROM t WHERE id = ?"),
+            Arguments.of("SELECT * FROM t WHERE a = ':1' AND b = :2", "SELECT * FROM t WHERE a = ':1' AND b = ?"),
+            Arguments.of("CREATE TABLE t (id BIGINT);", "CREATE TABLE t (id BIGINT)")
+        );
+    }
+
+    @Test
+    @DisplayName("nullはフィールドの型に対応するSQLの型でバインドする")
+    void shouldBindNullWithSqlTypeOfField() throws Exception {
+        List<String> calls = new ArrayList<>();
+        PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(), new Class<?>[] { PreparedStatement.class },
+                (proxy, method, args) -> {
+                    calls.add(method.getName() + Arrays.toString(args));
+                    return null;
+                });
+
+        JdbcSupport.bind(statement, 1, null, String.class);
+        JdbcSupport.bind(statement, 2, null, Long.class);
+        JdbcSupport.bind(statement, 3, null, Date.class);
+        JdbcSupport.bind(statement, 4, null, BigDecimal.class);
+        JdbcSupport.bind(statement, 5, null);
+        JdbcSupport.bind(statement, 6, "value", String.class);
+
+        assertEquals(Arrays.asList(
+                "setNull[1, " + Types.VARCHAR + "]",
+                "setNull[2, " + Types.BIGINT + "]",
+                "setNull[3, " + Types.TIMESTAMP + "]",
+                "setNull[4, " + Types.DECIMAL + "]",
+                "setNull[5, " + Types.NULL + "]",
+                "setObject[6, value]"), calls);
+    }
+}
@@ -0,0 +1,98 @@
+package com.iineineno03k.orm.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * StatementCacheのテストクラス
+ */
+@DisplayName("StatementCache のテスト")
+public class StatementCacheTest {
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:statement_cache_test;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    @DisplayName("同じSQLに対して同じPreparedStatementを返す")
+    void shouldReuseStatementForSameSql() throws SQLException {
+        StatementCache cache = new StatementCache(2);
+
+        PreparedStatement first = cache.prepare(connection, "SELECT 1");
+        PreparedStatement second = cache.prepare(connection, "SELECT 1");
+
+        assertSame(first, second);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("上限を超えると最も長く使われていない文を閉じる")
+    void shouldEvictLeastRecentlyUsedStatement() throws SQLException {
+        StatementCache cache = new StatementCache(2);
+
+        PreparedStatement first = cache.prepare(connection, "SELECT 1");
+        PreparedStatement second = cache.prepare(connection, "SELECT 2");
+        // SELECT 1 を最近使ったことにする
+        cache.prepare(connection, "SELECT 1");
+        cache.prepare(connection, "SELECT 3");
+
+        assertEquals(2, cache.size());
+        assertTrue(second.isClosed());
+        assertFalse(first.isClosed());
+        assertSame(first, cache.prepare(connection, "SELECT 1"));
+    }
+
+    @Test
+    @DisplayName("上限が0の場合はキャッシュせず返却時に閉じる")
+    void shouldNotCacheWhenSizeIsZero() throws SQLException {
+        StatementCache cache = new StatementCache(0);
+
+        PreparedStatement first = cache.prepare(connection, "SELECT 1");
+        PreparedStatement second = cache.prepare(connection, "SELECT 1");
+        assertNotSame(first, second);
+        assertEquals(0, cache.size());
+
+        cache.releaseUncached();
+        assertTrue(first.isClosed());
+        assertTrue(second.isClosed());
+    }
+
+    @Test
+    @DisplayName("clearですべての文を閉じる")
+    void shouldCloseAllStatementsOnClear() throws SQLException {
+        StatementCache cache = new StatementCache(4);
+        PreparedStatement statement = cache.prepare(connection, "SELECT 1");
+
+        cache.clear();
+
+        assertTrue(statement.isClosed());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("負の上限は受け付けない")
+    void shouldRejectNegativeSize() {
+        assertThrows(IllegalArgumentException.class, () -> new StatementCache(-1));
+    }
+}
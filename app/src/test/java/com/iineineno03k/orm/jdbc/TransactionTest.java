@@ -0,0 +1,160 @@
+package com.iineineno03k.orm.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Transactionのテストクラス
+ */
+@DisplayName("Transaction のテスト")
+public class TransactionTest {
+    private static final String URL = "jdbc:h2:mem:transaction_test;DB_CLOSE_DELAY=-1";
+
+    private ConnectionPool pool;
+    private List<String> events;
+    private TransactionSynchronization synchronization;
+
+    @BeforeEach
+    void setUp() {
+        pool = ConnectionPool.create(URL, "sa", "", new PoolConfig(0, 2, 1000, 0));
+        events = new ArrayList<>();
+        synchronization = new TransactionSynchronization() {
+            @Override
+            public void flush() {
+                events.add("flush");
+            }
+
+            @Override
+            public void afterRollbackToSavepoint() {
+                events.add("afterRollbackToSavepoint");
+            }
+
+            @Override
+            public void afterCompletion(boolean committed) {
+                events.add("afterCompletion:" + committed);
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("トランザクション中は同じスレッドに同じ接続が払い出される")
+    void shouldBindConnectionToThread() throws SQLException {
+        try (Transaction transaction = pool.begin(false, synchronization)) {
+            Connection bound;
+            try (PooledConnection pooled = pool.acquire()) {
+                bound = pooled.getConnection();
+                assertFalse(bound.getAutoCommit());
+            }
+            try (PooledConnection pooled = pool.acquire()) {
+                assertSame(bound, pooled.getConnection());
+            }
+            assertEquals(1, pool.getActiveCount());
+            assertSame(transaction, pool.getCurrentTransaction());
+            transaction.commit();
+        }
+        assertNull(pool.getCurrentTransaction());
+        assertEquals(0, pool.getActiveCount());
+        try (PooledConnection pooled = pool.acquire()) {
+            assertTrue(pooled.getConnection().getAutoCommit());
+        }
+    }
+
+    @Test
+    @DisplayName("コミットの前に保留中の書き込みを送信する")
+    void shouldFlushBeforeCommit() throws SQLException {
+        Transaction transaction = pool.begin(false, synchronization);
+        transaction.commit();
+
+        assertEquals(List.of("flush", "afterCompletion:true"), events);
+        assertFalse(transaction.isActive());
+        assertThrows(IllegalStateException.class, transaction::commit);
+    }
+
+    @Test
+    @DisplayName("送信に失敗した場合はロールバックする")
+    void shouldRollbackWhenFlushFails() throws SQLException {
+        Transaction transaction = pool.begin(false, new TransactionSynchronization() {
+            @Override
+            public void flush() {
+                throw new IllegalStateException("flush failed");
+            }
+
+            @Override
+            public void afterRollbackToSavepoint() {
+            }
+
+            @Override
+            public void afterCompletion(boolean committed) {
+                events.add("afterCompletion:" + committed);
+            }
+        });
+
+        assertThrows(IllegalStateException.class, transaction::commit);
+        assertEquals(List.of("afterCompletion:false"), events);
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    @Test
+    @DisplayName("コミットせずに閉じるとロールバックする")
+    void shouldRollbackOnClose() throws SQLException {
+        try (Transaction transaction = pool.begin(false, synchronization)) {
+            assertTrue(transaction.isActive());
+        }
+
+        assertEquals(List.of("afterCompletion:false"), events);
+        assertNull(pool.getCurrentTransaction());
+    }
+
+    @Test
+    @DisplayName("同じスレッドで入れ子のトランザクションは開始できない")
+    void shouldRejectNestedTransaction() throws SQLException {
+        try (Transaction transaction = pool.begin(false, null)) {
+            assertThrows(IllegalStateException.class, () -> pool.begin(false, null));
+        }
+    }
+
+    @Test
+    @DisplayName("読み取り専用の指定は終了時に解除される")
+    void shouldResetReadOnlyAfterCompletion() throws SQLException {
+        Connection connection;
+        try (Transaction transaction = pool.begin(true, null)) {
+            assertTrue(transaction.isReadOnly());
+            try (PooledConnection pooled = pool.acquire()) {
+                connection = pooled.getConnection();
+                assertTrue(connection.isReadOnly());
+            }
+        }
+        assertFalse(connection.isReadOnly());
+    }
+
+    @Test
+    @DisplayName("セーブポイントの作成前に送信し、ロールバック後に通知する")
+    void shouldNotifySavepointRollback() throws SQLException {
+        try (Transaction transaction = pool.begin(false, synchronization)) {
+            transaction.rollbackTo(transaction.setSavepoint("before_update"));
+            assertThrows(IllegalArgumentException.class, () -> transaction.setSavepoint(""));
+            transaction.commit();
+        }
+
+        assertEquals(List.of("flush", "afterRollbackToSavepoint", "flush", "afterCompletion:true"), events);
+    }
+}
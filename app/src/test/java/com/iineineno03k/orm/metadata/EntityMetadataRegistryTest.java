@@ -0,0 +1,145 @@
+package com.iineineno03k.orm.metadata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iineineno03k.orm.annotation.Entity;
+import com.iineineno03k.orm.annotation.Id;
+import com.iineineno03k.orm.metadata.warmup.WarmUpEntity;
+import com.iineineno03k.orm.metadata.warmup.nested.NestedWarmUpEntity;
+import com.iineineno03k.orm.testentity.AccountEntity;
+import com.iineineno03k.orm.testentity.AuthorEntity;
+import com.iineineno03k.orm.testentity.NonEntity;
+import com.iineineno03k.orm.testentity.ProductEntity;
+import com.iineineno03k.orm.testentity.TestEntity;
+
+/**
+ * EntityMetadataRegistryのテストクラス
+ */
+@DisplayName("EntityMetadataRegistry のテスト")
+public class EntityMetadataRegistryTest {
+
+    @Test
+    @DisplayName("MetadataProcessorのインスタンスをまたいで同じメタデータを返す")
+    void shouldShareMetadataAcrossProcessors() {
+        EntityMetadata first = new MetadataProcessor().processEntity(TestEntity.class);
+        EntityMetadata second = new MetadataProcessor().processEntity(TestEntity.class);
+
+        assertSame(first, second);
+        assertSame(first, EntityMetadataRegistry.get(TestEntity.class));
+    }
+
+    @Test
+    @DisplayName("生成されたメタデータから組み立てた内容はリフレクションで解析した内容と一致する")
+    void shouldBuildSameMetadataFromGeneratedMetadata() {
+        for (Class<?> entityClass : new Class<?>[] {
+                TestEntity.class, ProductEntity.class, AccountEntity.class, AuthorEntity.class }) {
+            assertNotNull(GeneratedMetadataRegistry.find(entityClass));
+            EntityMetadata generated = EntityMetadataRegistry.get(entityClass);
+            EntityMetadata reflected = new EntityMetadata(entityClass);
+
+            assertEquals(reflected.getTableName(), generated.getTableName());
+            assertEquals(reflected.getColumnNames(), generated.getColumnNames());
+            assertEquals(reflected.getIdColumnName(), generated.getIdColumnName());
+            assertEquals(reflected.getFieldMetadataMap().keySet(), generated.getFieldMetadataMap().keySet());
+            assertEquals(reflected.getVersionField() == null ? null : reflected.getVersionField().getColumnName(),
+                    generated.getVersionField() == null ? null : generated.getVersionField().getColumnName());
+            assertEquals(relationNames(reflected), relationNames(generated));
+        }
+    }
+
+    private static List<String> relationNames(EntityMetadata metadata) {
+        return metadata.getRelations().stream().map(RelationMetadata::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("@Entityが付与されていないクラスは例外となる")
+    void shouldRejectNonEntity() {
+        assertThrows(IllegalArgumentException.class, () -> EntityMetadataRegistry.get(NonEntity.class));
+    }
+
+    @Test
+    @DisplayName("複数スレッドから同時に初回アクセスしても同じメタデータを返す")
+    void shouldReturnSameMetadataUnderConcurrentFirstAccess() throws Exception {
+        @Entity
+        class ConcurrentEntity {
+            @Id
+            private Long id;
+        }
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<EntityMetadata>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return EntityMetadataRegistry.get(ConcurrentEntity.class);
+                }));
+            }
+            start.countDown();
+
+            EntityMetadata expected = futures.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<EntityMetadata> future : futures) {
+                assertSame(expected, future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("指定したクラスのメタデータを事前に構築できる")
+    void shouldWarmUpClasses() {
+        List<EntityMetadata> warmed = EntityMetadataRegistry.warmUp(TestEntity.class, ProductEntity.class);
+
+        assertEquals(2, warmed.size());
+        assertSame(warmed.get(0), EntityMetadataRegistry.get(TestEntity.class));
+        assertSame(warmed.get(1), EntityMetadataRegistry.get(ProductEntity.class));
+    }
+
+    @Test
+    @DisplayName("パッケージとサブパッケージの@Entityクラスを事前に構築できる")
+    void shouldWarmUpPackage() {
+        List<EntityMetadata> warmed = EntityMetadataRegistry.warmUp("com.iineineno03k.orm.metadata.warmup");
+
+        Set<Class<?>> classes = warmed.stream()
+                .map(EntityMetadata::getEntityClass)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of(WarmUpEntity.class, NestedWarmUpEntity.class), classes);
+        assertSame(EntityMetadataRegistry.get(WarmUpEntity.class), warmed.stream()
+                .filter(metadata -> metadata.getEntityClass() == WarmUpEntity.class)
+                .findFirst()
+                .get());
+    }
+
+    @Test
+    @DisplayName("存在しないパッケージの場合は何も構築しない")
+    void shouldIgnoreUnknownPackage() {
+        assertTrue(EntityMetadataRegistry.warmUp("com.iineineno03k.orm.nonexistent").isEmpty());
+    }
+
+    @Test
+    @DisplayName("不正なエンティティを含むパッケージは起動時に例外となる")
+    void shouldFailFastForInvalidEntity() {
+        assertThrows(IllegalArgumentException.class,
+                () -> EntityMetadataRegistry.warmUp("com.iineineno03k.orm.testentity"));
+    }
+}
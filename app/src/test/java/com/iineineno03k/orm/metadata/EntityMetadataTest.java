@@ -2,6 +2,7 @@ package com.iineineno03k.orm.metadata;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.Nested;
@@ -12,7 +13,11 @@ import org.junit.jupiter.params.provider.CsvSource;
 import com.iineineno03k.orm.annotation.Column;
 import com.iineineno03k.orm.annotation.Entity;
 import com.iineineno03k.orm.annotation.Id;
+import com.iineineno03k.orm.annotation.ManyToOne;
 import com.iineineno03k.orm.annotation.Table;
+import com.iineineno03k.orm.relation.LazyReference;
+import com.iineineno03k.orm.testentity.AuthorEntity;
+import com.iineineno03k.orm.testentity.BookEntity;
 
 public class EntityMetadataTest {
 
@@ -266,4 +271,52 @@ public class EntityMetadataTest {
             assertEquals(expected, metadata.generateCreateTableSql());
         }
     }
-} 
\ No newline at end of file
+
+    @Nested
+    class RelationTests {
+        @Test
+        void shouldExcludeRelationFieldsFromColumns() {
+            EntityMetadata books = new EntityMetadata(BookEntity.class);
+            EntityMetadata authors = new EntityMetadata(AuthorEntity.class);
+
+            assertEquals(List.of("id", "title", "author_id"), books.getColumnNames());
+            assertEquals(List.of("id", "name"), authors.getColumnNames());
+
+            RelationMetadata author = books.getRelation("author");
+            assertFalse(author.isToMany());
+            assertEquals(AuthorEntity.class, author.getTargetClass());
+            assertEquals("author_id", author.getForeignKey().getColumnName());
+
+            // @OneToManyの外部キーは参照先の@ManyToOneのカラム
+            RelationMetadata bookList = authors.getRelation("books");
+            assertTrue(bookList.isToMany());
+            assertEquals(BookEntity.class, bookList.getTargetClass());
+            assertEquals("author_id", bookList.getForeignKey().getColumnName());
+        }
+
+        @Test
+        void shouldRejectInvalidRelations() {
+            @Entity
+            class RawReferenceEntity {
+                @Id
+                private Long id;
+
+                @ManyToOne(joinField = "id")
+                private AuthorEntity author;
+            }
+
+            @Entity
+            class MissingJoinFieldEntity {
+                @Id
+                private Long id;
+
+                @ManyToOne(joinField = "authorId")
+                private LazyReference<AuthorEntity> author;
+            }
+
+            assertThrows(IllegalArgumentException.class, () -> new EntityMetadata(RawReferenceEntity.class));
+            RelationMetadata relation = new EntityMetadata(MissingJoinFieldEntity.class).getRelation("author");
+            assertThrows(IllegalArgumentException.class, relation::getForeignKey);
+        }
+    }
+}
@@ -15,6 +15,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import com.iineineno03k.orm.annotation.Column;
 import com.iineineno03k.orm.annotation.Id;
+import com.iineineno03k.orm.annotation.Version;
 
 public class FieldMetadataTest {
 
@@ -94,6 +95,33 @@ public class FieldMetadataTest {
             assertEquals(expectedUnique, metadata.isUnique());
             assertFalse(metadata.isId());
         }
+
+        @Test
+        void shouldHandleVersionAnnotation() throws NoSuchFieldException {
+            class TestClass {
+                @Version
+                private Long version;
+
+                @Version
+                private Integer revision;
+
+                @Version
+                private long primitive;
+
+                private Long id;
+            }
+
+            FieldMetadata version = createFieldMetadata(TestClass.class, "version");
+            FieldMetadata revision = createFieldMetadata(TestClass.class, "revision");
+            assertTrue(version.isVersion());
+            assertFalse(createFieldMetadata(TestClass.class, "id").isVersion());
+            assertEquals(0L, version.nextVersion(null));
+            assertEquals(6L, version.nextVersion(5L));
+            assertEquals(0, revision.nextVersion(null));
+            assertEquals(3, revision.nextVersion(2));
+            // 新規かどうかをnullで判定するため、プリミティブ型は使えない
+            assertThrows(IllegalArgumentException.class, () -> createFieldMetadata(TestClass.class, "primitive"));
+        }
     }
 
     @Nested
@@ -0,0 +1,96 @@
+package com.iineineno03k.orm.metadata;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iineineno03k.orm.annotation.Entity;
+import com.iineineno03k.orm.annotation.Id;
+import com.iineineno03k.orm.jdbc.EntityRowMapper;
+import com.iineineno03k.orm.testentity.EntityWithoutId;
+import com.iineineno03k.orm.testentity.ProductEntity;
+import com.iineineno03k.orm.testentity.TestEntity;
+
+/**
+ * アノテーションプロセッサが生成したメタデータのテストクラス
+ */
+@DisplayName("GeneratedEntityMetadata のテスト")
+public class GeneratedEntityMetadataTest {
+
+    @Test
+    @DisplayName("@Entityクラスに対してメタデータが生成されている")
+    void shouldFindGeneratedMetadata() {
+        GeneratedEntityMetadata<TestEntity> metadata = GeneratedMetadataRegistry.find(TestEntity.class);
+
+        assertNotNull(metadata);
+        assertSame(TestEntity.class, metadata.getEntityClass());
+        assertSame(metadata, GeneratedMetadataRegistry.find(TestEntity.class));
+    }
+
+    @Test
+    @DisplayName("実行時のEntityMetadataと同じテーブル名とカラム名を持つ")
+    void shouldMatchRuntimeMetadata() {
+        GeneratedEntityMetadata<ProductEntity> generated = GeneratedMetadataRegistry.find(ProductEntity.class);
+        EntityMetadata runtime = new MetadataProcessor().processEntity(ProductEntity.class);
+
+        assertEquals(runtime.getTableName(), generated.getTableName());
+        assertArrayEquals(runtime.getFieldMetadataMap().keySet().toArray(new String[0]), generated.getFieldNames());
+        String[] columnNames = runtime.getFieldMetadataMap().values().stream()
+                .map(FieldMetadata::getColumnName)
+                .toArray(String[]::new);
+        assertArrayEquals(columnNames, generated.getColumnNames());
+        assertEquals("id", generated.getFieldNames()[generated.getIdIndex()]);
+    }
+
+    @Test
+    @DisplayName("アクセサ経由でフィールドを読み書きできる")
+    void shouldReadAndWriteFieldsWithoutReflection() {
+        GeneratedEntityMetadata<TestEntity> metadata = GeneratedMetadataRegistry.find(TestEntity.class);
+
+        TestEntity entity = metadata.newInstance();
+        metadata.set(entity, 0, 42L);
+        metadata.set(entity, 1, "Generated");
+        metadata.set(entity, 4, true);
+        // プリミティブ型にnullを設定しても値は変わらない
+        metadata.set(entity, 4, null);
+
+        assertEquals(42L, entity.getId());
+        assertEquals("Generated", entity.getName());
+        assertTrue(entity.isActive());
+        assertEquals("Generated", metadata.get(entity, 1));
+        assertArrayEquals(new Object[] {42L, "Generated", null, null, true}, metadata.extract(entity));
+    }
+
+    @Test
+    @DisplayName("生成できないクラスに対してはnullを返す")
+    void shouldReturnNullWhenNotGenerated() {
+        @Entity
+        class LocalEntity {
+            @Id
+            private Long id;
+        }
+
+        assertNull(GeneratedMetadataRegistry.find(LocalEntity.class));
+        assertNull(GeneratedMetadataRegistry.find(EntityWithoutId.class));
+    }
+
+    @Test
+    @DisplayName("EntityRowMapperは生成済みメタデータを優先して使う")
+    void shouldBeUsedByRowMapper() {
+        EntityRowMapper<TestEntity> mapper = new EntityRowMapper<>(TestEntity.class);
+
+        TestEntity entity = new TestEntity();
+        entity.setId(7L);
+        entity.setName("Mapped");
+
+        assertTrue(mapper.isGenerated());
+        assertEquals(7L, mapper.getId(entity));
+        assertArrayEquals(new Object[] {7L, "Mapped", null, null, false}, mapper.extractValues(entity));
+    }
+}
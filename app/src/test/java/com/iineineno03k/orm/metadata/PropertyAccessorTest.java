@@ -0,0 +1,112 @@
+package com.iineineno03k.orm.metadata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iineineno03k.orm.testentity.ProductEntity;
+import com.iineineno03k.orm.testentity.TestEntity;
+
+/**
+ * PropertyAccessorのテストクラス
+ */
+@DisplayName("PropertyAccessor のテスト")
+public class PropertyAccessorTest {
+
+    @Test
+    @DisplayName("getter/setter経由でフィールドを読み書きできる")
+    void shouldAccessThroughGetterAndSetter() throws NoSuchFieldException {
+        PropertyAccessor accessor = PropertyAccessor.of(ProductEntity.class.getDeclaredField("price"));
+        ProductEntity entity = new ProductEntity();
+
+        accessor.set(entity, 1280.0);
+
+        assertEquals(1280.0, entity.getPrice());
+        assertEquals(1280.0, accessor.get(entity));
+    }
+
+    @Test
+    @DisplayName("boolean型のフィールドはisで始まるgetterを使う")
+    void shouldAccessBooleanProperty() throws NoSuchFieldException {
+        PropertyAccessor accessor = PropertyAccessor.of(TestEntity.class.getDeclaredField("active"));
+        TestEntity entity = new TestEntity();
+
+        accessor.set(entity, true);
+
+        assertTrue(entity.isActive());
+        assertEquals(Boolean.TRUE, accessor.get(entity));
+    }
+
+    @Test
+    @DisplayName("getter/setterがないprivateフィールドも読み書きできる")
+    void shouldAccessFieldWithoutAccessorMethods() throws NoSuchFieldException {
+        class NoAccessors {
+            private Long id;
+        }
+        PropertyAccessor accessor = PropertyAccessor.of(NoAccessors.class.getDeclaredField("id"));
+        NoAccessors entity = new NoAccessors();
+
+        accessor.set(entity, 5L);
+
+        assertEquals(5L, entity.id);
+        assertEquals(5L, accessor.get(entity));
+    }
+
+    @Test
+    @DisplayName("プリミティブ型のフィールドにnullを設定しても値は変わらない")
+    void shouldIgnoreNullForPrimitiveField() throws NoSuchFieldException {
+        PropertyAccessor accessor = PropertyAccessor.of(TestEntity.class.getDeclaredField("active"));
+        TestEntity entity = new TestEntity();
+        entity.setActive(true);
+
+        accessor.set(entity, null);
+
+        assertTrue(entity.isActive());
+    }
+
+    @Test
+    @DisplayName("finalフィールドへの書き込みは例外となる")
+    void shouldRejectWriteToFinalField() throws NoSuchFieldException {
+        class FinalField {
+            private final String name = "fixed";
+        }
+        PropertyAccessor accessor = PropertyAccessor.of(FinalField.class.getDeclaredField("name"));
+        FinalField entity = new FinalField();
+
+        assertEquals("fixed", accessor.get(entity));
+        assertThrows(IllegalStateException.class, () -> accessor.set(entity, "changed"));
+    }
+
+    @Test
+    @DisplayName("staticフィールドは対象外")
+    void shouldRejectStaticField() throws NoSuchFieldException {
+        assertThrows(IllegalArgumentException.class,
+                () -> PropertyAccessor.of(Holder.class.getDeclaredField("COUNT")));
+    }
+
+    @Test
+    @DisplayName("FieldMetadataは主キーのアクセサをキャッシュして使う")
+    void shouldCacheAccessorOnFieldMetadata() {
+        EntityMetadata metadata = new EntityMetadata(TestEntity.class);
+        FieldMetadata idField = metadata.getIdField();
+        TestEntity entity = new TestEntity();
+
+        idField.setValue(entity, 10L);
+
+        assertEquals(10L, entity.getId());
+        assertEquals(10L, idField.getValue(entity));
+        assertSame(idField.getAccessor(), idField.getAccessor());
+        assertNull(metadata.getFieldMetadataMap().get("name").getValue(entity));
+        assertFalse((Boolean) metadata.getFieldMetadataMap().get("active").getValue(entity));
+    }
+
+    static class Holder {
+        static int COUNT;
+    }
+}
@@ -0,0 +1,30 @@
+package com.iineineno03k.orm.metadata.warmup;
+
+import com.iineineno03k.orm.annotation.Entity;
+import com.iineineno03k.orm.annotation.Id;
+
+/**
+ * パッケージ走査のテスト用エンティティ
+ */
+@Entity
+public class WarmUpEntity {
+    @Id
+    private Long id;
+    private String name;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,27 @@
+package com.iineineno03k.orm.metadata.warmup.nested;
+
+import com.iineineno03k.orm.annotation.Entity;
+import com.iineineno03k.orm.annotation.Id;
+
+/**
+ * サブパッケージの走査のテスト用エンティティ
+ */
+@Entity
+public class NestedWarmUpEntity {
+    @Id
+    private Long id;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * @Entityが付与されていないクラスは対象外となる
+     */
+    public static class NotAnEntity {
+    }
+}
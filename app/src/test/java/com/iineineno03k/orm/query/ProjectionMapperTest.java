@@ -0,0 +1,122 @@
+package com.iineineno03k.orm.query;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iineineno03k.orm.DatabaseConfig;
+import com.iineineno03k.orm.EntityManager;
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.EntityMetadataRegistry;
+import com.iineineno03k.orm.sql.DatabaseType;
+import com.iineineno03k.orm.testentity.TestEntity;
+
+/**
+ * ProjectionMapperのテストクラス
+ */
+@DisplayName("ProjectionMapper のテスト")
+public class ProjectionMapperTest {
+    private final EntityMetadata metadata = EntityMetadataRegistry.get(TestEntity.class);
+
+    record NameOnly(Long id, String name) {
+    }
+
+    record WithPrimitive(long id, boolean active) {
+    }
+
+    record WrongType(Integer name) {
+    }
+
+    record UnknownProperty(String nickname) {
+    }
+
+    interface CodeView {
+        String getCode();
+
+        boolean isActive();
+
+        String entity_name();
+
+        default String label() {
+            return getCode() + ":" + entity_name();
+        }
+    }
+
+    @Test
+    @DisplayName("レコードのコンポーネントに対応するフィールドだけを射影する")
+    void shouldMapRecordComponents() {
+        ProjectionMapper<NameOnly> mapper = ProjectionMapper.of(NameOnly.class, metadata);
+
+        assertArrayEquals(new String[] { "id", "name" }, mapper.getFields());
+        assertEquals(new NameOnly(1L, "first"), mapper.map(new Object[] { 1L, "first" }));
+        assertSame(mapper, ProjectionMapper.of(NameOnly.class, metadata));
+    }
+
+    @Test
+    @DisplayName("プリミティブ型のコンポーネントにはNULLの代わりに既定値を渡す")
+    void shouldUseDefaultsForNullPrimitives() {
+        ProjectionMapper<WithPrimitive> mapper = ProjectionMapper.of(WithPrimitive.class, metadata);
+
+        assertEquals(new WithPrimitive(7L, false), mapper.map(new Object[] { 7L, null }));
+    }
+
+    @Test
+    @DisplayName("インターフェースのアクセサ名をフィールド名またはカラム名と対応付ける")
+    void shouldImplementInterfaceProjection() {
+        ProjectionMapper<CodeView> mapper = ProjectionMapper.of(CodeView.class, metadata);
+        String[] fields = mapper.getFields();
+        Object[] values = new Object[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            values[i] = fields[i].equals("code") ? "C1" : fields[i].equals("name") ? "first" : Boolean.TRUE;
+        }
+
+        CodeView view = mapper.map(values);
+        CodeView same = mapper.map(values.clone());
+
+        assertEquals("C1", view.getCode());
+        assertTrue(view.isActive());
+        assertEquals("first", view.entity_name());
+        assertEquals("C1:first", view.label());
+        assertEquals(view, same);
+        assertEquals(view.hashCode(), same.hashCode());
+        assertTrue(view.toString().startsWith("CodeView["));
+    }
+
+    @Test
+    @DisplayName("対応しないプロパティや型はIllegalArgumentExceptionになる")
+    void shouldRejectInvalidProjectionTypes() {
+        assertThrows(IllegalArgumentException.class, () -> ProjectionMapper.of(WrongType.class, metadata));
+        assertThrows(IllegalArgumentException.class, () -> ProjectionMapper.of(UnknownProperty.class, metadata));
+        assertThrows(IllegalArgumentException.class, () -> ProjectionMapper.of(String.class, metadata));
+    }
+
+    @Test
+    @DisplayName("インメモリモードでも条件を適用してから射影する")
+    void shouldProjectInMemoryMode() {
+        EntityManager entityManager = new EntityManager(
+                new DatabaseConfig("jdbc:h2:mem:test", "sa", "", DatabaseType.MYSQL));
+        for (long id = 1; id <= 3; id++) {
+            TestEntity entity = new TestEntity();
+            entity.setId(id);
+            entity.setName("name" + id);
+            entityManager.save(entity);
+        }
+
+        List<NameOnly> all = entityManager.findAll(TestEntity.class, NameOnly.class);
+        List<NameOnly> filtered = entityManager.createQuery(TestEntity.class)
+                .where(Criteria.ge("id", 2))
+                .project(NameOnly.class);
+
+        assertEquals(3, all.size());
+        assertEquals(2, filtered.size());
+        assertFalse(filtered.contains(new NameOnly(1L, "name1")));
+    }
+}
@@ -0,0 +1,171 @@
+package com.iineineno03k.orm.query;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iineineno03k.orm.DatabaseConfig;
+import com.iineineno03k.orm.EntityManager;
+import com.iineineno03k.orm.sql.DatabaseType;
+import com.iineineno03k.orm.sql.SelectStatement;
+import com.iineineno03k.orm.testentity.ProductEntity;
+import com.iineineno03k.orm.testentity.TestEntity;
+
+/**
+ * Query・Criteriaのテストクラス
+ */
+@DisplayName("Query のテスト")
+public class QueryTest {
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = new EntityManager(new DatabaseConfig("jdbc:h2:mem:test", "sa", "", DatabaseType.MYSQL));
+    }
+
+    @Test
+    @DisplayName("条件をカラム名とパラメータ位置に変換し、値はフィールドの型に合わせる")
+    void shouldCompilePredicatesIntoParameterizedWhereClause() {
+        CompiledQuery compiled = entityManager.createQuery(ProductEntity.class)
+                .where(Criteria.eq("category", "book"))
+                .and(Criteria.between("price", 10, 20.5))
+                .and(Criteria.or(Criteria.isNull("stockQuantity"), Criteria.gt("stock_quantity", 0L)))
+                .orderBy(Order.asc("name"), Order.desc("id"))
+                .limit(5)
+                .compile();
+
+        SelectStatement statement = compiled.getStatement();
+        assertEquals("(category = ? AND price BETWEEN ? AND ? AND (stock_quantity IS NULL OR stock_quantity > ?))",
+                statement.getWhere());
+        assertEquals(Arrays.asList("product_name ASC", "id DESC"), statement.getOrderBy());
+        assertTrue(statement.hasLimit());
+        assertEquals(5, compiled.getLimit());
+        assertArrayEquals(new Object[] { "book", 10.0, 20.5, 0 }, compiled.getParameters());
+    }
+
+    @Test
+    @DisplayName("値だけが異なる問い合わせは同じSelectStatementになる")
+    void shouldProduceSameStatementForDifferentValues() {
+        CompiledQuery first = entityManager.createQuery(TestEntity.class).where(Criteria.eq("name", "a")).compile();
+        CompiledQuery second = entityManager.createQuery(TestEntity.class).where(Criteria.eq("name", "b")).compile();
+
+        assertEquals(first.getStatement(), second.getStatement());
+        assertEquals(first.getStatement().hashCode(), second.getStatement().hashCode());
+    }
+
+    @Test
+    @DisplayName("ページだけが異なる問い合わせは同じSelectStatementになる")
+    void shouldProduceSameStatementForDifferentPages() {
+        CompiledQuery first = entityManager.createQuery(TestEntity.class).limit(10).offset(10).compile();
+        CompiledQuery second = entityManager.createQuery(TestEntity.class).limit(20).offset(40).compile();
+
+        assertEquals(first.getStatement(), second.getStatement());
+        assertEquals(20, second.getLimit());
+        assertEquals(40, second.getOffset());
+    }
+
+    @Test
+    @DisplayName("射影するフィールドだけをSELECT句に含める")
+    void shouldSelectOnlyProjectedColumns() {
+        CompiledQuery compiled = entityManager.createQuery(TestEntity.class).compile("id", "name");
+
+        assertEquals(Arrays.asList("id", "entity_name"), compiled.getStatement().getColumns());
+        assertArrayEquals(new Class<?>[] { Long.class, String.class }, compiled.getProjectionTypes());
+        assertNull(compiled.getStatement().getWhere());
+    }
+
+    @Test
+    @DisplayName("空のINは常に偽の条件になる")
+    void shouldCompileEmptyInListToFalse() {
+        Query<TestEntity> query = entityManager.createQuery(TestEntity.class)
+                .where(Criteria.in("id", Collections.emptyList()));
+
+        assertEquals("1 = 0", query.compile().getStatement().getWhere());
+        assertTrue(query.getResultList().isEmpty());
+    }
+
+    @Test
+    @DisplayName("不正なフィールドや値はIllegalArgumentExceptionになる")
+    void shouldRejectInvalidCriteria() {
+        assertThrows(IllegalArgumentException.class,
+                () -> entityManager.createQuery(TestEntity.class).where(Criteria.eq("unknown", 1)).compile());
+        assertThrows(IllegalArgumentException.class,
+                () -> entityManager.createQuery(TestEntity.class).where(Criteria.eq("id", "one")).compile());
+        assertThrows(IllegalArgumentException.class,
+                () -> entityManager.createQuery(TestEntity.class).where(Criteria.like("active", "%")).compile());
+        assertThrows(IllegalArgumentException.class, () -> Criteria.eq("name", null));
+        assertThrows(IllegalArgumentException.class, () -> Criteria.in("id", Arrays.asList(1L, null)));
+        assertThrows(IllegalArgumentException.class, () -> entityManager.createQuery(TestEntity.class).limit(-1));
+        assertThrows(IllegalArgumentException.class, () -> entityManager.createQuery(TestEntity.class).project());
+    }
+
+    @Test
+    @DisplayName("インメモリモードではNULLとの比較を不明として扱う")
+    void shouldUseThreeValuedLogicInMemory() {
+        entityManager.save(createEntity(1L, "first", "described"));
+        entityManager.save(createEntity(2L, "second", null));
+
+        List<TestEntity> notDescribed = entityManager.createQuery(TestEntity.class)
+                .where(Criteria.not(Criteria.eq("description", "described")))
+                .getResultList();
+        List<TestEntity> withoutDescription = entityManager.createQuery(TestEntity.class)
+                .where(Criteria.isNull("description"))
+                .getResultList();
+
+        assertTrue(notDescribed.isEmpty());
+        assertEquals(1, withoutDescription.size());
+        assertEquals(2L, withoutDescription.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("インメモリモードでも並び順と件数の制限を適用する")
+    void shouldSortAndSliceInMemory() {
+        List<TestEntity> entities = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            entities.add(createEntity(id, "name" + (id % 2), null));
+        }
+        entityManager.saveAll(entities);
+
+        List<TestEntity> result = entityManager.createQuery(TestEntity.class)
+                .orderBy(Order.asc("name"), Order.desc("id"))
+                .offset(1)
+                .limit(3)
+                .getResultList();
+
+        // name0: 4, 2 / name1: 5, 3, 1
+        assertEquals(Arrays.asList(2L, 5L, 3L), Arrays.asList(
+                result.get(0).getId(), result.get(1).getId(), result.get(2).getId()));
+    }
+
+    @Test
+    @DisplayName("LIKEの%と_を正規表現を使わずに照合する")
+    void shouldMatchLikePatterns() {
+        assertTrue(Predicate.Like.matches("Entity 12", "Entity%"));
+        assertTrue(Predicate.Like.matches("Entity 12", "%ty 1_"));
+        assertTrue(Predicate.Like.matches("abc", "%%c"));
+        assertTrue(Predicate.Like.matches("", "%"));
+        assertFalse(Predicate.Like.matches("Entity 12", "Entity_"));
+        assertFalse(Predicate.Like.matches("a.c", "a\\.c"));
+    }
+
+    private TestEntity createEntity(Long id, String name, String description) {
+        TestEntity entity = new TestEntity();
+        entity.setId(id);
+        entity.setName(name);
+        entity.setCode("CODE" + id);
+        entity.setDescription(description);
+        return entity;
+    }
+}
@@ -0,0 +1,203 @@
+package com.iineineno03k.orm.relation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iineineno03k.orm.metadata.FieldMetadata;
+import com.iineineno03k.orm.testentity.AuthorEntity;
+import com.iineineno03k.orm.testentity.BookEntity;
+
+/**
+ * RelationLoaderのテストクラス
+ */
+@DisplayName("RelationLoader のテスト")
+public class RelationLoaderTest {
+    private final List<AuthorEntity> authors = List.of(new AuthorEntity(1L, "Author 1"), new AuthorEntity(2L, "Author 2"));
+    private final List<BookEntity> books = List.of(
+            new BookEntity(10L, "Book 10", 1L),
+            new BookEntity(11L, "Book 11", 2L),
+            new BookEntity(12L, "Book 12", 1L));
+
+    private List<Collection<Long>> queries;
+    private RelationLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        queries = new ArrayList<>();
+        loader = new RelationLoader(new RelationLoader.Fetcher() {
+            @Override
+            public <T> List<T> findAllById(Class<T> entityClass, Collection<Long> ids) {
+                queries.add(new ArrayList<>(ids));
+                Map<Long, AuthorEntity> byId = authors.stream()
+                        .collect(Collectors.toMap(AuthorEntity::getId, Function.identity()));
+                List<T> found = new ArrayList<>();
+                for (Long id : ids) {
+                    if (byId.containsKey(id)) {
+                        found.add(entityClass.cast(byId.get(id)));
+                    }
+                }
+                return found;
+            }
+
+            @Override
+            public <T> List<T> findAllByForeignKey(Class<T> entityClass, FieldMetadata foreignKey,
+                    Collection<Long> keys) {
+                queries.add(new ArrayList<>(keys));
+                List<T> found = new ArrayList<>();
+                for (BookEntity book : books) {
+                    if (keys.contains(foreignKey.getValue(book))) {
+                        found.add(entityClass.cast(book));
+                    }
+                }
+                return found;
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("未読み込みの参照は最初のアクセスでまとめて1回で読み込む")
+    void shouldBatchLoadReferences() {
+        books.forEach(loader::attach);
+
+        assertFalse(books.get(1).getAuthor().isLoaded());
+        assertEquals(2L, books.get(1).getAuthor().getId());
+        assertEquals("Author 2", books.get(1).getAuthor().get().getName());
+
+        assertEquals(List.of(List.of(2L, 1L)), queries);
+        assertTrue(books.get(0).getAuthor().isLoaded());
+        assertSame(books.get(0).getAuthor().get(), books.get(2).getAuthor().get());
+        assertEquals(1, queries.size());
+    }
+
+    @Test
+    @DisplayName("未読み込みのリストは関連ごとにまとめて読み込み、親ごとに振り分ける")
+    void shouldBatchLoadCollections() {
+        authors.forEach(loader::attach);
+
+        assertEquals(List.of(10L, 12L),
+                authors.get(0).getBooks().stream().map(BookEntity::getId).collect(Collectors.toList()));
+        assertEquals(1, authors.get(1).getBooks().size());
+
+        assertEquals(List.of(List.of(1L, 2L)), queries);
+        assertThrows(UnsupportedOperationException.class, () -> authors.get(0).getBooks().add(books.get(1)));
+    }
+
+    @Test
+    @DisplayName("fetchは指定した関連を読み込み済みにする")
+    void shouldFetchRelationEagerly() {
+        loader.fetch(books, "author");
+
+        assertEquals(1, queries.size());
+        for (BookEntity book : books) {
+            assertTrue(book.getAuthor().isLoaded());
+        }
+        assertThrows(IllegalArgumentException.class, () -> loader.fetch(books, "publisher"));
+    }
+
+    @Test
+    @DisplayName("外部キーがNULLの場合や参照先がない場合はnullを返す")
+    void shouldResolveMissingReferencesToNull() {
+        BookEntity orphan = new BookEntity(20L, "Orphan", null);
+        BookEntity dangling = new BookEntity(21L, "Dangling", 99L);
+        loader.attach(orphan);
+        loader.attach(dangling);
+
+        assertTrue(orphan.getAuthor().isLoaded());
+        assertNull(orphan.getAuthor().get());
+        assertNull(dangling.getAuthor().get());
+    }
+
+    @Test
+    @DisplayName("設定済みの関連は置き換えない")
+    void shouldKeepAssignedRelations() {
+        BookEntity book = new BookEntity(30L, "Assigned", 1L);
+        LazyReference<AuthorEntity> assigned = LazyReference.of(authors.get(0));
+        book.setAuthor(assigned);
+
+        loader.attach(book);
+
+        assertSame(assigned, book.getAuthor());
+        assertTrue(queries.isEmpty());
+    }
+
+    @Test
+    @DisplayName("問い合わせの間もロックを保持せず、他のスレッドが読み込み待ちを追加できる")
+    void shouldNotHoldLockWhileFetching() throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RelationLoader blocking = new RelationLoader(new RelationLoader.Fetcher() {
+            @Override
+            public <T> List<T> findAllById(Class<T> entityClass, Collection<Long> ids) {
+                fetching.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return List.of(entityClass.cast(authors.get(0)));
+            }
+
+            @Override
+            public <T> List<T> findAllByForeignKey(Class<T> entityClass, FieldMetadata foreignKey,
+                    Collection<Long> keys) {
+                return List.of();
+            }
+        });
+        BookEntity first = new BookEntity(40L, "First", 1L);
+        BookEntity second = new BookEntity(41L, "Second", 2L);
+        blocking.attach(first);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<AuthorEntity> loading = executor.submit(() -> first.getAuthor().get());
+            assertTrue(fetching.await(5, TimeUnit.SECONDS));
+            executor.submit(() -> blocking.attach(second)).get(5, TimeUnit.SECONDS);
+            release.countDown();
+
+            assertSame(authors.get(0), loading.get(5, TimeUnit.SECONDS));
+            assertFalse(second.getAuthor().isLoaded());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("読み込み待ちは上限を超えると古いものから破棄し、破棄したものは個別に読み込む")
+    void shouldCapPendingReferences() {
+        List<BookEntity> many = new ArrayList<>();
+        for (long i = 0; i <= RelationLoader.MAX_PENDING; i++) {
+            BookEntity book = new BookEntity(1000L + i, "Book " + i, 1000L + i);
+            loader.attach(book);
+            many.add(book);
+        }
+
+        many.get(many.size() - 1).getAuthor().get();
+        assertEquals(RelationLoader.MAX_PENDING, queries.get(0).size());
+        assertFalse(many.get(0).getAuthor().isLoaded());
+        assertTrue(many.get(1).getAuthor().isLoaded());
+
+        assertNull(many.get(0).getAuthor().get());
+        assertEquals(List.of(1000L), queries.get(1));
+    }
+}
@@ -0,0 +1,128 @@
+package com.iineineno03k.orm.session;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iineineno03k.orm.testentity.TestEntity;
+
+/**
+ * PersistenceContextのテストクラス
+ */
+@DisplayName("PersistenceContext のテスト")
+public class PersistenceContextTest {
+
+    private PersistenceContext context;
+
+    @BeforeEach
+    void setUp() {
+        context = new PersistenceContext();
+    }
+
+    private TestEntity createTestEntity(Long id, String name) {
+        TestEntity entity = new TestEntity();
+        entity.setId(id);
+        entity.setName(name);
+        entity.setCode("CODE" + id);
+        entity.setDescription("Description " + id);
+        entity.setActive(true);
+        return entity;
+    }
+
+    @Test
+    @DisplayName("登録したエンティティを主キーで取得できる")
+    void shouldFindRegisteredEntity() {
+        TestEntity entity = createTestEntity(1L, "Entity");
+        context.register(entity);
+
+        assertSame(entity, context.find(TestEntity.class, 1L));
+        assertTrue(context.contains(entity));
+        assertFalse(context.contains(createTestEntity(1L, "Other instance")));
+        assertNull(context.find(TestEntity.class, 2L));
+        assertEquals(1, context.size());
+    }
+
+    @Test
+    @DisplayName("読み込んだエンティティは既存の管理対象があればそちらを返す")
+    void shouldKeepIdentityForLoadedEntities() {
+        TestEntity managed = createTestEntity(1L, "Managed");
+        context.register(managed);
+
+        assertSame(managed, context.registerLoaded(createTestEntity(1L, "Loaded")));
+
+        TestEntity loaded = createTestEntity(2L, "Loaded");
+        assertSame(loaded, context.registerLoaded(loaded));
+        assertEquals(2, context.size());
+    }
+
+    @Test
+    @DisplayName("変更のないエンティティは変更として検出しない")
+    void shouldNotReportUnchangedEntities() {
+        context.register(createTestEntity(1L, "Entity"));
+
+        assertTrue(context.getChanges().isEmpty());
+    }
+
+    @Test
+    @DisplayName("変更されたカラムだけを検出し、パラメータの最後に主キーを置く")
+    void shouldReportOnlyChangedColumns() {
+        TestEntity entity = createTestEntity(1L, "Before");
+        context.register(entity);
+
+        entity.setName("After");
+        entity.setActive(false);
+        List<EntityChange> changes = context.getChanges();
+
+        assertEquals(1, changes.size());
+        EntityChange change = changes.get(0);
+        assertSame(entity, change.getEntity());
+        assertEquals(2, change.getChangedColumns().size());
+        assertEquals("entity_name", change.getChangedColumns().get(0).getColumnName());
+        assertEquals("active", change.getChangedColumns().get(1).getColumnName());
+        assertArrayEquals(new Object[] { "After", false, 1L }, change.getParameters());
+    }
+
+    @Test
+    @DisplayName("フラッシュ済みの変更は再び検出しない")
+    void shouldForgetFlushedChanges() {
+        TestEntity entity = createTestEntity(1L, "Before");
+        context.register(entity);
+        entity.setName("After");
+
+        context.markFlushed(context.getChanges());
+        assertTrue(context.getChanges().isEmpty());
+
+        entity.setDescription("Changed again");
+        List<EntityChange> changes = context.getChanges();
+        assertEquals(1, changes.size());
+        assertEquals("description", changes.get(0).getChangedColumns().get(0).getColumnName());
+    }
+
+    @Test
+    @DisplayName("管理対象から外したエンティティは変更を検出しない")
+    void shouldIgnoreDetachedEntities() {
+        TestEntity entity = createTestEntity(1L, "Before");
+        context.register(entity);
+        context.detach(entity);
+        entity.setName("After");
+
+        assertFalse(context.contains(entity));
+        assertTrue(context.getChanges().isEmpty());
+    }
+
+    @Test
+    @DisplayName("主キーがnullのエンティティは登録できない")
+    void shouldRejectEntityWithoutId() {
+        assertThrows(IllegalArgumentException.class, () -> context.register(createTestEntity(null, "No id")));
+    }
+}
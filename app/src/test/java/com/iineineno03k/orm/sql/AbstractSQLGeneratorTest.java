@@ -9,6 +9,7 @@ import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.iineineno03k.orm.metadata.EntityMetadata;
 import com.iineineno03k.orm.testentity.TestEntity;
 
 /**
@@ -66,23 +67,38 @@ public class AbstractSQLGeneratorTest {
     private static class TestSQLGenerator extends AbstractSQLGenerator {
         
         @Override
-        public String createSelectSQL(Class<?> entityClass, String idColumnName) {
-            return "SELECT * FROM " + getTableName(entityClass);
+        protected String createSelectSQL(EntityMetadata metadata, String idColumnName) {
+            return "SELECT * FROM " + metadata.getTableName();
         }
         
         @Override
-        public String createInsertSQL(Class<?> entityClass) {
-            return "INSERT INTO " + getTableName(entityClass);
+        public String createInsertSQL(EntityMetadata metadata) {
+            return "INSERT INTO " + metadata.getTableName();
         }
         
         @Override
-        public String createUpdateSQL(Class<?> entityClass, String idColumnName) {
-            return "UPDATE " + getTableName(entityClass);
+        public String createMultiRowInsertSQL(EntityMetadata metadata, int rowCount) {
+            return "INSERT INTO " + metadata.getTableName();
         }
         
         @Override
-        public String createDeleteSQL(Class<?> entityClass, String idColumnName) {
-            return "DELETE FROM " + getTableName(entityClass);
+        protected String createUpdateSQL(EntityMetadata metadata, String idColumnName) {
+            return "UPDATE " + metadata.getTableName();
+        }
+        
+        @Override
+        public String createUpsertSQL(EntityMetadata metadata) {
+            return "MERGE INTO " + metadata.getTableName();
+        }
+        
+        @Override
+        public String createMultiRowUpsertSQL(EntityMetadata metadata, int rowCount) {
+            return "MERGE INTO " + metadata.getTableName();
+        }
+        
+        @Override
+        protected String createDeleteSQL(EntityMetadata metadata, String idColumnName) {
+            return "DELETE FROM " + metadata.getTableName();
         }
         
         @Override
@@ -91,8 +107,8 @@ public class AbstractSQLGeneratorTest {
         }
         
         @Override
-        public String createTableSQL(Class<?> entityClass) {
-            return "CREATE TABLE " + getTableName(entityClass);
+        public String createTableSQL(EntityMetadata metadata) {
+            return "CREATE TABLE " + metadata.getTableName();
         }
         
         @Override
@@ -100,6 +116,11 @@ public class AbstractSQLGeneratorTest {
             return "?";
         }
         
+        @Override
+        protected PlaceholderStyle getPlaceholderStyle() {
+            return PlaceholderStyle.QUESTION_MARK;
+        }
+        
         // テスト用の公開メソッド
         
         public String getTableNameForTest(Class<?> entityClass) {
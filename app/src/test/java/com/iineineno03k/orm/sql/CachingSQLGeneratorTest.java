@@ -0,0 +1,116 @@
+package com.iineineno03k.orm.sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.EntityMetadataRegistry;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+import com.iineineno03k.orm.testentity.ProductEntity;
+import com.iineineno03k.orm.testentity.TestEntity;
+
+/**
+ * CachingSQLGeneratorのテストクラス
+ */
+@DisplayName("CachingSQLGenerator のテスト")
+public class CachingSQLGeneratorTest {
+
+    @ParameterizedTest
+    @EnumSource(DatabaseType.class)
+    @DisplayName("委譲先と同じSQLを返す")
+    void shouldReturnSameSqlAsDelegate(DatabaseType databaseType) {
+        SQLGenerator delegate = SQLGeneratorFactory.createGenerator(databaseType);
+        SQLGenerator generator = SQLGeneratorFactory.createCachingGenerator(databaseType);
+
+        assertEquals(delegate.createSelectSQL(TestEntity.class, "id"), generator.createSelectSQL(TestEntity.class, "id"));
+        assertEquals(delegate.createInsertSQL(TestEntity.class), generator.createInsertSQL(TestEntity.class));
+        assertEquals(delegate.createMultiRowInsertSQL(TestEntity.class, 3), generator.createMultiRowInsertSQL(TestEntity.class, 3));
+        assertNotEquals(generator.createMultiRowInsertSQL(TestEntity.class, 2), generator.createMultiRowInsertSQL(TestEntity.class, 3));
+        assertEquals(delegate.createUpdateSQL(TestEntity.class, "id"), generator.createUpdateSQL(TestEntity.class, "id"));
+        assertEquals(delegate.createDeleteSQL(TestEntity.class, "id"), generator.createDeleteSQL(TestEntity.class, "id"));
+        assertEquals(delegate.createSelectAllSQL(TestEntity.class), generator.createSelectAllSQL(TestEntity.class));
+        assertEquals(delegate.createTableSQL(TestEntity.class), generator.createTableSQL(TestEntity.class));
+    }
+
+    @Test
+    @DisplayName("同じキーに対しては生成済みの文字列を再利用する")
+    void shouldReuseGeneratedSqlAcrossInstances() {
+        SQLGenerator first = SQLGeneratorFactory.createCachingGenerator(DatabaseType.MYSQL);
+        SQLGenerator second = SQLGeneratorFactory.createCachingGenerator(DatabaseType.MYSQL);
+
+        assertSame(first.createInsertSQL(TestEntity.class), second.createInsertSQL(TestEntity.class));
+        assertSame(first.createSelectSQL(TestEntity.class, "id"), first.createSelectSQL(TestEntity.class, "id"));
+    }
+
+    @Test
+    @DisplayName("メタデータを渡した場合もエンティティクラスと同じキャッシュを使う")
+    void shouldShareCacheBetweenClassAndMetadata() {
+        SQLGenerator generator = SQLGeneratorFactory.createCachingGenerator(DatabaseType.POSTGRESQL);
+        EntityMetadata metadata = EntityMetadataRegistry.get(TestEntity.class);
+
+        assertSame(generator.createInsertSQL(TestEntity.class), generator.createInsertSQL(metadata));
+        assertSame(generator.createUpdateSQL(TestEntity.class, "id"), generator.createUpdateSQL(metadata));
+        assertSame(generator.createMultiRowInsertSQL(TestEntity.class, 4), generator.createMultiRowInsertSQL(metadata, 4));
+    }
+
+    @Test
+    @DisplayName("更新するカラムを指定したUPDATE文はカラムの組み合わせごとに再利用する")
+    void shouldReuseUpdateSqlPerColumnSet() {
+        EntityMetadata metadata = EntityMetadataRegistry.get(TestEntity.class);
+        SQLGenerator delegate = SQLGeneratorFactory.createGenerator(DatabaseType.MYSQL);
+        SQLGenerator generator = SQLGeneratorFactory.createCachingGenerator(DatabaseType.MYSQL);
+        List<FieldMetadata> name = Arrays.asList(metadata.getFieldMetadataMap().get("name"));
+        List<FieldMetadata> nameAndCode = Arrays.asList(metadata.getFieldMetadataMap().get("name"), metadata.getFieldMetadataMap().get("code"));
+
+        assertEquals(delegate.createUpdateSQL(metadata, nameAndCode), generator.createUpdateSQL(metadata, nameAndCode));
+        assertSame(generator.createUpdateSQL(metadata, name),
+                SQLGeneratorFactory.createCachingGenerator(DatabaseType.MYSQL)
+                        .createUpdateSQL(metadata, Arrays.asList(metadata.getFieldMetadataMap().get("name"))));
+        assertNotEquals(generator.createUpdateSQL(metadata, name), generator.createUpdateSQL(metadata, nameAndCode));
+        assertNotEquals(generator.createUpdateSQL(metadata, name),
+                SQLGeneratorFactory.createCachingGenerator(DatabaseType.POSTGRESQL).createUpdateSQL(metadata, name));
+    }
+
+    @Test
+    @DisplayName("エンティティクラスとデータベースタイプごとに区別する")
+    void shouldSeparateEntriesByClassAndDatabaseType() {
+        SQLGenerator mysql = SQLGeneratorFactory.createCachingGenerator(DatabaseType.MYSQL);
+        SQLGenerator postgres = SQLGeneratorFactory.createCachingGenerator(DatabaseType.POSTGRESQL);
+
+        assertNotEquals(mysql.createSelectSQL(TestEntity.class, "id"), postgres.createSelectSQL(TestEntity.class, "id"));
+        assertNotEquals(mysql.createInsertSQL(TestEntity.class), mysql.createInsertSQL(ProductEntity.class));
+    }
+
+    @Test
+    @DisplayName("委譲先がnullの場合は例外を投げる")
+    void shouldRejectNullDelegate() {
+        assertThrows(IllegalArgumentException.class, () -> new CachingSQLGenerator(DatabaseType.MYSQL, null));
+    }
+
+    @Test
+    @DisplayName("同じ形の問い合わせは生成済みのSQLを再利用する")
+    void shouldReuseQuerySqlForSameStatement() {
+        EntityMetadata metadata = EntityMetadataRegistry.get(TestEntity.class);
+        SQLGenerator generator = SQLGeneratorFactory.createCachingGenerator(DatabaseType.POSTGRESQL);
+
+        String first = generator.createQuerySQL(metadata,
+                new SelectStatement(Arrays.asList(), "id > ?", Arrays.asList(), true, false));
+        String second = SQLGeneratorFactory.createCachingGenerator(DatabaseType.POSTGRESQL).createQuerySQL(metadata,
+                new SelectStatement(Arrays.asList(), "id > ?", Arrays.asList(), true, false));
+        String withOffset = generator.createQuerySQL(metadata,
+                new SelectStatement(Arrays.asList(), "id > ?", Arrays.asList(), true, true));
+
+        assertSame(first, second);
+        assertNotEquals(first, withOffset);
+    }
+}
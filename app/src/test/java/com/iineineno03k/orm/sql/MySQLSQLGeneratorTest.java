@@ -2,6 +2,7 @@ package com.iineineno03k.orm.sql;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.stream.Stream;
@@ -47,7 +48,24 @@ public class MySQLSQLGeneratorTest {
         @DisplayName("正しいINSERT SQLを生成する")
         void shouldCreateCorrectInsertSQL() {
             String sql = generator.createInsertSQL(TestEntity.class);
-            assertEquals("INSERT INTO test_entities (id, name, code, description, active) VALUES (?, ?, ?, ?, ?)", sql);
+            assertEquals("INSERT INTO test_entities (id, entity_name, code, description, active) VALUES (?, ?, ?, ?, ?)", sql);
+        }
+    }
+    
+    @Nested
+    @DisplayName("createMultiRowInsertSQL メソッドのテスト")
+    class CreateMultiRowInsertSQLTest {
+        @Test
+        @DisplayName("指定した行数分のVALUESを持つINSERT SQLを生成する")
+        void shouldCreateMultiRowInsertSQL() {
+            String sql = generator.createMultiRowInsertSQL(TestEntity.class, 2);
+            assertEquals("INSERT INTO test_entities (id, entity_name, code, description, active) VALUES (?, ?, ?, ?, ?), (?, ?, ?, ?, ?)", sql);
+        }
+        
+        @Test
+        @DisplayName("行数が0以下の場合は例外となる")
+        void shouldRejectNonPositiveRowCount() {
+            assertThrows(IllegalArgumentException.class, () -> generator.createMultiRowInsertSQL(TestEntity.class, 0));
         }
     }
     
@@ -58,7 +76,7 @@ public class MySQLSQLGeneratorTest {
         @DisplayName("正しいUPDATE SQLを生成する")
         void shouldCreateCorrectUpdateSQL() {
             String sql = generator.createUpdateSQL(TestEntity.class, "id");
-            assertEquals("UPDATE test_entities SET name = ?, code = ?, description = ?, active = ? WHERE id = ?", sql);
+            assertEquals("UPDATE test_entities SET entity_name = ?, code = ?, description = ?, active = ? WHERE id = ?", sql);
         }
     }
     
@@ -2,6 +2,7 @@ package com.iineineno03k.orm.sql;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.stream.Stream;
@@ -47,7 +48,24 @@ public class PostgresSQLGeneratorTest {
         @DisplayName("正しいINSERT SQLを生成する")
         void shouldCreateCorrectInsertSQL() {
             String sql = generator.createInsertSQL(TestEntity.class);
-            assertEquals("INSERT INTO test_entities (id, name, code, description, active) VALUES ($1, $2, $3, $4, $5)", sql);
+            assertEquals("INSERT INTO test_entities (id, entity_name, code, description, active) VALUES ($1, $2, $3, $4, $5)", sql);
+        }
+    }
+    
+    @Nested
+    @DisplayName("createMultiRowInsertSQL メソッドのテスト")
+    class CreateMultiRowInsertSQLTest {
+        @Test
+        @DisplayName("指定した行数分のVALUESを持つINSERT SQLを生成する")
+        void shouldCreateMultiRowInsertSQL() {
+            String sql = generator.createMultiRowInsertSQL(TestEntity.class, 2);
+            assertEquals("INSERT INTO test_entities (id, entity_name, code, description, active) VALUES ($1, $2, $3, $4, $5), ($6, $7, $8, $9, $10)", sql);
+        }
+        
+        @Test
+        @DisplayName("行数が0以下の場合は例外となる")
+        void shouldRejectNonPositiveRowCount() {
+            assertThrows(IllegalArgumentException.class, () -> generator.createMultiRowInsertSQL(TestEntity.class, 0));
         }
     }
     
@@ -61,7 +79,7 @@ public class PostgresSQLGeneratorTest {
             
             // PostgreSQLの場合、プレースホルダーは$1, $2...のようになる
             assertTrue(sql.startsWith("UPDATE test_entities SET"));
-            assertTrue(sql.contains("name = $1"));
+            assertTrue(sql.contains("entity_name = $1"));
             assertTrue(sql.contains("code = $2"));
             assertTrue(sql.contains("description = $3"));
             assertTrue(sql.contains("active = $4"));
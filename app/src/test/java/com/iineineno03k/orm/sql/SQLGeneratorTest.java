@@ -1,11 +1,20 @@
 package com.iineineno03k.orm.sql;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
+import com.iineineno03k.orm.metadata.EntityMetadata;
+import com.iineineno03k.orm.metadata.EntityMetadataRegistry;
+import com.iineineno03k.orm.metadata.FieldMetadata;
+import com.iineineno03k.orm.testentity.AccountEntity;
 import com.iineineno03k.orm.testentity.TestEntity;
 
 public class SQLGeneratorTest {
@@ -31,7 +40,7 @@ public class SQLGeneratorTest {
         String sql = sqlGenerator.createInsertSQL(TestEntity.class);
         
         // Assert
-        assertEquals("INSERT INTO test_entities (id, name, code, description, active) VALUES (?, ?, ?, ?, ?)", sql);
+        assertEquals("INSERT INTO test_entities (id, entity_name, code, description, active) VALUES (?, ?, ?, ?, ?)", sql);
     }
     
     @Test
@@ -99,4 +108,197 @@ public class SQLGeneratorTest {
         assertTrue(sql.contains("description"));
         assertTrue(sql.contains("active"));
     }
-} 
\ No newline at end of file
+    
+    @Test
+    void generatorsShouldCreateSameSQLFromMetadataAndEntityClass() {
+        // Arrange
+        EntityMetadata metadata = EntityMetadataRegistry.get(TestEntity.class);
+        
+        for (DatabaseType databaseType : DatabaseType.values()) {
+            SQLGenerator sqlGenerator = SQLGeneratorFactory.createGenerator(databaseType);
+            
+            // Act & Assert
+            assertEquals(sqlGenerator.createSelectSQL(TestEntity.class, "id"), sqlGenerator.createSelectSQL(metadata));
+            assertEquals(sqlGenerator.createInsertSQL(TestEntity.class), sqlGenerator.createInsertSQL(metadata));
+            assertEquals(sqlGenerator.createUpdateSQL(TestEntity.class, "id"), sqlGenerator.createUpdateSQL(metadata));
+            assertEquals(sqlGenerator.createDeleteSQL(TestEntity.class, "id"), sqlGenerator.createDeleteSQL(metadata));
+            assertEquals(sqlGenerator.createTableSQL(TestEntity.class), sqlGenerator.createTableSQL(metadata));
+            assertEquals(sqlGenerator.createSelectAllSQL(TestEntity.class), sqlGenerator.createSelectAllSQL(metadata));
+        }
+    }
+    
+    @Test
+    void insertSelectAllAndCreateTableShouldUseSameColumnNames() {
+        // Arrange
+        SQLGenerator sqlGenerator = SQLGeneratorFactory.createGenerator("MySQL");
+        
+        // Act
+        String insertSql = sqlGenerator.createInsertSQL(TestEntity.class);
+        String selectAllSql = sqlGenerator.createSelectAllSQL(TestEntity.class);
+        String createTableSql = sqlGenerator.createTableSQL(TestEntity.class);
+        
+        // Assert
+        assertTrue(insertSql.contains("(id, entity_name, code, description, active)"));
+        assertEquals("SELECT id, entity_name, code, description, active FROM test_entities", selectAllSql);
+        assertTrue(createTableSql.contains("entity_name VARCHAR(255) NOT NULL"));
+    }
+    
+    @Test
+    void generatorsShouldCreateUpdateSQLForSelectedColumns() {
+        // Arrange
+        EntityMetadata metadata = EntityMetadataRegistry.get(TestEntity.class);
+        List<FieldMetadata> columns = Arrays.asList(
+                metadata.getFieldMetadataMap().get("description"), metadata.getFieldMetadataMap().get("active"));
+        
+        // Act & Assert
+        assertEquals("UPDATE test_entities SET description = ?, active = ? WHERE id = ?",
+                SQLGeneratorFactory.createGenerator("MySQL").createUpdateSQL(metadata, columns));
+        assertEquals("UPDATE test_entities SET description = $1, active = $2 WHERE id = $3",
+                SQLGeneratorFactory.createGenerator("PostgreSQL").createUpdateSQL(metadata, columns));
+        assertEquals("UPDATE test_entities SET description = :1, active = :2 WHERE id = :3",
+                SQLGeneratorFactory.createGenerator("Oracle").createUpdateSQL(metadata, columns));
+        assertThrows(IllegalArgumentException.class,
+                () -> SQLGeneratorFactory.createGenerator("MySQL").createUpdateSQL(metadata, Arrays.asList(metadata.getIdField())));
+    }
+    
+    @Test
+    void generatorsShouldCreateVersionedUpdateSQL() {
+        // Arrange
+        EntityMetadata metadata = EntityMetadataRegistry.get(AccountEntity.class);
+        List<FieldMetadata> columns = Arrays.asList(metadata.getFieldMetadataMap().get("balance"));
+        
+        // Act & Assert
+        assertEquals("UPDATE accounts SET owner = ?, balance = ?, version = version + 1 WHERE id = ? AND version = ?",
+                SQLGeneratorFactory.createGenerator("MySQL").createUpdateSQL(metadata));
+        assertEquals("UPDATE accounts SET owner = $1, balance = $2, version = version + 1 WHERE id = $3 AND version = $4",
+                SQLGeneratorFactory.createGenerator("PostgreSQL").createUpdateSQL(metadata));
+        assertEquals("UPDATE accounts SET owner = :1, balance = :2, version = version + 1 WHERE id = :3 AND version = :4",
+                SQLGeneratorFactory.createGenerator("Oracle").createUpdateSQL(metadata));
+        assertEquals("UPDATE accounts SET balance = $1, version = version + 1 WHERE id = $2 AND version = $3",
+                SQLGeneratorFactory.createGenerator("PostgreSQL").createUpdateSQL(metadata, columns));
+        assertThrows(IllegalArgumentException.class, () -> SQLGeneratorFactory.createGenerator("MySQL")
+                .createUpdateSQL(metadata, Arrays.asList(metadata.getVersionField())));
+    }
+    
+    @Test
+    void generatorsShouldCreateQuerySQLWithDialectPagination() {
+        // Arrange
+        EntityMetadata metadata = EntityMetadataRegistry.get(TestEntity.class);
+        SelectStatement statement = new SelectStatement(Arrays.asList("id", "entity_name"),
+                "(active = ? AND entity_name LIKE ?)", Arrays.asList("id DESC"), true, true);
+        Object[] parameters = { true, "a%" };
+        
+        // Act & Assert
+        assertEquals("SELECT id, entity_name FROM test_entities WHERE (active = ? AND entity_name LIKE ?)"
+                + " ORDER BY id DESC LIMIT ? OFFSET ?",
+                SQLGeneratorFactory.createGenerator("MySQL").createQuerySQL(metadata, statement));
+        assertArrayEquals(new Object[] { true, "a%", 10, 20 },
+                SQLGeneratorFactory.createGenerator("MySQL").createQueryParameters(parameters, 10, 20));
+        assertEquals("SELECT id, entity_name FROM test_entities WHERE (active = $1 AND entity_name LIKE $2)"
+                + " ORDER BY id DESC LIMIT $3 OFFSET $4",
+                SQLGeneratorFactory.createGenerator("PostgreSQL").createQuerySQL(metadata, statement));
+        assertArrayEquals(new Object[] { true, "a%", 10, 20 },
+                SQLGeneratorFactory.createGenerator("PostgreSQL").createQueryParameters(parameters, 10, 20));
+        assertEquals("SELECT id, entity_name FROM test_entities WHERE (active = :1 AND entity_name LIKE :2)"
+                + " ORDER BY id DESC OFFSET :3 ROWS FETCH NEXT :4 ROWS ONLY",
+                SQLGeneratorFactory.createGenerator("Oracle").createQuerySQL(metadata, statement));
+        // OracleはOFFSET句が先にあるため、読み飛ばす件数を先にバインドする
+        assertArrayEquals(new Object[] { true, "a%", 20, 10 },
+                SQLGeneratorFactory.createGenerator("Oracle").createQueryParameters(parameters, 10, 20));
+    }
+    
+    @Test
+    void generatorsShouldCreateQuerySQLWithoutOptionalClauses() {
+        // Arrange
+        EntityMetadata metadata = EntityMetadataRegistry.get(TestEntity.class);
+        SelectStatement all = new SelectStatement(Arrays.asList(), null, Arrays.asList(), false, false);
+        SelectStatement offsetOnly = new SelectStatement(Arrays.asList(), null, Arrays.asList(), false, true);
+        
+        // Act & Assert
+        assertEquals("SELECT id, entity_name, code, description, active FROM test_entities",
+                SQLGeneratorFactory.createGenerator("PostgreSQL").createQuerySQL(metadata, all));
+        // MySQLはLIMITなしのOFFSETを受け付けない
+        assertTrue(SQLGeneratorFactory.createGenerator("MySQL").createQuerySQL(metadata, offsetOnly)
+                .endsWith(" LIMIT 18446744073709551615 OFFSET ?"));
+        assertArrayEquals(new Object[] { 5 }, SQLGeneratorFactory.createGenerator("MySQL")
+                .createQueryParameters(new Object[0], SelectStatement.NO_LIMIT, 5));
+        assertTrue(SQLGeneratorFactory.createGenerator("Oracle").createQuerySQL(metadata, offsetOnly)
+                .endsWith(" FROM test_entities OFFSET :1 ROWS"));
+        assertArrayEquals(new Object[0], SQLGeneratorFactory.createGenerator("PostgreSQL")
+                .createQueryParameters(new Object[0], SelectStatement.NO_LIMIT, 0));
+    }
+    
+    @Test
+    void generatorsShouldCreateDialectSpecificUpsertSQL() {
+        // Arrange
+        EntityMetadata metadata = EntityMetadataRegistry.get(TestEntity.class);
+        
+        // Act & Assert
+        assertEquals("INSERT INTO test_entities (id, entity_name, code, description, active) VALUES (?, ?, ?, ?, ?)"
+                + " ON DUPLICATE KEY UPDATE entity_name = VALUES(entity_name), code = VALUES(code),"
+                + " description = VALUES(description), active = VALUES(active)",
+                SQLGeneratorFactory.createGenerator("MySQL").createUpsertSQL(metadata));
+        assertEquals("INSERT INTO test_entities (id, entity_name, code, description, active) VALUES ($1, $2, $3, $4, $5)"
+                + " ON CONFLICT (id) DO UPDATE SET entity_name = EXCLUDED.entity_name, code = EXCLUDED.code,"
+                + " description = EXCLUDED.description, active = EXCLUDED.active",
+                SQLGeneratorFactory.createGenerator("PostgreSQL").createUpsertSQL(metadata));
+        assertEquals("MERGE INTO test_entities t USING (SELECT :1 AS id, :2 AS entity_name, :3 AS code,"
+                + " :4 AS description, :5 AS active FROM DUAL) s ON (t.id = s.id)"
+                + " WHEN MATCHED THEN UPDATE SET t.entity_name = s.entity_name, t.code = s.code,"
+                + " t.description = s.description, t.active = s.active"
+                + " WHEN NOT MATCHED THEN INSERT (id, entity_name, code, description, active)"
+                + " VALUES (s.id, s.entity_name, s.code, s.description, s.active)",
+                SQLGeneratorFactory.createGenerator("Oracle").createUpsertSQL(metadata));
+    }
+    
+    @Test
+    void generatorsShouldCreateDialectSpecificMultiRowUpsertSQL() {
+        // Arrange
+        EntityMetadata metadata = EntityMetadataRegistry.get(TestEntity.class);
+        
+        // Act & Assert
+        assertEquals("INSERT INTO test_entities (id, entity_name, code, description, active)"
+                + " VALUES (?, ?, ?, ?, ?), (?, ?, ?, ?, ?)"
+                + " ON DUPLICATE KEY UPDATE entity_name = VALUES(entity_name), code = VALUES(code),"
+                + " description = VALUES(description), active = VALUES(active)",
+                SQLGeneratorFactory.createGenerator("MySQL").createMultiRowUpsertSQL(metadata, 2));
+        assertEquals("INSERT INTO test_entities (id, entity_name, code, description, active)"
+                + " VALUES ($1, $2, $3, $4, $5), ($6, $7, $8, $9, $10)"
+                + " ON CONFLICT (id) DO UPDATE SET entity_name = EXCLUDED.entity_name, code = EXCLUDED.code,"
+                + " description = EXCLUDED.description, active = EXCLUDED.active",
+                SQLGeneratorFactory.createGenerator("PostgreSQL").createMultiRowUpsertSQL(metadata, 2));
+        assertEquals("MERGE INTO test_entities t USING (SELECT :1 AS id, :2 AS entity_name, :3 AS code,"
+                + " :4 AS description, :5 AS active FROM DUAL UNION ALL SELECT :6 AS id, :7 AS entity_name,"
+                + " :8 AS code, :9 AS description, :10 AS active FROM DUAL) s ON (t.id = s.id)"
+                + " WHEN MATCHED THEN UPDATE SET t.entity_name = s.entity_name, t.code = s.code,"
+                + " t.description = s.description, t.active = s.active"
+                + " WHEN NOT MATCHED THEN INSERT (id, entity_name, code, description, active)"
+                + " VALUES (s.id, s.entity_name, s.code, s.description, s.active)",
+                SQLGeneratorFactory.createGenerator("Oracle").createMultiRowUpsertSQL(metadata, 2));
+        assertEquals(SQLGeneratorFactory.createGenerator("Oracle").createUpsertSQL(metadata),
+                SQLGeneratorFactory.createGenerator("Oracle").createMultiRowUpsertSQL(metadata, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> SQLGeneratorFactory.createGenerator("MySQL").createMultiRowUpsertSQL(metadata, 0));
+    }
+    
+    @Test
+    void generatorsShouldCreateSelectByIdsSQL() {
+        // Arrange
+        EntityMetadata metadata = EntityMetadataRegistry.get(TestEntity.class);
+        String selectAll = "SELECT id, entity_name, code, description, active FROM test_entities";
+        
+        // Act & Assert
+        assertEquals(selectAll + " WHERE id IN (?, ?, ?)",
+                SQLGeneratorFactory.createGenerator("MySQL").createSelectByIdsSQL(metadata, 3));
+        assertEquals(selectAll + " WHERE id IN (:1, :2, :3)",
+                SQLGeneratorFactory.createGenerator("Oracle").createSelectByIdsSQL(metadata, 3));
+        // PostgreSQLは主キーの数によらず配列を1つバインドする
+        assertEquals(selectAll + " WHERE id = ANY($1)",
+                SQLGeneratorFactory.createGenerator("PostgreSQL").createSelectByIdsSQL(metadata, 3));
+        assertTrue(SQLGeneratorFactory.createGenerator("PostgreSQL").bindsIdsAsArray());
+        assertEquals(1000, SQLGeneratorFactory.createGenerator("Oracle").getMaxIdsPerQuery());
+        assertEquals(Integer.MAX_VALUE, SQLGeneratorFactory.createGenerator("MySQL").getMaxIdsPerQuery());
+        assertThrows(IllegalArgumentException.class,
+                () -> SQLGeneratorFactory.createGenerator("MySQL").createSelectByIdsSQL(metadata, 0));
+    }
+}
@@ -0,0 +1,63 @@
+package com.iineineno03k.orm.sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SQLTemplateのテストクラス
+ */
+@DisplayName("SQLTemplate のテスト")
+public class SQLTemplateTest {
+
+    @Test
+    @DisplayName("パラメータの位置にダイアレクトのプレースホルダーを描画する")
+    void shouldRenderPlaceholdersPerStyle() {
+        SQLTemplate template = SQLTemplate.compile("UPDATE t SET a = ?, b = ? WHERE id = ?");
+
+        assertEquals(3, template.getParameterCount());
+        assertEquals("UPDATE t SET a = ?, b = ? WHERE id = ?", template.render(PlaceholderStyle.QUESTION_MARK));
+        assertEquals("UPDATE t SET a = $1, b = $2 WHERE id = $3", template.render(PlaceholderStyle.DOLLAR));
+        assertEquals("UPDATE t SET a = :1, b = :2 WHERE id = :3", template.render(PlaceholderStyle.COLON));
+    }
+
+    @Test
+    @DisplayName("パラメータのない雛形はそのまま描画する")
+    void shouldRenderTemplateWithoutParameters() {
+        SQLTemplate template = SQLTemplate.compile("SELECT id FROM t");
+
+        assertEquals(0, template.getParameterCount());
+        assertEquals("SELECT id FROM t", template.render(PlaceholderStyle.DOLLAR));
+    }
+
+    @Test
+    @DisplayName("複数桁のパラメータ番号を正しく描画する")
+    void shouldRenderMultiDigitIndexes() {
+        SQLTemplate template = SQLTemplate.parameters(12);
+
+        assertEquals("$1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12", template.render(PlaceholderStyle.DOLLAR));
+        assertEquals("", SQLTemplate.parameters(0).render(PlaceholderStyle.COLON));
+    }
+
+    @Test
+    @DisplayName("行を繰り返す場合はパラメータ番号を行をまたいで連番にする")
+    void shouldNumberParametersAcrossRows() {
+        SQLTemplate row = SQLTemplate.compile("(?, ?)");
+
+        assertEquals("INSERT INTO t (a, b) VALUES ($1, $2), ($3, $4), ($5, $6)",
+                row.renderRows(PlaceholderStyle.DOLLAR, "INSERT INTO t (a, b) VALUES ", 3, ", ", ""));
+        assertEquals("BEGIN (?, ?)(?, ?) END",
+                row.renderRows(PlaceholderStyle.QUESTION_MARK, "BEGIN ", 2, "", " END"));
+    }
+
+    @Test
+    @DisplayName("行数が0以下の場合は例外を投げる")
+    void shouldRejectNonPositiveRowCount() {
+        SQLTemplate row = SQLTemplate.compile("(?)");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> row.renderRows(PlaceholderStyle.QUESTION_MARK, "", 0, ", ", ""));
+    }
+}
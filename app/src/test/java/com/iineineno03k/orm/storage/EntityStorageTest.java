@@ -0,0 +1,172 @@
+package com.iineineno03k.orm.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iineineno03k.orm.testentity.ProductEntity;
+import com.iineineno03k.orm.testentity.TestEntity;
+
+/**
+ * EntityStorageのテストクラス
+ */
+@DisplayName("EntityStorage のテスト")
+public class EntityStorageTest {
+    private EntityStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new EntityStorage();
+    }
+
+    @Test
+    @DisplayName("エンティティクラスごとに保存と取得ができる")
+    void shouldStoreEntitiesPerClass() {
+        TestEntity testEntity = new TestEntity();
+        ProductEntity productEntity = new ProductEntity();
+
+        storage.put(TestEntity.class, 1L, testEntity);
+        storage.put(ProductEntity.class, 1L, productEntity);
+
+        assertSame(testEntity, storage.get(TestEntity.class, 1L));
+        assertSame(productEntity, storage.get(ProductEntity.class, 1L));
+        assertNull(storage.get(TestEntity.class, 2L));
+        assertEquals(1, storage.findAll(TestEntity.class).size());
+        assertTrue(storage.findAll(String.class).isEmpty());
+    }
+
+    @Test
+    @DisplayName("同じ主キーで保存すると置き換えられる")
+    void shouldReplaceEntityWithSameId() {
+        TestEntity first = new TestEntity();
+        TestEntity second = new TestEntity();
+
+        storage.put(TestEntity.class, 1L, first);
+        storage.put(TestEntity.class, 1L, second);
+
+        assertSame(second, storage.get(TestEntity.class, 1L));
+        assertEquals(1, storage.size(TestEntity.class));
+    }
+
+    @Test
+    @DisplayName("保存済みのエンティティが期待どおりの場合だけ置き換えられる")
+    void shouldReplaceOnlyExpectedEntity() {
+        TestEntity first = new TestEntity();
+        TestEntity second = new TestEntity();
+
+        assertTrue(storage.replace(TestEntity.class, 1L, null, first));
+        assertFalse(storage.replace(TestEntity.class, 1L, null, second));
+        assertFalse(storage.replace(TestEntity.class, 1L, second, second));
+        assertTrue(storage.replace(TestEntity.class, 1L, first, second));
+
+        assertSame(second, storage.get(TestEntity.class, 1L));
+    }
+
+    @Test
+    @DisplayName("nullのエンティティは保存できない")
+    void shouldRejectNullEntity() {
+        assertThrows(IllegalArgumentException.class, () -> storage.put(TestEntity.class, 1L, null));
+    }
+
+    @Test
+    @DisplayName("エンティティを削除できる")
+    void shouldRemoveEntity() {
+        storage.put(TestEntity.class, Long.MAX_VALUE, new TestEntity());
+
+        assertTrue(storage.remove(TestEntity.class, Long.MAX_VALUE));
+        assertNull(storage.get(TestEntity.class, Long.MAX_VALUE));
+        assertEquals(0, storage.size(TestEntity.class));
+    }
+
+    @Test
+    @DisplayName("ストレージ同士は独立している")
+    void shouldBeIsolatedBetweenInstances() {
+        storage.put(TestEntity.class, 1L, new TestEntity());
+
+        assertNull(new EntityStorage().get(TestEntity.class, 1L));
+    }
+
+    @Test
+    @DisplayName("複数スレッドから同時に保存してもエントリが失われない")
+    void shouldNotLoseEntriesUnderConcurrentWrites() throws Exception {
+        int threads = 8;
+        int perThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long offset = (long) t * perThread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (long id = offset; id < offset + perThread; id++) {
+                        storage.put(TestEntity.class, id, new TestEntity());
+                        storage.findAll(TestEntity.class);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, storage.size(TestEntity.class));
+        assertEquals(threads * perThread, storage.findAll(TestEntity.class).size());
+    }
+
+    @Test
+    @DisplayName("書き込み中でも保存済みのエンティティは必ず取得できる")
+    void shouldReadPublishedEntitiesDuringWrites() throws Exception {
+        int count = 20_000;
+        AtomicLong published = new AtomicLong(-1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (long id = 0; id < count; id++) {
+                    storage.put(TestEntity.class, id, new TestEntity());
+                    published.set(id);
+                }
+            });
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    while (published.get() < count - 1) {
+                        long id = published.get();
+                        if (id >= 0 && storage.get(TestEntity.class, id) == null) {
+                            throw new AssertionError("Entity " + id + " was not visible");
+                        }
+                    }
+                    return null;
+                }));
+            }
+            writer.get(30, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(count, storage.size(TestEntity.class));
+    }
+}
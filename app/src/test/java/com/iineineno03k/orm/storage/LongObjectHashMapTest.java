@@ -0,0 +1,129 @@
+package com.iineineno03k.orm.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * LongObjectHashMapのテストクラス
+ */
+@DisplayName("LongObjectHashMap のテスト")
+public class LongObjectHashMapTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {0L, 1L, -1L, 128L, Long.MIN_VALUE, Long.MAX_VALUE})
+    @DisplayName("境界値のキーを格納して取得できる")
+    void shouldStoreBoundaryKeys(long key) {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+
+        assertNull(map.put(key, "value"));
+
+        assertEquals("value", map.get(key));
+        assertTrue(map.containsKey(key));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    @DisplayName("同じキーで格納すると以前の値を返して置き換える")
+    void shouldReplaceExistingValue() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        map.put(42L, "first");
+
+        assertEquals("first", map.put(42L, "second"));
+        assertEquals("second", map.get(42L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    @DisplayName("nullの値は格納できない")
+    void shouldRejectNullValue() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(1L, null));
+    }
+
+    @Test
+    @DisplayName("リサイズ後もすべての値を取得できる")
+    void shouldKeepEntriesAcrossResize() {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>(2);
+        for (long i = 0; i < 10_000; i++) {
+            map.put(i * 31, i);
+        }
+
+        assertEquals(10_000, map.size());
+        for (long i = 0; i < 10_000; i++) {
+            assertEquals(i, map.get(i * 31));
+        }
+        assertNull(map.get(-31L));
+    }
+
+    @Test
+    @DisplayName("削除しても同じ探索経路上の他のキーを取得できる")
+    void shouldFindCollidingKeysAfterRemove() {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        for (long i = 0; i < 8; i++) {
+            map.put(i, i);
+        }
+
+        assertEquals(3L, map.remove(3L));
+        assertNull(map.remove(3L));
+
+        assertFalse(map.containsKey(3L));
+        for (long i = 0; i < 8; i++) {
+            if (i != 3L) {
+                assertEquals(i, map.get(i));
+            }
+        }
+        assertEquals(7, map.size());
+    }
+
+    @Test
+    @DisplayName("ランダムな操作でHashMapと同じ結果になる")
+    void shouldBehaveLikeHashMap() {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(12345L);
+
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(2_000) - 1_000L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        Set<Long> values = new HashSet<>();
+        map.forEachValue(values::add);
+        assertEquals(new HashSet<>(expected.values()), values);
+    }
+
+    @Test
+    @DisplayName("clearで空になる")
+    void shouldClear() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        map.put(1L, "value");
+
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1L));
+    }
+}
@@ -0,0 +1,62 @@
+package com.iineineno03k.orm.testentity;
+
+import com.iineineno03k.orm.annotation.*;
+
+/**
+ * @Versionで楽観的ロックを行う口座のエンティティ
+ */
+@Entity
+@Table(name = "accounts")
+public class AccountEntity {
+    @Id
+    private Long id;
+
+    private String owner;
+
+    private Long balance;
+
+    @Version
+    private Long version;
+
+    public AccountEntity() {
+    }
+
+    public AccountEntity(Long id, String owner, Long balance) {
+        this.id = id;
+        this.owner = owner;
+        this.balance = balance;
+    }
+
+    // Getter, Setter
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Long getBalance() {
+        return balance;
+    }
+
+    public void setBalance(Long balance) {
+        this.balance = balance;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,55 @@
+package com.iineineno03k.orm.testentity;
+
+import java.util.Date;
+
+import com.iineineno03k.orm.annotation.*;
+
+/**
+ * 変更可能なカラム値を持つ、二次キャッシュの対象のエンティティ
+ */
+@Entity
+@Table(name = "attachments")
+@Cacheable
+public class AttachmentEntity {
+    @Id
+    private Long id;
+
+    @Column(name = "updated_at")
+    private Date updatedAt;
+
+    private byte[] content;
+
+    public AttachmentEntity() {
+    }
+
+    public AttachmentEntity(Long id, Date updatedAt, byte[] content) {
+        this.id = id;
+        this.updatedAt = updatedAt;
+        this.content = content;
+    }
+
+    // Getter, Setter
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public void setContent(byte[] content) {
+        this.content = content;
+    }
+}
@@ -0,0 +1,53 @@
+package com.iineineno03k.orm.testentity;
+
+import java.util.List;
+
+import com.iineineno03k.orm.annotation.*;
+
+/**
+ * @OneToManyで書籍を参照する著者のエンティティ
+ */
+@Entity
+@Table(name = "authors")
+public class AuthorEntity {
+    @Id
+    private Long id;
+
+    private String name;
+
+    @OneToMany(mappedBy = "author")
+    private List<BookEntity> books;
+
+    public AuthorEntity() {
+    }
+
+    public AuthorEntity(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    // Getter, Setter
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<BookEntity> getBooks() {
+        return books;
+    }
+
+    public void setBooks(List<BookEntity> books) {
+        this.books = books;
+    }
+}
@@ -0,0 +1,64 @@
+package com.iineineno03k.orm.testentity;
+
+import com.iineineno03k.orm.annotation.*;
+import com.iineineno03k.orm.relation.LazyReference;
+
+/**
+ * 外部キーで著者を参照する書籍のエンティティ
+ */
+@Entity
+@Table(name = "books")
+public class BookEntity {
+    @Id
+    private Long id;
+
+    private String title;
+
+    @Column(name = "author_id")
+    private Long authorId;
+
+    @ManyToOne(joinField = "authorId")
+    private LazyReference<AuthorEntity> author;
+
+    public BookEntity() {
+    }
+
+    public BookEntity(Long id, String title, Long authorId) {
+        this.id = id;
+        this.title = title;
+        this.authorId = authorId;
+    }
+
+    // Getter, Setter
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public Long getAuthorId() {
+        return authorId;
+    }
+
+    public void setAuthorId(Long authorId) {
+        this.authorId = authorId;
+    }
+
+    public LazyReference<AuthorEntity> getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(LazyReference<AuthorEntity> author) {
+        this.author = author;
+    }
+}
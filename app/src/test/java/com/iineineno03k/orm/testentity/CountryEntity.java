@@ -0,0 +1,55 @@
+package com.iineineno03k.orm.testentity;
+
+import com.iineineno03k.orm.annotation.*;
+import com.iineineno03k.orm.cache.EvictionPolicy;
+
+/**
+ * 二次キャッシュの対象となる参照用のエンティティ
+ */
+@Entity
+@Table(name = "countries")
+@Cacheable(maxSize = 2, eviction = EvictionPolicy.LRU)
+public class CountryEntity {
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(name = "iso_code")
+    private String isoCode;
+
+    public CountryEntity() {
+    }
+
+    public CountryEntity(Long id, String name, String isoCode) {
+        this.id = id;
+        this.name = name;
+        this.isoCode = isoCode;
+    }
+
+    // Getter, Setter
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getIsoCode() {
+        return isoCode;
+    }
+
+    public void setIsoCode(String isoCode) {
+        this.isoCode = isoCode;
+    }
+}
@@ -0,0 +1,487 @@
+package com.iineineno03k.orm.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * @Entityが付与されたクラスに対して、コンパイル時にメタデータクラスを生成するアノテーションプロセッサ
+ * 
+ * 生成クラスはcom.iineineno03k.orm.metadata.GeneratedEntityMetadataを実装し、
+ * フィールドの読み書き、PreparedStatementへのバインド、ResultSetからの変換をリフレクションなしで行う。
+ * アクセサや引数なしコンストラクタがないなど生成できないクラスは読み飛ばし、実行時のリフレクションに任せる。
+ */
+@SupportedAnnotationTypes(EntityAnnotationProcessor.ENTITY)
+public class EntityAnnotationProcessor extends AbstractProcessor {
+    static final String ENTITY = "com.iineineno03k.orm.annotation.Entity";
+    static final String TABLE = "com.iineineno03k.orm.annotation.Table";
+    static final String ID = "com.iineineno03k.orm.annotation.Id";
+    static final String COLUMN = "com.iineineno03k.orm.annotation.Column";
+    static final String MANY_TO_ONE = "com.iineineno03k.orm.annotation.ManyToOne";
+    static final String ONE_TO_MANY = "com.iineineno03k.orm.annotation.OneToMany";
+    static final String SUFFIX = "_Metadata";
+
+    private Elements elements;
+    private Types types;
+    private Messager messager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement entityAnnotation = elements.getTypeElement(ENTITY);
+        if (entityAnnotation == null) {
+            return false;
+        }
+
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(entityAnnotation))) {
+            EntityModel model = buildModel(type);
+            if (model != null) {
+                writeSource(model);
+            }
+        }
+        return false;
+    }
+
+    private EntityModel buildModel(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return skip(type, "not a concrete class");
+        }
+        NestingKind nesting = type.getNestingKind();
+        if (nesting != NestingKind.TOP_LEVEL
+                && !(nesting == NestingKind.MEMBER && type.getModifiers().contains(Modifier.STATIC))) {
+            return skip(type, "only top-level or static nested classes are supported");
+        }
+        if (type.getModifiers().contains(Modifier.PRIVATE) || !hasAccessibleNoArgConstructor(type)) {
+            return skip(type, "an accessible no-arg constructor is required");
+        }
+
+        EntityModel model = new EntityModel();
+        model.type = type;
+        model.packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        model.generatedSimpleName = flatName(type) + SUFFIX;
+        model.entityTypeName = type.getQualifiedName().toString();
+        model.tableName = resolveTableName(type);
+
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            // 関連のフィールドはカラムではないため、実行時にEntityMetadataが扱う
+            if (hasAnnotation(field, MANY_TO_ONE) || hasAnnotation(field, ONE_TO_MANY)) {
+                continue;
+            }
+            if (field.getModifiers().contains(Modifier.FINAL)) {
+                return skip(type, "field '" + field.getSimpleName() + "' is final");
+            }
+            FieldModel fieldModel = buildField(type, field);
+            if (fieldModel == null) {
+                return skip(type, "field '" + field.getSimpleName() + "' has no accessible getter/setter");
+            }
+            if (model.idIndex < 0 && hasAnnotation(field, ID)) {
+                model.idIndex = model.fields.size();
+            }
+            model.fields.add(fieldModel);
+        }
+
+        if (model.idIndex < 0) {
+            return skip(type, "no @Id field");
+        }
+        return model;
+    }
+
+    private FieldModel buildField(TypeElement type, VariableElement field) {
+        FieldModel model = new FieldModel();
+        model.name = field.getSimpleName().toString();
+        model.columnName = resolveColumnName(field);
+
+        TypeMirror fieldType = field.asType();
+        model.primitive = fieldType.getKind().isPrimitive();
+        model.typeName = types.erasure(fieldType).toString();
+        // 型引数を持つ型は消去した型へのキャストが無検査変換になる
+        model.generic = !types.isSameType(fieldType, types.erasure(fieldType));
+        model.boxedTypeName = model.primitive
+                ? types.boxedClass(types.getPrimitiveType(fieldType.getKind())).getQualifiedName().toString()
+                : model.typeName;
+
+        if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+            model.getter = "entity." + model.name;
+            model.setterPrefix = "entity." + model.name + " = ";
+            model.setterSuffix = "";
+            return model;
+        }
+
+        String capitalized = model.name.substring(0, 1).toUpperCase(Locale.ROOT) + model.name.substring(1);
+        String getter = findGetter(type, fieldType, "get" + capitalized);
+        if (getter == null && fieldType.getKind() == TypeKind.BOOLEAN) {
+            getter = findGetter(type, fieldType, "is" + capitalized);
+        }
+        String setter = findSetter(type, fieldType, "set" + capitalized);
+        if (getter == null || setter == null) {
+            return null;
+        }
+        model.getter = "entity." + getter + "()";
+        model.setterPrefix = "entity." + setter + "(";
+        model.setterSuffix = ")";
+        return model;
+    }
+
+    private String findGetter(TypeElement type, TypeMirror fieldType, String name) {
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(name)
+                    && method.getParameters().isEmpty()
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && !method.getModifiers().contains(Modifier.STATIC)
+                    && types.isSameType(method.getReturnType(), fieldType)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    private String findSetter(TypeElement type, TypeMirror fieldType, String name) {
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(name)
+                    && method.getParameters().size() == 1
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && !method.getModifiers().contains(Modifier.STATIC)
+                    && types.isSameType(method.getParameters().get(0).asType(), fieldType)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasAccessibleNoArgConstructor(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String resolveTableName(TypeElement type) {
+        String name = annotationString(type, TABLE, "name");
+        if (name != null && !name.isEmpty()) {
+            return name;
+        }
+        // EntityMetadataと同じく、クラス名をスネークケースに変換する
+        return camelToSnake(type.getSimpleName().toString());
+    }
+
+    private String resolveColumnName(VariableElement field) {
+        String name = annotationString(field, COLUMN, "name");
+        if (name != null && !name.isEmpty()) {
+            return name;
+        }
+        // 実行時のEntityMetadataと同じく、既定のカラム名はフィールド名のスネークケースとする
+        return camelToSnake(field.getSimpleName().toString());
+    }
+
+    private boolean hasAnnotation(Element element, String annotationType) {
+        return findAnnotation(element, annotationType) != null;
+    }
+
+    private AnnotationMirror findAnnotation(Element element, String annotationType) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotation.getQualifiedName().contentEquals(annotationType)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private String annotationString(Element element, String annotationType, String attribute) {
+        AnnotationMirror mirror = findAnnotation(element, annotationType);
+        if (mirror == null) {
+            return null;
+        }
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(attribute)) {
+                AnnotationValue value = entry.getValue();
+                return String.valueOf(value.getValue());
+            }
+        }
+        return "";
+    }
+
+    private String flatName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing instanceof TypeElement) {
+            name.insert(0, '_').insert(0, enclosing.getSimpleName());
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name.toString();
+    }
+
+    private static String camelToSnake(String name) {
+        StringBuilder result = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (i > 0 && Character.isUpperCase(c) && Character.isLowerCase(name.charAt(i - 1))) {
+                result.append('_');
+            }
+            result.append(Character.toLowerCase(c));
+        }
+        return result.toString();
+    }
+
+    private EntityModel skip(TypeElement type, String reason) {
+        messager.printMessage(Diagnostic.Kind.NOTE,
+                "Skipping metadata generation for " + type.getQualifiedName() + ": " + reason, type);
+        return null;
+    }
+
+    private void writeSource(EntityModel model) {
+        String qualifiedName = model.packageName.isEmpty()
+                ? model.generatedSimpleName
+                : model.packageName + "." + model.generatedSimpleName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, model.type).openWriter()) {
+            writer.write(new SourceWriter(model).render());
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write " + qualifiedName + ": " + e.getMessage(), model.type);
+        }
+    }
+
+    static final class EntityModel {
+        TypeElement type;
+        String packageName;
+        String generatedSimpleName;
+        String entityTypeName;
+        String tableName;
+        int idIndex = -1;
+        final List<FieldModel> fields = new ArrayList<>();
+    }
+
+    static final class FieldModel {
+        String name;
+        String columnName;
+        String typeName;
+        String boxedTypeName;
+        boolean primitive;
+        boolean generic;
+        String getter;
+        String setterPrefix;
+        String setterSuffix;
+    }
+
+    /**
+     * 生成クラスのソースコードを組み立てる
+     */
+    static final class SourceWriter {
+        private final EntityModel model;
+        private final StringBuilder out = new StringBuilder(4096);
+
+        SourceWriter(EntityModel model) {
+            this.model = model;
+        }
+
+        String render() {
+            String entity = model.entityTypeName;
+            List<FieldModel> fields = model.fields;
+
+            if (!model.packageName.isEmpty()) {
+                line("package " + model.packageName + ";");
+                line("");
+            }
+            line("@javax.annotation.processing.Generated(\"" + EntityAnnotationProcessor.class.getName() + "\")");
+            line("public final class " + model.generatedSimpleName
+                    + " implements com.iineineno03k.orm.metadata.GeneratedEntityMetadata<" + entity + "> {");
+            line("    private static final String[] FIELD_NAMES = {" + joinQuoted(fields, true) + "};");
+            line("    private static final String[] COLUMN_NAMES = {" + joinQuoted(fields, false) + "};");
+            StringBuilder typeList = new StringBuilder();
+            for (FieldModel field : fields) {
+                if (typeList.length() > 0) {
+                    typeList.append(", ");
+                }
+                typeList.append(field.typeName).append(".class");
+            }
+            line("    private static final Class<?>[] FIELD_TYPES = {" + typeList + "};");
+            line("");
+            line("    public " + model.generatedSimpleName + "() {");
+            line("    }");
+            line("");
+            line("    @Override");
+            line("    public Class<" + entity + "> getEntityClass() {");
+            line("        return " + entity + ".class;");
+            line("    }");
+            line("");
+            line("    @Override");
+            line("    public String getTableName() {");
+            line("        return \"" + escape(model.tableName) + "\";");
+            line("    }");
+            line("");
+            line("    @Override");
+            line("    public String[] getFieldNames() {");
+            line("        return FIELD_NAMES.clone();");
+            line("    }");
+            line("");
+            line("    @Override");
+            line("    public String[] getColumnNames() {");
+            line("        return COLUMN_NAMES.clone();");
+            line("    }");
+            line("");
+            line("    @Override");
+            line("    public Class<?>[] getFieldTypes() {");
+            line("        return FIELD_TYPES.clone();");
+            line("    }");
+            line("");
+            line("    @Override");
+            line("    public int getIdIndex() {");
+            line("        return " + model.idIndex + ";");
+            line("    }");
+            line("");
+            line("    @Override");
+            line("    public " + entity + " newInstance() {");
+            line("        return new " + entity + "();");
+            line("    }");
+            line("");
+            line("    @Override");
+            line("    public Object get(" + entity + " entity, int index) {");
+            line("        switch (index) {");
+            for (int i = 0; i < fields.size(); i++) {
+                line("            case " + i + ":");
+                line("                return " + fields.get(i).getter + ";");
+            }
+            line("            default:");
+            line("                throw new IndexOutOfBoundsException(\"Field index: \" + index);");
+            line("        }");
+            line("    }");
+            line("");
+            line("    @Override");
+            suppressUncheckedIfGeneric();
+            line("    public void set(" + entity + " entity, int index, Object value) {");
+            line("        switch (index) {");
+            for (int i = 0; i < fields.size(); i++) {
+                FieldModel field = fields.get(i);
+                line("            case " + i + ":");
+                if (field.primitive) {
+                    line("                if (value != null) {");
+                    line("                    " + field.setterPrefix + "(" + field.boxedTypeName + ") value" + field.setterSuffix + ";");
+                    line("                }");
+                } else {
+                    line("                " + field.setterPrefix + "(" + field.typeName + ") value" + field.setterSuffix + ";");
+                }
+                line("                return;");
+            }
+            line("            default:");
+            line("                throw new IndexOutOfBoundsException(\"Field index: \" + index);");
+            line("        }");
+            line("    }");
+            line("");
+            line("    @Override");
+            line("    public Object[] extract(" + entity + " entity) {");
+            line("        return new Object[] {");
+            for (int i = 0; i < fields.size(); i++) {
+                line("            " + fields.get(i).getter + (i < fields.size() - 1 ? "," : ""));
+            }
+            line("        };");
+            line("    }");
+            line("");
+            line("    @Override");
+            line("    public void bind(java.sql.PreparedStatement statement, int firstIndex, " + entity
+                    + " entity) throws java.sql.SQLException {");
+            for (int i = 0; i < fields.size(); i++) {
+                line("        com.iineineno03k.orm.jdbc.JdbcSupport.bind(statement, firstIndex" + (i > 0 ? " + " + i : "")
+                        + ", " + fields.get(i).getter + ", " + fields.get(i).typeName + ".class);");
+            }
+            line("    }");
+            line("");
+            line("    @Override");
+            suppressUncheckedIfGeneric();
+            line("    public " + entity + " read(java.sql.ResultSet resultSet) throws java.sql.SQLException {");
+            line("        " + entity + " entity = new " + entity + "();");
+            for (int i = 0; i < fields.size(); i++) {
+                FieldModel field = fields.get(i);
+                String read = "com.iineineno03k.orm.jdbc.JdbcSupport.read(resultSet, " + (i + 1) + ", "
+                        + field.typeName + ".class)";
+                if (field.primitive) {
+                    line("        Object value" + i + " = " + read + ";");
+                    line("        if (value" + i + " != null) {");
+                    line("            " + field.setterPrefix + "(" + field.boxedTypeName + ") value" + i
+                            + field.setterSuffix + ";");
+                    line("        }");
+                } else {
+                    line("        " + field.setterPrefix + "(" + field.typeName + ") " + read + field.setterSuffix + ";");
+                }
+            }
+            line("        return entity;");
+            line("    }");
+            line("}");
+            return out.toString();
+        }
+
+        /**
+         * 型引数を持つフィールドがある場合だけ、キャストする生成メソッドに@SuppressWarningsを付ける
+         */
+        private void suppressUncheckedIfGeneric() {
+            for (FieldModel field : model.fields) {
+                if (field.generic) {
+                    line("    @SuppressWarnings(\"unchecked\")");
+                    return;
+                }
+            }
+        }
+
+        private void line(String text) {
+            out.append(text).append('\n');
+        }
+
+        private static String joinQuoted(List<FieldModel> fields, boolean fieldNames) {
+            StringBuilder joined = new StringBuilder();
+            for (FieldModel field : fields) {
+                if (joined.length() > 0) {
+                    joined.append(", ");
+                }
+                joined.append('"').append(escape(fieldNames ? field.name : field.columnName)).append('"');
+            }
+            return joined.toString();
+        }
+
+        private static String escape(String value) {
+            return value.replace("\\", "\\\\").replace("\"", "\\\"");
+        }
+    }
+}